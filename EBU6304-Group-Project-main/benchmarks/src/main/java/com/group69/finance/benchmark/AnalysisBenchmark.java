@@ -0,0 +1,90 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.analysis.LedgerAggregates;
+import com.group69.finance.analysis.RecurringDetector;
+import com.group69.finance.analysis.SpendingSketches;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerSnapshot;
+import com.group69.finance.service.AnalysisService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AnalysisService#getAIAnalysis()} over a repository holding the given number of transactions:
+ * from scratch (aggregates built from the ledger, as on the first visit to the analysis view), after a
+ * single edit (the incremental path), and with nothing changed (the cached result).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class AnalysisBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private FinanceDataRepository repository;
+    private AnalysisService analysisService;
+    private final FinanceMetrics metrics = FinanceMetrics.standalone();
+    private final SplittableRandom random = new SplittableRandom(BenchmarkData.DEFAULT_SEED);
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        repository = new FinanceDataRepository(
+                new BenchmarkData.InMemoryPersistenceService(BenchmarkData.transactions(rows)), "unused.json");
+        repository.loadInitialData();
+        analysisService = new AnalysisService(new LedgerAggregates(repository), new RecurringDetector(repository),
+                new SpendingSketches(repository), metrics);
+        analysisService.getAIAnalysis();
+    }
+
+    @Benchmark
+    public Map<String, Object> getAIAnalysis() {
+        LedgerAggregates aggregates = new LedgerAggregates(repository);
+        RecurringDetector recurringDetector = new RecurringDetector(repository);
+        SpendingSketches spendingSketches = new SpendingSketches(repository);
+        try {
+            return new AnalysisService(aggregates, recurringDetector, spendingSketches, metrics).getAIAnalysis();
+        } finally {
+            aggregates.close();
+            recurringDetector.close();
+            spendingSketches.close();
+        }
+    }
+
+    /** One row's amount changes, then the analysis is asked for again. */
+    @Benchmark
+    public Map<String, Object> afterEdit() {
+        LedgerSnapshot ledger = repository.snapshot();
+        String id = ledger.get(random.nextInt(ledger.size())).getId();
+        repository.modifyTransaction(id, t -> {
+            Transaction edited = t.copy();
+            edited.setAmount(t.getAmount() - 0.01);
+            return edited;
+        });
+        return analysisService.getAIAnalysis();
+    }
+
+    @Benchmark
+    public Map<String, Object> cached() {
+        return analysisService.getAIAnalysis();
+    }
+}
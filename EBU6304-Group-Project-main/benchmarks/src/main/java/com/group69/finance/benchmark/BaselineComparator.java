@@ -0,0 +1,121 @@
+package com.group69.finance.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diffs two JMH JSON reports, e.g. the checked-in baseline against a fresh run:
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.BaselineComparator baseline/jmh-baseline.json jmh-result.json [--threshold=0.10]</pre>
+ * Prints the primary score and the normalized allocation rate of every benchmark/parameter
+ * combination present in both files, with the relative change. Exits with status 1 if any score got
+ * worse (slower, or lower throughput) by more than the threshold and by more than the two runs'
+ * error margins together, so noise alone does not fail a run.
+ */
+public final class BaselineComparator {
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final double DEFAULT_THRESHOLD = 0.10;
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        double threshold = DEFAULT_THRESHOLD;
+        for (String arg : args) {
+            if (arg.startsWith("--threshold=")) {
+                threshold = Double.parseDouble(arg.substring("--threshold=".length()));
+            } else {
+                files.add(arg);
+            }
+        }
+        if (files.size() != 2 || files.stream().anyMatch(file -> file.startsWith("--"))) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [--threshold=<fraction>]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = index(files.get(0));
+        Map<String, JsonNode> current = index(files.get(1));
+        List<String> regressed = new ArrayList<>();
+
+        System.out.printf("%-70s %14s %14s %9s %12s%n", "Benchmark", "Baseline", "Current", "Change", "Alloc Δ");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s%n", entry.getKey(), "(new)");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = after.path("primaryMetric").path("score").asDouble();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            boolean regression = isRegression(before, after, threshold);
+            if (regression) {
+                regressed.add(entry.getKey());
+            }
+            System.out.printf("%-70s %14.3f %14.3f %8.1f%% %12s  %s%s%n",
+                    entry.getKey(), oldScore, newScore, percent(oldScore, newScore),
+                    allocationChange(before, after), unit, regression ? "  REGRESSION" : "");
+        }
+
+        if (regressed.isEmpty()) {
+            System.out.printf("%nNo score regressed by more than %.0f%%.%n", threshold * 100);
+        } else {
+            System.out.printf("%n%d of %d scores regressed by more than %.0f%%:%n", regressed.size(), current.size(),
+                    threshold * 100);
+            regressed.forEach(key -> System.out.println("  " + key));
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Worse by more than {@code threshold} and by more than both error margins: higher is worse for
+     * time per operation, lower for throughput ({@code thrpt}). A NaN margin (a single iteration) counts as 0.
+     */
+    private static boolean isRegression(JsonNode before, JsonNode after, double threshold) {
+        double oldScore = before.path("primaryMetric").path("score").asDouble();
+        double newScore = after.path("primaryMetric").path("score").asDouble();
+        double worse = "thrpt".equals(after.path("mode").asText()) ? oldScore - newScore : newScore - oldScore;
+        return worse > Math.abs(oldScore) * threshold && worse > error(before) + error(after);
+    }
+
+    private static double error(JsonNode run) {
+        double error = run.path("primaryMetric").path("scoreError").asDouble(0);
+        return Double.isFinite(error) ? error : 0;
+    }
+
+    private static Map<String, JsonNode> index(String file) throws IOException {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(new File(file))) {
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText()
+                    .replace("com.group69.finance.benchmark.", ""));
+            Iterator<Map.Entry<String, JsonNode>> params = run.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            byKey.put(key.toString(), run);
+        }
+        return byKey;
+    }
+
+    private static String allocationChange(JsonNode before, JsonNode after) {
+        JsonNode oldAlloc = before.path("secondaryMetrics").path(ALLOC_METRIC).path("score");
+        JsonNode newAlloc = after.path("secondaryMetrics").path(ALLOC_METRIC).path("score");
+        if (oldAlloc.isMissingNode() || newAlloc.isMissingNode()) {
+            return "n/a";
+        }
+        return String.format("%.1f%%", percent(oldAlloc.asDouble(), newAlloc.asDouble()));
+    }
+
+    private static double percent(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+}
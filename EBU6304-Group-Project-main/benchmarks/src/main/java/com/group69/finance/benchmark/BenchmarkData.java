@@ -0,0 +1,58 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.generator.SyntheticLedgerGenerator;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.PersistenceService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared fixtures for the benchmarks: deterministic ledgers from {@link SyntheticLedgerGenerator},
+ * CSV files in the import format and an in-memory {@link PersistenceService} so repository-backed
+ * services can be benchmarked without touching the disk.
+ */
+public final class BenchmarkData {
+
+    public static final long DEFAULT_SEED = 69L;
+
+    private BenchmarkData() {
+    }
+
+    public static List<Transaction> transactions(int rows) {
+        return transactions(rows, DEFAULT_SEED);
+    }
+
+    public static List<Transaction> transactions(int rows, long seed) {
+        List<Transaction> result = new ArrayList<>(rows);
+        new SyntheticLedgerGenerator(seed).generate(rows, result::add);
+        return result;
+    }
+
+    /** Writes a generated ledger in the CSV layout read by {@code CsvImportService}. */
+    public static Path writeCsv(int rows, Path file) throws IOException {
+        new SyntheticLedgerGenerator(DEFAULT_SEED).writeCsv(rows, file);
+        return file;
+    }
+
+    /** Persistence stub that hands a prepared ledger to the repository and discards saves. */
+    public static final class InMemoryPersistenceService implements PersistenceService {
+        private final List<Transaction> transactions;
+
+        public InMemoryPersistenceService(List<Transaction> transactions) {
+            this.transactions = transactions;
+        }
+
+        @Override
+        public void saveTransactions(List<Transaction> transactions, String filePath) {
+            // Intentionally discarded
+        }
+
+        @Override
+        public List<Transaction> loadTransactions(String filePath) {
+            return transactions;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.classifier.CategoryClassifier;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.CategorizationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single {@link CategorizationService#suggestCategory} call, cycling through a ledger of
+ * the given size so larger ledgers also show the effect of a bigger working set: untrained (keyword
+ * rules only) and after {@value #CORRECTIONS} manual corrections (the classifier answers).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class CategorizationBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    static final int CORRECTIONS = 1000;
+
+    private CategorizationService categorizationService;
+    private CategorizationService trainedService;
+    private Transaction[] transactions;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        FinanceMetrics metrics = FinanceMetrics.standalone();
+        categorizationService = new CategorizationService(metrics, new CategoryClassifier((Path) null, 0.6));
+        trainedService = new CategorizationService(metrics, new CategoryClassifier((Path) null, 0.6));
+        transactions = BenchmarkData.transactions(rows).toArray(new Transaction[0]);
+        for (int i = 0; i < Math.min(CORRECTIONS, transactions.length); i++) {
+            trainedService.learnFromUser(transactions[i]); // The generator's categories stand in for the user's
+        }
+    }
+
+    @Benchmark
+    public Category suggestCategory() {
+        Transaction transaction = transactions[cursor];
+        cursor = cursor + 1 == transactions.length ? 0 : cursor + 1;
+        return categorizationService.suggestCategory(transaction);
+    }
+
+    @Benchmark
+    public Category suggestCategoryTrained() {
+        Transaction transaction = transactions[cursor];
+        cursor = cursor + 1 == transactions.length ? 0 : cursor + 1;
+        return trainedService.suggestCategory(transaction);
+    }
+}
@@ -0,0 +1,89 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.analysis.ColumnarLedger;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same two aggregations over the row objects and over a {@link ColumnarLedger} of the same rows:
+ * month-by-category totals (what a ledger load or reload builds for the charts) and a per-category
+ * threshold scan (the anomaly search). The object versions are the loops the analysis used before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ColumnarBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    private int rows;
+
+    private static final int CATEGORY_COUNT = Category.values().length;
+    private static final long LIMIT_CENTS = 100_000; // 1000.00
+
+    private List<Transaction> transactions;
+    private ColumnarLedger columns;
+    private double[] limitCents;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        transactions = BenchmarkData.transactions(rows);
+        columns = new ColumnarLedger();
+        columns.addAll(transactions);
+        limitCents = new double[CATEGORY_COUNT];
+        Arrays.fill(limitCents, LIMIT_CENTS);
+    }
+
+    @Benchmark
+    public TreeMap<YearMonth, long[]> monthCategoryObjects() {
+        TreeMap<YearMonth, long[]> months = new TreeMap<>();
+        for (Transaction t : transactions) {
+            long[] month = months.computeIfAbsent(YearMonth.from(t.getDate()), m -> new long[2 * CATEGORY_COUNT]);
+            int slot = 2 * t.getCategory().ordinal();
+            month[slot] += Math.round(t.getAmount() * 100);
+            month[slot + 1]++;
+        }
+        return months;
+    }
+
+    @Benchmark
+    public ColumnarLedger.MonthCube monthCategoryColumns() {
+        return columns.sumByMonthAndCategory();
+    }
+
+    @Benchmark
+    public int thresholdScanObjects() {
+        int hits = 0;
+        for (Transaction t : transactions) {
+            if (Math.round(t.getAmount() * 100) > limitCents[t.getCategory().ordinal()]) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    @Benchmark
+    public int thresholdScanColumns() {
+        return columns.rowsAbove(limitCents).size();
+    }
+}
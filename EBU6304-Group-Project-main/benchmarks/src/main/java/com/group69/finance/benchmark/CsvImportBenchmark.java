@@ -0,0 +1,81 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.classifier.CategoryClassifier;
+import com.group69.finance.dedup.DuplicateIndex;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.service.CategorizationService;
+import com.group69.finance.service.CsvImportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end CSV import: parsing, duplicate check, AI categorization of uncategorized rows and
+ * insertion into a fresh repository; plus re-importing a file whose rows are all already present.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class CsvImportBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private Path csvFile;
+    private final FinanceMetrics metrics = FinanceMetrics.standalone();
+    // Ledger that already holds every row of the file, for the all-duplicates case
+    private CsvImportService reimportService;
+
+    @Setup(Level.Trial)
+    public void writeCsv() throws IOException {
+        csvFile = Files.createTempFile("bench-import-", ".csv");
+        BenchmarkData.writeCsv(rows, csvFile);
+
+        FinanceDataRepository populated = new FinanceDataRepository(
+                new BenchmarkData.InMemoryPersistenceService(BenchmarkData.transactions(rows)), "unused.json");
+        populated.loadInitialData();
+        reimportService = newImportService(populated);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCsv() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public int importCsv() throws Exception {
+        FinanceDataRepository repository = new FinanceDataRepository(
+                new BenchmarkData.InMemoryPersistenceService(new ArrayList<>()), "unused.json");
+        return newImportService(repository).importTransactionsFromCsv(csvFile.toString()).imported().size();
+    }
+
+    /** Importing the same export again: every row hits the Bloom filter and is confirmed by the exact index. */
+    @Benchmark
+    public int reimportCsv() throws Exception {
+        return reimportService.importTransactionsFromCsv(csvFile.toString()).duplicatesSkipped();
+    }
+
+    private CsvImportService newImportService(FinanceDataRepository repository) {
+        return new CsvImportService(repository, new CategorizationService(metrics, new CategoryClassifier((Path) null, 0.6)), new DuplicateIndex(repository), metrics);
+    }
+}
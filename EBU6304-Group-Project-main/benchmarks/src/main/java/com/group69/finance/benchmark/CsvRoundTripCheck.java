@@ -0,0 +1,112 @@
+package com.group69.finance.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.group69.finance.classifier.CategoryClassifier;
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.dedup.DuplicateIndex;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.export.ExportFormat;
+import com.group69.finance.export.ExportService;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.service.CategorizationService;
+import com.group69.finance.service.CsvImportResult;
+import com.group69.finance.service.CsvImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Exports a generated ledger, plus rows whose descriptions need quoting (commas, quotes, line breaks),
+ * to CSV with {@link ExportService}, imports the file into an empty ledger with {@link CsvImportService}
+ * and checks that every row comes back unchanged: date, description, amount, category, source and tags.
+ * Exits with an exception on the first difference.
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.CsvRoundTripCheck [rows]</pre>
+ */
+public final class CsvRoundTripCheck {
+
+    private static final String[] AWKWARD_DESCRIPTIONS = {
+            "Dinner, drinks and taxi",
+            "27\" monitor",
+            "\"Quoted\" at the start",
+            "Refund for \"Order 5521\", partial",
+            "Two-line\nnote from the bank",
+            ",leading comma",
+            "trailing quote\"",
+            "\"\"",
+            "淘宝, 购物 \"双十一\""};
+
+    private CsvRoundTripCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<Transaction> ledger = new ArrayList<>(BenchmarkData.transactions(rows));
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        for (int i = 0; i < AWKWARD_DESCRIPTIONS.length; i++) {
+            Transaction row = new Transaction(day.plusDays(i), AWKWARD_DESCRIPTIONS[i], -12.5 - i, Category.SHOPPING,
+                    Source.values()[i % Source.values().length], false);
+            row.setTags(i % 2 == 0 ? Set.of("shared", "trip-2024-kyoto") : Set.of());
+            ledger.add(row);
+        }
+
+        Path directory = Files.createTempDirectory("csv-round-trip-");
+        Path file = directory.resolve("export.csv");
+        try {
+            FinanceDataRepository source = new FinanceDataRepository(
+                    new BenchmarkData.InMemoryPersistenceService(ledger), "unused.json");
+            source.loadInitialData();
+            new ExportService(source, new JacksonConfig().objectMapper())
+                    .export(ExportFilter.ALL, ExportFormat.CSV, false, file);
+
+            FinanceDataRepository target = new FinanceDataRepository(
+                    new BenchmarkData.InMemoryPersistenceService(new ArrayList<>()), "unused.json");
+            target.loadInitialData();
+            FinanceMetrics metrics = FinanceMetrics.standalone();
+            CsvImportResult result = new CsvImportService(target,
+                    new CategorizationService(metrics, new CategoryClassifier((Path) null, 0.6)),
+                    new DuplicateIndex(target), metrics).importTransactionsFromCsv(file.toString());
+            if (result.rejectedRows() > 0) {
+                throw new IllegalStateException(result.rejectedRows() + " exported rows could not be imported, first: "
+                        + result.errors().get(0));
+            }
+
+            List<String> expected = ledger.stream().map(CsvRoundTripCheck::describe).sorted().toList();
+            List<String> actual = target.getAllTransactions().stream().map(CsvRoundTripCheck::describe).sorted().toList();
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException(firstDifference(expected, actual));
+            }
+            System.out.printf("%d rows (%d needing quotes) exported to CSV and imported back unchanged, %d bytes%n",
+                    ledger.size(), AWKWARD_DESCRIPTIONS.length, Files.size(file));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /** The columns the CSV layout carries; IDs are assigned anew on import. */
+    private static String describe(Transaction t) {
+        return t.getDate() + "|" + t.getDescription() + "|" + Math.round(t.getAmount() * 100) + "|"
+                + t.getCategory() + "|" + t.getSource() + "|" + String.join(";", t.getTags());
+    }
+
+    private static String firstDifference(List<String> expected, List<String> actual) {
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            if (!expected.get(i).equals(actual.get(i))) {
+                return "Row differs after the round trip: exported [" + expected.get(i) + "], imported [" + actual.get(i) + "]";
+            }
+        }
+        return "Exported " + expected.size() + " rows, imported " + actual.size();
+    }
+}
@@ -0,0 +1,72 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.export.ExportFormat;
+import com.group69.finance.export.ExportService;
+import com.group69.finance.repository.FinanceDataRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming the whole ledger out through {@link ExportService}. Run with {@code -prof gc} to see that
+ * the allocation per exported row stays flat as the ledger grows: the export holds no copy of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ExportBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    private int rows;
+
+    @Param({"CSV", "JSON"})
+    private ExportFormat format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ExportService exportService;
+    private Path directory;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        FinanceDataRepository repository = new FinanceDataRepository(
+                new BenchmarkData.InMemoryPersistenceService(BenchmarkData.transactions(rows)), "unused.json");
+        repository.loadInitialData();
+        exportService = new ExportService(repository, new JacksonConfig().objectMapper());
+        directory = Files.createTempDirectory("bench-export-");
+        target = directory.resolve("export." + format.extension() + (gzip ? ".gz" : ""));
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        return exportService.export(ExportFilter.ALL, format, gzip, target).bytes();
+    }
+}
@@ -0,0 +1,76 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.storage.StorageCodecs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading the ledger through {@link JsonPersistenceService}, configured with the same
+ * {@code ObjectMapper} the application uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class JsonPersistenceBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private int rows;
+
+    private JsonPersistenceService persistenceService;
+    private List<Transaction> transactions;
+    private Path directory;
+    private String saveTarget;
+    private String loadSource;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        persistenceService = new JsonPersistenceService(new JacksonConfig().objectMapper(), FinanceMetrics.standalone(),
+                StorageCodecs.of("none", 6));
+        transactions = BenchmarkData.transactions(rows);
+        directory = Files.createTempDirectory("bench-json-");
+        saveTarget = directory.resolve("save.json").toString();
+        loadSource = directory.resolve("load.json").toString();
+        persistenceService.saveTransactions(transactions, loadSource);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(Path.of(saveTarget));
+        Files.deleteIfExists(Path.of(loadSource));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        persistenceService.saveTransactions(transactions, saveTarget);
+    }
+
+    @Benchmark
+    public List<Transaction> load() throws IOException {
+        return persistenceService.loadTransactions(loadSource);
+    }
+}
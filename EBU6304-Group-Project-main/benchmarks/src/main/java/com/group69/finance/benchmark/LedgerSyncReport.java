@@ -0,0 +1,185 @@
+package com.group69.finance.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.storage.StorageCodecs;
+import com.group69.finance.sync.LedgerSyncService;
+import com.group69.finance.sync.MerkleTree;
+import com.group69.finance.sync.SyncReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Two plain directories standing in for a laptop and a desktop holding the same generated ledger. Each
+ * round both sides edit recent rows (a few of them on both sides, some in different fields and some in
+ * the same one), the laptop adds and deletes a few, and the two are synced with {@link LedgerSyncService}.
+ * Checks that both end up identical with every edit kept and the same-field clashes won by the laptop,
+ * and compares the bytes and time with copying the whole data file across.
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.LedgerSyncReport [rows] [edits] [rounds]</pre>
+ */
+public final class LedgerSyncReport {
+
+    private static final int BOTH_SIDES = 10; // Rows edited on both sides per round, half in the same field
+
+    private LedgerSyncReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        JsonPersistenceService json = new JsonPersistenceService(objectMapper, FinanceMetrics.standalone(), StorageCodecs.of("none", 6));
+        LedgerSyncService sync = new LedgerSyncService(json, objectMapper);
+        Path directory = Files.createTempDirectory("sync-report-");
+        Path laptop = Files.createDirectory(directory.resolve("laptop")).resolve("ledger.json");
+        Path desktop = Files.createDirectory(directory.resolve("desktop")).resolve("ledger.json");
+        try {
+            List<Transaction> ledger = BenchmarkData.transactions(rows);
+            json.saveTransactions(ledger, laptop.toString());
+            json.saveTransactions(ledger, desktop.toString());
+            sync.sync(laptop, desktop); // Records the common base
+
+            System.out.printf("%d rows, %d edits per side per round (%d rows on both sides)%n", rows, edits, BOTH_SIDES);
+            System.out.printf("%-6s %8s %10s %10s %14s %14s %10s %10s%n", "round", "months", "exchanged",
+                    "conflicts", "sync bytes", "copy bytes", "sync ms", "copy ms");
+            SplittableRandom random = new SplittableRandom(BenchmarkData.DEFAULT_SEED);
+            for (int round = 1; round <= rounds; round++) {
+                Map<String, Transaction> expected = editBothSides(json, laptop, desktop, edits, random);
+
+                SyncReport report = sync.sync(laptop, desktop);
+                verify(json, laptop, desktop, expected, report);
+
+                Path copy = desktop.resolveSibling("copy.json");
+                long start = System.nanoTime();
+                Files.copy(laptop, copy, StandardCopyOption.REPLACE_EXISTING);
+                long copyNanos = System.nanoTime() - start;
+                Files.delete(copy);
+
+                System.out.printf("%-6d %8d %10d %10d %14d %14d %10d %10d%n", round, report.months(),
+                        report.monthsExchanged(), report.conflicts(), report.bytesExchanged(), report.fullCopyBytes(),
+                        report.elapsedNanos() / 1_000_000, copyNanos / 1_000_000);
+            }
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Edits both copies of the ledger on disk the way two people would between syncs.
+     *
+     * @return the row every touched ID should have after the sync ({@code null} if deleted)
+     */
+    private static Map<String, Transaction> editBothSides(JsonPersistenceService json, Path laptop, Path desktop,
+                                                          int edits, SplittableRandom random) throws IOException {
+        List<Transaction> onLaptop = new ArrayList<>(json.loadTransactions(laptop.toString()));
+        List<Transaction> onDesktop = new ArrayList<>(json.loadTransactions(desktop.toString()));
+        Map<String, Integer> desktopIndex = new HashMap<>();
+        for (int i = 0; i < onDesktop.size(); i++) {
+            desktopIndex.put(onDesktop.get(i).getId(), i);
+        }
+        // Most edits touch the last two months
+        LocalDate last = onLaptop.stream().map(Transaction::getDate).max(Comparator.naturalOrder()).orElseThrow();
+        List<Integer> recent = new ArrayList<>();
+        for (int i = 0; i < onLaptop.size(); i++) {
+            if (!onLaptop.get(i).getDate().isBefore(last.minusMonths(2))) recent.add(i);
+        }
+        Map<String, Transaction> expected = new HashMap<>();
+        List<Integer> picked = new ArrayList<>();
+        while (picked.size() < 2 * edits + BOTH_SIDES + edits / 10) {
+            int index = recent.get(random.nextInt(recent.size()));
+            if (!picked.contains(index)) picked.add(index);
+        }
+        int next = 0;
+
+        // Laptop: amounts. Desktop: descriptions
+        for (int i = 0; i < edits; i++, next++) {
+            Transaction edited = onLaptop.get(picked.get(next)).copy();
+            edited.setAmount(edited.getAmount() - 1);
+            onLaptop.set(picked.get(next), edited);
+            expected.put(edited.getId(), edited);
+        }
+        for (int i = 0; i < edits; i++, next++) {
+            Transaction row = onLaptop.get(picked.get(next));
+            int index = desktopIndex.get(row.getId());
+            Transaction edited = onDesktop.get(index).copy();
+            edited.setDescription(edited.getDescription() + " (desktop)");
+            onDesktop.set(index, edited);
+            expected.put(edited.getId(), edited);
+        }
+        // Both sides: amount on the laptop, and on the desktop the category (merged) or the amount too (laptop wins)
+        for (int i = 0; i < BOTH_SIDES; i++, next++) {
+            Transaction mine = onLaptop.get(picked.get(next)).copy();
+            mine.setAmount(mine.getAmount() - 2);
+            onLaptop.set(picked.get(next), mine);
+            int index = desktopIndex.get(mine.getId());
+            Transaction theirs = onDesktop.get(index).copy();
+            Transaction result = mine.copy();
+            if (i % 2 == 0) {
+                Category other = theirs.getCategory() == Category.OTHER_EXPENSE ? Category.INSURANCE : Category.OTHER_EXPENSE;
+                theirs.setCategory(other);
+                result.setCategory(other);
+            } else {
+                theirs.setAmount(theirs.getAmount() - 3);
+            }
+            onDesktop.set(index, theirs);
+            expected.put(mine.getId(), result);
+        }
+        // Laptop deletes a few and adds as many
+        for (int i = 0; i < edits / 10; i++, next++) {
+            Transaction deleted = onLaptop.get(picked.get(next));
+            expected.put(deleted.getId(), null);
+            Transaction added = new Transaction(last, "laptop addition " + i, -10 - i, Category.OTHER_EXPENSE, deleted.getSource(), false);
+            onLaptop.set(picked.get(next), added);
+            expected.put(added.getId(), added);
+        }
+        json.saveTransactions(onLaptop, laptop.toString());
+        json.saveTransactions(onDesktop, desktop.toString());
+        return expected;
+    }
+
+    private static void verify(JsonPersistenceService json, Path laptop, Path desktop, Map<String, Transaction> expected,
+                               SyncReport report) throws IOException {
+        List<Transaction> onLaptop = json.loadTransactions(laptop.toString());
+        List<Transaction> onDesktop = json.loadTransactions(desktop.toString());
+        if (!Arrays.equals(MerkleTree.of(onLaptop).root(), MerkleTree.of(onDesktop).root())) {
+            throw new IllegalStateException("The two ledgers differ after the sync");
+        }
+        Map<String, Transaction> byId = new HashMap<>();
+        onLaptop.forEach(row -> byId.put(row.getId(), row));
+        expected.forEach((id, row) -> {
+            Transaction actual = byId.get(id);
+            if (row == null ? actual != null : !row.sameValues(actual)) {
+                throw new IllegalStateException("After the sync " + id + " is " + actual + ", expected " + row);
+            }
+        });
+        if (report.conflicts() != BOTH_SIDES / 2) {
+            throw new IllegalStateException(report.conflicts() + " conflicts, expected " + BOTH_SIDES / 2);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.analysis.ColumnarLedger;
+import com.group69.finance.analysis.SpendingSketches;
+import com.group69.finance.model.Category;
+import com.group69.finance.repository.FinanceDataRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The full-ledger analysis passes that split across the common fork/join pool, each run twice: in a
+ * JVM whose pool has a single worker (the sequential path) and in one with the pool at its default
+ * size, one worker per core. The ratio of the two is the speedup on the machine running it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public class ParallelAnalysisBenchmark {
+
+    private static final String SEQUENTIAL = "-Djava.util.concurrent.ForkJoinPool.common.parallelism=1";
+
+    @Param({"1000000", "10000000"})
+    private int rows;
+
+    private FinanceDataRepository repository;
+    private ColumnarLedger columns;
+    private double[] limitCents;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        repository = new FinanceDataRepository(
+                new BenchmarkData.InMemoryPersistenceService(BenchmarkData.transactions(rows)), "unused.json");
+        repository.loadInitialData();
+        columns = new ColumnarLedger();
+        columns.addAll(repository.snapshot());
+        limitCents = new double[Category.values().length];
+        Arrays.fill(limitCents, 100_000); // 1000.00
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g", SEQUENTIAL})
+    public ColumnarLedger.MonthCube monthCategorySequential() {
+        return columns.sumByMonthAndCategory();
+    }
+
+    @Benchmark
+    public ColumnarLedger.MonthCube monthCategoryParallel() {
+        return columns.sumByMonthAndCategory();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g", SEQUENTIAL})
+    public int thresholdScanSequential() {
+        return columns.rowsAbove(limitCents).size();
+    }
+
+    @Benchmark
+    public int thresholdScanParallel() {
+        return columns.rowsAbove(limitCents).size();
+    }
+
+    /** Building the spending sketches, as on a load or reload. */
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g", SEQUENTIAL})
+    public long spendingSketchesSequential() {
+        return buildSpendingSketches();
+    }
+
+    @Benchmark
+    public long spendingSketchesParallel() {
+        return buildSpendingSketches();
+    }
+
+    private long buildSpendingSketches() {
+        SpendingSketches sketches = new SpendingSketches(repository);
+        sketches.close();
+        return sketches.version();
+    }
+}
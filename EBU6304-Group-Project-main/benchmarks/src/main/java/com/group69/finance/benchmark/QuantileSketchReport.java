@@ -0,0 +1,83 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.analysis.QuantileSketch;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Accuracy and cost of {@link QuantileSketch} on a generated ledger: per spending category, the median,
+ * p90 and p99 from per-month sketches merged over the whole history against the exact values from
+ * sorting, the largest relative error seen, and the time to build and merge the sketches against the
+ * time to sort.
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.QuantileSketchReport [rows]</pre>
+ */
+public final class QuantileSketchReport {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private QuantileSketchReport() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Transaction> transactions = BenchmarkData.transactions(rows);
+
+        long start = System.nanoTime();
+        Map<Category, Map<YearMonth, QuantileSketch>> sketches = new EnumMap<>(Category.class);
+        for (Transaction t : transactions) {
+            if (t.getCategory().isIncome()) continue;
+            sketches.computeIfAbsent(t.getCategory(), c -> new HashMap<>())
+                    .computeIfAbsent(YearMonth.from(t.getDate()), m -> new QuantileSketch())
+                    .add(Math.abs(Math.round(t.getAmount() * 100)));
+        }
+        long buildNanos = System.nanoTime() - start;
+
+        System.out.printf("%d rows, relative accuracy %.2f%%%n", rows, QuantileSketch.RELATIVE_ACCURACY * 100);
+        System.out.printf("%-16s %10s %8s %14s %14s %14s %10s%n", "Category", "Rows", "Months", "p50", "p90", "p99", "Max error");
+        long mergeNanos = 0;
+        long sortNanos = 0;
+        double worst = 0;
+        for (Map.Entry<Category, Map<YearMonth, QuantileSketch>> entry : sketches.entrySet()) {
+            start = System.nanoTime();
+            QuantileSketch merged = new QuantileSketch();
+            entry.getValue().values().forEach(merged::merge);
+            double[] estimated = new double[QUANTILES.length];
+            for (int i = 0; i < QUANTILES.length; i++) {
+                estimated[i] = merged.quantile(QUANTILES[i]);
+            }
+            mergeNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long[] exact = transactions.stream()
+                    .filter(t -> t.getCategory() == entry.getKey())
+                    .mapToLong(t -> Math.abs(Math.round(t.getAmount() * 100)))
+                    .sorted()
+                    .toArray();
+            sortNanos += System.nanoTime() - start;
+
+            double error = 0;
+            String[] cells = new String[QUANTILES.length];
+            for (int i = 0; i < QUANTILES.length; i++) {
+                long value = exact[(int) (QUANTILES[i] * (exact.length - 1))];
+                error = Math.max(error, value == 0 ? estimated[i] : Math.abs(estimated[i] - value) / value);
+                cells[i] = String.format("%.2f/%.2f", value / 100.0, estimated[i] / 100);
+            }
+            worst = Math.max(worst, error);
+            System.out.printf("%-16s %10d %8d %14s %14s %14s %9.3f%%%n", entry.getKey(), merged.count(),
+                    entry.getValue().size(), cells[0], cells[1], cells[2], error * 100);
+        }
+        System.out.println("(exact/estimated)");
+        System.out.printf("Sketches built in %d ms, merged and queried in %d ms; sorting took %d ms%n",
+                buildNanos / 1_000_000, mergeNanos / 1_000_000, sortNanos / 1_000_000);
+        if (worst > QuantileSketch.RELATIVE_ACCURACY * (1 + 1e-9)) {
+            throw new IllegalStateException("Relative error " + worst + " above the guaranteed " + QuantileSketch.RELATIVE_ACCURACY);
+        }
+    }
+}
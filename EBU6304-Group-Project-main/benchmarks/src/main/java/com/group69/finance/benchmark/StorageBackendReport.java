@@ -0,0 +1,162 @@
+package com.group69.finance.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.H2PersistenceService;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.storage.StorageCodecs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * The JSON data file against the H2 store on the same generated ledger: first save, load, a save after a
+ * few edits (the whole file against the changed rows), and answering a filter or monthly totals (load
+ * and scan against SQL on the indexes). Best of several runs.
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.StorageBackendReport [rows] [edits] [repeats]</pre>
+ */
+public final class StorageBackendReport {
+
+    private StorageBackendReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int edits = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int repeats = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        // Every save and load is logged at INFO
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<Transaction> ledger = BenchmarkData.transactions(rows);
+        LocalDate last = ledger.stream().map(Transaction::getDate).max(Comparator.naturalOrder()).orElseThrow();
+        ExportFilter quarter = new ExportFilter(last.minusMonths(3), last, Set.of(Category.DINING_OUT), Set.of());
+
+        Path directory = Files.createTempDirectory("backend-report-");
+        String jsonFile = directory.resolve("ledger.json").toString();
+        String database = directory.resolve("ledger").toString();
+        JsonPersistenceService json = new JsonPersistenceService(new JacksonConfig().objectMapper(),
+                FinanceMetrics.standalone(), StorageCodecs.of("none", 6));
+        H2PersistenceService h2 = new H2PersistenceService(FinanceMetrics.standalone());
+        try {
+            System.out.printf("%d rows, %d edits per save, best of %d%n", rows, edits, repeats);
+            System.out.printf("%-34s %12s %12s%n", "", "JSON (ms)", "H2 (ms)");
+
+            long jsonSave = best(repeats, () -> json.saveTransactions(ledger, jsonFile));
+            long h2Save = best(repeats, () -> {
+                h2.close(); // Forget what was written, so the table is rewritten
+                h2.saveTransactions(ledger, database);
+            });
+            print("save all rows", jsonSave, h2Save);
+
+            long jsonLoad = best(repeats, () -> json.loadTransactions(jsonFile));
+            long h2Load = best(repeats, () -> {
+                h2.close(); // Measure opening the file too
+                h2.loadTransactions(database);
+            });
+            print("load", jsonLoad, h2Load);
+
+            // Each run edits, removes and adds rows of the ledger as loaded, then saves it
+            List<Transaction> current = new ArrayList<>(h2.loadTransactions(database));
+            SplittableRandom random = new SplittableRandom(BenchmarkData.DEFAULT_SEED);
+            long jsonEdited = best(repeats, () -> json.saveTransactions(edit(current, edits, random), jsonFile));
+            long h2Edited = best(repeats, () -> h2.saveTransactions(edit(current, edits, random), database));
+            print("save after " + edits + " edits", jsonEdited, h2Edited);
+            if (h2.loadTransactions(database).size() != current.size()) {
+                throw new IllegalStateException("The database does not hold the edited ledger");
+            }
+
+            // H2 reuses the result of a query repeated on unchanged data, so no two runs ask the same
+            long[] found = new long[2];
+            int[] run = new int[1];
+            long jsonFind = best(repeats, () -> found[0] = json.loadTransactions(jsonFile).stream().filter(quarter::matches).count());
+            long h2Find = best(repeats, () -> found[1] = h2.find(database, shifted(quarter, run[0]++)).size());
+            found[1] = h2.find(database, quarter).size();
+            print("find (" + found[1] + " rows, one category, 3 months)", jsonFind, h2Find);
+            if (found[0] != found[1]) {
+                throw new IllegalStateException("JSON found " + found[0] + " rows, H2 " + found[1]);
+            }
+
+            long jsonTotals = best(repeats, () -> totals(json.loadTransactions(jsonFile)));
+            long h2Totals = best(repeats, () -> h2.totalsByMonthAndCategory(database,
+                    new ExportFilter(LocalDate.MIN.plusDays(run[0]++), null, Set.of(), Set.of())));
+            print("totals by month and category", jsonTotals, h2Totals);
+
+            System.out.printf("%-34s %12d %12d%n", "file size (bytes)", Files.size(Path.of(jsonFile)),
+                    Files.size(Path.of(database + ".mv.db")));
+        } finally {
+            h2.close();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    /** Replaces {@code edits} rows with edited copies, and removes and appends a tenth as many. */
+    private static List<Transaction> edit(List<Transaction> ledger, int edits, SplittableRandom random) {
+        for (int i = 0; i < edits; i++) {
+            int index = random.nextInt(ledger.size());
+            Transaction edited = ledger.get(index).copy();
+            edited.setAmount(edited.getAmount() - 0.01);
+            ledger.set(index, edited);
+        }
+        for (int i = 0; i < Math.max(1, edits / 10); i++) {
+            Transaction removed = ledger.remove(random.nextInt(ledger.size()));
+            ledger.add(new Transaction(removed.getDate(), removed.getDescription(), removed.getAmount(),
+                    removed.getCategory(), removed.getSource(), false));
+        }
+        return ledger;
+    }
+
+    private static ExportFilter shifted(ExportFilter filter, int days) {
+        return new ExportFilter(filter.from().plusDays(days), filter.to().plusDays(days), filter.categories(), filter.sources());
+    }
+
+    private static Map<YearMonth, long[]> totals(List<Transaction> ledger) {
+        Map<YearMonth, long[]> months = new TreeMap<>();
+        for (Transaction t : ledger) {
+            long[] month = months.computeIfAbsent(YearMonth.from(t.getDate()), m -> new long[2 * Category.values().length]);
+            month[2 * t.getCategory().ordinal()] += Math.round(t.getAmount() * 100);
+            month[2 * t.getCategory().ordinal() + 1]++;
+        }
+        return months;
+    }
+
+    private static void print(String operation, long jsonNanos, long h2Nanos) {
+        System.out.printf("%-34s %12d %12d%n", operation, jsonNanos / 1_000_000, h2Nanos / 1_000_000);
+    }
+
+    private static long best(int repeats, IoAction action) throws IOException {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            action.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,76 @@
+package com.group69.finance.benchmark;
+
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.storage.StorageCodecs;
+import ch.qos.logback.classic.Level;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Size versus speed of each ledger storage codec and level: file size, compression ratio and the best
+ * of several save and load times through {@link JsonPersistenceService}, on the same generated ledger.
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.StorageCodecReport [rows] [repeats]</pre>
+ */
+public final class StorageCodecReport {
+
+    private static final List<String> CODECS = List.of("none:6", "gzip:1", "gzip:6", "gzip:9",
+            "deflate:1", "deflate:6", "deflate:9");
+
+    private StorageCodecReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        // Every save and load is logged at INFO
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<Transaction> transactions = BenchmarkData.transactions(rows);
+        Path directory = Files.createTempDirectory("codec-report-");
+        long plainBytes = 0;
+        System.out.printf("%d rows, best of %d%n", rows, repeats);
+        System.out.printf("%-12s %14s %8s %12s %12s%n", "Codec", "Bytes", "Ratio", "Save (ms)", "Load (ms)");
+        try {
+            for (String spec : CODECS) {
+                String[] parts = spec.split(":");
+                String name = parts[0];
+                int level = Integer.parseInt(parts[1]);
+                JsonPersistenceService persistence = new JsonPersistenceService(new JacksonConfig().objectMapper(),
+                        FinanceMetrics.standalone(), StorageCodecs.of(name, level));
+                String file = directory.resolve(name + "-" + level + ".json").toString();
+
+                long bestSave = Long.MAX_VALUE;
+                long bestLoad = Long.MAX_VALUE;
+                for (int i = 0; i < repeats; i++) {
+                    long start = System.nanoTime();
+                    persistence.saveTransactions(transactions, file);
+                    bestSave = Math.min(bestSave, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    int loaded = persistence.loadTransactions(file).size();
+                    bestLoad = Math.min(bestLoad, System.nanoTime() - start);
+                    if (loaded != rows) {
+                        throw new IllegalStateException(spec + " loaded " + loaded + " of " + rows + " rows");
+                    }
+                }
+                long bytes = Files.size(Path.of(file));
+                if (name.equals("none")) {
+                    plainBytes = bytes;
+                }
+                System.out.printf("%-12s %14d %8.2f %12d %12d%n", name.equals("none") ? name : spec, bytes,
+                        plainBytes == 0 ? 1.0 : (double) plainBytes / bytes, bestSave / 1_000_000, bestLoad / 1_000_000);
+                Files.delete(Path.of(file));
+            }
+        } finally {
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.group69.finance.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.group69.finance.analysis.ColumnarLedger;
+import com.group69.finance.analysis.LedgerAggregates;
+import com.group69.finance.analysis.LedgerTotals;
+import com.group69.finance.analysis.RowSelection;
+import com.group69.finance.analysis.TagQuery;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+/**
+ * Tags a generated ledger the way people tag theirs (a few broad tags on many rows, one tag per trip on
+ * a few weeks of rows, rare ones on a handful) and runs a set of tag queries, with and without category,
+ * source and date filters, twice: through the bitmap index of {@link ColumnarLedger} and as a scan that
+ * tests every row with {@link TagQuery#matches} and {@link ExportFilter#matches}. Checks that both pick
+ * the same rows and totals, that {@link LedgerAggregates} agrees after edits, and reports the times and
+ * the size of the bitmaps.
+ * <pre>java -cp benchmarks.jar com.group69.finance.benchmark.TagIndexReport [rows] [repeats]</pre>
+ */
+public final class TagIndexReport {
+
+    private static final String[] TRIPS = {"lisbon", "kyoto", "oslo"};
+
+    private TagIndexReport() {
+    }
+
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        List<Transaction> ledger = BenchmarkData.transactions(rows);
+        tag(ledger, new SplittableRandom(BenchmarkData.DEFAULT_SEED));
+        LocalDate first = ledger.stream().map(Transaction::getDate).min(LocalDate::compareTo).orElseThrow();
+        LocalDate last = ledger.stream().map(Transaction::getDate).max(LocalDate::compareTo).orElseThrow();
+        LocalDate from = last.minusMonths(18).withDayOfMonth(11);
+        LocalDate to = last.minusMonths(6).withDayOfMonth(20);
+
+        long start = System.nanoTime();
+        ColumnarLedger columns = new ColumnarLedger();
+        columns.addAll(ledger);
+        long indexNanos = System.nanoTime() - start;
+        System.out.printf("%d rows (%s to %s), columns and bitmaps built in %d ms, bitmaps %.1f MB%n", rows,
+                first, last, indexNanos / 1_000_000, columns.indexBytes() / 1e6);
+
+        List<Case> cases = List.of(
+                new Case("shared", ExportFilter.ALL),
+                new Case("reimbursable", ExportFilter.ALL),
+                new Case(trip(last.getYear() - 1), ExportFilter.ALL),
+                new Case("shared AND reimbursable", ExportFilter.ALL),
+                new Case("reimbursable AND NOT shared", ExportFilter.ALL),
+                new Case("(" + trip(last.getYear() - 2) + " OR " + trip(last.getYear() - 1) + ") AND NOT tax", ExportFilter.ALL),
+                new Case("shared", new ExportFilter(null, null, Set.of(Category.DINING_OUT, Category.GROCERIES), Set.of())),
+                new Case("reimbursable", new ExportFilter(from, to, Set.of(), Set.of(Source.CREDIT_CARD))),
+                new Case("shared OR gift", new ExportFilter(from, to, Set.of(), Set.of())),
+                new Case(null, new ExportFilter(from, to, Set.of(Category.GROCERIES), Set.of())));
+
+        System.out.printf("%-60s %-22s %9s %10s %10s %8s%n", "query", "filter", "rows", "bitmap ms", "scan ms", "speedup");
+        for (Case c : cases) {
+            TagQuery query = c.query() == null ? null : TagQuery.parse(c.query());
+            RowSelection indexed = columns.select(0, query, c.filter());
+            RowSelection scanned = scan(ledger, query, c.filter());
+            verify(c, indexed, scanned);
+
+            long indexedNanos = Long.MAX_VALUE;
+            long scannedNanos = Long.MAX_VALUE;
+            for (int i = 0; i < repeats; i++) {
+                start = System.nanoTime();
+                columns.select(0, query, c.filter());
+                indexedNanos = Math.min(indexedNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                scan(ledger, query, c.filter());
+                scannedNanos = Math.min(scannedNanos, System.nanoTime() - start);
+            }
+            System.out.printf("%-60s %-22s %9d %10.2f %10.2f %7.1fx%n", c.query() == null ? "(any)" : c.query(),
+                    describe(c.filter()), indexed.rows().size(), indexedNanos / 1e6, scannedNanos / 1e6,
+                    (double) scannedNanos / indexedNanos);
+        }
+
+        checkAggregatesAfterEdits(ledger, cases);
+    }
+
+    private static String trip(int year) {
+        return "trip-" + year + "-" + TRIPS[year % TRIPS.length];
+    }
+
+    private record Case(String query, ExportFilter filter) {
+    }
+
+    /** Adds tags in place; the generated rows have none. */
+    private static void tag(List<Transaction> ledger, SplittableRandom random) {
+        for (Transaction row : ledger) {
+            Set<String> tags = new HashSet<>();
+            if (random.nextInt(100) < 30) tags.add("shared");
+            if (!row.getCategory().isIncome() && random.nextInt(100) < 5) tags.add("reimbursable");
+            if (random.nextInt(1000) < 2) tags.add("gift");
+            if (row.getCategory().isIncome() && random.nextInt(100) < 20) tags.add("tax");
+            // One two-week trip a year, in April, July or October
+            LocalDate date = row.getDate();
+            if (date.getMonthValue() == 4 + date.getYear() % TRIPS.length * 3 && date.getDayOfMonth() <= 14) {
+                tags.add(trip(date.getYear()));
+            }
+            row.setTags(tags);
+        }
+    }
+
+    private static RowSelection scan(List<Transaction> ledger, TagQuery query, ExportFilter filter) {
+        List<Transaction> matches = new ArrayList<>();
+        long[] totals = new long[4];
+        for (Transaction row : ledger) {
+            if ((query == null || query.matches(row.getTags())) && filter.matches(row)) {
+                matches.add(row);
+                int offset = row.getCategory().isIncome() ? 0 : 2;
+                totals[offset] += Math.round(row.getAmount() * 100);
+                totals[offset + 1]++;
+            }
+        }
+        return new RowSelection(0, matches, totals[0], (int) totals[1], totals[2], (int) totals[3]);
+    }
+
+    private static void verify(Object what, RowSelection actual, RowSelection expected) {
+        Set<String> actualIds = new HashSet<>();
+        actual.rows().forEach(row -> actualIds.add(row.getId()));
+        Set<String> expectedIds = new HashSet<>();
+        expected.rows().forEach(row -> expectedIds.add(row.getId()));
+        if (actual.rows().size() != expected.rows().size() || !actualIds.equals(expectedIds)
+                || actual.incomeCents() != expected.incomeCents() || actual.incomeRows() != expected.incomeRows()
+                || actual.expenseCents() != expected.expenseCents() || actual.expenseRows() != expected.expenseRows()) {
+            throw new IllegalStateException("Bitmap selection differs from the scan for " + what + ": "
+                    + actual.rows().size() + " rows vs " + expected.rows().size());
+        }
+    }
+
+    /**
+     * Loads the ledger into a repository, retags, recategorises and deletes rows through it, and checks
+     * that the incrementally maintained index of {@link LedgerAggregates} still matches a scan.
+     */
+    private static void checkAggregatesAfterEdits(List<Transaction> ledger, List<Case> cases) {
+        FinanceDataRepository repository = new FinanceDataRepository(
+                new BenchmarkData.InMemoryPersistenceService(ledger), "unused.json");
+        repository.loadInitialData();
+        LedgerAggregates aggregates = new LedgerAggregates(repository);
+        try {
+            List<Transaction> current = repository.getAllTransactions();
+            int edits = Math.min(10_000, current.size() / 10);
+            int step = current.size() / edits; // Distinct rows spread over the ledger
+            List<String> deleted = new ArrayList<>();
+            for (int i = 0; i < edits; i++) {
+                String id = current.get(i * step).getId();
+                switch (i % 4) {
+                    case 0 -> repository.modifyTransaction(id, stored -> {
+                        Transaction copy = stored.copy();
+                        copy.setTags(Set.of("shared", "reimbursable"));
+                        return copy;
+                    });
+                    case 1 -> repository.modifyTransaction(id, stored -> {
+                        Transaction copy = stored.copy();
+                        copy.setTags(Set.of());
+                        return copy;
+                    });
+                    case 2 -> repository.modifyTransaction(id, stored -> {
+                        Transaction copy = stored.copy();
+                        copy.setCategory(Category.GROCERIES);
+                        copy.setDate(copy.getDate().minusDays(3));
+                        return copy;
+                    });
+                    default -> deleted.add(id);
+                }
+            }
+            repository.removeTransactionsById(deleted); // One change: single removals each rebuild the position map
+            current = repository.getAllTransactions();
+            for (Case c : cases) {
+                TagQuery query = c.query() == null ? null : TagQuery.parse(c.query());
+                verify(c + " after edits", aggregates.select(query, c.filter()), scan(current, query, c.filter()));
+            }
+            Map<String, LedgerTotals.TagTotals> expectedTags = new TreeMap<>();
+            for (Transaction row : current) {
+                boolean income = row.getCategory().isIncome();
+                long cents = Math.round(row.getAmount() * 100);
+                for (String tag : row.getTags()) {
+                    expectedTags.merge(tag, income ? new LedgerTotals.TagTotals(cents, 1, 0, 0)
+                            : new LedgerTotals.TagTotals(0, 0, cents, 1), (x, y) -> new LedgerTotals.TagTotals(
+                            x.incomeCents() + y.incomeCents(), x.incomeRows() + y.incomeRows(),
+                            x.expenseCents() + y.expenseCents(), x.expenseRows() + y.expenseRows()));
+                }
+            }
+            if (!expectedTags.equals(aggregates.totals().tags())) {
+                throw new IllegalStateException("Tag totals differ from the scan after edits");
+            }
+            System.out.printf("LedgerAggregates matches the scan for every query and tag total after %d edits (%d rows left, %d tags)%n",
+                    edits, current.size(), aggregates.totals().tags().size());
+        } finally {
+            aggregates.close();
+        }
+    }
+
+    private static String describe(ExportFilter filter) {
+        if (filter.isUnfiltered()) return "-";
+        List<String> parts = new ArrayList<>();
+        if (!filter.categories().isEmpty()) parts.add(filter.categories().size() == 1 ? "1 category" : filter.categories().size() + " categories");
+        if (!filter.sources().isEmpty()) parts.add(filter.sources().size() + " source");
+        if (filter.from() != null) parts.add("12 months");
+        return String.join(", ", parts);
+    }
+}
@@ -0,0 +1,449 @@
+package com.group69.finance.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group69.finance.App;
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.controller.ViewRegistry;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.storage.StorageCodecs;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Menu;
+import javafx.scene.control.MenuBar;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TablePosition;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Drives the real main window and analysis view, wired by Spring as in the app, on a headless Monocle
+ * stage against generated ledgers: first show, paging and jumping through the table, sorting by column,
+ * adding rows through the form, editing categories in the table and switching views. Each interaction
+ * runs on the FX thread and is timed until the layout pass of the next pulse (time-to-render); the
+ * layout time of every pulse and the gaps between frames are recorded alongside. With a baseline the
+ * run fails (exit status 1) when a median, p95 or longest pulse is more than the tolerance above it, or
+ * when a scenario in the baseline is missing from the run.
+ * <pre>java -Xmx4g -cp benchmarks.jar com.group69.finance.benchmark.UiPerformanceSuite [rows,...]
+ *      [--baseline=baseline/ui-baseline.json] [--record=ui-result.json] [--tolerance=0.25]</pre>
+ * On Linux, JavaFX lays out text with Pango, so {@code libpango-1.0} must be installed even headless.
+ */
+public final class UiPerformanceSuite {
+
+    private static final double DEFAULT_TOLERANCE = 0.25;
+    private static final double SLACK_MS = 2.0; // Differences below this are timer noise at any size
+    private static final long TIMEOUT_SECONDS = 120;
+    private static final int SETTLE_PULSES = 3;
+    private static final int PAGE_ROWS = 25;
+
+    /** One scenario at one ledger size; times in milliseconds. */
+    record Result(int rows, String scenario, int samples, double medianMs, double p95Ms, double maxPulseMs,
+                  double maxFrameGapMs) {
+
+        String key() {
+            return scenario + " rows=" + rows;
+        }
+    }
+
+    private UiPerformanceSuite() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Integer> sizes = List.of(10_000, 100_000, 1_000_000);
+        File baseline = null;
+        File record = null;
+        double tolerance = DEFAULT_TOLERANCE;
+        for (String arg : args) {
+            if (arg.startsWith("--baseline=")) {
+                baseline = new File(arg.substring("--baseline=".length()));
+            } else if (arg.startsWith("--record=")) {
+                record = new File(arg.substring("--record=".length()));
+            } else if (arg.startsWith("--tolerance=")) {
+                tolerance = Double.parseDouble(arg.substring("--tolerance=".length()));
+            } else if (!arg.startsWith("--")) {
+                sizes = Arrays.stream(arg.split(",")).map(String::trim).map(Integer::parseInt).toList();
+            } else {
+                System.err.println("Usage: UiPerformanceSuite [rows,...] [--baseline=<file>] [--record=<file>] [--tolerance=<fraction>]");
+                System.exit(2);
+            }
+        }
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        startHeadlessToolkit();
+        List<Result> results = new ArrayList<>();
+        try {
+            for (int rows : sizes) {
+                results.addAll(run(rows));
+            }
+        } finally {
+            Platform.exit();
+        }
+
+        System.out.printf("%-14s %9s %8s %10s %10s %10s %10s%n", "scenario", "rows", "samples", "median ms",
+                "p95 ms", "pulse ms", "frame ms");
+        for (Result r : results) {
+            System.out.printf("%-14s %9d %8d %10.1f %10.1f %10.1f %10.1f%n", r.scenario(), r.rows(), r.samples(),
+                    r.medianMs(), r.p95Ms(), r.maxPulseMs(), r.maxFrameGapMs());
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        if (record != null) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(record, results);
+            System.out.println("Recorded " + record);
+        }
+        int regressions = baseline == null ? 0
+                : compare(mapper.readValue(baseline, new TypeReference<List<Result>>() { }), results, tolerance);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    // --- Toolkit ---
+
+    private static void startHeadlessToolkit() throws Exception {
+        // Monocle's headless platform with the software pipeline: no display, no GPU
+        System.setProperty("glass.platform", System.getProperty("glass.platform", "Monocle"));
+        System.setProperty("monocle.platform", System.getProperty("monocle.platform", "Headless"));
+        System.setProperty("prism.order", System.getProperty("prism.order", "sw"));
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Platform.startup(() -> started.complete(null));
+        started.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Platform.setImplicitExit(false); // Stages are closed between ledger sizes
+        try {
+            onFx(() -> new Text("probe").getLayoutBounds()); // Loads the native text layout
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof LinkageError) {
+                System.err.println("JavaFX cannot lay out text here (on Linux it needs libpango-1.0): " + e.getCause());
+                Platform.exit();
+                System.exit(2);
+            }
+            throw e;
+        }
+    }
+
+    private static <T> T onFx(Callable<T> work) throws ExecutionException, InterruptedException, TimeoutException {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(work.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    // --- Scenarios ---
+
+    private static List<Result> run(int rows) throws Exception {
+        Path directory = Files.createTempDirectory("ui-suite-");
+        Path dataFile = directory.resolve("ledger.json");
+        new JsonPersistenceService(new JacksonConfig().objectMapper(), FinanceMetrics.standalone(), StorageCodecs.of("none", 6))
+                .saveTransactions(BenchmarkData.transactions(rows), dataFile.toString());
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class)
+                .web(WebApplicationType.NONE)
+                .run("--app.data.filepath=" + dataFile, "--app.data.watch.enabled=false",
+                        "--app.autosave.enabled=false", "--spring.jmx.enabled=false",
+                        "--management.jmx.metrics.export.enabled=false");
+        Stage stage = null;
+        try {
+            ViewRegistry views = context.getBean(ViewRegistry.class);
+            Scene scene = onFx(() -> {
+                Scene s = new Scene(views.root(ViewRegistry.View.MAIN), 850, 650);
+                s.getStylesheets().add(UiPerformanceSuite.class.getResource("/styles/element-like.css").toExternalForm());
+                return s;
+            });
+            stage = onFx(Stage::new);
+            FrameProbe probe = onFx(() -> new FrameProbe(scene));
+            List<Result> results = new ArrayList<>();
+
+            Stage shown = stage;
+            results.add(probe.scenario(rows, "show", 1, i -> {
+                shown.setScene(scene);
+                shown.show();
+                views.shown(ViewRegistry.View.MAIN);
+            }));
+
+            TableView<Transaction> table = onFx(() -> lookup(scene, "#transactionTable"));
+            int size = onFx(() -> table.getItems().size());
+            results.add(probe.scenario(rows, "scroll-page", 50, i -> table.scrollTo(Math.min(size - 1, (i + 1) * PAGE_ROWS))));
+            SplittableRandom random = new SplittableRandom(BenchmarkData.DEFAULT_SEED);
+            int[] jumps = random.ints(20, 0, size).toArray();
+            results.add(probe.scenario(rows, "scroll-jump", jumps.length, i -> table.scrollTo(jumps[i])));
+            onFx(() -> {
+                table.scrollTo(0);
+                return null;
+            });
+
+            List<TableColumn<Transaction, ?>> sortBy = onFx(() -> List.of(column(table, "dateCol"),
+                    column(table, "amountCol"), column(table, "descriptionCol")));
+            results.add(probe.scenario(rows, "sort", 2 * sortBy.size(), i -> {
+                TableColumn<Transaction, ?> sortColumn = sortBy.get(i % sortBy.size());
+                sortColumn.setSortType(i < sortBy.size() ? TableColumn.SortType.ASCENDING : TableColumn.SortType.DESCENDING);
+                table.getSortOrder().setAll(List.of(sortColumn));
+            }));
+            onFx(() -> {
+                table.getSortOrder().clear();
+                return null;
+            });
+
+            results.add(probe.scenario(rows, "add", 20, i -> {
+                ((DatePicker) lookup(scene, "#datePicker")).setValue(LocalDate.of(2025, 1, 1 + i));
+                ((TextField) lookup(scene, "#descriptionField")).setText("UI suite row " + i);
+                ((TextField) lookup(scene, "#amountField")).setText("-12.34");
+                UiPerformanceSuite.<ComboBox<Category>>lookup(scene, "#categoryComboBox").setValue(Category.GROCERIES);
+                UiPerformanceSuite.<ComboBox<Source>>lookup(scene, "#sourceComboBox").setValue(Source.DEBIT_CARD);
+                ((Button) lookup(scene, "#addButton")).fire();
+            }));
+
+            TableColumn<Transaction, Category> categoryColumn = onFx(() -> column(table, "categoryCol"));
+            Category[] categories = {Category.SHOPPING, Category.ENTERTAINMENT};
+            results.add(probe.scenario(rows, "edit-category", 20, i -> {
+                // What committing the Category cell's combo box fires
+                Event.fireEvent(categoryColumn, new TableColumn.CellEditEvent<>(table,
+                        new TablePosition<>(table, i, categoryColumn), TableColumn.editCommitEvent(), categories[i % 2]));
+            }));
+
+            // The first switch also loads the analysis view, as in the app before its preload finishes
+            MenuItem showAnalysis = onFx(() -> menuItem(scene, "Data Analysis"));
+            results.add(probe.scenario(rows, "to-analysis", 10, i -> showAnalysis.fire(),
+                    i -> findButton(scene, "Back to Main").fire()));
+            onFx(() -> {
+                showAnalysis.fire();
+                return null;
+            });
+            results.add(probe.scenario(rows, "to-main", 10, i -> findButton(scene, "Back to Main").fire(),
+                    i -> showAnalysis.fire()));
+            return results;
+        } finally {
+            if (stage != null) {
+                Stage toClose = stage;
+                onFx(() -> {
+                    toClose.close();
+                    return null;
+                });
+            }
+            context.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Node> T lookup(Scene scene, String selector) {
+        Node node = scene.getRoot().lookup(selector);
+        if (node == null) {
+            throw new IllegalStateException("No node " + selector + " in the current view");
+        }
+        return (T) node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> TableColumn<Transaction, T> column(TableView<Transaction> table, String id) {
+        return (TableColumn<Transaction, T>) table.getColumns().stream().filter(c -> id.equals(c.getId())).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No column " + id));
+    }
+
+    private static MenuItem menuItem(Scene scene, String text) {
+        MenuBar menuBar = lookup(scene, ".menu-bar");
+        for (Menu menu : menuBar.getMenus()) {
+            for (MenuItem item : menu.getItems()) {
+                if (text.equals(item.getText())) return item;
+            }
+        }
+        throw new IllegalStateException("No menu item " + text);
+    }
+
+    private static Button findButton(Scene scene, String text) {
+        return scene.getRoot().lookupAll(".button").stream()
+                .filter(node -> node instanceof Button button && text.equals(button.getText()))
+                .map(Button.class::cast).findFirst()
+                .orElseThrow(() -> new IllegalStateException("No button " + text + " in the current view"));
+    }
+
+    // --- Timing ---
+
+    /**
+     * Times pulses and frames of one scene. The pulse listeners and the animation timer run on the FX
+     * thread; {@link #scenario} is called from the driving thread and hands each interaction to it.
+     */
+    private static final class FrameProbe {
+
+        private final List<Double> pulseMs = new ArrayList<>();
+        private final List<Double> frameGapMs = new ArrayList<>();
+        private final List<Runnable> afterNextPulse = new ArrayList<>();
+        private long layoutStart;
+        private long lastFrame;
+        private final AnimationTimer frames = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                long time = System.nanoTime();
+                if (lastFrame != 0) frameGapMs.add((time - lastFrame) / 1e6);
+                lastFrame = time;
+            }
+        };
+
+        FrameProbe(Scene scene) {
+            scene.addPreLayoutPulseListener(() -> layoutStart = System.nanoTime());
+            scene.addPostLayoutPulseListener(() -> {
+                pulseMs.add((System.nanoTime() - layoutStart) / 1e6);
+                List<Runnable> due = List.copyOf(afterNextPulse);
+                afterNextPulse.clear();
+                due.forEach(Runnable::run);
+            });
+        }
+
+        Result scenario(int rows, String name, int samples, IntConsumer interaction) throws Exception {
+            return scenario(rows, name, samples, interaction, null);
+        }
+
+        /**
+         * Runs {@code interaction} {@code samples} times, each followed by the untimed {@code reset} (if
+         * any), and times each from the start of the interaction to the end of the next layout pass.
+         */
+        Result scenario(int rows, String name, int samples, IntConsumer interaction, IntConsumer reset)
+                throws Exception {
+            onFx(() -> {
+                pulseMs.clear();
+                frameGapMs.clear();
+                lastFrame = 0;
+                frames.start();
+                return null;
+            });
+            double[] times = new double[samples];
+            try {
+                for (int i = 0; i < samples; i++) {
+                    int sample = i;
+                    CompletableFuture<Double> rendered = new CompletableFuture<>();
+                    onFx(() -> {
+                        long start = System.nanoTime();
+                        interaction.accept(sample);
+                        afterNextPulse.add(() -> rendered.complete((System.nanoTime() - start) / 1e6));
+                        Platform.requestNextPulse();
+                        return null;
+                    });
+                    times[i] = rendered.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                    settle();
+                    if (reset != null) {
+                        onFx(() -> {
+                            reset.accept(sample);
+                            return null;
+                        });
+                        settle();
+                    }
+                }
+            } finally {
+                onFx(() -> {
+                    frames.stop();
+                    return null;
+                });
+            }
+            return onFx(() -> {
+                Arrays.sort(times);
+                return new Result(rows, name, samples, percentile(times, 0.5), percentile(times, 0.95),
+                        pulseMs.stream().mapToDouble(Double::doubleValue).max().orElse(0),
+                        frameGapMs.stream().mapToDouble(Double::doubleValue).max().orElse(0));
+            });
+        }
+
+        /** Waits for a few pulses, so work the interaction deferred lands before the next one starts. */
+        private void settle() throws Exception {
+            for (int i = 0; i < SETTLE_PULSES; i++) {
+                CompletableFuture<Void> pulsed = new CompletableFuture<>();
+                onFx(() -> {
+                    afterNextPulse.add(() -> pulsed.complete(null));
+                    Platform.requestNextPulse();
+                    return null;
+                });
+                pulsed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /** Nearest-rank percentile of sorted {@code values}. */
+    private static double percentile(double[] values, double p) {
+        return values[Math.max(0, (int) Math.ceil(p * values.length) - 1)];
+    }
+
+    // --- Baseline ---
+
+    /**
+     * Prints each scenario against the baseline. A baseline scenario with no result in this run counts as a
+     * regression, so a scenario that was dropped or stopped reporting cannot pass unnoticed.
+     * @return the number of regressions
+     */
+    private static int compare(List<Result> baseline, List<Result> current, double tolerance) {
+        Map<String, Result> before = new LinkedHashMap<>();
+        baseline.forEach(r -> before.put(r.key(), r));
+        int regressions = 0;
+        System.out.printf("%nAgainst the baseline (tolerance %.0f%% + %.0f ms):%n", tolerance * 100, SLACK_MS);
+        if (before.isEmpty()) {
+            System.out.println("The baseline has no scenarios");
+            return 1;
+        }
+        for (Result after : current) {
+            Result old = before.remove(after.key());
+            if (old == null) {
+                System.out.printf("%-30s (new)%n", after.key());
+                continue;
+            }
+            List<String> regressed = new ArrayList<>();
+            check(regressed, "median", old.medianMs(), after.medianMs(), tolerance);
+            check(regressed, "p95", old.p95Ms(), after.p95Ms(), tolerance);
+            check(regressed, "pulse", old.maxPulseMs(), after.maxPulseMs(), tolerance);
+            System.out.printf("%-30s median %8.1f -> %8.1f   p95 %8.1f -> %8.1f   pulse %8.1f -> %8.1f   %s%n",
+                    after.key(), old.medianMs(), after.medianMs(), old.p95Ms(), after.p95Ms(), old.maxPulseMs(),
+                    after.maxPulseMs(), regressed.isEmpty() ? "ok" : "REGRESSED " + String.join(", ", regressed));
+            if (!regressed.isEmpty()) regressions++;
+        }
+        for (String missing : before.keySet()) {
+            System.out.printf("%-30s MISSING from this run%n", missing);
+            regressions++;
+        }
+        return regressions;
+    }
+
+    private static void check(List<String> regressed, String metric, double before, double after, double tolerance) {
+        if (after > before * (1 + tolerance) + SLACK_MS) {
+            regressed.add(metric);
+        }
+    }
+}
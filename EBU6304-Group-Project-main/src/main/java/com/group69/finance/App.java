@@ -1,12 +1,24 @@
 package com.group69.finance;
 
+import com.group69.finance.batch.BatchRunner;
 import javafx.application.Application;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 
 @SpringBootApplication // Enables component scanning for beans (Services, Controllers, etc.)
 public class App {
 
     public static void main(String[] args) {
+        if (BatchRunner.isBatchInvocation(args)) {
+            // Headless batch mode: Spring services only, the JavaFX toolkit is never started
+            System.exit(SpringApplication.exit(new SpringApplicationBuilder(App.class)
+                    .profiles(BatchRunner.PROFILE)
+                    .web(WebApplicationType.NONE)
+                    .headless(true)
+                    .run(args)));
+        }
         // Launch the separate JavaFX Application class
         // FxApplication will handle Spring context initialization and UI startup
         Application.launch(FxApplication.class, args);
@@ -1,8 +1,8 @@
 package com.group69.finance;
 
 import javafx.application.Application;
+import com.group69.finance.controller.ViewRegistry;
 import javafx.application.Platform;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
@@ -11,7 +11,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
 
-import java.io.IOException;
 import java.net.URL;
 import java.util.Objects; // Import for Objects.requireNonNull
 
@@ -38,21 +37,9 @@ public class FxApplication extends Application {
     public void start(Stage primaryStage) throws Exception {
         log.info("Starting JavaFX Application UI...");
         try {
-            FXMLLoader fxmlLoader = new FXMLLoader();
-            // Adjusted path relative to resources root
-            URL fxmlUrl = getClass().getResource("/fxml/main-window.fxml");
-
-            if (fxmlUrl == null) {
-                log.error("Cannot find FXML file: /fxml/main-window.fxml");
-                throw new IOException("Cannot find FXML file.");
-            }
-            log.debug("Loading FXML from: {}", fxmlUrl);
-            fxmlLoader.setLocation(fxmlUrl);
-
-            // IMPORTANT: Set the controller factory BEFORE loading FXML
-            fxmlLoader.setControllerFactory(springContext::getBean);
-
-            Parent root = fxmlLoader.load();
+            // Views are loaded once by the registry and reused on every navigation
+            ViewRegistry viewRegistry = springContext.getBean(ViewRegistry.class);
+            Parent root = viewRegistry.root(ViewRegistry.View.MAIN);
 
             Scene scene = new Scene(root, 850, 650); // Adjusted size slightly
 
@@ -74,6 +61,9 @@ public class FxApplication extends Application {
             primaryStage.setScene(scene);
             primaryStage.setTitle("Personal Finance Tracker (Element Style)");
             primaryStage.show();
+            viewRegistry.shown(ViewRegistry.View.MAIN);
+            // Parse the other views while the user looks at the first one
+            viewRegistry.preload(ViewRegistry.View.ANALYSIS);
             log.info("JavaFX Application UI Started.");
 
         } catch (Exception e) { // Catch broader exceptions during FXML loading/init
@@ -0,0 +1,103 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.model.Category;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Turns {@link LedgerTotals} into chart-sized datasets: time buckets in calendar order whose width adapts
+ * to the range shown, and pie slices limited to the largest categories. Both read only the months in
+ * the requested range, so zooming into a year touches twelve months whatever the ledger's history.
+ */
+public final class ChartData {
+
+    /** @param start first month of the bucket; {@code end} is its last month within the requested range */
+    public record TimeBucket(Granularity granularity, YearMonth start, YearMonth end, String label,
+                             double income, double expense) {
+    }
+
+    /** @param categories the categories summed into this slice; more than one only for "Other" */
+    public record Slice(String label, double value, List<Category> categories) {
+    }
+
+    public static final String OTHER_LABEL = "Other";
+
+    private ChartData() {
+    }
+
+    /**
+     * Income and expense per bucket between {@code from} and {@code to} (inclusive; {@code null} for the
+     * ledger's first/last month), at the finest granularity that needs at most {@code maxBuckets} buckets.
+     * Every bucket in the range is present, empty ones with zeros, so both series share one ordered axis.
+     */
+    public static List<TimeBucket> timeBuckets(LedgerTotals totals, YearMonth from, YearMonth to, int maxBuckets) {
+        NavigableMap<YearMonth, LedgerTotals.MonthTotals> months = totals.months();
+        if (months.isEmpty()) {
+            return List.of();
+        }
+        YearMonth first = from != null ? from : months.firstKey();
+        YearMonth last = to != null ? to : months.lastKey();
+        if (first.isAfter(last)) {
+            return List.of();
+        }
+        Granularity granularity = Granularity.forRange(first, last, maxBuckets);
+        List<TimeBucket> buckets = new ArrayList<>();
+        for (YearMonth start = granularity.bucketStart(first); !start.isAfter(last); start = start.plusMonths(granularity.months())) {
+            YearMonth bucketFirst = start.isBefore(first) ? first : start;
+            YearMonth bucketEnd = start.plusMonths(granularity.months() - 1);
+            YearMonth bucketLast = bucketEnd.isAfter(last) ? last : bucketEnd;
+            long incomeCents = 0;
+            long expenseCents = 0;
+            for (LedgerTotals.MonthTotals month : months.subMap(bucketFirst, true, bucketLast, true).values()) {
+                incomeCents += month.incomeCents();
+                expenseCents += month.expenseCents();
+            }
+            buckets.add(new TimeBucket(granularity, bucketFirst, bucketLast, granularity.label(start),
+                    incomeCents / 100.0, expenseCents / 100.0));
+        }
+        return buckets;
+    }
+
+    /**
+     * The expense categories as pie slices sized by amount, largest first. At most {@code maxSlices}
+     * slices are returned: categories beyond that, or below {@code minShare} of the total, are summed into
+     * one trailing "Other" slice.
+     */
+    public static List<Slice> expenseSlices(Map<Category, LedgerTotals.CategoryTotals> categories, int maxSlices, double minShare) {
+        List<Slice> all = new ArrayList<>();
+        double total = 0;
+        for (Map.Entry<Category, LedgerTotals.CategoryTotals> entry : categories.entrySet()) {
+            if (!entry.getKey().isIncome() && entry.getValue().cents() != 0) {
+                double amount = Math.abs(entry.getValue().total()); // Expenses are stored as negative amounts
+                all.add(new Slice(entry.getKey().name(), amount, List.of(entry.getKey())));
+                total += amount;
+            }
+        }
+        all.sort(Comparator.comparingDouble(Slice::value).reversed());
+
+        List<Slice> slices = new ArrayList<>();
+        List<Category> other = new ArrayList<>();
+        double otherValue = 0;
+        for (Slice slice : all) {
+            // Keep a slot for "Other" unless everything fits
+            boolean room = slices.size() < (all.size() <= maxSlices ? maxSlices : maxSlices - 1);
+            if (room && slice.value() >= total * minShare) {
+                slices.add(slice);
+            } else {
+                other.addAll(slice.categories());
+                otherValue += slice.value();
+            }
+        }
+        if (other.size() == 1) {
+            slices.add(new Slice(other.get(0).name(), otherValue, List.copyOf(other))); // No point in hiding one category
+        } else if (!other.isEmpty()) {
+            slices.add(new Slice(OTHER_LABEL, otherValue, List.copyOf(other)));
+        }
+        return slices;
+    }
+}
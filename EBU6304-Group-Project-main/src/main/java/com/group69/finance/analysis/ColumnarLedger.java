@@ -0,0 +1,462 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ledger as parallel primitive columns (epoch day, amount in cents, category and source
+ * ordinals), so aggregations run as tight loops over a few contiguous arrays instead of chasing a
+ * {@code Transaction}, its {@code LocalDate} and its enums for every row. A reference column keeps
+ * the rows themselves for the few that a scan selects.
+ * <p>
+ * Rows are located through an identity index, so adding, removing or replacing one is O(1): a
+ * removed row's slot is taken by the last row, which makes column order insertion order only until
+ * the first removal.
+ * <p>
+ * Alongside the columns, {@link RoaringBitmap}s record which positions carry each tag, category, source
+ * and month, so {@link #select} answers tag queries combined with category, source and date filters by
+ * bitmap operations instead of a scan. Not thread-safe; {@link LedgerAggregates} keeps one in step
+ * with the repository under its own lock. The kernels may read the columns from several pool threads, but only while the
+ * calling thread waits for them.
+ */
+public final class ColumnarLedger {
+
+    private static final int MIN_CAPACITY = 1 << 10;
+    static final int CATEGORY_COUNT = Category.values().length;
+    private static final int SOURCE_COUNT = Source.values().length;
+    private static final boolean[] INCOME = new boolean[CATEGORY_COUNT];
+
+    static {
+        for (Category category : Category.values()) {
+            INCOME[category.ordinal()] = category.isIncome();
+        }
+    }
+
+    private int size;
+    private int[] epochDays;
+    private long[] cents;
+    private byte[] categories;
+    private byte[] sources;
+    private Transaction[] rows;
+
+    // Identity index: row -> position. Open addressing; a null key marks an empty slot
+    private Transaction[] indexKeys;
+    private int[] indexPositions;
+
+    // Bitmap indexes: positions per tag, category and source ordinal, and month (months since 0000-01)
+    private Map<String, RoaringBitmap> tagRows;
+    private RoaringBitmap[] categoryRows;
+    private RoaringBitmap[] sourceRows;
+    private Map<Integer, RoaringBitmap> monthRows;
+
+    public ColumnarLedger() {
+        clear();
+    }
+
+    /**
+     * Cents and row counts per calendar month and category, from {@code firstMonth} for {@code months}
+     * months; the cell of a month and category is {@code monthOffset * CATEGORY_COUNT + ordinal}.
+     */
+    public record MonthCube(YearMonth firstMonth, int months, long[] cents, int[] rows) {
+        public static final MonthCube EMPTY = new MonthCube(null, 0, new long[0], new int[0]);
+
+        public int cell(int monthOffset, Category category) {
+            return monthOffset * CATEGORY_COUNT + category.ordinal();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Transaction row(int position) {
+        return rows[position];
+    }
+
+    public void clear() {
+        size = 0;
+        epochDays = new int[MIN_CAPACITY];
+        cents = new long[MIN_CAPACITY];
+        categories = new byte[MIN_CAPACITY];
+        sources = new byte[MIN_CAPACITY];
+        rows = new Transaction[MIN_CAPACITY];
+        indexKeys = new Transaction[MIN_CAPACITY * 2];
+        indexPositions = new int[MIN_CAPACITY * 2];
+        tagRows = new HashMap<>();
+        categoryRows = newBitmaps(CATEGORY_COUNT);
+        sourceRows = newBitmaps(SOURCE_COUNT);
+        monthRows = new HashMap<>();
+    }
+
+    public void addAll(List<Transaction> added) {
+        ensureCapacity(size + added.size());
+        added.forEach(this::add);
+    }
+
+    public void add(Transaction row) {
+        ensureCapacity(size + 1);
+        set(size, row);
+        indexPut(row, size);
+        size++;
+    }
+
+    /** @return {@code false} if the row is not in the columns */
+    public boolean remove(Transaction row) {
+        int slot = indexSlot(row);
+        if (indexKeys[slot] == null) {
+            return false;
+        }
+        int position = indexPositions[slot];
+        indexRemove(slot);
+        int last = --size;
+        if (position != last) {
+            set(position, rows[last]); // Drops the removed row from the bitmaps, adds the moved one at its new position
+            indexPositions[indexSlot(rows[last])] = position;
+        }
+        unindex(last, rows[last]);
+        rows[last] = null;
+        return true;
+    }
+
+    /** Puts {@code updated} in the place of {@code old}; {@code false} if {@code old} is not in the columns. */
+    public boolean replace(Transaction old, Transaction updated) {
+        int slot = indexSlot(old);
+        if (indexKeys[slot] == null) {
+            return false;
+        }
+        int position = indexPositions[slot];
+        indexRemove(slot);
+        set(position, updated);
+        indexPut(updated, position);
+        return true;
+    }
+
+    // --- Kernels ---
+    // Large ledgers are split into pieces on the common fork/join pool (see ParallelRanges); each piece
+    // fills its own partial result, and partial results are merged
+
+    /** Sums every row into its month and category cell: two passes over the day column, one over the others. */
+    public MonthCube sumByMonthAndCategory() {
+        if (size == 0) {
+            return MonthCube.EMPTY;
+        }
+        int[] days = ParallelRanges.reduce(size, this::dayRange,
+                (a, b) -> new int[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+        int minDay = days[0];
+        int maxDay = days[1];
+        // Day -> month offset, filled a month at a time: the per-row work is then a table lookup
+        YearMonth firstMonth = YearMonth.from(LocalDate.ofEpochDay(minDay));
+        int[] monthOfDay = new int[maxDay - minDay + 1];
+        int months = 0;
+        for (YearMonth month = firstMonth; month.atDay(1).toEpochDay() <= maxDay; month = month.plusMonths(1), months++) {
+            int from = (int) Math.max(minDay, month.atDay(1).toEpochDay()) - minDay;
+            int to = (int) Math.min(maxDay, month.atEndOfMonth().toEpochDay()) - minDay;
+            Arrays.fill(monthOfDay, from, to + 1, months);
+        }
+
+        int cellCount = months * CATEGORY_COUNT;
+        Cells cells = ParallelRanges.reduce(size, (from, to) -> sumCells(from, to, monthOfDay, minDay, cellCount), Cells::add);
+        return new MonthCube(firstMonth, months, cells.cents(), cells.rows());
+    }
+
+    /**
+     * The rows whose amount in cents is above the limit for their category, indexed by ordinal;
+     * {@code Double.POSITIVE_INFINITY} leaves a category out. One branch per row over two columns.
+     */
+    public List<Transaction> rowsAbove(double[] limitCentsByCategory) {
+        return ParallelRanges.reduce(size, (from, to) -> {
+            List<Transaction> hits = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                if (cents[i] > limitCentsByCategory[categories[i]]) {
+                    hits.add(rows[i]);
+                }
+            }
+            return hits;
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+
+    /**
+     * The rows carrying the tags {@code tags} asks for ({@code null}: any) that also pass {@code filter},
+     * with their totals. Tags, categories, sources and whole months are combined as bitmaps; only the
+     * rows in the first and last month of a date range are checked against the day column.
+     */
+    public RowSelection select(long version, TagQuery tags, ExportFilter filter) {
+        RoaringBitmap selected = tags == null ? null : evaluate(tags);
+        if (!filter.categories().isEmpty()) {
+            selected = intersect(selected, union(filter.categories().stream().map(c -> categoryRows[c.ordinal()]).toList()));
+        }
+        if (!filter.sources().isEmpty()) {
+            selected = intersect(selected, union(filter.sources().stream().map(s -> sourceRows[s.ordinal()]).toList()));
+        }
+        if (filter.from() != null || filter.to() != null) {
+            selected = intersect(selected, dateRange(filter.from(), filter.to()));
+        }
+        if (selected == null) {
+            selected = RoaringBitmap.range(size);
+        }
+
+        List<Transaction> matches = new ArrayList<>(selected.cardinality());
+        long[] totals = new long[4]; // incomeCents, incomeRows, expenseCents, expenseRows
+        selected.forEach(i -> {
+            matches.add(rows[i]);
+            int offset = INCOME[categories[i]] ? 0 : 2;
+            totals[offset] += cents[i];
+            totals[offset + 1]++;
+        });
+        return new RowSelection(version, matches, totals[0], (int) totals[1], totals[2], (int) totals[3]);
+    }
+
+    /** Per tag: {incomeCents, incomeRows, expenseCents, expenseRows}, summed over each tag's bitmap. */
+    public Map<String, long[]> sumByTag() {
+        Map<String, long[]> sums = new HashMap<>();
+        tagRows.forEach((tag, bitmap) -> {
+            long[] totals = new long[4];
+            bitmap.forEach(i -> {
+                int offset = INCOME[categories[i]] ? 0 : 2;
+                totals[offset] += cents[i];
+                totals[offset + 1]++;
+            });
+            sums.put(tag, totals);
+        });
+        return sums;
+    }
+
+    /** @return the approximate heap bytes held by the tag, category, source and month bitmaps */
+    public long indexBytes() {
+        long bytes = 0;
+        for (RoaringBitmap bitmap : tagRows.values()) bytes += bitmap.sizeInBytes();
+        for (RoaringBitmap bitmap : monthRows.values()) bytes += bitmap.sizeInBytes();
+        for (RoaringBitmap bitmap : categoryRows) bytes += bitmap.sizeInBytes();
+        for (RoaringBitmap bitmap : sourceRows) bytes += bitmap.sizeInBytes();
+        return bytes;
+    }
+
+    /** Bitmap of the rows {@code query} selects. NOT is taken relative to every row. */
+    private RoaringBitmap evaluate(TagQuery query) {
+        if (query instanceof TagQuery.Tag tag) {
+            return tagRows.getOrDefault(tag.name(), new RoaringBitmap());
+        }
+        if (query instanceof TagQuery.Or or) {
+            return union(or.terms().stream().map(this::evaluate).toList());
+        }
+        if (query instanceof TagQuery.And and) {
+            // Intersect the positive terms first and subtract the negated ones: a AND NOT b is a - b
+            RoaringBitmap result = null;
+            List<RoaringBitmap> excluded = new ArrayList<>();
+            for (TagQuery term : and.terms()) {
+                if (term instanceof TagQuery.Not not) {
+                    excluded.add(evaluate(not.term()));
+                } else {
+                    result = intersect(result, evaluate(term));
+                }
+            }
+            if (result == null) {
+                result = RoaringBitmap.range(size);
+            }
+            for (RoaringBitmap bitmap : excluded) {
+                result = RoaringBitmap.andNot(result, bitmap);
+            }
+            return result;
+        }
+        return RoaringBitmap.andNot(RoaringBitmap.range(size), evaluate(((TagQuery.Not) query).term()));
+    }
+
+    /** The rows dated {@code from} to {@code to}, both inclusive; a {@code null} end is open. */
+    private RoaringBitmap dateRange(LocalDate from, LocalDate to) {
+        int fromMonth = from == null ? Integer.MIN_VALUE : month(from);
+        int toMonth = to == null ? Integer.MAX_VALUE : month(to);
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        List<RoaringBitmap> parts = new ArrayList<>();
+        monthRows.forEach((month, bitmap) -> {
+            if (month < fromMonth || month > toMonth) {
+                return;
+            }
+            if (month != fromMonth && month != toMonth) {
+                parts.add(bitmap);
+                return;
+            }
+            RoaringBitmap days = new RoaringBitmap(); // A month at the edge of the range: check its rows' days
+            bitmap.forEach(i -> {
+                if (epochDays[i] >= fromDay && epochDays[i] <= toDay) days.add(i);
+            });
+            parts.add(days);
+        });
+        return union(parts);
+    }
+
+    private static RoaringBitmap intersect(RoaringBitmap selected, RoaringBitmap bitmap) {
+        return selected == null ? bitmap : RoaringBitmap.and(selected, bitmap);
+    }
+
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (RoaringBitmap bitmap : bitmaps) {
+            result = RoaringBitmap.or(result, bitmap);
+        }
+        return result;
+    }
+
+    private int[] dayRange(int from, int to) {
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            minDay = Math.min(minDay, epochDays[i]);
+            maxDay = Math.max(maxDay, epochDays[i]);
+        }
+        return new int[]{minDay, maxDay};
+    }
+
+    private Cells sumCells(int from, int to, int[] monthOfDay, int minDay, int cellCount) {
+        long[] cubeCents = new long[cellCount];
+        int[] cubeRows = new int[cellCount];
+        for (int i = from; i < to; i++) {
+            int cell = monthOfDay[epochDays[i] - minDay] * CATEGORY_COUNT + categories[i];
+            cubeCents[cell] += cents[i];
+            cubeRows[cell]++;
+        }
+        return new Cells(cubeCents, cubeRows);
+    }
+
+    /** One piece's month-by-category sums; merging adds the other piece's into this one. */
+    private record Cells(long[] cents, int[] rows) {
+        Cells add(Cells other) {
+            for (int i = 0; i < cents.length; i++) {
+                cents[i] += other.cents[i];
+                rows[i] += other.rows[i];
+            }
+            return this;
+        }
+    }
+
+    // --- Storage ---
+
+    private void set(int position, Transaction row) {
+        if (rows[position] != null) {
+            unindex(position, rows[position]);
+        }
+        epochDays[position] = (int) row.getDate().toEpochDay();
+        cents[position] = Math.round(row.getAmount() * 100);
+        categories[position] = (byte) row.getCategory().ordinal();
+        sources[position] = (byte) row.getSource().ordinal();
+        rows[position] = row;
+        index(position, row);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rows.length) {
+            int grown = Math.max(capacity, rows.length + (rows.length >> 1));
+            epochDays = Arrays.copyOf(epochDays, grown);
+            cents = Arrays.copyOf(cents, grown);
+            categories = Arrays.copyOf(categories, grown);
+            sources = Arrays.copyOf(sources, grown);
+            rows = Arrays.copyOf(rows, grown);
+        }
+        if (capacity * 2 > indexKeys.length) {
+            resizeIndex(Integer.highestOneBit(capacity * 2 - 1) << 1);
+        }
+    }
+
+    // --- Bitmap indexes ---
+
+    private void index(int position, Transaction row) {
+        categoryRows[row.getCategory().ordinal()].add(position);
+        sourceRows[row.getSource().ordinal()].add(position);
+        monthRows.computeIfAbsent(month(row.getDate()), m -> new RoaringBitmap()).add(position);
+        for (String tag : row.getTags()) {
+            tagRows.computeIfAbsent(tag, t -> new RoaringBitmap()).add(position);
+        }
+    }
+
+    private void unindex(int position, Transaction row) {
+        categoryRows[row.getCategory().ordinal()].remove(position);
+        sourceRows[row.getSource().ordinal()].remove(position);
+        removeFrom(monthRows, month(row.getDate()), position);
+        for (String tag : row.getTags()) {
+            removeFrom(tagRows, tag, position);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int position) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        bitmap.remove(position);
+        if (bitmap.isEmpty()) {
+            bitmaps.remove(key);
+        }
+    }
+
+    private static int month(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    private static RoaringBitmap[] newBitmaps(int count) {
+        RoaringBitmap[] bitmaps = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            bitmaps[i] = new RoaringBitmap();
+        }
+        return bitmaps;
+    }
+
+    // --- Identity index ---
+
+    /** Linear probing: the slot holding {@code row}, or the empty slot where it would go. */
+    private int indexSlot(Transaction row) {
+        int mask = indexKeys.length - 1;
+        int slot = hash(row) & mask;
+        while (indexKeys[slot] != null && indexKeys[slot] != row) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void indexPut(Transaction row, int position) {
+        int slot = indexSlot(row);
+        indexKeys[slot] = row;
+        indexPositions[slot] = position;
+    }
+
+    /** Backward-shift deletion keeps every remaining key reachable from its home slot without tombstones. */
+    private void indexRemove(int slot) {
+        int mask = indexKeys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (indexKeys[next] != null) {
+            int home = hash(indexKeys[next]) & mask;
+            // Move next into the hole unless its home lies cyclically in (hole, next]
+            boolean homeBetween = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!homeBetween) {
+                indexKeys[hole] = indexKeys[next];
+                indexPositions[hole] = indexPositions[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        indexKeys[hole] = null;
+    }
+
+    private void resizeIndex(int capacity) {
+        indexKeys = new Transaction[capacity];
+        indexPositions = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            indexPut(rows[i], i);
+        }
+    }
+
+    private static int hash(Transaction row) {
+        int h = System.identityHashCode(row) * 0x9E3779B9; // Spread the low bits the mask keeps
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,43 @@
+package com.group69.finance.analysis;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+
+/** Width of a time bucket in the income/expense chart. */
+public enum Granularity {
+    MONTH(1), QUARTER(3), YEAR(12);
+
+    private final int months;
+
+    Granularity(int months) {
+        this.months = months;
+    }
+
+    public int months() {
+        return months;
+    }
+
+    /** First month of the bucket containing {@code month}; buckets are aligned to calendar quarters and years. */
+    public YearMonth bucketStart(YearMonth month) {
+        return month.minusMonths((month.getMonthValue() - 1) % months);
+    }
+
+    public String label(YearMonth bucketStart) {
+        return switch (this) {
+            case MONTH -> bucketStart.toString();
+            case QUARTER -> bucketStart.getYear() + "-Q" + ((bucketStart.getMonthValue() - 1) / 3 + 1);
+            case YEAR -> Integer.toString(bucketStart.getYear());
+        };
+    }
+
+    /** The finest granularity that shows {@code from}..{@code to} in at most {@code maxBuckets} buckets (else YEAR). */
+    public static Granularity forRange(YearMonth from, YearMonth to, int maxBuckets) {
+        for (Granularity granularity : values()) {
+            long buckets = ChronoUnit.MONTHS.between(granularity.bucketStart(from), to) / granularity.months + 1;
+            if (buckets <= maxBuckets) {
+                return granularity;
+            }
+        }
+        return YEAR;
+    }
+}
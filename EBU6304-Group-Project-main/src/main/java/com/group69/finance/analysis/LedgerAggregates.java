@@ -0,0 +1,209 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerChange;
+import com.group69.finance.repository.LedgerChangeListener;
+import com.group69.finance.repository.LedgerSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-month and per-category totals, and each month's split by category, kept current through
+ * repository change events. A change only touches the months and categories of the rows it added or
+ * removed, so the charts and the analysis never rescan the ledger to aggregate it; {@link #totals()}
+ * hands out an immutable copy that is rebuilt at most once per data version.
+ * <p>
+ * A {@link ColumnarLedger} is kept in step under the same lock. Full aggregations (a load or reload)
+ * and row scans such as {@link #rowsAbove} run over its primitive columns rather than the rows, and
+ * {@link #select} answers tag queries from its bitmap indexes. Totals per tag are kept like those per
+ * category.
+ */
+@Component
+public class LedgerAggregates {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerAggregates.class);
+
+    private final FinanceDataRepository repository;
+    private final LedgerChangeListener listener = this::onLedgerChanged;
+
+    private static final Category[] CATEGORIES = Category.values();
+    private static final int MONTH_FIELDS = 4;
+
+    // Guarded by this. Month: {incomeCents, incomeRows, expenseCents, expenseRows} followed by
+    // {cents, rows} per category in ordinal order; category: {cents, rows}
+    private final TreeMap<YearMonth, long[]> months = new TreeMap<>();
+    private final EnumMap<Category, long[]> categories = new EnumMap<>(Category.class);
+    private final EnumMap<Category, Long> categoryVersions = new EnumMap<>(Category.class);
+    private final TreeMap<String, long[]> tags = new TreeMap<>(); // {incomeCents, incomeRows, expenseCents, expenseRows}
+    private final ColumnarLedger columns = new ColumnarLedger();
+    private LedgerSnapshot ledger;
+    private LedgerTotals totals;
+
+    @Autowired
+    public LedgerAggregates(FinanceDataRepository repository) {
+        this.repository = repository;
+        synchronized (this) {
+            // Subscribe before taking the snapshot so no change is missed; changes the snapshot
+            // already contains are recognised by their version and skipped
+            repository.addChangeListener(listener);
+            rebuild(repository.snapshot());
+        }
+    }
+
+    /** Totals of the latest ledger version whose change notification has completed. */
+    public synchronized LedgerTotals totals() {
+        if (totals == null || totals.version() != ledger.version()) {
+            TreeMap<YearMonth, LedgerTotals.MonthTotals> monthCopy = new TreeMap<>();
+            months.forEach((month, t) -> {
+                Map<Category, LedgerTotals.CategoryTotals> byCategory = new EnumMap<>(Category.class);
+                for (Category category : CATEGORIES) {
+                    int slot = MONTH_FIELDS + 2 * category.ordinal();
+                    if (t[slot + 1] != 0) {
+                        byCategory.put(category, new LedgerTotals.CategoryTotals(t[slot], (int) t[slot + 1]));
+                    }
+                }
+                monthCopy.put(month, new LedgerTotals.MonthTotals(t[0], (int) t[1], t[2], (int) t[3],
+                        Collections.unmodifiableMap(byCategory)));
+            });
+            Map<Category, LedgerTotals.CategoryTotals> categoryCopy = new EnumMap<>(Category.class);
+            categories.forEach((category, t) -> categoryCopy.put(category, new LedgerTotals.CategoryTotals(t[0], (int) t[1])));
+            TreeMap<String, LedgerTotals.TagTotals> tagCopy = new TreeMap<>();
+            tags.forEach((tag, t) -> tagCopy.put(tag, new LedgerTotals.TagTotals(t[0], (int) t[1], t[2], (int) t[3])));
+            totals = new LedgerTotals(ledger.version(), ledger,
+                    Collections.unmodifiableNavigableMap(monthCopy),
+                    Collections.unmodifiableMap(categoryCopy),
+                    Collections.unmodifiableMap(new EnumMap<>(categoryVersions)),
+                    Collections.unmodifiableNavigableMap(tagCopy));
+        }
+        return totals;
+    }
+
+    /**
+     * Rows whose amount in cents is above the limit for their category (indexed by ordinal;
+     * {@code Double.POSITIVE_INFINITY} skips one), found by a scan of the columns.
+     *
+     * @return the matching rows of ledger {@code version}, or {@code null} if the ledger has moved on since
+     */
+    public synchronized List<Transaction> rowsAbove(long version, double[] limitCentsByCategory) {
+        return version == ledger.version() ? columns.rowsAbove(limitCentsByCategory) : null;
+    }
+
+    /**
+     * The rows of the current ledger version that {@code tags} ({@code null}: any tags) and {@code filter}
+     * select, found with bitmap operations; see {@link ColumnarLedger#select}.
+     */
+    public synchronized RowSelection select(TagQuery tags, ExportFilter filter) {
+        return columns.select(ledger.version(), tags, filter);
+    }
+
+    /** Stops following the repository. */
+    @PreDestroy
+    public void close() {
+        repository.removeChangeListener(listener);
+    }
+
+    // --- Maintenance (runs under the repository's write lock) ---
+
+    private synchronized void onLedgerChanged(LedgerChange change) {
+        if (change.version() <= ledger.version() && change.kind() != LedgerChange.Kind.RELOADED) {
+            return;
+        }
+        if (change.kind() == LedgerChange.Kind.RELOADED) {
+            rebuild(repository.snapshot());
+            return;
+        }
+        apply(change.removed(), -1, change.version());
+        apply(change.added(), 1, change.version());
+        if (change.kind() == LedgerChange.Kind.UPDATED && change.removed().size() == change.added().size()) {
+            for (int i = 0; i < change.removed().size(); i++) {
+                columns.replace(change.removed().get(i), change.added().get(i)); // Keeps the row's position
+            }
+        } else {
+            change.removed().forEach(columns::remove);
+            columns.addAll(change.added());
+        }
+        // Listeners run in version order under the write lock, so current is exactly this version
+        ledger = repository.snapshot();
+    }
+
+    private void rebuild(LedgerSnapshot snapshot) {
+        long start = System.nanoTime();
+        months.clear();
+        categories.clear();
+        categoryVersions.clear();
+        tags.clear();
+        columns.clear();
+        columns.addAll(snapshot);
+        tags.putAll(columns.sumByTag());
+        ColumnarLedger.MonthCube cube = columns.sumByMonthAndCategory();
+        for (int m = 0; m < cube.months(); m++) {
+            long[] month = null;
+            for (Category category : CATEGORIES) {
+                int cell = cube.cell(m, category);
+                if (cube.rows()[cell] == 0) continue;
+                if (month == null) {
+                    month = months.computeIfAbsent(cube.firstMonth().plusMonths(m), k -> new long[MONTH_FIELDS + 2 * CATEGORIES.length]);
+                }
+                long cents = cube.cents()[cell];
+                int rows = cube.rows()[cell];
+                int offset = category.isIncome() ? 0 : 2;
+                month[offset] += cents;
+                month[offset + 1] += rows;
+                int slot = MONTH_FIELDS + 2 * category.ordinal();
+                month[slot] += cents;
+                month[slot + 1] += rows;
+                long[] totals = categories.computeIfAbsent(category, c -> new long[2]);
+                totals[0] += cents;
+                totals[1] += rows;
+                categoryVersions.put(category, snapshot.version());
+            }
+        }
+        ledger = snapshot;
+        log.debug("Ledger aggregates rebuilt for {} rows in {} ms", snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void apply(List<Transaction> rows, int sign, long version) {
+        for (Transaction t : rows) {
+            long cents = Math.round(t.getAmount() * 100);
+            YearMonth yearMonth = YearMonth.from(t.getDate());
+            long[] month = months.computeIfAbsent(yearMonth, m -> new long[MONTH_FIELDS + 2 * CATEGORIES.length]);
+            int offset = t.getCategory().isIncome() ? 0 : 2;
+            month[offset] += sign * cents;
+            month[offset + 1] += sign;
+            int slot = MONTH_FIELDS + 2 * t.getCategory().ordinal();
+            month[slot] += sign * cents;
+            month[slot + 1] += sign;
+            if (month[1] == 0 && month[3] == 0) {
+                months.remove(yearMonth);
+            }
+            long[] category = categories.computeIfAbsent(t.getCategory(), c -> new long[2]);
+            category[0] += sign * cents;
+            category[1] += sign;
+            if (category[1] == 0) {
+                categories.remove(t.getCategory());
+            }
+            categoryVersions.put(t.getCategory(), version);
+            for (String tag : t.getTags()) {
+                long[] tagTotals = tags.computeIfAbsent(tag, k -> new long[4]);
+                tagTotals[offset] += sign * cents;
+                tagTotals[offset + 1] += sign;
+                if (tagTotals[1] == 0 && tagTotals[3] == 0) {
+                    tags.remove(tag);
+                }
+            }
+        }
+    }
+}
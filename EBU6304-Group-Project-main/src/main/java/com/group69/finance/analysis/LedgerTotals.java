@@ -0,0 +1,86 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.repository.LedgerSnapshot;
+
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Immutable per-month and per-category totals of one ledger version, in cents so they can be
+ * maintained incrementally without floating-point drift.
+ *
+ * @param version          ledger data version these totals describe
+ * @param ledger           the ledger at that version
+ * @param months           totals per calendar month, in month order
+ * @param categories       totals per category; categories without rows are absent
+ * @param categoryVersions per category, the last data version at which one of its rows changed
+ * @param tags             totals per tag, in tag order; tags no row carries are absent
+ */
+public record LedgerTotals(long version, LedgerSnapshot ledger, NavigableMap<YearMonth, MonthTotals> months,
+                           Map<Category, CategoryTotals> categories, Map<Category, Long> categoryVersions,
+                           NavigableMap<String, TagTotals> tags) {
+
+    /** @param categories the month's totals per category; categories without rows that month are absent */
+    public record MonthTotals(long incomeCents, int incomeRows, long expenseCents, int expenseRows,
+                              Map<Category, CategoryTotals> categories) {
+        public double income() {
+            return incomeCents / 100.0;
+        }
+
+        public double expense() {
+            return expenseCents / 100.0;
+        }
+    }
+
+    public record CategoryTotals(long cents, int rows) {
+        public double total() {
+            return cents / 100.0;
+        }
+
+        public double average() {
+            return rows == 0 ? 0 : cents / 100.0 / rows;
+        }
+    }
+
+    /** Income and expenses of the rows carrying one tag; a row with several tags counts under each. */
+    public record TagTotals(long incomeCents, int incomeRows, long expenseCents, int expenseRows) {
+        public double income() {
+            return incomeCents / 100.0;
+        }
+
+        public double expense() {
+            return expenseCents / 100.0;
+        }
+
+        public int rows() {
+            return incomeRows + expenseRows;
+        }
+    }
+
+    /** Category totals over the months {@code from} to {@code to}, both inclusive; reads only those months. */
+    public Map<Category, CategoryTotals> categoriesBetween(YearMonth from, YearMonth to) {
+        long[] cents = new long[Category.values().length];
+        int[] rows = new int[cents.length];
+        for (MonthTotals month : months.subMap(from, true, to, true).values()) {
+            month.categories().forEach((category, t) -> {
+                cents[category.ordinal()] += t.cents();
+                rows[category.ordinal()] += t.rows();
+            });
+        }
+        Map<Category, CategoryTotals> result = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            if (rows[category.ordinal()] != 0) {
+                result.put(category, new CategoryTotals(cents[category.ordinal()], rows[category.ordinal()]));
+            }
+        }
+        return result;
+    }
+
+    /** @return the last data version at which a row of {@code category} was added, changed or removed */
+    public long categoryVersion(Category category) {
+        return categoryVersions.getOrDefault(category, 0L);
+    }
+}
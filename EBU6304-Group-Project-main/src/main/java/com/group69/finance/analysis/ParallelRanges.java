@@ -0,0 +1,69 @@
+package com.group69.finance.analysis;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Runs a pass over row positions {@code [0, size)} as pieces on the common fork/join pool and merges
+ * the pieces' results pairwise, left before right. For the full-ledger passes (rebuilds and scans)
+ * whose partial results combine: sums and counts add, minima and maxima take the smaller or larger,
+ * hit lists concatenate in row order.
+ * <p>
+ * Below {@value #SEQUENTIAL_ROWS} rows, or when the pool has a single worker, the pass runs as one
+ * piece on the caller's thread, where splitting would only add overhead.
+ */
+final class ParallelRanges {
+
+    static final int SEQUENTIAL_ROWS = 1 << 16;
+    // A few pieces per worker, so one slow piece does not leave the others idle
+    private static final int PIECES_PER_WORKER = 4;
+
+    private ParallelRanges() {
+    }
+
+    /** The result of a pass over positions {@code [from, to)}. */
+    @FunctionalInterface
+    interface RangeFunction<A> {
+        A apply(int from, int to);
+    }
+
+    static <A> A reduce(int size, RangeFunction<A> piece, BinaryOperator<A> merge) {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        if (size < SEQUENTIAL_ROWS || pool.getParallelism() < 2) {
+            return piece.apply(0, size);
+        }
+        int pieceRows = Math.max(SEQUENTIAL_ROWS / 2, size / (pool.getParallelism() * PIECES_PER_WORKER));
+        return pool.invoke(new Split<>(0, size, pieceRows, piece, merge));
+    }
+
+    private static final class Split<A> extends RecursiveTask<A> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int pieceRows;
+        private final RangeFunction<A> piece;
+        private final BinaryOperator<A> merge;
+
+        Split(int from, int to, int pieceRows, RangeFunction<A> piece, BinaryOperator<A> merge) {
+            this.from = from;
+            this.to = to;
+            this.pieceRows = pieceRows;
+            this.piece = piece;
+            this.merge = merge;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= pieceRows) {
+                return piece.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Split<A> left = new Split<>(from, middle, pieceRows, piece, merge);
+            left.fork();
+            A right = new Split<>(middle, to, pieceRows, piece, merge).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+}
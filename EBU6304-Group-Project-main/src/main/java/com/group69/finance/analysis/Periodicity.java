@@ -0,0 +1,44 @@
+package com.group69.finance.analysis;
+
+import java.time.LocalDate;
+
+/** How often a recurring transaction repeats, with the date jitter tolerated between occurrences. */
+public enum Periodicity {
+    WEEKLY(7, 1), MONTHLY(30.44, 3), YEARLY(365.25, 7);
+
+    private final double days;
+    private final int toleranceDays;
+
+    Periodicity(double days, int toleranceDays) {
+        this.days = days;
+        this.toleranceDays = toleranceDays;
+    }
+
+    /** Mean length of one period in days. */
+    public double days() {
+        return days;
+    }
+
+    public int toleranceDays() {
+        return toleranceDays;
+    }
+
+    /** The date {@code periods} periods after {@code date}; months and years follow the calendar. */
+    public LocalDate advance(LocalDate date, int periods) {
+        return switch (this) {
+            case WEEKLY -> date.plusWeeks(periods);
+            case MONTHLY -> date.plusMonths(periods);
+            case YEARLY -> date.plusYears(periods);
+        };
+    }
+
+    /** How many periods a gap of {@code gapDays} spans, or 0 if it is not close to a whole number of them. */
+    int periodsIn(long gapDays, int maxPeriods) {
+        long periods = Math.round(gapDays / days);
+        if (periods < 1 || periods > maxPeriods) {
+            return 0;
+        }
+        // The jitter of each occurrence is independent, so the allowed drift does not grow with the gap
+        return Math.abs(gapDays - periods * days) <= toleranceDays ? (int) periods : 0;
+    }
+}
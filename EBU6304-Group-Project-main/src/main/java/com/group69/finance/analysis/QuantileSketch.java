@@ -0,0 +1,152 @@
+package com.group69.finance.analysis;
+
+/**
+ * Quantiles of a multiset of non-negative whole amounts (cents) to within a relative error of
+ * {@value #RELATIVE_ACCURACY}, in bounded memory.
+ * <p>
+ * Values are counted in logarithmic buckets: bucket {@code i} holds the values in
+ * {@code (γ^(i-1), γ^i]}, {@code γ = (1 + α) / (1 - α)}, and answers with {@code 2γ^i / (γ + 1)}, which
+ * is within α of every value in it. {@link #quantile} is therefore within a relative α of the value of
+ * rank {@code ⌊q (n - 1)⌋} in sorted order, whatever the number of values or their distribution.
+ * A sketch keeps at most {@value #MAX_BUCKETS} counters, a span of about 8·10^8 (one cent to eight
+ * million); should its values spread wider, the lowest buckets are folded into one, which only
+ * loosens the lowest quantiles.
+ * <p>
+ * Unlike rank sketches such as KLL or t-digest, a value can be taken out again exactly, so edits and
+ * deletions cost what additions do, and merging two sketches (adding their counts) gives the same
+ * sketch as feeding one with both inputs. Not thread-safe.
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+    public static final int MAX_BUCKETS = 1024;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long count;
+    private long zeros;
+    // counts[i] is bucket offset + i; buckets below floor have been folded into floor
+    private long[] counts = new long[0];
+    private int offset;
+    private int floor = Integer.MIN_VALUE;
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void add(long value) {
+        if (value == 0) {
+            zeros++;
+        } else {
+            int slot = slotFor(bucket(value)); // May replace counts, so before indexing it
+            counts[slot]++;
+        }
+        count++;
+    }
+
+    /** Takes out one occurrence of {@code value}, which must have been added. */
+    public void remove(long value) {
+        if (value == 0) {
+            if (zeros == 0) {
+                throw new IllegalArgumentException("Value 0 is not in the sketch");
+            }
+            zeros--;
+        } else {
+            int index = Math.max(bucket(value), floor);
+            int slot = index - offset;
+            if (slot < 0 || slot >= counts.length || counts[slot] == 0) {
+                throw new IllegalArgumentException("Value " + value + " is not in the sketch");
+            }
+            counts[slot]--;
+        }
+        count--;
+    }
+
+    /** Adds every value of {@code other} to this sketch. */
+    public void merge(QuantileSketch other) {
+        if (other.counts.length != 0) {
+            // Widen to the other's whole range once rather than a bucket at a time
+            slotFor(other.offset + other.counts.length - 1);
+            slotFor(other.offset);
+            for (int i = 0; i < other.counts.length; i++) {
+                if (other.counts[i] != 0) {
+                    int slot = slotFor(other.offset + i);
+                    counts[slot] += other.counts[i];
+                }
+            }
+        }
+        zeros += other.zeros;
+        count += other.count;
+    }
+
+    public QuantileSketch copy() {
+        QuantileSketch copy = new QuantileSketch();
+        copy.count = count;
+        copy.zeros = zeros;
+        copy.counts = counts.clone();
+        copy.offset = offset;
+        copy.floor = floor;
+        return copy;
+    }
+
+    /**
+     * The value at quantile {@code q} (0 the smallest, 0.5 the median, 1 the largest), within
+     * {@value #RELATIVE_ACCURACY} of the exact one; {@code NaN} if the sketch is empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (count - 1));
+        if (rank < zeros) {
+            return 0;
+        }
+        long seen = zeros;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+            }
+        }
+        throw new IllegalStateException("Bucket counts do not add up to " + count);
+    }
+
+    // --- Buckets ---
+
+    private static int bucket(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    /** The slot of bucket {@code index}, widening the counters to reach it and folding the lowest if needed. */
+    private int slotFor(int index) {
+        index = Math.max(index, floor);
+        if (counts.length != 0 && index >= offset && index < offset + counts.length) {
+            return index - offset;
+        }
+        int low = counts.length == 0 ? index : Math.min(offset, index);
+        int high = counts.length == 0 ? index : Math.max(offset + counts.length - 1, index);
+        if (high - low + 1 > MAX_BUCKETS) {
+            low = high - MAX_BUCKETS + 1;
+            floor = low;
+            index = Math.max(index, floor);
+        }
+        long[] widened = new long[high - low + 1];
+        for (int i = 0; i < counts.length; i++) {
+            widened[Math.max(offset + i, low) - low] += counts[i];
+        }
+        counts = widened;
+        offset = low;
+        return index - offset;
+    }
+}
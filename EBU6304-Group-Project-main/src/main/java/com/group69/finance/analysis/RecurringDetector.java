@@ -0,0 +1,337 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.dedup.Fingerprint;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerChange;
+import com.group69.finance.repository.LedgerChangeListener;
+import com.group69.finance.repository.LedgerSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Finds rent, salary, bills and subscriptions: rows that repeat weekly, monthly or yearly under the same
+ * description for about the same amount.
+ * <p>
+ * Rows are hashed into groups by normalized description and sign as they arrive through repository
+ * change events (loads, CSV imports, edits), so a change only marks the groups of the rows it touched.
+ * {@link #report()} then re-examines just those groups: each is split into amount bands and every band
+ * sorted by date and tested for a regular interval, O(k log k) for a group of k rows and O(n log n)
+ * for a whole ledger.
+ */
+@Component
+public class RecurringDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringDetector.class);
+
+    static final int MIN_OCCURRENCES = 3;
+    // Sorted by amount, a step larger than this factor starts a new band (the same shop, two different bills)
+    private static final double BAND_RATIO = 2.5;
+    // A gap longer than this many periods ends a series; shorter ones count as missed occurrences
+    private static final int MAX_PERIODS_PER_GAP = 3;
+    private static final double MIN_REGULAR_SHARE = 0.6;
+    private static final double MIN_MATCHED_SHARE = 0.9;
+    private static final double UNUSUAL_FACTOR = 1.5;
+    private static final int PACKED_INDEX_BITS = 24;
+    private static final long PACKED_INDEX_MASK = (1L << PACKED_INDEX_BITS) - 1;
+    private static final long PACKED_CENTS_MAX = Long.MAX_VALUE >>> PACKED_INDEX_BITS;
+
+    private final FinanceDataRepository repository;
+    private final LedgerChangeListener listener = this::onLedgerChanged;
+
+    // Guarded by this. Groups compare by identity
+    private final Map<GroupKey, Group> groups = new HashMap<>();
+    private final Set<Group> dirty = new HashSet<>();
+    private final Set<Group> recurring = new HashSet<>();
+    private final TreeMap<LocalDate, Integer> rowsPerDay = new TreeMap<>();
+    private long indexedVersion = -1;
+    private RecurringReport report;
+
+    @Autowired
+    public RecurringDetector(FinanceDataRepository repository) {
+        this.repository = repository;
+        synchronized (this) {
+            // Subscribe before taking the snapshot so no change is missed; changes the snapshot
+            // already contains are recognised by their version and skipped
+            repository.addChangeListener(listener);
+            LedgerSnapshot snapshot = repository.snapshot();
+            rebuild(snapshot);
+            indexedVersion = snapshot.version();
+        }
+    }
+
+    /** The recurring series of the latest ledger version; groups unchanged since the last call are not re-examined. */
+    public synchronized RecurringReport report() {
+        if (report != null && report.version() == indexedVersion) {
+            return report;
+        }
+        long start = System.nanoTime();
+        int examined = dirty.size();
+        for (Group group : dirty) {
+            group.series = detect(group.rows);
+            if (group.series.isEmpty()) {
+                recurring.remove(group);
+            } else {
+                recurring.add(group);
+            }
+        }
+        dirty.clear();
+
+        LocalDate asOf = rowsPerDay.isEmpty() ? null : rowsPerDay.lastKey();
+        List<RecurringSeries> active = new ArrayList<>();
+        for (Group group : recurring) {
+            for (RecurringSeries series : group.series) {
+                RecurringSeries current = asOf == null ? series : withOverdue(series, asOf);
+                if (current != null) active.add(current);
+            }
+        }
+        active.sort(Comparator.comparingDouble((RecurringSeries s) -> Math.abs(s.monthlyAmount())).reversed());
+        report = new RecurringReport(indexedVersion, asOf, List.copyOf(active));
+        log.debug("Recurring series: {} active, {} of {} groups examined in {} ms", active.size(), examined,
+                groups.size(), (System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    /** Stops following the repository. */
+    @PreDestroy
+    public void close() {
+        repository.removeChangeListener(listener);
+    }
+
+    // --- Detection ---
+
+    /** The recurring series among the rows of one description group, one per amount band at most. */
+    static List<RecurringSeries> detect(List<Transaction> rows) {
+        if (rows.size() < MIN_OCCURRENCES) {
+            return List.of();
+        }
+        Transaction[] byAmount = sortByMagnitude(rows);
+        List<RecurringSeries> found = new ArrayList<>(1);
+        int bandStart = 0;
+        for (int i = 1; i <= byAmount.length; i++) {
+            if (i == byAmount.length
+                    || Math.abs(byAmount[i].getAmount()) > Math.abs(byAmount[i - 1].getAmount()) * BAND_RATIO) {
+                if (i - bandStart >= MIN_OCCURRENCES && sparseEnough(byAmount, bandStart, i)) {
+                    RecurringSeries series = detectBand(Arrays.copyOfRange(byAmount, bandStart, i));
+                    if (series != null) found.add(series);
+                }
+                bandStart = i;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Rows by ascending absolute amount. Large groups (the supermarket, the canteen) dominate the cost,
+     * so amount and position are packed into one long and sorted as primitives where they fit.
+     */
+    private static Transaction[] sortByMagnitude(List<Transaction> rows) {
+        Transaction[] sorted = rows.toArray(new Transaction[0]);
+        if (sorted.length > PACKED_INDEX_MASK) {
+            Arrays.sort(sorted, Comparator.comparingDouble(t -> Math.abs(t.getAmount())));
+            return sorted;
+        }
+        long[] packed = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            long cents = Math.abs(Math.round(sorted[i].getAmount() * 100));
+            if (cents > PACKED_CENTS_MAX) {
+                Arrays.sort(sorted, Comparator.comparingDouble(t -> Math.abs(t.getAmount())));
+                return sorted;
+            }
+            packed[i] = cents << PACKED_INDEX_BITS | i;
+        }
+        Arrays.sort(packed);
+        Transaction[] byAmount = new Transaction[sorted.length];
+        for (int i = 0; i < packed.length; i++) {
+            byAmount[i] = sorted[(int) (packed[i] & PACKED_INDEX_MASK)];
+        }
+        return byAmount;
+    }
+
+    /** Whether rows {@code from..to} are spread out enough for most gaps to be a week or more, in O(k) without sorting. */
+    private static boolean sparseEnough(Transaction[] rows, int from, int to) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            long day = rows[i].getDate().toEpochDay();
+            first = Math.min(first, day);
+            last = Math.max(last, day);
+        }
+        double minPeriod = Periodicity.WEEKLY.days() - Periodicity.WEEKLY.toleranceDays();
+        return (double) (last - first) / (to - from - 1) >= MIN_REGULAR_SHARE * minPeriod;
+    }
+
+    /**
+     * Tests one amount band (sorted by amount) for each periodicity. Most gaps between consecutive
+     * occurrences must be one period, within the date tolerance, and nearly all a whole number of
+     * periods; the periodicity with the most one-period gaps wins.
+     */
+    private static RecurringSeries detectBand(Transaction[] band) {
+        double typical = Math.abs(band[band.length / 2].getAmount()); // Median
+        Transaction[] byDate = band.clone();
+        Arrays.sort(byDate, Comparator.comparing(Transaction::getDate));
+        long[] gaps = new long[byDate.length - 1];
+        for (int i = 0; i < gaps.length; i++) {
+            gaps[i] = byDate[i + 1].getDate().toEpochDay() - byDate[i].getDate().toEpochDay();
+        }
+
+        Periodicity best = null;
+        int bestRegular = 0;
+        for (Periodicity periodicity : Periodicity.values()) {
+            int regular = 0;
+            int matched = 0;
+            for (long gap : gaps) {
+                int periods = periodicity.periodsIn(gap, MAX_PERIODS_PER_GAP);
+                if (periods == 1) regular++;
+                if (periods > 0) matched++;
+            }
+            if (regular >= MIN_REGULAR_SHARE * gaps.length && matched >= MIN_MATCHED_SHARE * gaps.length
+                    && regular > bestRegular) {
+                best = periodicity;
+                bestRegular = regular;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+
+        List<LocalDate> missed = new ArrayList<>();
+        for (int i = 0; i < gaps.length; i++) {
+            int periods = best.periodsIn(gaps[i], MAX_PERIODS_PER_GAP);
+            for (int p = 1; p < periods; p++) {
+                missed.add(best.advance(byDate[i].getDate(), p));
+            }
+        }
+        List<Transaction> unusual = new ArrayList<>();
+        for (Transaction t : byDate) {
+            if (Math.abs(t.getAmount()) > typical * UNUSUAL_FACTOR) unusual.add(t);
+        }
+        Transaction latest = byDate[byDate.length - 1];
+        double amount = latest.getAmount() < 0 ? -typical : typical;
+        return new RecurringSeries(latest.getDescription(), latest.getCategory(), best, amount, byDate.length,
+                byDate[0].getDate(), latest.getDate(), best.advance(latest.getDate(), 1),
+                List.copyOf(missed), List.copyOf(unusual));
+    }
+
+    /**
+     * Adds the occurrences due by {@code asOf} that have not appeared to the missed ones, or returns
+     * {@code null} when so many are overdue that the series has evidently ended.
+     */
+    private static RecurringSeries withOverdue(RecurringSeries series, LocalDate asOf) {
+        Periodicity periodicity = series.periodicity();
+        List<LocalDate> overdue = new ArrayList<>();
+        for (int p = 1; !periodicity.advance(series.last(), p).plusDays(periodicity.toleranceDays()).isAfter(asOf); p++) {
+            if (p >= MAX_PERIODS_PER_GAP) {
+                return null;
+            }
+            overdue.add(periodicity.advance(series.last(), p));
+        }
+        if (overdue.isEmpty()) {
+            return series;
+        }
+        List<LocalDate> missed = new ArrayList<>(series.missed());
+        missed.addAll(overdue);
+        return new RecurringSeries(series.description(), series.category(), periodicity, series.amount(),
+                series.occurrences(), series.first(), series.last(), series.nextExpected(),
+                List.copyOf(missed), series.unusual());
+    }
+
+    /** {@link Fingerprint} normalization with digit runs folded, so "Invoice 0324" and "Invoice 0424" group together. */
+    static String normalize(String description) {
+        String normalized = Fingerprint.normalize(description);
+        StringBuilder folded = null;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (folded == null) {
+                    folded = new StringBuilder(normalized.length()).append(normalized, 0, i);
+                }
+                if (folded.length() == 0 || folded.charAt(folded.length() - 1) != '#') folded.append('#');
+            } else if (folded != null) {
+                folded.append(c);
+            }
+        }
+        return folded == null ? normalized : folded.toString();
+    }
+
+    // --- Maintenance (runs under the repository's write lock) ---
+
+    private synchronized void onLedgerChanged(LedgerChange change) {
+        if (change.version() <= indexedVersion && change.kind() != LedgerChange.Kind.RELOADED) {
+            return;
+        }
+        indexedVersion = change.version();
+        if (change.kind() == LedgerChange.Kind.RELOADED) {
+            rebuild(change.added());
+            return;
+        }
+        removeAll(change.removed());
+        change.added().forEach(this::insert);
+    }
+
+    private void rebuild(List<Transaction> ledger) {
+        long start = System.nanoTime();
+        groups.clear();
+        dirty.clear();
+        recurring.clear();
+        rowsPerDay.clear();
+        ledger.forEach(this::insert);
+        log.debug("Recurring groups rebuilt for {} rows in {} ms", ledger.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void insert(Transaction row) {
+        Group group = groups.computeIfAbsent(GroupKey.of(row), key -> new Group());
+        group.rows.add(row);
+        dirty.add(group);
+        rowsPerDay.merge(row.getDate(), 1, Integer::sum);
+    }
+
+    private void removeAll(List<Transaction> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        // One pass over each touched group, however many of its rows go
+        Map<GroupKey, Set<String>> idsByGroup = new HashMap<>();
+        for (Transaction row : removed) {
+            idsByGroup.computeIfAbsent(GroupKey.of(row), key -> new HashSet<>()).add(row.getId());
+            rowsPerDay.computeIfPresent(row.getDate(), (day, count) -> count == 1 ? null : count - 1);
+        }
+        idsByGroup.forEach((key, ids) -> {
+            Group group = groups.get(key);
+            if (group == null) return;
+            group.rows.removeIf(row -> ids.contains(row.getId()));
+            if (group.rows.isEmpty()) {
+                groups.remove(key);
+                dirty.remove(group);
+                recurring.remove(group);
+            } else {
+                dirty.add(group);
+            }
+        });
+    }
+
+    private record GroupKey(String description, boolean income) {
+        static GroupKey of(Transaction row) {
+            return new GroupKey(normalize(row.getDescription()), row.getAmount() >= 0);
+        }
+    }
+
+    private static final class Group {
+        final List<Transaction> rows = new ArrayList<>();
+        List<RecurringSeries> series = List.of();
+    }
+}
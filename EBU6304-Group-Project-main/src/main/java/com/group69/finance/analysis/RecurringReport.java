@@ -0,0 +1,20 @@
+package com.group69.finance.analysis;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The recurring series active in one ledger version, largest monthly amount first.
+ *
+ * @param asOf the ledger's latest transaction date, against which overdue occurrences are counted
+ */
+public record RecurringReport(long version, LocalDate asOf, List<RecurringSeries> series) {
+
+    public double monthlyIncome() {
+        return series.stream().mapToDouble(RecurringSeries::monthlyAmount).filter(a -> a > 0).sum();
+    }
+
+    public double monthlyExpense() {
+        return series.stream().mapToDouble(RecurringSeries::monthlyAmount).filter(a -> a < 0).sum();
+    }
+}
@@ -0,0 +1,28 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One recurring payment or income found by {@link RecurringDetector}: rows with the same normalized
+ * description, in the same amount band, at a regular interval.
+ *
+ * @param description  description of the latest occurrence
+ * @param category     category of the latest occurrence
+ * @param amount       median amount of an occurrence; negative for expenses
+ * @param nextExpected one period after the latest occurrence
+ * @param missed       expected dates without an occurrence, between the first occurrence and the ledger's last date
+ * @param unusual      occurrences well above the usual amount
+ */
+public record RecurringSeries(String description, Category category, Periodicity periodicity, double amount,
+                              int occurrences, LocalDate first, LocalDate last, LocalDate nextExpected,
+                              List<LocalDate> missed, List<Transaction> unusual) {
+
+    /** The amount converted to a per-month rate, so weekly, monthly and yearly commitments add up. */
+    public double monthlyAmount() {
+        return amount * Periodicity.MONTHLY.days() / periodicity.days();
+    }
+}
@@ -0,0 +1,21 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.List;
+
+/**
+ * The rows of one ledger version that a tag query and filter selected, in no particular order, and
+ * their totals in cents.
+ */
+public record RowSelection(long version, List<Transaction> rows, long incomeCents, int incomeRows,
+                           long expenseCents, int expenseRows) {
+
+    public double income() {
+        return incomeCents / 100.0;
+    }
+
+    public double expense() {
+        return expenseCents / 100.0;
+    }
+}
@@ -0,0 +1,176 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerChange;
+import com.group69.finance.repository.LedgerChangeListener;
+import com.group69.finance.repository.LedgerSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * How much single expenses typically are: a {@link QuantileSketch} of the spending rows' amounts (as
+ * positive cents) per category and calendar month, kept current through repository change events.
+ * Each row costs one counter update when it is added, edited or removed; the sketches of any range of
+ * months are merged on demand, so a median or p99 never needs the rows sorted.
+ */
+@Component
+public class SpendingSketches {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendingSketches.class);
+
+    private final FinanceDataRepository repository;
+    private final LedgerChangeListener listener = this::onLedgerChanged;
+
+    // Guarded by this. Categories and months without rows are absent
+    private final Map<Category, TreeMap<YearMonth, QuantileSketch>> sketches = new EnumMap<>(Category.class);
+    private long indexedVersion = -1;
+
+    @Autowired
+    public SpendingSketches(FinanceDataRepository repository) {
+        this.repository = repository;
+        synchronized (this) {
+            // Subscribe before taking the snapshot so no change is missed; changes the snapshot
+            // already contains are recognised by their version and skipped
+            repository.addChangeListener(listener);
+            LedgerSnapshot snapshot = repository.snapshot();
+            rebuild(snapshot);
+            indexedVersion = snapshot.version();
+        }
+    }
+
+    /** The ledger version the sketches describe. */
+    public synchronized long version() {
+        return indexedVersion;
+    }
+
+    /** The months with spending in any category, in order. */
+    public synchronized NavigableSet<YearMonth> months() {
+        NavigableSet<YearMonth> months = new TreeSet<>();
+        sketches.values().forEach(byMonth -> months.addAll(byMonth.keySet()));
+        return months;
+    }
+
+    /** The categories with spending, in ordinal order. */
+    public synchronized List<Category> categories() {
+        return List.copyOf(sketches.keySet());
+    }
+
+    /**
+     * Spending in {@code category} from month {@code from} to {@code to}, both inclusive ({@code null}
+     * for no bound), merged into a new sketch.
+     */
+    public synchronized QuantileSketch category(Category category, YearMonth from, YearMonth to) {
+        QuantileSketch merged = new QuantileSketch();
+        TreeMap<YearMonth, QuantileSketch> byMonth = sketches.get(category);
+        if (byMonth != null) {
+            Map<YearMonth, QuantileSketch> range = from == null && to == null ? byMonth
+                    : byMonth.subMap(from == null ? YearMonth.of(-999_999_999, 1) : from, true,
+                                     to == null ? YearMonth.of(999_999_999, 12) : to, true);
+            range.values().forEach(merged::merge);
+        }
+        return merged;
+    }
+
+    /** Spending of every category in {@code month}, merged into a new sketch. */
+    public synchronized QuantileSketch month(YearMonth month) {
+        QuantileSketch merged = new QuantileSketch();
+        for (TreeMap<YearMonth, QuantileSketch> byMonth : sketches.values()) {
+            QuantileSketch sketch = byMonth.get(month);
+            if (sketch != null) {
+                merged.merge(sketch);
+            }
+        }
+        return merged;
+    }
+
+    /** Stops following the repository. */
+    @PreDestroy
+    public void close() {
+        repository.removeChangeListener(listener);
+    }
+
+    // --- Maintenance (runs under the repository's write lock) ---
+
+    private synchronized void onLedgerChanged(LedgerChange change) {
+        if (change.version() <= indexedVersion && change.kind() != LedgerChange.Kind.RELOADED) {
+            return;
+        }
+        indexedVersion = change.version();
+        if (change.kind() == LedgerChange.Kind.RELOADED) {
+            rebuild(change.added());
+            return;
+        }
+        change.removed().forEach(this::remove);
+        change.added().forEach(this::add);
+    }
+
+    private void rebuild(List<Transaction> ledger) {
+        long start = System.nanoTime();
+        sketches.clear();
+        // Pieces of the ledger fill their own sketches, which merge like any others
+        sketches.putAll(ParallelRanges.reduce(ledger.size(), (from, to) -> {
+            Map<Category, TreeMap<YearMonth, QuantileSketch>> piece = new EnumMap<>(Category.class);
+            ledger.subList(from, to).forEach(row -> add(piece, row));
+            return piece;
+        }, SpendingSketches::mergeInto));
+        log.debug("Spending sketches rebuilt for {} rows in {} ms", ledger.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void add(Transaction row) {
+        add(sketches, row);
+    }
+
+    private static void add(Map<Category, TreeMap<YearMonth, QuantileSketch>> sketches, Transaction row) {
+        if (row.getCategory().isIncome()) {
+            return;
+        }
+        sketches.computeIfAbsent(row.getCategory(), c -> new TreeMap<>())
+                .computeIfAbsent(YearMonth.from(row.getDate()), m -> new QuantileSketch())
+                .add(cents(row));
+    }
+
+    private void remove(Transaction row) {
+        TreeMap<YearMonth, QuantileSketch> byMonth = sketches.get(row.getCategory());
+        QuantileSketch sketch = byMonth == null ? null : byMonth.get(YearMonth.from(row.getDate()));
+        if (sketch == null) {
+            return; // An income row
+        }
+        sketch.remove(cents(row));
+        if (sketch.isEmpty()) {
+            byMonth.remove(YearMonth.from(row.getDate()));
+            if (byMonth.isEmpty()) {
+                sketches.remove(row.getCategory());
+            }
+        }
+    }
+
+    private static Map<Category, TreeMap<YearMonth, QuantileSketch>> mergeInto(
+            Map<Category, TreeMap<YearMonth, QuantileSketch>> left, Map<Category, TreeMap<YearMonth, QuantileSketch>> right) {
+        right.forEach((category, byMonth) -> {
+            TreeMap<YearMonth, QuantileSketch> target = left.computeIfAbsent(category, c -> new TreeMap<>());
+            byMonth.forEach((month, sketch) -> target.merge(month, sketch, (a, b) -> {
+                a.merge(b);
+                return a;
+            }));
+        });
+        return left;
+    }
+
+    /** Spending is negative in the ledger; a refund booked under a spending category counts by its size. */
+    private static long cents(Transaction row) {
+        return Math.abs(Math.round(row.getAmount() * 100));
+    }
+}
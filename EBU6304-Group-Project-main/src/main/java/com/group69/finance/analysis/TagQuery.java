@@ -0,0 +1,94 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.model.Tags;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A boolean expression over transaction tags, e.g. {@code trip-2025-japan AND NOT reimbursable} or
+ * {@code (shared-with-roommate OR household) NOT refunded}. {@code AND}, {@code OR} and {@code NOT}
+ * (in any case) bind in the usual order, NOT tightest; two terms side by side mean AND; parentheses
+ * group. {@link ColumnarLedger} answers a query with bitmap operations; {@link #matches} checks one row.
+ */
+public sealed interface TagQuery {
+
+    /** @return {@code true} if a row with these tags satisfies the query */
+    boolean matches(Set<String> tags);
+
+    /** Rows carrying the tag. */
+    record Tag(String name) implements TagQuery {
+        public Tag {
+            String normalized = Tags.normalize(name);
+            if (normalized == null) {
+                throw new IllegalArgumentException("Empty tag name");
+            }
+            name = normalized;
+        }
+
+        @Override
+        public boolean matches(Set<String> tags) {
+            return tags.contains(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    record And(List<TagQuery> terms) implements TagQuery {
+        public And {
+            terms = List.copyOf(terms);
+        }
+
+        @Override
+        public boolean matches(Set<String> tags) {
+            return terms.stream().allMatch(term -> term.matches(tags));
+        }
+
+        @Override
+        public String toString() {
+            return terms.stream().map(term -> term instanceof Or ? "(" + term + ")" : term.toString())
+                    .collect(Collectors.joining(" AND "));
+        }
+    }
+
+    record Or(List<TagQuery> terms) implements TagQuery {
+        public Or {
+            terms = List.copyOf(terms);
+        }
+
+        @Override
+        public boolean matches(Set<String> tags) {
+            return terms.stream().anyMatch(term -> term.matches(tags));
+        }
+
+        @Override
+        public String toString() {
+            return terms.stream().map(TagQuery::toString).collect(Collectors.joining(" OR "));
+        }
+    }
+
+    record Not(TagQuery term) implements TagQuery {
+        @Override
+        public boolean matches(Set<String> tags) {
+            return !term.matches(tags);
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + (term instanceof Tag || term instanceof Not ? term : "(" + term + ")");
+        }
+    }
+
+    /**
+     * Parses a query as typed by the user.
+     *
+     * @throws IllegalArgumentException with the position of the problem if {@code text} is not a query
+     */
+    static TagQuery parse(String text) {
+        return new TagQueryParser(text).parse();
+    }
+}
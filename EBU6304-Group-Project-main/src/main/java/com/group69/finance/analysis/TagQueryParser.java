@@ -0,0 +1,93 @@
+package com.group69.finance.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/** {@link TagQuery#parse}: recursive descent over whitespace- and parenthesis-separated tokens. */
+final class TagQueryParser {
+    private final List<String> tokens = new ArrayList<>();
+    private int next;
+
+    TagQueryParser(String text) {
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '(' || c == ')') {
+                if (!token.isEmpty()) tokens.add(token.toString());
+                token.setLength(0);
+                if (c == '(' || c == ')') tokens.add(String.valueOf(c));
+            } else {
+                token.append(c);
+            }
+        }
+        if (!token.isEmpty()) tokens.add(token.toString());
+    }
+
+    TagQuery parse() {
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Empty tag query");
+        }
+        TagQuery query = or();
+        if (next < tokens.size()) {
+            throw new IllegalArgumentException("Unexpected '" + tokens.get(next) + "' at token " + (next + 1));
+        }
+        return query;
+    }
+
+    private TagQuery or() {
+        List<TagQuery> terms = new ArrayList<>(List.of(and()));
+        while (accept("OR")) {
+            terms.add(and());
+        }
+        return terms.size() == 1 ? terms.get(0) : new TagQuery.Or(terms);
+    }
+
+    private TagQuery and() {
+        List<TagQuery> terms = new ArrayList<>(List.of(not()));
+        while (next < tokens.size() && !peek(")") && !peek("OR")) {
+            accept("AND");
+            terms.add(not());
+        }
+        return terms.size() == 1 ? terms.get(0) : new TagQuery.And(terms);
+    }
+
+    private TagQuery not() {
+        if (accept("NOT")) {
+            return new TagQuery.Not(not());
+        }
+        if (accept("(")) {
+            TagQuery group = or();
+            if (!accept(")")) {
+                throw new IllegalArgumentException("Missing ')' at token " + (next + 1));
+            }
+            return group;
+        }
+        if (next == tokens.size()) {
+            throw new IllegalArgumentException("Query ends where a tag was expected");
+        }
+        String token = tokens.get(next);
+        if (token.equals(")") || isOperator(token)) {
+            throw new IllegalArgumentException("Expected a tag at token " + (next + 1) + ", found '" + token + "'");
+        }
+        next++;
+        return new TagQuery.Tag(token);
+    }
+
+    private boolean peek(String token) {
+        return next < tokens.size() && tokens.get(next).equalsIgnoreCase(token);
+    }
+
+    private boolean accept(String token) {
+        if (peek(token)) {
+            next++;
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isOperator(String token) {
+        String upper = token.toUpperCase(Locale.ROOT);
+        return upper.equals("AND") || upper.equals("OR") || upper.equals("NOT");
+    }
+}
@@ -0,0 +1,281 @@
+package com.group69.finance.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.export.ExportFormat;
+import com.group69.finance.export.ExportService;
+import com.group69.finance.export.ExportSummary;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.service.AnalysisService;
+import com.group69.finance.service.CsvImportResult;
+import com.group69.finance.service.CsvImportService;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.sync.LedgerSyncService;
+import com.group69.finance.sync.SyncReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Headless batch mode: import, analyse and save without starting the JavaFX toolkit.
+ * <p>
+ * Started from {@code App.main} when {@value #BATCH_FLAG} is present, e.g.
+ * <pre>
+ * java -jar app-exec.jar --batch --import=exports/2025-05 --report=report.json --save
+ * </pre>
+ * <ul>
+ *   <li>{@code --migrate-from=<ledger.json>} replace the stored ledger with a JSON data file, e.g. to move
+ *       it into the database with {@code --app.data.store=h2}; runs before the other steps</li>
+ *   <li>{@code --import=<file|dir>[,...]} CSV files to import; directories contribute their {@code *.csv} files in name order</li>
+ *   <li>{@code --sync-with=<dir|file>} two-way sync with another copy of the data file (a directory means the file of
+ *       the same name in it), exchanging only the months that differ; needs the JSON store</li>
+ *   <li>{@code --report=<file>} write the analysis report as JSON</li>
+ *   <li>{@code --export=<file>} export the ledger; {@code .json} or {@code .csv}, plus {@code .gz} to compress.
+ *       Narrow it with {@code --export-from=<yyyy-mm-dd>}, {@code --export-to=<yyyy-mm-dd>},
+ *       {@code --export-categories=<CATEGORY>[,...]} and {@code --export-sources=<SOURCE>[,...]}</li>
+ *   <li>{@code --save} save the ledger to {@code app.data.filepath} (override with {@code --app.data.filepath=...})</li>
+ * </ul>
+ * Every step is timed and a summary is printed before the process exits.
+ */
+@Component
+@Profile(BatchRunner.PROFILE)
+public class BatchRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String PROFILE = "batch";
+    public static final String BATCH_FLAG = "--batch";
+
+    private static final Logger log = LoggerFactory.getLogger(BatchRunner.class);
+
+    private final FinanceDataRepository repository;
+    private final CsvImportService csvImportService;
+    private final AnalysisService analysisService;
+    private final ExportService exportService;
+    private final JsonPersistenceService jsonPersistenceService;
+    private final ObjectMapper objectMapper;
+    private final LedgerSyncService ledgerSyncService;
+    private final String dataFilePath;
+    private final String dataStore;
+    private final List<StepTiming> timings = new ArrayList<>();
+    private int duplicatesSkipped = 0;
+    private int exitCode = 0;
+
+    @Autowired
+    public BatchRunner(FinanceDataRepository repository, CsvImportService csvImportService,
+                       AnalysisService analysisService, ExportService exportService,
+                       JsonPersistenceService jsonPersistenceService, ObjectMapper objectMapper,
+                       LedgerSyncService ledgerSyncService,
+                       @Value("${app.data.filepath}") String dataFilePath,
+                       @Value("${app.data.store:json}") String dataStore) {
+        this.repository = repository;
+        this.csvImportService = csvImportService;
+        this.analysisService = analysisService;
+        this.exportService = exportService;
+        this.jsonPersistenceService = jsonPersistenceService;
+        this.objectMapper = objectMapper;
+        this.ledgerSyncService = ledgerSyncService;
+        this.dataFilePath = dataFilePath;
+        this.dataStore = dataStore;
+    }
+
+    public static boolean isBatchInvocation(String[] args) {
+        return Arrays.asList(args).contains(BATCH_FLAG);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        log.info("Running in headless batch mode with {} transactions loaded.", repository.getSize());
+        // JVM start up to here covers the Spring context and the initial ledger load
+        long uptimeNanos = ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000;
+        timings.add(new StepTiming("startup (context + load)", uptimeNanos, repository.getSize()));
+        try {
+            if (args.containsOption("migrate-from")) {
+                String source = args.getOptionValues("migrate-from").get(0);
+                if (!Files.isRegularFile(Paths.get(source))) {
+                    throw new IOException("No ledger to migrate at " + source); // Would replace the ledger with nothing
+                }
+                long start = System.nanoTime();
+                List<Transaction> rows = jsonPersistenceService.loadTransactions(source);
+                repository.replaceStoredData(rows);
+                record("migrate " + Paths.get(source).getFileName(), start, rows.size());
+            }
+            if (args.containsOption("import")) {
+                for (Path csv : resolveCsvFiles(args.getOptionValues("import"))) {
+                    long start = System.nanoTime();
+                    CsvImportResult result = csvImportService.importTransactionsFromCsv(csv.toString());
+                    record("import " + csv.getFileName(), start, result.imported().size());
+                    if (result.duplicatesSkipped() > 0) {
+                        log.info("Skipped {} rows of {} already in the ledger.", result.duplicatesSkipped(), csv.getFileName());
+                        duplicatesSkipped += result.duplicatesSkipped();
+                    }
+                    if (result.rejectedRows() > 0) {
+                        log.warn("Could not read {} lines of {}:", result.rejectedRows(), csv.getFileName());
+                        result.errors().forEach(error -> log.warn("  {}", error));
+                    }
+                }
+            }
+            if (args.containsOption("sync-with")) {
+                if (!"json".equalsIgnoreCase(dataStore)) {
+                    throw new IOException("--sync-with works on JSON data files; app.data.store is " + dataStore);
+                }
+                Path localFile = Paths.get(dataFilePath);
+                Path other = Paths.get(args.getOptionValues("sync-with").get(0));
+                Path remoteFile = Files.isDirectory(other) ? other.resolve(localFile.getFileName()) : other;
+                long start = System.nanoTime();
+                // The sync works on the files: write what this run changed first, then pick up what it merged in
+                if (repository.isDirty() && !repository.saveAllData()) {
+                    throw new IOException("Saving the ledger before the sync failed; see log for details.");
+                }
+                SyncReport report = ledgerSyncService.sync(localFile, remoteFile);
+                repository.mergeStoredData();
+                record("sync with " + remoteFile, start, report.rowsSent() + report.rowsReceived());
+                log.info("Sync exchanged {} bytes for {} of {} months (copying the file: {} bytes); {} conflicting edits kept the local version.",
+                        report.bytesExchanged(), report.monthsExchanged(), report.months(), report.fullCopyBytes(), report.conflicts());
+            }
+            if (args.containsOption("report")) {
+                Path reportFile = Paths.get(args.getOptionValues("report").get(0));
+                long start = System.nanoTime();
+                Map<String, Object> analysis = analysisService.getAIAnalysis();
+                record("analysis", start, repository.getSize());
+
+                start = System.nanoTime();
+                writeReport(reportFile, analysis);
+                record("write report " + reportFile.getFileName(), start, 1);
+            }
+            if (args.containsOption("export")) {
+                Path exportFile = Paths.get(args.getOptionValues("export").get(0));
+                String fileName = exportFile.getFileName().toString();
+                long start = System.nanoTime();
+                ExportSummary summary = exportService.export(exportFilter(args), ExportFormat.fromFileName(fileName),
+                        ExportFormat.isGzipFileName(fileName), exportFile);
+                record("export " + fileName, start, summary.rows());
+            }
+            if (args.containsOption("save")) {
+                long start = System.nanoTime();
+                if (!repository.saveAllData()) {
+                    throw new IOException("Saving the ledger failed; see log for details.");
+                }
+                record("save", start, repository.getSize());
+            }
+        } catch (Exception e) {
+            log.error("Batch run failed", e);
+            exitCode = 1;
+        }
+        printSummary();
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private List<Path> resolveCsvFiles(List<String> values) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String value : values) {
+            for (String entry : value.split(",")) {
+                Path path = Paths.get(entry.trim());
+                if (Files.isDirectory(path)) {
+                    try (Stream<Path> children = Files.list(path)) {
+                        children.filter(p -> p.getFileName().toString().toLowerCase().endsWith(".csv"))
+                                .sorted()
+                                .forEach(files::add);
+                    }
+                } else {
+                    files.add(path);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static ExportFilter exportFilter(ApplicationArguments args) {
+        return new ExportFilter(
+                optionValue(args, "export-from").map(LocalDate::parse).orElse(null),
+                optionValue(args, "export-to").map(LocalDate::parse).orElse(null),
+                optionValue(args, "export-categories").map(v -> parseEnums(v, Category.class, Category::valueOf)).orElse(Set.of()),
+                optionValue(args, "export-sources").map(v -> parseEnums(v, Source.class, Source::valueOf)).orElse(Set.of()));
+    }
+
+    private static Optional<String> optionValue(ApplicationArguments args, String name) {
+        return args.containsOption(name) ? Optional.of(args.getOptionValues(name).get(0)) : Optional.empty();
+    }
+
+    private static <E extends Enum<E>> Set<E> parseEnums(String value, Class<E> type, Function<String, E> parser) {
+        Set<E> values = EnumSet.noneOf(type);
+        for (String entry : value.split(",")) {
+            if (!entry.isBlank()) {
+                values.add(parser.apply(entry.trim().toUpperCase(Locale.ROOT)));
+            }
+        }
+        return values;
+    }
+
+    private void writeReport(Path reportFile, Map<String, Object> analysis) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generatedAt", LocalDateTime.now().toString());
+        report.put("transactionCount", repository.getSize());
+        report.put("analysis", analysis);
+        Path parent = reportFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        objectMapper.writeValue(reportFile.toFile(), report);
+        log.info("Analysis report written to {}", reportFile.toAbsolutePath());
+    }
+
+    private void record(String step, long startNanos, long rows) {
+        StepTiming timing = new StepTiming(step, System.nanoTime() - startNanos, rows);
+        timings.add(timing);
+        log.info("Batch step '{}' finished in {} ms ({} rows)", step, timing.millis(), rows);
+    }
+
+    private void printSummary() {
+        System.out.println();
+        System.out.printf("%-40s %12s %12s %14s%n", "Step", "Rows", "Time (ms)", "Rows/s");
+        for (StepTiming t : timings) {
+            System.out.printf("%-40s %12d %12d %14.0f%n", t.step(), t.rows(), t.millis(), t.rowsPerSecond());
+        }
+        if (duplicatesSkipped > 0) {
+            System.out.printf("%d imported rows were already in the ledger and were skipped.%n", duplicatesSkipped);
+        }
+        System.out.printf("Batch %s with %d transactions in the ledger.%n",
+                exitCode == 0 ? "completed" : "FAILED", repository.getSize());
+    }
+
+    private record StepTiming(String step, long nanos, long rows) {
+        long millis() {
+            return nanos / 1_000_000;
+        }
+
+        double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows / (nanos / 1e9);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.group69.finance.classifier;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.storage.AtomicFiles;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Learns categories from the user's own corrections. Every category chosen by hand trains a
+ * {@link NaiveBayesModel} in O(features); predictions below the configured confidence, or for
+ * descriptions with no known token, return {@code null} so the keyword rules still decide on a cold
+ * start. The model lives next to the data file ({@code ledger.json} -> {@code ledger.classifier}) and
+ * is rewritten in the background after each correction.
+ */
+@Component
+public class CategoryClassifier {
+
+    private static final Logger log = LoggerFactory.getLogger(CategoryClassifier.class);
+    static final String FILE_EXTENSION = ".classifier";
+
+    private final Path modelFile;
+    private final double minConfidence;
+    private final ExecutorService ioExecutor;
+    private final AtomicBoolean savePending = new AtomicBoolean();
+
+    // Guarded by this
+    private final NaiveBayesModel model;
+    private boolean dirty;
+
+    @Autowired
+    public CategoryClassifier(@Value("${app.data.filepath}") String dataFilePath,
+                              @Value("${app.classifier.min-confidence:0.6}") double minConfidence) {
+        this(modelFileFor(Path.of(dataFilePath)), minConfidence);
+    }
+
+    /** @param modelFile where the model is loaded from and saved to; {@code null} keeps it in memory only */
+    public CategoryClassifier(Path modelFile, double minConfidence) {
+        this.modelFile = modelFile;
+        this.minConfidence = minConfidence;
+        this.ioExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "classifier-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.model = load(modelFile);
+    }
+
+    /** {@code data/ledger.json} -> {@code data/ledger.classifier} */
+    static Path modelFileFor(Path dataFile) {
+        String name = dataFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dataFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + FILE_EXTENSION);
+    }
+
+    /** @return a confident prediction for the transaction, or {@code null} to fall back to the rules */
+    public Prediction predict(Transaction transaction) {
+        synchronized (this) {
+            if (model.examples() == 0) {
+                return null; // Cold start: nothing learned yet
+            }
+        }
+        TransactionFeatures features = TransactionFeatures.of(transaction.getDescription(), transaction.getAmount(),
+                transaction.getSource());
+        Prediction prediction;
+        synchronized (this) {
+            prediction = model.predict(features, transaction.getAmount() >= 0);
+        }
+        return prediction != null && prediction.confidence() >= minConfidence ? prediction : null;
+    }
+
+    /** Trains on a category the user chose for this transaction. */
+    public void learn(Transaction transaction) {
+        Category category = transaction.getCategory();
+        if (category == null || category == Category.UNCATEGORIZED) {
+            return; // Not a statement about the description
+        }
+        TransactionFeatures features = TransactionFeatures.of(transaction.getDescription(), transaction.getAmount(),
+                transaction.getSource());
+        synchronized (this) {
+            model.learn(features, category);
+            dirty = true;
+        }
+        if (modelFile != null && savePending.compareAndSet(false, true)) {
+            ioExecutor.execute(this::save); // Corrections in quick succession share one write
+        }
+    }
+
+    public synchronized int examples() {
+        return model.examples();
+    }
+
+    @PreDestroy
+    public void close() {
+        ioExecutor.shutdown();
+        try {
+            ioExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (modelFile != null) {
+            save();
+        }
+    }
+
+    // --- Persistence ---
+
+    private static NaiveBayesModel load(Path modelFile) {
+        if (modelFile == null || !Files.isRegularFile(modelFile)) {
+            return new NaiveBayesModel();
+        }
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(modelFile)))) {
+            NaiveBayesModel model = NaiveBayesModel.readFrom(new DataInputStream(in));
+            log.info("Loaded category classifier from {} ({} examples, {} features)", modelFile,
+                    model.examples(), model.vocabularySize());
+            return model;
+        } catch (IOException e) {
+            // The keyword rules still work; the next correction starts a new model file
+            log.warn("Could not load category classifier from {}, starting untrained: {}", modelFile, e.toString());
+            return new NaiveBayesModel();
+        }
+    }
+
+    private void save() {
+        savePending.set(false);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+                model.writeTo(out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e); // In-memory stream
+            }
+            dirty = false;
+        }
+        try {
+            AtomicFiles.write(modelFile, bytes.toByteArray());
+            log.debug("Saved category classifier to {} ({} bytes)", modelFile, bytes.size());
+        } catch (IOException e) {
+            log.warn("Could not save category classifier to {}: {}", modelFile, e.toString());
+            synchronized (this) {
+                dirty = true; // Retried with the next correction or on shutdown
+            }
+        }
+    }
+}
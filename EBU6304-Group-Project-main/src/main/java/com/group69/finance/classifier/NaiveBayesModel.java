@@ -0,0 +1,176 @@
+package com.group69.finance.classifier;
+
+import com.group69.finance.model.Category;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multinomial naive Bayes over {@link TransactionFeatures}, with add-one smoothing. Training adds one
+ * example in O(features); a prediction looks every feature up once and scores the categories of the
+ * amount's sign, so both take microseconds whatever the number of examples. Not thread-safe.
+ */
+final class NaiveBayesModel {
+
+    private static final int MAGIC = 0x4E42_4331; // "NBC1"
+    private static final double ALPHA = 1.0;
+    private static final double LOG_ALPHA = Math.log(ALPHA);
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final Map<String, int[]> featureCounts = new HashMap<>();
+    private final int[] examples = new int[CATEGORIES.length];
+    private final long[] featureTotals = new long[CATEGORIES.length];
+    private int totalExamples;
+    // Per-category terms of the score that only change with training; null until the next prediction
+    private double[] logPriors;
+    private double[] logDenominators;
+
+    void learn(TransactionFeatures features, Category category) {
+        logPriors = null;
+        int c = category.ordinal();
+        examples[c]++;
+        totalExamples++;
+        for (String feature : features.all()) {
+            featureCounts.computeIfAbsent(feature, f -> new int[CATEGORIES.length])[c]++;
+            featureTotals[c]++;
+        }
+    }
+
+    /**
+     * The most probable category of the amount's sign, or {@code null} when none of the description's
+     * tokens has been seen in training: amount and source alone are not evidence enough.
+     */
+    Prediction predict(TransactionFeatures features, boolean income) {
+        if (totalExamples == 0) {
+            return null;
+        }
+        List<String> all = features.all();
+        int[][] counts = new int[all.size()][];
+        boolean knownToken = false;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = featureCounts.get(all.get(i));
+            knownToken |= counts[i] != null && i < features.tokens().size();
+        }
+        if (!knownToken) {
+            return null;
+        }
+
+        if (logPriors == null) {
+            computeLogTerms();
+        }
+        double[] scores = new double[CATEGORIES.length];
+        int best = -1;
+        for (Category category : CATEGORIES) {
+            int c = category.ordinal();
+            if (examples[c] == 0 || category.isIncome() != income || category == Category.UNCATEGORIZED) {
+                continue;
+            }
+            double score = logPriors[c] - counts.length * logDenominators[c];
+            for (int[] count : counts) {
+                score += count == null || count[c] == 0 ? LOG_ALPHA : Math.log(count[c] + ALPHA);
+            }
+            scores[c] = score;
+            if (best < 0 || score > scores[best]) {
+                best = c;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+        // Posterior of the winner among the candidates, from log scores without overflow
+        double sum = 0;
+        for (Category category : CATEGORIES) {
+            int c = category.ordinal();
+            if (examples[c] != 0 && category.isIncome() == income && category != Category.UNCATEGORIZED) {
+                sum += Math.exp(scores[c] - scores[best]);
+            }
+        }
+        return new Prediction(CATEGORIES[best], 1 / sum);
+    }
+
+    private void computeLogTerms() {
+        double vocabulary = featureCounts.size();
+        logPriors = new double[CATEGORIES.length];
+        logDenominators = new double[CATEGORIES.length];
+        for (int c = 0; c < CATEGORIES.length; c++) {
+            logPriors[c] = Math.log((double) examples[c] / totalExamples);
+            logDenominators[c] = Math.log(featureTotals[c] + ALPHA * vocabulary);
+        }
+    }
+
+    int examples() {
+        return totalExamples;
+    }
+
+    int vocabularySize() {
+        return featureCounts.size();
+    }
+
+    // --- Persistence ---
+
+    /** Categories are written by name and features sparsely, so the file stays small and survives enum changes. */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(CATEGORIES.length);
+        for (Category category : CATEGORIES) {
+            out.writeUTF(category.name());
+            out.writeInt(examples[category.ordinal()]);
+            out.writeLong(featureTotals[category.ordinal()]);
+        }
+        out.writeInt(featureCounts.size());
+        for (Map.Entry<String, int[]> entry : featureCounts.entrySet()) {
+            out.writeUTF(entry.getKey());
+            int[] counts = entry.getValue();
+            int nonZero = 0;
+            for (int count : counts) {
+                if (count != 0) nonZero++;
+            }
+            out.writeByte(nonZero);
+            for (int c = 0; c < counts.length; c++) {
+                if (counts[c] != 0) {
+                    out.writeByte(c);
+                    out.writeInt(counts[c]);
+                }
+            }
+        }
+    }
+
+    static NaiveBayesModel readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a classifier model file");
+        }
+        NaiveBayesModel model = new NaiveBayesModel();
+        // Position in the file -> current category; null for categories that no longer exist
+        Category[] fileCategories = new Category[in.readUnsignedShort()];
+        for (int i = 0; i < fileCategories.length; i++) {
+            String name = in.readUTF();
+            int examples = in.readInt();
+            long featureTotal = in.readLong();
+            try {
+                fileCategories[i] = Category.valueOf(name);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            model.examples[fileCategories[i].ordinal()] = examples;
+            model.featureTotals[fileCategories[i].ordinal()] = featureTotal;
+            model.totalExamples += examples;
+        }
+        int features = in.readInt();
+        for (int f = 0; f < features; f++) {
+            String feature = in.readUTF();
+            int[] counts = new int[CATEGORIES.length];
+            int nonZero = in.readUnsignedByte();
+            for (int i = 0; i < nonZero; i++) {
+                Category category = fileCategories[in.readUnsignedByte()];
+                int count = in.readInt();
+                if (category != null) counts[category.ordinal()] = count;
+            }
+            model.featureCounts.put(feature, counts);
+        }
+        return model;
+    }
+}
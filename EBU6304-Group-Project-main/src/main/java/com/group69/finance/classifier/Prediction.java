@@ -0,0 +1,7 @@
+package com.group69.finance.classifier;
+
+import com.group69.finance.model.Category;
+
+/** @param confidence posterior probability of {@code category} among the candidate categories, 0..1 */
+public record Prediction(Category category, double confidence) {
+}
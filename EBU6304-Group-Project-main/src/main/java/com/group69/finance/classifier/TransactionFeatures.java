@@ -0,0 +1,87 @@
+package com.group69.finance.classifier;
+
+import com.group69.finance.model.Source;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What the classifier sees of a transaction: description tokens, the amount's sign and order of
+ * magnitude, and the payment source. Latin text is split into lower-cased words; Chinese (and other
+ * CJK) text has no spaces, so it contributes overlapping character bigrams instead.
+ *
+ * @param tokens       {@code w:word} and {@code c:bigram} features, in description order, repeats kept
+ * @param amountBucket {@code a:-12}: sign and bit length of the amount in cents
+ * @param source       {@code s:ALIPAY}
+ */
+public record TransactionFeatures(List<String> tokens, String amountBucket, String source) {
+
+    public static TransactionFeatures of(String description, double amount, Source source) {
+        List<String> tokens = new ArrayList<>();
+        if (description != null) {
+            tokenize(description, tokens);
+        }
+        long cents = Math.round(amount * 100);
+        String amountBucket = "a:" + (cents < 0 ? '-' : '+') + (64 - Long.numberOfLeadingZeros(Math.abs(cents)));
+        return new TransactionFeatures(tokens, amountBucket, "s:" + (source == null ? Source.OTHER : source).name());
+    }
+
+    /** Every feature, tokens first. */
+    public List<String> all() {
+        List<String> all = new ArrayList<>(tokens.size() + 2);
+        all.addAll(tokens);
+        all.add(amountBucket);
+        all.add(source);
+        return all;
+    }
+
+    private static void tokenize(String description, List<String> tokens) {
+        StringBuilder word = new StringBuilder();
+        int cjkRunStart = -1;
+        int previousCjk = -1;
+        int i = 0;
+        while (i <= description.length()) {
+            int cp = i < description.length() ? description.codePointAt(i) : ' ';
+            boolean cjk = isCjk(cp);
+            if (cjk) {
+                if (previousCjk >= 0) {
+                    tokens.add("c:" + new StringBuilder().appendCodePoint(previousCjk).appendCodePoint(cp));
+                } else {
+                    cjkRunStart = i;
+                }
+                previousCjk = cp;
+            } else {
+                if (previousCjk >= 0 && i - cjkRunStart == Character.charCount(previousCjk)) {
+                    tokens.add("c:" + new StringBuilder().appendCodePoint(previousCjk)); // A lone character is its own token
+                }
+                previousCjk = -1;
+            }
+            if (!cjk && Character.isLetterOrDigit(cp)) {
+                word.appendCodePoint(Character.toLowerCase(cp));
+            } else if (word.length() > 0) {
+                addWord(word, tokens);
+                word.setLength(0);
+            }
+            i += Character.charCount(cp);
+        }
+    }
+
+    /** Single letters and plain numbers (dates, invoice numbers) say nothing about the category. */
+    private static void addWord(StringBuilder word, List<String> tokens) {
+        if (word.length() < 2) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                tokens.add("w:" + word);
+                return;
+            }
+        }
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -1,36 +1,60 @@
 package com.group69.finance.controller;
 
+import com.group69.finance.analysis.ChartData;
+import com.group69.finance.analysis.Granularity;
+import com.group69.finance.analysis.LedgerAggregates;
+import com.group69.finance.analysis.LedgerTotals;
+import com.group69.finance.analysis.RowSelection;
+import com.group69.finance.analysis.TagQuery;
+import com.group69.finance.batch.BatchRunner;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
 import com.group69.finance.model.Transaction;
-import com.group69.finance.repository.FinanceDataRepository;
 import com.group69.finance.service.AnalysisService;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
+import javafx.scene.Cursor;
+import javafx.scene.Node;
 import javafx.scene.chart.BarChart;
+import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.PieChart;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
 import javafx.scene.text.Text;
-import javafx.stage.Stage;
+import javafx.util.StringConverter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.function.Function;
 
 @Component
-public class AnalysisViewController {
+@Profile("!" + BatchRunner.PROFILE) // UI controllers are not needed in headless batch mode
+public class AnalysisViewController implements ViewLifecycle {
 
     @FXML
     private PieChart categoryPieChart;
     
     @FXML
     private BarChart<String, Number> monthlyBarChart;
+
+    @FXML
+    private CategoryAxis monthAxis;
+
+    @FXML
+    private Label rangeLabel;
+
+    @FXML
+    private Button showAllButton;
     
     @FXML
     private Text expenseTrendText;
@@ -43,36 +67,127 @@ public class AnalysisViewController {
     
     @FXML
     private Text anomaliesText;
+
+    @FXML
+    private Text recurringText;
+
+    @FXML
+    private Text percentilesText;
+
+    @FXML
+    private Text tagTotalsText;
+
+    @FXML
+    private TextField tagQueryField;
+
+    @FXML
+    private ComboBox<Category> tagQueryCategoryBox;
+
+    @FXML
+    private ComboBox<Source> tagQuerySourceBox;
+
+    @FXML
+    private DatePicker tagQueryFromPicker;
+
+    @FXML
+    private DatePicker tagQueryToPicker;
+
+    @FXML
+    private Text tagQueryResultText;
     
-    private final FinanceDataRepository repository;
-    private final ApplicationContext springContext;
+    private final LedgerAggregates aggregates;
     private final AnalysisService analysisService;
+    private final ViewRegistry viewRegistry;
+
+    private static final int MAX_BARS = 36;
+    private static final int MAX_PIE_SLICES = 8;
+    private static final double MIN_SLICE_SHARE = 0.02;
+    private static final int MAX_QUERY_ROWS_SHOWN = 10;
+
+    // What the view currently shows; charts and texts are only rebuilt after a change
+    private long chartVersion = -1;
+    private YearMonth visibleFrom; // null: the whole history
+    private YearMonth visibleTo;
+    private Map<String, Object> renderedAnalysis;
+    private long queryVersion = -1; // Ledger version of the tag query result shown; -1: none shown
     
     @Autowired
-    public AnalysisViewController(FinanceDataRepository repository, 
-                                ApplicationContext springContext,
-                                AnalysisService analysisService) {
-        this.repository = repository;
-        this.springContext = springContext;
+    public AnalysisViewController(LedgerAggregates aggregates,
+                                AnalysisService analysisService,
+                                ViewRegistry viewRegistry) {
+        this.aggregates = aggregates;
         this.analysisService = analysisService;
+        this.viewRegistry = viewRegistry;
     }
     
     @FXML
     public void initialize() {
+        // A null entry first, shown as the prompt, so a chosen category or source can be cleared again
+        tagQueryCategoryBox.getItems().add(null);
+        tagQueryCategoryBox.getItems().addAll(Category.values());
+        tagQueryCategoryBox.setConverter(optional("Any category", Category.values(), Category::toString));
+        tagQuerySourceBox.getItems().add(null);
+        tagQuerySourceBox.getItems().addAll(Source.values());
+        tagQuerySourceBox.setConverter(optional("Any source", Source.values(), Source::toString));
+        updateCharts();
+        updateAIAnalysis();
+    }
+
+    @Override
+    public void onShow() {
+        // The view is kept between visits; the updates are no-ops unless the ledger changed
         updateCharts();
         updateAIAnalysis();
+        if (queryVersion != -1 && queryVersion != aggregates.totals().version()) {
+            handleTagQuery(null);
+        }
     }
     
     private void updateCharts() {
+        // Both charts read the same version of the ledger's running totals; no ledger scan
+        LedgerTotals totals = aggregates.totals();
+        if (totals.version() == chartVersion) {
+            return; // The charts already show this version
+        }
+        chartVersion = totals.version();
+
         // Update pie chart
-        updateCategoryPieChart();
+        updateCategoryPieChart(totals);
         
         // Update bar chart
-        updateMonthlyBarChart();
+        updateMonthlyBarChart(totals);
+
+        rangeLabel.setText(describeRange());
+        showAllButton.setDisable(visibleFrom == null);
+    }
+
+    // --- Drill-down ---
+
+    private void zoomTo(YearMonth from, YearMonth to) {
+        visibleFrom = from;
+        visibleTo = to;
+        chartVersion = -1; // Same data, different range
+        updateCharts();
+    }
+
+    @FXML
+    private void handleShowAllMonths(ActionEvent event) {
+        zoomTo(null, null);
+    }
+
+    private String describeRange() {
+        if (visibleFrom == null) {
+            return "All months. Click a bar to zoom in.";
+        }
+        return visibleFrom.equals(visibleTo) ? visibleFrom.toString() : visibleFrom + " to " + visibleTo;
     }
     
     private void updateAIAnalysis() {
         Map<String, Object> analysis = analysisService.getAIAnalysis();
+        if (analysis == renderedAnalysis) {
+            return; // getAIAnalysis() returns the same instance until the ledger changes
+        }
+        renderedAnalysis = analysis;
         
         // Update expense trend analysis
         Map<String, Object> expenseTrend = (Map<String, Object>) analysis.get("expenseTrend");
@@ -103,7 +218,140 @@ public class AnalysisViewController {
         budgetAdviceText.setText(adviceText);
         
         // Update anomaly detection
-        List<Map<String, Object>> anomalies = (List<Map<String, Object>>) analysis.get("anomalies");
+        anomaliesText.setText(formatAnomalies((List<Map<String, Object>>) analysis.get("anomalies")));
+
+        // Update recurring commitments
+        recurringText.setText(formatRecurring((Map<String, Object>) analysis.get("recurringCommitments")));
+
+        // Update spending percentiles
+        percentilesText.setText(formatPercentiles((Map<String, Object>) analysis.get("spendingPercentiles")));
+
+        // Update tag totals
+        tagTotalsText.setText(formatTagTotals((Map<String, Map<String, Object>>) analysis.get("tagTotals")));
+    }
+
+    private static String formatTagTotals(Map<String, Map<String, Object>> tags) {
+        if (tags.isEmpty()) {
+            return "No tagged transactions. Add tags in the Tags column of the main table.";
+        }
+        StringBuilder builder = new StringBuilder();
+        tags.forEach((tag, t) -> builder.append(String.format("- %s: %.2f income, %.2f expenses (%d transactions)\n",
+                tag, (Double) t.get("income"), (Double) t.get("expense"), (Integer) t.get("rows"))));
+        return builder.toString();
+    }
+
+    // --- Tag queries ---
+
+    @FXML
+    private void handleTagQuery(ActionEvent event) {
+        String text = tagQueryField.getText();
+        TagQuery query;
+        try {
+            query = text == null || text.isBlank() ? null : TagQuery.parse(text);
+        } catch (IllegalArgumentException e) {
+            tagQueryResultText.setText("Cannot read the query: " + e.getMessage());
+            queryVersion = -1;
+            return;
+        }
+        Category category = tagQueryCategoryBox.getValue();
+        Source source = tagQuerySourceBox.getValue();
+        ExportFilter filter = new ExportFilter(tagQueryFromPicker.getValue(), tagQueryToPicker.getValue(),
+                category == null ? Set.of() : Set.of(category), source == null ? Set.of() : Set.of(source));
+        // Answered from the bitmap indexes, so this stays quick enough for the FX thread on large ledgers
+        long start = System.nanoTime();
+        RowSelection selection = aggregates.select(query, filter);
+        long micros = (System.nanoTime() - start) / 1_000;
+        queryVersion = selection.version();
+        tagQueryResultText.setText(formatSelection(selection, micros));
+    }
+
+    private static String formatSelection(RowSelection selection, long micros) {
+        StringBuilder builder = new StringBuilder(String.format("%d transactions: %.2f income, %.2f expenses (found in %.1f ms)\n",
+                selection.rows().size(), selection.income(), selection.expense(), micros / 1000.0));
+        // Latest first; only the few shown are ordered
+        PriorityQueue<Transaction> latest = new PriorityQueue<>(Comparator.comparing(Transaction::getDate));
+        for (Transaction row : selection.rows()) {
+            latest.add(row);
+            if (latest.size() > MAX_QUERY_ROWS_SHOWN) latest.poll();
+        }
+        List<Transaction> shown = new ArrayList<>(latest);
+        shown.sort(Comparator.comparing(Transaction::getDate).reversed());
+        for (Transaction row : shown) {
+            builder.append(String.format("- %s: %s (%.2f) %s\n", row.getDate(), row.getDescription(), row.getAmount(), row.getTags()));
+        }
+        if (selection.rows().size() > shown.size()) {
+            builder.append(String.format("... and %d more\n", selection.rows().size() - shown.size()));
+        }
+        return builder.toString();
+    }
+
+    /** Shows {@code none} for the null entry; reading a label back gives its value, or null for any other text. */
+    private static <T> StringConverter<T> optional(String none, T[] values, Function<T, String> name) {
+        return new StringConverter<>() {
+            @Override
+            public String toString(T value) {
+                return value == null ? none : name.apply(value);
+            }
+
+            @Override
+            public T fromString(String text) {
+                for (T value : values) {
+                    if (name.apply(value).equals(text)) {
+                        return value;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static String formatPercentiles(Map<String, Object> percentiles) {
+        Map<String, Map<String, Object>> byCategory = (Map<String, Map<String, Object>>) percentiles.get("byCategory");
+        if (byCategory.isEmpty()) {
+            return "No expenses recorded";
+        }
+        StringBuilder builder = new StringBuilder(String.format("Single expense, median / p90 / p99 (within %.0f%%):\n",
+                (Double) percentiles.get("relativeError") * 100));
+        byCategory.forEach((category, p) -> builder.append(formatPercentileLine(category, p)));
+        builder.append("Recent months, all categories:\n");
+        ((Map<String, Map<String, Object>>) percentiles.get("byMonth"))
+                .forEach((month, p) -> builder.append(formatPercentileLine(month, p)));
+        return builder.toString();
+    }
+
+    private static String formatPercentileLine(String label, Map<String, Object> p) {
+        return String.format("- %s: %.2f / %.2f / %.2f (%d expenses)\n", label,
+                (Double) p.get("median"), (Double) p.get("p90"), (Double) p.get("p99"), (Long) p.get("rows"));
+    }
+
+    private static String formatRecurring(Map<String, Object> recurring) {
+        List<Map<String, Object>> series = (List<Map<String, Object>>) recurring.get("series");
+        if (series.isEmpty()) {
+            return "No recurring transactions detected";
+        }
+        StringBuilder builder = new StringBuilder(String.format("Per month: %.2f income, %.2f expenses in %d recurring items\n",
+                (Double) recurring.get("monthlyIncome"),
+                (Double) recurring.get("monthlyExpense"),
+                (Integer) recurring.get("seriesCount")));
+        for (Map<String, Object> item : series) {
+            builder.append(String.format("- %s (%s): %.2f %s, next expected %s\n",
+                    item.get("description"),
+                    item.get("category"),
+                    (Double) item.get("amount"),
+                    item.get("periodicity").toString().toLowerCase(Locale.ROOT),
+                    item.get("nextExpected")));
+            List<?> missed = (List<?>) item.get("missed");
+            if (!missed.isEmpty()) {
+                builder.append("    missed: ").append(missed).append('\n');
+            }
+            for (Map<String, Object> unusual : (List<Map<String, Object>>) item.get("unusual")) {
+                builder.append(String.format("    unusually large: %s (%.2f)\n", unusual.get("date"), (Double) unusual.get("amount")));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String formatAnomalies(List<Map<String, Object>> anomalies) {
         StringBuilder anomaliesBuilder = new StringBuilder();
         if (anomalies.isEmpty()) {
             anomaliesBuilder.append("No anomalous expenses detected");
@@ -117,28 +365,23 @@ public class AnalysisViewController {
                         anomaly.get("deviation")));
             }
         }
-        anomaliesText.setText(anomaliesBuilder.toString());
+        return anomaliesBuilder.toString();
     }
     
-    private void updateCategoryPieChart() {
+    private void updateCategoryPieChart(LedgerTotals totals) {
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
-        Map<String, Double> categoryTotals = new HashMap<>();
         
-        for (Transaction transaction : repository.getAllTransactions()) {
-            if (!transaction.getCategory().isIncome()) { // Only count expenses
-                String category = transaction.getCategory().name();
-                categoryTotals.merge(category, transaction.getAmount(), Double::sum);
-            }
+        // Only count expenses, over the months the bar chart shows; small categories share one slice
+        Map<Category, LedgerTotals.CategoryTotals> categories = visibleFrom == null
+                ? totals.categories() : totals.categoriesBetween(visibleFrom, visibleTo);
+        for (ChartData.Slice slice : ChartData.expenseSlices(categories, MAX_PIE_SLICES, MIN_SLICE_SHARE)) {
+            pieChartData.add(new PieChart.Data(slice.label(), slice.value()));
         }
         
-        categoryTotals.forEach((category, total) -> 
-            pieChartData.add(new PieChart.Data(category, total))
-        );
-        
         categoryPieChart.setData(pieChartData);
     }
     
-    private void updateMonthlyBarChart() {
+    private void updateMonthlyBarChart(LedgerTotals totals) {
         monthlyBarChart.getData().clear();
         
         XYChart.Series<String, Number> incomeSeries = new XYChart.Series<>();
@@ -147,40 +390,39 @@ public class AnalysisViewController {
         XYChart.Series<String, Number> expenseSeries = new XYChart.Series<>();
         expenseSeries.setName("Expense");
         
-        Map<String, Double> monthlyIncome = new HashMap<>();
-        Map<String, Double> monthlyExpense = new HashMap<>();
-        
-        for (Transaction transaction : repository.getAllTransactions()) {
-            String month = transaction.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM"));
-            if (transaction.getCategory().isIncome()) {
-                monthlyIncome.merge(month, transaction.getAmount(), Double::sum);
-            } else {
-                monthlyExpense.merge(month, transaction.getAmount(), Double::sum);
-            }
+        // Buckets come in calendar order and widen to quarters or years when the range is long
+        List<ChartData.TimeBucket> buckets = ChartData.timeBuckets(totals, visibleFrom, visibleTo, MAX_BARS);
+        for (ChartData.TimeBucket bucket : buckets) {
+            incomeSeries.getData().add(new XYChart.Data<>(bucket.label(), bucket.income()));
+            expenseSeries.getData().add(new XYChart.Data<>(bucket.label(), bucket.expense()));
         }
-        
-        monthlyIncome.forEach((month, amount) -> 
-            incomeSeries.getData().add(new XYChart.Data<>(month, amount))
-        );
-        
-        monthlyExpense.forEach((month, amount) -> 
-            expenseSeries.getData().add(new XYChart.Data<>(month, amount))
-        );
+        Granularity granularity = buckets.isEmpty() ? Granularity.MONTH : buckets.get(0).granularity();
+        monthlyBarChart.setTitle(switch (granularity) {
+            case MONTH -> "Monthly Income and Expense Statistics";
+            case QUARTER -> "Quarterly Income and Expense Statistics";
+            case YEAR -> "Yearly Income and Expense Statistics";
+        });
+        monthAxis.setLabel(granularity == Granularity.MONTH ? "Month" : granularity == Granularity.QUARTER ? "Quarter" : "Year");
         
         monthlyBarChart.getData().addAll(incomeSeries, expenseSeries);
+
+        // Bars are created when the series are added; clicking a quarter or year zooms into its months
+        if (granularity != Granularity.MONTH) {
+            for (XYChart.Series<String, Number> series : monthlyBarChart.getData()) {
+                for (int i = 0; i < buckets.size(); i++) {
+                    ChartData.TimeBucket bucket = buckets.get(i);
+                    Node bar = series.getData().get(i).getNode();
+                    if (bar != null) {
+                        bar.setCursor(Cursor.HAND);
+                        bar.setOnMouseClicked(e -> zoomTo(bucket.start(), bucket.end()));
+                    }
+                }
+            }
+        }
     }
     
     @FXML
     private void handleBackToMain(ActionEvent event) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/main-window.fxml"));
-            loader.setControllerFactory(springContext::getBean);
-            Parent root = loader.load();
-            Stage stage = (Stage) categoryPieChart.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            stage.show();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        viewRegistry.show(ViewRegistry.View.MAIN, categoryPieChart.getScene());
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package com.group69.finance.controller;
+
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.CsvImportListener;
+import com.group69.finance.service.CsvImportProgress;
+import com.group69.finance.service.CsvImportResult;
+import com.group69.finance.service.CsvImportService;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs a CSV import off the FX thread. Progress is in bytes of the file, the message counts rows, and
+ * every batch the import adds to the ledger is passed to {@code onBatch} on the FX thread.
+ * <p>
+ * {@link #requestCancel()} stops the import and removes the rows it added; the task then fails with a
+ * {@link CancellationException} once they are gone. ({@link #cancel()} would report the task cancelled
+ * straight away, while the rollback is still running.)
+ */
+class CsvImportTask extends Task<CsvImportResult> {
+
+    private final CsvImportService importService;
+    private final String filePath;
+    private final BiConsumer<List<Transaction>, Long> onBatch;
+    private volatile boolean cancelRequested;
+
+    /** @param onBatch receives each added batch and the ledger version that contains it */
+    CsvImportTask(CsvImportService importService, String filePath, BiConsumer<List<Transaction>, Long> onBatch) {
+        this.importService = importService;
+        this.filePath = filePath;
+        this.onBatch = onBatch;
+        updateMessage("Starting import...");
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+        updateMessage("Cancelling import...");
+    }
+
+    @Override
+    protected CsvImportResult call() throws Exception {
+        return importService.importTransactionsFromCsv(filePath, new CsvImportListener() {
+            @Override
+            public void progress(CsvImportProgress progress) {
+                // Task coalesces these, so the FX thread sees at most one update per pulse
+                updateProgress(progress.bytesRead(), Math.max(1, progress.totalBytes()));
+                if (!cancelRequested) {
+                    updateMessage(String.format("Imported %,d of %,d rows read (%.1f of %.1f MB)",
+                            progress.imported(), progress.lines(),
+                            progress.bytesRead() / 1e6, progress.totalBytes() / 1e6));
+                }
+            }
+
+            @Override
+            public void batchAdded(List<Transaction> rows, long ledgerVersion) {
+                Platform.runLater(() -> onBatch.accept(rows, ledgerVersion));
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelRequested || CsvImportTask.this.isCancelled();
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.group69.finance.controller;
+
+import com.group69.finance.batch.BatchRunner;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.metrics.FinanceMetrics.MeterSummary;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Live table of the application's meters (count, mean and sliding-window p50/p95/p99/max),
+ * refreshed every few seconds while the window is open. The view is loaded once into a single window
+ * that is hidden and shown again, so this singleton controller is initialized once and owns one timeline.
+ */
+@Component
+@Profile("!" + BatchRunner.PROFILE) // UI controllers are not needed in headless batch mode
+public class DiagnosticsViewController {
+
+    private static final Duration REFRESH_INTERVAL = Duration.seconds(2);
+
+    @FXML private Label endpointLabel;
+    @FXML private TableView<MeterSummary> metricsTable;
+    @FXML private TableColumn<MeterSummary, String> nameCol;
+    @FXML private TableColumn<MeterSummary, String> tagsCol;
+    @FXML private TableColumn<MeterSummary, Long> countCol;
+    @FXML private TableColumn<MeterSummary, Double> meanCol;
+    @FXML private TableColumn<MeterSummary, Double> p50Col;
+    @FXML private TableColumn<MeterSummary, Double> p95Col;
+    @FXML private TableColumn<MeterSummary, Double> p99Col;
+    @FXML private TableColumn<MeterSummary, Double> maxCol;
+    @FXML private TableColumn<MeterSummary, String> unitCol;
+
+    private final FinanceMetrics metrics;
+    private final ApplicationContext springContext;
+    private final String serverAddress;
+    private Timeline refreshTimeline;
+
+    @Autowired
+    public DiagnosticsViewController(FinanceMetrics metrics, ApplicationContext springContext,
+                                     @Value("${server.address:127.0.0.1}") String serverAddress) {
+        this.metrics = metrics;
+        this.springContext = springContext;
+        this.serverAddress = serverAddress;
+    }
+
+    @FXML
+    public void initialize() {
+        // The HTTP endpoints exist only when the app was started with the web server switched on
+        endpointLabel.setText(springContext instanceof WebServerApplicationContext web
+                ? String.format("Also available at http://%s:%d/actuator/metrics and over JMX under the \"metrics\" domain.",
+                        serverAddress, web.getWebServer().getPort())
+                : "Also available over JMX under the \"metrics\" domain.");
+
+        nameCol.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().name()));
+        tagsCol.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().tags()));
+        countCol.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().count()));
+        unitCol.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().unit()));
+        bindStatistic(meanCol, MeterSummary::mean);
+        bindStatistic(p50Col, MeterSummary::p50);
+        bindStatistic(p95Col, MeterSummary::p95);
+        bindStatistic(p99Col, MeterSummary::p99);
+        bindStatistic(maxCol, MeterSummary::max);
+
+        // Keep the percentiles current while the window is open
+        refreshTimeline = new Timeline(new KeyFrame(REFRESH_INTERVAL, e -> refresh()));
+        refreshTimeline.setCycleCount(Animation.INDEFINITE);
+    }
+
+    /** Called when the diagnostics window is shown. */
+    public void startRefreshing() {
+        refresh();
+        refreshTimeline.play();
+    }
+
+    /** Called when the diagnostics window is hidden. */
+    public void stopRefreshing() {
+        refreshTimeline.stop();
+    }
+
+    private void bindStatistic(TableColumn<MeterSummary, Double> column, ToDoubleFunction<MeterSummary> statistic) {
+        column.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(statistic.applyAsDouble(cell.getValue())));
+        column.setCellFactory(tc -> new TableCell<>() {
+            @Override
+            protected void updateItem(Double item, boolean empty) {
+                super.updateItem(item, empty);
+                getStyleClass().removeAll("cell-align-right");
+                if (empty || item == null || item.isNaN()) {
+                    setText(null);
+                } else {
+                    setText(String.format("%.2f", item));
+                    getStyleClass().add("cell-align-right");
+                }
+            }
+        });
+    }
+
+    private void refresh() {
+        metricsTable.setItems(FXCollections.observableArrayList(metrics.summaries()));
+    }
+
+    @FXML
+    private void handleRefresh(ActionEvent event) {
+        refresh();
+    }
+
+    @FXML
+    private void handleClose(ActionEvent event) {
+        ((Stage) metricsTable.getScene().getWindow()).close();
+    }
+}
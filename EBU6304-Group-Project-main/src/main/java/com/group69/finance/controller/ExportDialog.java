@@ -0,0 +1,71 @@
+package com.group69.finance.controller;
+
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.export.ExportFormat;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Window;
+
+import java.util.HashSet;
+
+/**
+ * Asks which part of the ledger to export and in which format. Leaving a date empty keeps that end
+ * of the range open; selecting no category or source exports all of them.
+ */
+class ExportDialog extends Dialog<ExportDialog.Selection> {
+
+    record Selection(ExportFilter filter, ExportFormat format, boolean gzip) {
+    }
+
+    ExportDialog(Window owner) {
+        initOwner(owner);
+        setTitle("Export Transactions");
+        setHeaderText("Choose the transactions to export. Empty fields mean \"all\".");
+
+        DatePicker fromPicker = new DatePicker();
+        DatePicker toPicker = new DatePicker();
+        ListView<Category> categoryList = new ListView<>(FXCollections.observableArrayList(Category.values()));
+        categoryList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        categoryList.setPrefHeight(160);
+        ListView<Source> sourceList = new ListView<>(FXCollections.observableArrayList(Source.values()));
+        sourceList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        sourceList.setPrefHeight(160);
+        ChoiceBox<ExportFormat> formatChoice = new ChoiceBox<>(FXCollections.observableArrayList(ExportFormat.values()));
+        formatChoice.setValue(ExportFormat.CSV);
+        CheckBox gzipCheck = new CheckBox("Compress (gzip)");
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(10));
+        grid.addRow(0, new Label("From:"), fromPicker, new Label("To:"), toPicker);
+        grid.addRow(1, new Label("Categories:"), categoryList, new Label("Sources:"), sourceList);
+        grid.addRow(2, new Label("Format:"), formatChoice, gzipCheck);
+        getDialogPane().setContent(grid);
+
+        ButtonType exportButton = new ButtonType("Export...", ButtonBar.ButtonData.OK_DONE);
+        getDialogPane().getButtonTypes().addAll(exportButton, ButtonType.CANCEL);
+
+        setResultConverter(button -> {
+            if (button != exportButton) {
+                return null;
+            }
+            ExportFilter filter = new ExportFilter(fromPicker.getValue(), toPicker.getValue(),
+                    new HashSet<>(categoryList.getSelectionModel().getSelectedItems()),
+                    new HashSet<>(sourceList.getSelectionModel().getSelectedItems()));
+            return new Selection(filter, formatChoice.getValue(), gzipCheck.isSelected());
+        });
+    }
+}
@@ -1,12 +1,23 @@
 package com.group69.finance.controller;
 
+import com.group69.finance.batch.BatchRunner;
+import com.group69.finance.export.ExportService;
+import com.group69.finance.jfr.FlightRecordingService;
+import com.group69.finance.jfr.TableRefreshEvent;
 import com.group69.finance.model.Category;
 import com.group69.finance.model.Source;
+import com.group69.finance.model.Tags;
 import com.group69.finance.model.Transaction;
 import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerMerge;
+import com.group69.finance.repository.LedgerSnapshot;
+import com.group69.finance.service.AutosaveService;
 import com.group69.finance.service.CategorizationService;
+import com.group69.finance.service.CsvImportResult;
 import com.group69.finance.service.CsvImportService;
+import com.group69.finance.service.DataFileWatcher;
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -17,6 +28,8 @@ import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.ComboBoxTableCell;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.control.cell.TextFieldTableCell;
+import javafx.scene.layout.HBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import jakarta.annotation.PostConstruct;
@@ -25,21 +38,37 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List; // Import List
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 @Component
-public class MainWindowController {
+@Profile("!" + BatchRunner.PROFILE) // UI controllers are not needed in headless batch mode
+public class MainWindowController implements ViewLifecycle {
 
     private static final Logger log = LoggerFactory.getLogger(MainWindowController.class);
+    private static final int MAX_IMPORT_ERRORS_SHOWN = 10;
 
     private final FinanceDataRepository repository;
     private final CategorizationService categorizationService;
     private final ApplicationContext springContext;
     private final CsvImportService csvImportService;
+    private final AutosaveService autosaveService;
+    private final FlightRecordingService flightRecordingService;
+    private final ExportService exportService;
+    private final ViewRegistry viewRegistry;
+    private final DataFileWatcher dataFileWatcher;
     // private final PersistenceService persistenceService; // If needed for CSV
 
     @FXML private TableView<Transaction> transactionTable;
@@ -49,35 +78,56 @@ public class MainWindowController {
     @FXML private TableColumn<Transaction, Category> categoryCol;
     @FXML private TableColumn<Transaction, Source> sourceCol;
     @FXML private TableColumn<Transaction, Boolean> aiCol;
+    @FXML private TableColumn<Transaction, String> tagsCol;
 
     @FXML private DatePicker datePicker;
     @FXML private TextField descriptionField;
     @FXML private TextField amountField;
     @FXML private ComboBox<Category> categoryComboBox;
     @FXML private ComboBox<Source> sourceComboBox;
+    @FXML private TextField tagsField;
 
     @FXML private Button addButton;
     @FXML private Button clearButton;
 
+    @FXML private HBox importStatusBox;
+    @FXML private ProgressBar importProgressBar;
+    @FXML private Label importStatusLabel;
+
     @FXML private MenuItem loadMenuItem;
     @FXML private MenuItem saveMenuItem;
     @FXML private MenuItem exitMenuItem;
 
     private ObservableList<Transaction> transactionData = FXCollections.observableArrayList();
+    private long tableVersion = -1; // Data version shown in the table
+    private CsvImportTask importTask; // Latest import, possibly still running
+    private Stage diagnosticsStage; // Created on first open, then hidden and shown again
 
     @Autowired
-    public MainWindowController(FinanceDataRepository repository, CategorizationService categorizationService, ApplicationContext springContext, CsvImportService csvImportService) {
+    public MainWindowController(FinanceDataRepository repository, CategorizationService categorizationService, ApplicationContext springContext,
+                                CsvImportService csvImportService, AutosaveService autosaveService,
+                                FlightRecordingService flightRecordingService, ExportService exportService,
+                                ViewRegistry viewRegistry, DataFileWatcher dataFileWatcher) {
         this.repository = repository;
         this.categorizationService = categorizationService;
         this.springContext = springContext;
         this.csvImportService = csvImportService;
+        this.autosaveService = autosaveService;
+        this.flightRecordingService = flightRecordingService;
+        this.exportService = exportService;
+        this.viewRegistry = viewRegistry;
+        this.dataFileWatcher = dataFileWatcher;
         log.info("MainWindowController initialized.");
     }
 
     @PostConstruct
     public void postConstruct() {
         log.debug("MainWindowController PostConstruct called.");
-        transactionData.setAll(repository.getAllTransactions());
+        LedgerSnapshot snapshot = repository.snapshot();
+        transactionData.setAll(snapshot);
+        tableVersion = snapshot.version();
+        // Rows another program changed in the data file are patched into the table as they arrive
+        dataFileWatcher.addMergeListener(merge -> Platform.runLater(() -> applyMerge(merge)));
     }
 
     @FXML
@@ -91,6 +141,7 @@ public class MainWindowController {
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
         sourceCol.setCellValueFactory(new PropertyValueFactory<>("source"));
         aiCol.setCellValueFactory(new PropertyValueFactory<>("aiSuggestedCategory"));
+        tagsCol.setCellValueFactory(cell -> new ReadOnlyStringWrapper(Tags.format(cell.getValue().getTags(), ", ")));
 
         // --- Custom Cell Rendering (Apply CSS Classes) ---
 
@@ -165,17 +216,24 @@ public class MainWindowController {
             // Check if a valid change was made
             if (transaction != null && newCategory != null && !newCategory.equals(oldCategory)) {
                 log.debug("Manual category change via table edit: {} -> {}", oldCategory, newCategory);
-                transaction.setCategory(newCategory); // Update the model object (also sets AI flag to false in setter)
+                // Copy-on-write by ID: snapshots held by a running save or analysis keep seeing the old row,
+                // and an import or autosave running concurrently cannot shift us onto the wrong row
+                Optional<Transaction> edited = repository.modifyTransaction(transaction.getId(), stored -> {
+                    Transaction copy = stored.copy();
+                    copy.setCategory(newCategory); // Also sets AI flag to false in setter
+                    return copy;
+                });
 
-                int modelIndex = transactionData.indexOf(transaction); // Find index in our observable list
-                if (modelIndex != -1) {
-                    repository.updateTransaction(modelIndex, transaction); // Update the repository data
+                // A correction is a labelled example: later imports of similar rows follow it
+                edited.ifPresent(categorizationService::learnFromUser);
 
-                    // Refresh the item in the ObservableList to ensure UI updates,
+                int modelIndex = transactionData.indexOf(transaction); // Find index in our observable list
+                if (edited.isPresent() && modelIndex != -1) {
+                    // Replace the item in the ObservableList to ensure UI updates,
                     // especially for the AI? column which depends on the transaction state.
-                    transactionData.set(modelIndex, transaction);
+                    transactionData.set(modelIndex, edited.get());
 
-                    log.debug("Transaction updated in repository and UI list at index {}", modelIndex);
+                    log.debug("Transaction {} updated in repository and UI list at index {}", transaction.getId(), modelIndex);
                 } else {
                     log.warn("Could not find transaction index in observable list for update after edit commit.");
                     // Fallback: Refresh the whole table if index is lost
@@ -203,6 +261,30 @@ public class MainWindowController {
             }
         });
 
+        // Make Tags Column Editable: tags separated by commas, semicolons or spaces
+        tagsCol.setCellFactory(TextFieldTableCell.forTableColumn());
+        tagsCol.setOnEditCommit(event -> {
+            Transaction transaction = event.getRowValue();
+            if (transaction == null) {
+                transactionTable.refresh();
+                return;
+            }
+            Set<String> tags = Tags.parse(event.getNewValue());
+            Optional<Transaction> edited = tags.equals(transaction.getTags()) ? Optional.empty()
+                    : repository.modifyTransaction(transaction.getId(), stored -> {
+                        Transaction copy = stored.copy();
+                        copy.setTags(tags);
+                        return copy;
+                    });
+            int modelIndex = transactionData.indexOf(transaction);
+            if (modelIndex != -1) {
+                // Shows the stored (normalized) tags, or the old ones if nothing changed
+                transactionData.set(modelIndex, edited.orElse(transaction));
+            } else {
+                transactionTable.refresh();
+            }
+        });
+
         // Source column cell factory
         sourceCol.setCellFactory(column -> new TableCell<Transaction, Source>() {
             @Override
@@ -277,7 +359,11 @@ public class MainWindowController {
             }
 
             Transaction newTransaction = new Transaction(date, description, amount, finalCategory, source, aiSuggested);
+            newTransaction.setTags(Tags.parse(tagsField.getText()));
             repository.addTransaction(newTransaction);
+            if (!aiSuggested) {
+                categorizationService.learnFromUser(newTransaction); // Chosen by hand
+            }
 
             refreshTableView(); // Refreshing updates the ObservableList which TableView observes
             handleClearForm(null);
@@ -311,13 +397,11 @@ public class MainWindowController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.YES) {
-                int modelIndex = transactionData.indexOf(selectedTransaction);
-                if (modelIndex != -1) {
-                    repository.removeTransactionAtIndex(modelIndex);
+                if (repository.removeTransactionById(selectedTransaction.getId())) {
                     refreshTableView(); // Refresh observable list from repo
                     log.info("Deleted transaction: {}", selectedTransaction.getDescription());
                 } else {
-                    log.warn("Could not find selected transaction in observable list for deletion.");
+                    log.warn("Selected transaction {} no longer exists in the repository.", selectedTransaction.getId());
                     refreshTableView(); // Refresh anyway
                 }
             }
@@ -329,6 +413,7 @@ public class MainWindowController {
         datePicker.setValue(LocalDate.now());
         descriptionField.clear();
         amountField.clear();
+        tagsField.clear();
         categoryComboBox.setValue(Category.UNCATEGORIZED); // Default to Uncategorized
         sourceComboBox.getSelectionModel().selectFirst(); // Select first source or null
         descriptionField.requestFocus();
@@ -336,21 +421,46 @@ public class MainWindowController {
 
     @FXML
     void handleLoadData(ActionEvent event) {
-        repository.loadInitialData();
-        refreshTableView();
-        showInfoDialog("Load Data", "Data reloaded successfully from default file.");
+        // Only the rows that differ from the file are applied; unsaved edits made here are kept
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return repository.mergeStoredData();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((merge, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                applyMerge(merge);
+                showInfoDialog("Load Data", String.format("Data reloaded from the data file: %d added, %d updated, %d removed.",
+                        merge.added().size(), merge.updated().size(), merge.removed().size()));
+            } else {
+                log.error("Failed to reload data", error);
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showErrorDialog("Load Data", "Failed to reload data: " + cause.getMessage());
+            }
+        }));
         log.info("Handled Load Data request.");
     }
 
     @FXML
     void handleSaveData(ActionEvent event) {
-        repository.saveAllData();
-        showInfoDialog("Save Data", "Data saved successfully.");
+        // Runs on the I/O thread; the dialog is shown once the write has finished
+        autosaveService.flush().whenComplete((saved, error) -> Platform.runLater(() -> {
+            if (Boolean.TRUE.equals(saved)) {
+                showInfoDialog("Save Data", "Data saved successfully.");
+            } else {
+                showErrorDialog("Save Data", "Failed to save data. See the log for details.");
+            }
+        }));
         log.info("Handled Save Data request.");
     }
 
     @FXML
     void handleImportCsv(ActionEvent event) {
+        if (importTask != null && importTask.isRunning()) {
+            showInfoDialog("Import", "An import is already running. Wait for it to finish or cancel it first.");
+            return;
+        }
         FileChooser fileChooser = new FileChooser();
         fileChooser.setTitle("Import Transaction Records");
         fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
@@ -358,18 +468,81 @@ public class MainWindowController {
         File selectedFile = fileChooser.showOpenDialog(transactionTable.getScene().getWindow());
         
         if (selectedFile != null) {
+            // Parsing and categorizing run in the background; rows appear in the table batch by batch
+            CsvImportTask task = new CsvImportTask(csvImportService, selectedFile.getAbsolutePath(), this::appendImportedRows);
+            importTask = task;
+            importProgressBar.progressProperty().bind(task.progressProperty());
+            importStatusLabel.textProperty().bind(task.messageProperty());
+            setImportStatusVisible(true);
+
+            task.setOnSucceeded(e -> {
+                setImportStatusVisible(false);
+                CsvImportResult result = task.getValue();
+                if (repository.getDataVersion() != tableVersion) {
+                    refreshTableView();
+                }
+                showInfoDialog("Import Successful", importSummary(result));
+                log.info("Imported {} transactions from CSV file: {} ({} duplicates skipped, {} lines rejected)",
+                        result.imported().size(), selectedFile.getAbsolutePath(), result.duplicatesSkipped(), result.rejectedRows());
+            });
+            task.setOnFailed(e -> {
+                setImportStatusVisible(false);
+                refreshTableView(); // Drops the rows of the batches that were rolled back
+                if (task.getException() instanceof CancellationException) {
+                    showInfoDialog("Import Cancelled", "The import was cancelled and nothing from the file was kept.");
+                } else {
+                    log.error("Error importing CSV file", task.getException());
+                    showErrorDialog("Import Error", "Error occurred while importing CSV file: "
+                            + task.getException().getMessage() + "\nNothing from the file was kept.");
+                }
+            });
+            Thread thread = new Thread(task, "csv-import");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @FXML
+    void handleCancelImport(ActionEvent event) {
+        if (importTask != null && importTask.isRunning()) {
+            importTask.requestCancel();
+        }
+    }
+
+    @FXML
+    void handleExport(ActionEvent event) {
+        Optional<ExportDialog.Selection> selection = new ExportDialog(transactionTable.getScene().getWindow()).showAndWait();
+        if (selection.isEmpty()) {
+            return;
+        }
+        ExportDialog.Selection choice = selection.get();
+        String extension = choice.format().extension() + (choice.gzip() ? ".gz" : "");
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Transactions");
+        fileChooser.setInitialFileName("transactions-" + LocalDate.now() + "." + extension);
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(
+                choice.format() + (choice.gzip() ? " (gzip)" : "") + " Files", "*." + extension));
+        File target = fileChooser.showSaveDialog(transactionTable.getScene().getWindow());
+        if (target == null) {
+            return;
+        }
+        // Exports stream from a snapshot, so the table stays usable while a large one runs
+        CompletableFuture.supplyAsync(() -> {
             try {
-                List<Transaction> importedTransactions = csvImportService.importTransactionsFromCsv(selectedFile.getAbsolutePath());
-                refreshTableView();
-                
-                String message = String.format("Successfully imported %d transaction records", importedTransactions.size());
-                showInfoDialog("Import Successful", message);
-                log.info("Imported {} transactions from CSV file: {}", importedTransactions.size(), selectedFile.getAbsolutePath());
-            } catch (Exception e) {
-                log.error("Error importing CSV file", e);
-                showErrorDialog("Import Error", "Error occurred while importing CSV file: " + e.getMessage());
+                return exportService.export(choice.filter(), choice.format(), choice.gzip(), target.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-        }
+        }).whenComplete((summary, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                showInfoDialog("Export Successful", String.format("Exported %d transactions to %s",
+                        summary.rows(), summary.file()));
+            } else {
+                log.error("Failed to export transactions", error);
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showErrorDialog("Export Error", "Failed to export transactions: " + cause.getMessage());
+            }
+        }));
     }
 
     @FXML
@@ -388,10 +561,17 @@ public class MainWindowController {
 
         alert.showAndWait().ifPresent(response -> {
             if (response == ButtonType.YES) {
-                handleSaveData(null);
-                Platform.exit();
-                System.exit(0);
+                // Exit only after the flush has reached the disk; stay open if it failed
+                autosaveService.flush().whenComplete((saved, error) -> Platform.runLater(() -> {
+                    if (Boolean.TRUE.equals(saved)) {
+                        Platform.exit();
+                        System.exit(0);
+                    } else {
+                        showErrorDialog("Save Data", "Failed to save data. The application was not closed.");
+                    }
+                }));
             } else if (response == ButtonType.NO) {
+                autosaveService.cancelPending();
                 Platform.exit();
                 System.exit(0);
             }
@@ -402,24 +582,171 @@ public class MainWindowController {
     @FXML
     private void handleShowAnalysis(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/analysis-view.fxml"));
-            // 设置Spring的ApplicationContext
-            loader.setControllerFactory(springContext::getBean);
-            Parent root = loader.load();
-            Stage stage = (Stage) transactionTable.getScene().getWindow();
-            stage.setScene(new Scene(root));
-            stage.show();
+            viewRegistry.show(ViewRegistry.View.ANALYSIS, transactionTable.getScene());
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to open analysis page", e);
             showErrorDialog("Error", "Failed to open analysis page: " + e.getMessage());
         }
     }
 
+    @Override
+    public void onShow() {
+        // Pick up rows changed while another view was showing (e.g. by autosave reload or batch tools)
+        if (repository.getDataVersion() != tableVersion) {
+            refreshTableView();
+        }
+    }
+
+    @FXML
+    private void handleShowDiagnostics(ActionEvent event) {
+        try {
+            if (diagnosticsStage == null) {
+                // Loaded once: the controller is a singleton, so a second load would re-initialize it
+                FXMLLoader loader = new FXMLLoader(getClass().getResource("/fxml/diagnostics-view.fxml"));
+                loader.setControllerFactory(springContext::getBean);
+                Parent root = loader.load();
+                DiagnosticsViewController controller = loader.getController();
+                // Separate window so the metrics can be watched while working in the main view
+                Stage stage = new Stage();
+                stage.setTitle("Diagnostics");
+                stage.initOwner(transactionTable.getScene().getWindow());
+                stage.setScene(new Scene(root));
+                stage.setOnShown(e -> controller.startRefreshing());
+                stage.setOnHidden(e -> controller.stopRefreshing());
+                diagnosticsStage = stage;
+            }
+            diagnosticsStage.show();
+            diagnosticsStage.toFront();
+        } catch (Exception e) {
+            log.error("Failed to open diagnostics window", e);
+            showErrorDialog("Error", "Failed to open diagnostics window: " + e.getMessage());
+        }
+    }
+
+    @FXML
+    private void handleStartFlightRecording(ActionEvent event) {
+        if (!flightRecordingService.isAvailable()) {
+            showErrorDialog("Flight Recording", "Java Flight Recorder is not available in this JVM.");
+            return;
+        }
+        if (flightRecordingService.isRecording()) {
+            showInfoDialog("Flight Recording", "A flight recording is already running.");
+            return;
+        }
+        flightRecordingService.startRecording();
+        showInfoDialog("Flight Recording", "Flight recording started. Use View > Dump Flight Recording... to save it.");
+    }
+
+    @FXML
+    private void handleDumpFlightRecording(ActionEvent event) {
+        if (!flightRecordingService.isRecording()) {
+            showInfoDialog("Flight Recording", "No flight recording is running. Start one first.");
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Flight Recording");
+        fileChooser.setInitialFileName("finance-" + LocalDate.now() + ".jfr");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JFR Recordings", "*.jfr"));
+        File target = fileChooser.showSaveDialog(transactionTable.getScene().getWindow());
+        if (target == null) {
+            return;
+        }
+        // Dumping copies the in-memory buffers to disk; keep it off the FX thread
+        CompletableFuture.supplyAsync(() -> {
+            try {
+                return flightRecordingService.dump(target.toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).whenComplete((path, error) -> Platform.runLater(() -> {
+            if (error == null) {
+                showInfoDialog("Flight Recording", "Recording saved to " + path);
+            } else {
+                log.error("Failed to dump flight recording", error);
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                showErrorDialog("Flight Recording", "Failed to save recording: " + cause.getMessage());
+            }
+        }));
+    }
+
     // --- Helper Methods ---
 
+    private void appendImportedRows(List<Transaction> rows, long version) {
+        if (version == tableVersion + 1) {
+            // Nothing else has changed since the table was filled: append instead of reloading it
+            transactionData.addAll(rows);
+            tableVersion = version;
+        } else if (version > tableVersion) {
+            refreshTableView();
+        }
+    }
+
+    private void applyMerge(LedgerMerge merge) {
+        if (!merge.removed().isEmpty()) {
+            Set<String> removedIds = new HashSet<>();
+            merge.removed().forEach(row -> removedIds.add(row.getId()));
+            transactionData.removeIf(row -> removedIds.contains(row.getId()));
+        }
+        boolean missing = false;
+        if (!merge.updated().isEmpty()) {
+            Map<String, Integer> positions = new HashMap<>();
+            for (int i = 0; i < transactionData.size(); i++) {
+                positions.put(transactionData.get(i).getId(), i);
+            }
+            for (Transaction row : merge.updated()) {
+                Integer position = positions.get(row.getId());
+                if (position == null) {
+                    missing = true;
+                } else {
+                    transactionData.set(position, row);
+                }
+            }
+        }
+        transactionData.addAll(merge.added());
+        if (missing) {
+            refreshTableView(); // The table was behind the ledger; start over
+        } else if (tableVersion == merge.fromVersion()) {
+            tableVersion = merge.toVersion();
+        }
+        if (merge.conflicts() > 0) {
+            showInfoDialog("Data File Changed", String.format("%d rows you have not saved yet were also changed in the data file. "
+                    + "Your versions were kept and will be saved over the file's.", merge.conflicts()));
+        }
+    }
+
+    private void setImportStatusVisible(boolean visible) {
+        importStatusBox.setVisible(visible);
+        importStatusBox.setManaged(visible);
+        if (!visible) {
+            importProgressBar.progressProperty().unbind();
+            importStatusLabel.textProperty().unbind();
+        }
+    }
+
+    private static String importSummary(CsvImportResult result) {
+        StringBuilder message = new StringBuilder(String.format("Successfully imported %d transaction records", result.imported().size()));
+        if (result.duplicatesSkipped() > 0) {
+            message.append(String.format("\n%d rows were already in the ledger and were skipped as duplicates.", result.duplicatesSkipped()));
+        }
+        if (result.rejectedRows() > 0) {
+            message.append(String.format("\n%d lines could not be read:", result.rejectedRows()));
+            result.errors().stream().limit(MAX_IMPORT_ERRORS_SHOWN).forEach(error -> message.append("\n  ").append(error));
+            if (result.rejectedRows() > MAX_IMPORT_ERRORS_SHOWN) {
+                message.append(String.format("\n  ... and %d more", result.rejectedRows() - MAX_IMPORT_ERRORS_SHOWN));
+            }
+        }
+        return message.toString();
+    }
+
     private void refreshTableView() {
         log.debug("Refreshing TableView data...");
-        transactionData.setAll(repository.getAllTransactions());
+        TableRefreshEvent refreshEvent = new TableRefreshEvent();
+        refreshEvent.begin();
+        LedgerSnapshot snapshot = repository.snapshot();
+        transactionData.setAll(snapshot);
+        tableVersion = snapshot.version();
+        refreshEvent.rows = transactionData.size();
+        refreshEvent.commit();
         log.debug("TableView data refreshed with {} items.", transactionData.size());
     }
 
@@ -0,0 +1,12 @@
+package com.group69.finance.controller;
+
+/**
+ * Implemented by controllers of views managed by {@link ViewRegistry}. A view is loaded once and then
+ * kept, so {@code initialize()} runs only on the first load; anything that must reflect the current
+ * ledger each time the view appears belongs in {@link #onShow()}.
+ */
+public interface ViewLifecycle {
+
+    /** Called on the FX thread each time the view becomes the scene's root. */
+    void onShow();
+}
@@ -0,0 +1,156 @@
+package com.group69.finance.controller;
+
+import com.group69.finance.batch.BatchRunner;
+import com.group69.finance.jfr.ViewSwitchEvent;
+import com.group69.finance.metrics.FinanceMetrics;
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads each navigable view's FXML once and keeps the node tree, so switching views only swaps the
+ * scene's root: no FXML parsing, no new {@code Scene}, no CSS re-application and no second
+ * {@code initialize()} on the singleton controller. Views can be preloaded on a background thread
+ * (legal because the nodes are not yet part of a showing scene); showing one that is still loading
+ * waits for it. Every switch is timed ({@code finance.view.switch}) and recorded as a JFR event.
+ */
+@Component
+@Profile("!" + BatchRunner.PROFILE) // UI controllers are not needed in headless batch mode
+public class ViewRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewRegistry.class);
+
+    public enum View {
+        MAIN("main", "/fxml/main-window.fxml"),
+        ANALYSIS("analysis", "/fxml/analysis-view.fxml");
+
+        private final String id;
+        private final String fxml;
+
+        View(String id, String fxml) {
+            this.id = id;
+            this.fxml = fxml;
+        }
+
+        public String id() {
+            return id;
+        }
+    }
+
+    private record LoadedView(Parent root, Object controller) {
+    }
+
+    private final ApplicationContext springContext;
+    private final FinanceMetrics metrics;
+    private final ExecutorService preloader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "view-preloader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Accessed on the FX thread only
+    private final Map<View, CompletableFuture<LoadedView>> views = new EnumMap<>(View.class);
+    private View current;
+
+    @Autowired
+    public ViewRegistry(ApplicationContext springContext, FinanceMetrics metrics) {
+        this.springContext = springContext;
+        this.metrics = metrics;
+    }
+
+    /** Starts loading {@code toLoad} in the background; views already loaded or loading are skipped. */
+    public void preload(View... toLoad) {
+        for (View view : toLoad) {
+            views.computeIfAbsent(view, v -> CompletableFuture.supplyAsync(() -> load(v), preloader));
+        }
+    }
+
+    /** The root of {@code view}, loading it on the calling thread if it was never requested. */
+    public Parent root(View view) {
+        return loaded(view).root();
+    }
+
+    /** Makes {@code view} the root of {@code scene} and notifies its controller. */
+    public void show(View view, Scene scene) {
+        ViewSwitchEvent switchEvent = new ViewSwitchEvent();
+        switchEvent.begin();
+        switchEvent.fromView = current != null ? current.id() : null;
+        switchEvent.toView = view.id();
+        long start = System.nanoTime();
+        try {
+            LoadedView loaded = loaded(view);
+            if (scene.getRoot() != loaded.root()) {
+                scene.setRoot(loaded.root());
+            }
+            current = view;
+            if (loaded.controller() instanceof ViewLifecycle lifecycle) {
+                lifecycle.onShow();
+            }
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            switchEvent.commit();
+            metrics.recordViewSwitch(view.id(), elapsed);
+            log.debug("Switched to view '{}' in {} us", view.id(), elapsed / 1_000);
+        }
+    }
+
+    /** Marks {@code view} as the one on screen, for views placed in a scene by other means (the first one). */
+    public void shown(View view) {
+        current = view;
+    }
+
+    private LoadedView loaded(View view) {
+        if (!Platform.isFxApplicationThread()) {
+            throw new IllegalStateException("Views must be shown from the FX application thread");
+        }
+        CompletableFuture<LoadedView> future = views.computeIfAbsent(view,
+                v -> CompletableFuture.completedFuture(load(v)));
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            views.remove(view); // Let the next attempt retry
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private LoadedView load(View view) {
+        long start = System.nanoTime();
+        URL fxml = getClass().getResource(view.fxml);
+        if (fxml == null) {
+            throw new UncheckedIOException(new IOException("Cannot find FXML file: " + view.fxml));
+        }
+        FXMLLoader loader = new FXMLLoader(fxml);
+        loader.setControllerFactory(springContext::getBean);
+        try {
+            Parent root = loader.load();
+            log.info("Loaded view '{}' in {} ms on {}", view.id(), (System.nanoTime() - start) / 1_000_000,
+                    Thread.currentThread().getName());
+            return new LoadedView(root, loader.getController());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load " + view.fxml, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        preloader.shutdownNow();
+    }
+}
@@ -0,0 +1,50 @@
+package com.group69.finance.dedup;
+
+/**
+ * Fixed-size Bloom filter over pre-computed 64-bit hashes. {@link #mightContain} never returns a false
+ * negative; false positives stay near the configured rate while at most {@code capacity} hashes have
+ * been added. Removal is not supported, so the owner rebuilds it when too many entries have gone stale.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final int capacity;
+
+    BloomFilter(int capacity, double falsePositiveRate) {
+        this.capacity = capacity;
+        // Optimal size m = -n ln p / (ln 2)^2 and k = m/n ln 2
+        long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, (m + 63) & ~63L);
+        this.bits = new long[(int) (m >>> 6)];
+        this.bitCount = m;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) m / capacity * Math.log(2)));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void add(long hash) {
+        // Kirsch-Mitzenmacher double hashing: k probes from the hash and a remixed copy of it
+        long h1 = hash;
+        long h2 = Fingerprint.mix(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = Fingerprint.mix(hash) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,287 @@
+package com.group69.finance.dedup;
+
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerChange;
+import com.group69.finance.repository.LedgerSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link Fingerprint} index over the whole ledger, kept current through repository change events, so
+ * an import can ask "is this row already in the ledger?" in O(1) however large the ledger is.
+ * <p>
+ * Two layers: a {@link BloomFilter} answers the common "definitely new" case from a few cache lines,
+ * and only on a Bloom hit an open-addressing table (64-bit fingerprint hash to the stored rows) is
+ * probed and the candidates compared field by field, so a reported duplicate is always exact.
+ * The table keeps references to the ledger's own rows rather than copies of their fingerprints.
+ */
+@Component
+public class DuplicateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DuplicateIndex.class);
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1 << 10;
+
+    // Guarded by this. keys[i] == 0 marks an empty slot; a value is a Transaction or a Transaction[]
+    private long[] keys;
+    private Object[] values;
+    private int occupiedSlots;
+    private int rows;
+    private BloomFilter bloom;
+    private int removedSinceBloomBuild;
+    private long indexedVersion = -1;
+
+    @Autowired
+    public DuplicateIndex(FinanceDataRepository repository) {
+        synchronized (this) {
+            // Subscribe before taking the snapshot so no change is missed; changes the snapshot
+            // already contains are recognised by their version and skipped
+            repository.addChangeListener(this::onLedgerChanged);
+            LedgerSnapshot snapshot = repository.snapshot();
+            rebuild(snapshot);
+            indexedVersion = snapshot.version();
+        }
+    }
+
+    /** Starts a check for one import; see {@link Session#isDuplicate}. */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /** @return how many ledger rows have exactly this fingerprint */
+    public int count(Fingerprint fingerprint) {
+        return count(fingerprint, Set.of());
+    }
+
+    private synchronized int count(Fingerprint fingerprint, Set<Transaction> excluded) {
+        long key = keyOf(fingerprint);
+        if (!bloom.mightContain(key)) {
+            return 0;
+        }
+        Object value = values[slotOf(key)];
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Transaction row) {
+            return !excluded.contains(row) && Fingerprint.of(row).equals(fingerprint) ? 1 : 0;
+        }
+        int matches = 0;
+        for (Transaction row : (Transaction[]) value) {
+            if (!excluded.contains(row) && Fingerprint.of(row).equals(fingerprint)) matches++;
+        }
+        return matches;
+    }
+
+    public synchronized int size() {
+        return rows;
+    }
+
+    // --- Maintenance (runs under the repository's write lock) ---
+
+    private synchronized void onLedgerChanged(LedgerChange change) {
+        if (change.version() <= indexedVersion && change.kind() != LedgerChange.Kind.RELOADED) {
+            return;
+        }
+        indexedVersion = change.version();
+        switch (change.kind()) {
+            case RELOADED -> rebuild(change.added());
+            case ADDED -> addAll(change.added());
+            case REMOVED -> removeAll(change.removed());
+            case UPDATED -> {
+                removeAll(change.removed());
+                addAll(change.added());
+            }
+        }
+    }
+
+    private synchronized void rebuild(List<Transaction> ledger) {
+        long start = System.nanoTime();
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, ledger.size()) * 2 - 1) << 1);
+        keys = new long[capacity];
+        values = new Object[capacity];
+        occupiedSlots = 0;
+        rows = 0;
+        bloom = new BloomFilter(Math.max(MIN_CAPACITY, ledger.size() * 2), BLOOM_FALSE_POSITIVE_RATE);
+        removedSinceBloomBuild = 0;
+        ledger.forEach(this::insert);
+        log.debug("Duplicate index rebuilt for {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private synchronized void addAll(List<Transaction> added) {
+        added.forEach(this::insert);
+    }
+
+    private synchronized void removeAll(List<Transaction> removed) {
+        for (Transaction row : removed) {
+            delete(row);
+        }
+        // Removed rows stay in the Bloom filter; refresh it before stale bits raise the false-positive rate much
+        if (removedSinceBloomBuild > Math.max(MIN_CAPACITY, rows / 2)) {
+            rebuildBloom(bloom.capacity());
+        }
+    }
+
+    private void insert(Transaction row) {
+        if (rows >= bloom.capacity()) {
+            rebuildBloom(bloom.capacity() * 2);
+        }
+        if ((occupiedSlots + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        long key = keyOf(Fingerprint.of(row));
+        int slot = slotOf(key);
+        Object value = values[slot];
+        if (value == null) {
+            keys[slot] = key;
+            values[slot] = row;
+            occupiedSlots++;
+        } else if (value instanceof Transaction existing) {
+            values[slot] = new Transaction[]{existing, row};
+        } else {
+            Transaction[] existing = (Transaction[]) value;
+            Transaction[] grown = Arrays.copyOf(existing, existing.length + 1);
+            grown[existing.length] = row;
+            values[slot] = grown;
+        }
+        bloom.add(key);
+        rows++;
+    }
+
+    private void delete(Transaction row) {
+        long key = keyOf(Fingerprint.of(row));
+        int slot = slotOf(key);
+        Object value = values[slot];
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Transaction existing) {
+            if (!existing.getId().equals(row.getId())) return;
+            removeSlot(slot);
+        } else {
+            Transaction[] existing = (Transaction[]) value;
+            int index = -1;
+            for (int i = 0; i < existing.length; i++) {
+                if (existing[i].getId().equals(row.getId())) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) return;
+            if (existing.length == 2) {
+                values[slot] = existing[1 - index];
+            } else {
+                Transaction[] shrunk = new Transaction[existing.length - 1];
+                System.arraycopy(existing, 0, shrunk, 0, index);
+                System.arraycopy(existing, index + 1, shrunk, index, existing.length - index - 1);
+                values[slot] = shrunk;
+            }
+        }
+        rows--;
+        removedSinceBloomBuild++;
+    }
+
+    /** Linear probing: the slot holding {@code key}, or the empty slot where it would go. */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) key & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /** Backward-shift deletion keeps every remaining key reachable from its home slot without tombstones. */
+    private void removeSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int home = (int) keys[next] & mask;
+            // Move next into the hole unless its home lies cyclically in (hole, next]
+            boolean homeBetween = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+            if (!homeBetween) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+        occupiedSlots--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void rebuildBloom(int capacity) {
+        bloom = new BloomFilter(Math.max(MIN_CAPACITY, capacity), BLOOM_FALSE_POSITIVE_RATE);
+        for (long key : keys) {
+            if (key != 0) bloom.add(key);
+        }
+        removedSinceBloomBuild = 0;
+    }
+
+    private static long keyOf(Fingerprint fingerprint) {
+        long hash = fingerprint.hash64();
+        return hash == 0 ? 1 : hash; // 0 marks empty slots
+    }
+
+    /**
+     * Duplicate check for one import. A file may legitimately contain identical rows (two coffees of the
+     * same price on the same day), so duplicates are matched as a multiset: the n-th occurrence of a
+     * fingerprint in the file is skipped only if the ledger already holds at least n such rows.
+     * Rows the import has already added (see {@link #added}) do not count as being in the ledger.
+     */
+    public final class Session {
+        private final Map<Fingerprint, Integer> matched = new HashMap<>();
+        private final Set<Transaction> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        private int duplicates;
+
+        private Session() {
+        }
+
+        public boolean isDuplicate(Fingerprint fingerprint) {
+            int inLedger = count(fingerprint, added);
+            if (inLedger == 0) {
+                return false;
+            }
+            if (matched.merge(fingerprint, 1, Integer::sum) > inLedger) {
+                return false;
+            }
+            duplicates++;
+            return true;
+        }
+
+        /** Records rows of this import that are now in the ledger, e.g. a batch committed part way through. */
+        public void added(List<Transaction> rows) {
+            added.addAll(rows);
+        }
+
+        public int duplicates() {
+            return duplicates;
+        }
+    }
+}
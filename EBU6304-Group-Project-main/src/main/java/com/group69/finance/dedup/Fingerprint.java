@@ -0,0 +1,67 @@
+package com.group69.finance.dedup;
+
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * What makes two ledger rows "the same transaction" for import deduplication: date, amount to the
+ * cent, source and the description with case and whitespace differences ignored. Category and ID are
+ * deliberately left out, since an import assigns fresh IDs and may categorize differently.
+ */
+public record Fingerprint(long epochDay, long amountCents, String description, Source source) {
+
+    public static Fingerprint of(Transaction transaction) {
+        return of(transaction.getDate(), transaction.getDescription(), transaction.getAmount(), transaction.getSource());
+    }
+
+    public static Fingerprint of(LocalDate date, String description, double amount, Source source) {
+        return new Fingerprint(date.toEpochDay(), Math.round(amount * 100), normalize(description), source);
+    }
+
+    /** Lower-cased, trimmed, internal whitespace runs collapsed to one space. */
+    public static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(description.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** Well-mixed 64-bit hash, used for both the Bloom filter probes and the exact index. */
+    public long hash64() {
+        long h = 0xcbf29ce484222325L; // FNV-1a over the description
+        for (int i = 0; i < description.length(); i++) {
+            h = (h ^ description.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= mix(epochDay * 0x9E3779B97F4A7C15L);
+        h ^= mix(amountCents ^ 0xC2B2AE3D27D4EB4FL);
+        h ^= source == null ? 0 : (source.ordinal() + 1) * 0x165667B19E3779F9L;
+        return mix(h);
+    }
+
+    /** MurmurHash3 finalizer. */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
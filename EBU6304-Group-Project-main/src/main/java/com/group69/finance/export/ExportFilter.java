@@ -0,0 +1,41 @@
+package com.group69.finance.export;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Which rows to export. Null dates leave that end of the range open; an empty category or source
+ * set means "all".
+ *
+ * @param from       first date to include, or {@code null}
+ * @param to         last date to include, or {@code null}
+ * @param categories categories to include; empty for all
+ * @param sources    sources to include; empty for all
+ */
+public record ExportFilter(LocalDate from, LocalDate to, Set<Category> categories, Set<Source> sources) {
+
+    public static final ExportFilter ALL = new ExportFilter(null, null, Set.of(), Set.of());
+
+    public ExportFilter {
+        // EnumSet copies keep matches() allocation-free and cheap per row
+        categories = categories == null || categories.isEmpty() ? EnumSet.noneOf(Category.class) : EnumSet.copyOf(categories);
+        sources = sources == null || sources.isEmpty() ? EnumSet.noneOf(Source.class) : EnumSet.copyOf(sources);
+    }
+
+    public boolean matches(Transaction transaction) {
+        LocalDate date = transaction.getDate();
+        if (from != null && date.isBefore(from)) return false;
+        if (to != null && date.isAfter(to)) return false;
+        if (!categories.isEmpty() && !categories.contains(transaction.getCategory())) return false;
+        return sources.isEmpty() || sources.contains(transaction.getSource());
+    }
+
+    public boolean isUnfiltered() {
+        return from == null && to == null && categories.isEmpty() && sources.isEmpty();
+    }
+}
@@ -0,0 +1,35 @@
+package com.group69.finance.export;
+
+import java.util.Locale;
+
+public enum ExportFormat {
+    /** The {@code date,description,amount,category,source,tags} layout read by the CSV import. */
+    CSV("csv"),
+    /** A JSON array in the shape of the ledger data file. */
+    JSON("json");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /** Picks the format from a file name such as {@code 2025.csv} or {@code 2025.json.gz}, defaulting to CSV. */
+    public static ExportFormat fromFileName(String fileName) {
+        return stripGzip(fileName).endsWith(".json") ? JSON : CSV;
+    }
+
+    /** @return {@code true} if the file name asks for GZIP compression ({@code .gz}) */
+    public static boolean isGzipFileName(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".gz");
+    }
+
+    private static String stripGzip(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".gz") ? lower.substring(0, lower.length() - 3) : lower;
+    }
+}
@@ -0,0 +1,178 @@
+package com.group69.finance.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerSnapshot;
+import com.group69.finance.storage.AtomicFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a filtered view of the ledger to CSV or JSON, optionally GZIP-compressed.
+ * <p>
+ * Rows go straight from an immutable repository snapshot through the filter into a buffered
+ * file channel; no intermediate list is built, so the extra memory is a few fixed-size buffers
+ * whatever the ledger size, and edits made while the export runs neither block nor tear it. The file
+ * is written next to the target and renamed into place ({@link AtomicFiles}), so a failed export leaves
+ * no partial file.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+    static final String CSV_HEADER = "date,description,amount,category,source,tags";
+
+    private final FinanceDataRepository repository;
+    private final ObjectWriter rowWriter;
+
+    @Autowired
+    public ExportService(FinanceDataRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        // Same field layout as the data file, but compact: exports are for machines
+        this.rowWriter = objectMapper.writerFor(Transaction.class).without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public ExportSummary export(ExportFilter filter, ExportFormat format, boolean gzip, Path target) throws IOException {
+        long start = System.nanoTime();
+        LedgerSnapshot snapshot = repository.snapshot();
+        long rows = AtomicFiles.write(target, channel -> {
+            try (OutputStream out = open(AtomicFiles.outputStream(channel), gzip)) {
+                return format == ExportFormat.JSON ? writeJson(snapshot, filter, out) : writeCsv(snapshot, filter, out);
+            }
+        });
+        ExportSummary summary = new ExportSummary(target, rows, Files.size(target), System.nanoTime() - start);
+        log.info("Exported {} of {} transactions as {}{} to {} ({} bytes, {} ms)", rows, snapshot.size(), format,
+                gzip ? "+gzip" : "", target.toAbsolutePath(), summary.bytes(), summary.nanos() / 1_000_000);
+        return summary;
+    }
+
+    private static OutputStream open(OutputStream out, boolean gzip) throws IOException {
+        if (gzip) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return new BufferedOutputStream(out, BUFFER_SIZE);
+    }
+
+    private static long writeCsv(LedgerSnapshot snapshot, ExportFilter filter, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        // One reusable line buffer; rows are copied out as chars so none of them becomes a String
+        StringBuilder line = new StringBuilder(128);
+        char[] chars = new char[128];
+        long rows = 0;
+        for (Transaction t : snapshot) {
+            if (!filter.matches(t)) continue;
+            line.setLength(0);
+            appendDate(line, t.getDate());
+            line.append(',');
+            appendCsvField(line, t.getDescription());
+            line.append(',');
+            appendAmount(line, Math.round(t.getAmount() * 100));
+            line.append(',').append(t.getCategory().name()).append(',').append(t.getSource().name()).append(',');
+            appendTags(line, t.getTags());
+            line.append('\n');
+            if (chars.length < line.length()) {
+                chars = new char[line.length() * 2];
+            }
+            line.getChars(0, line.length(), chars, 0);
+            writer.write(chars, 0, line.length());
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private long writeJson(LedgerSnapshot snapshot, ExportFilter filter, OutputStream out) throws IOException {
+        long rows = 0;
+        try (JsonGenerator json = rowWriter.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartArray();
+            for (Transaction t : snapshot) {
+                if (!filter.matches(t)) continue;
+                rowWriter.writeValue(json, t);
+                rows++;
+            }
+            json.writeEndArray();
+        }
+        return rows;
+    }
+
+    /** RFC 4180 quoting, only when the value needs it. */
+    static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /** Separated by semicolons, which tags cannot contain, so the cell never needs quoting. */
+    static void appendTags(StringBuilder line, Set<String> tags) {
+        boolean first = true;
+        for (String tag : tags) {
+            if (!first) line.append(';');
+            line.append(tag);
+            first = false;
+        }
+    }
+
+    /** ISO {@code yyyy-MM-dd}, as {@link LocalDate#toString()} writes it for four-digit years. */
+    static void appendDate(StringBuilder line, LocalDate date) {
+        line.append(date.getYear()).append('-');
+        appendTwoDigits(line, date.getMonthValue());
+        line.append('-');
+        appendTwoDigits(line, date.getDayOfMonth());
+    }
+
+    private static void appendTwoDigits(StringBuilder line, int value) {
+        if (value < 10) line.append('0');
+        line.append(value);
+    }
+
+    /** Formats cents as a plain decimal with two places, without going through String.format. */
+    static void appendAmount(StringBuilder line, long cents) {
+        if (cents < 0) {
+            line.append('-');
+            cents = -cents;
+        }
+        line.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) line.append('0');
+        line.append(fraction);
+    }
+}
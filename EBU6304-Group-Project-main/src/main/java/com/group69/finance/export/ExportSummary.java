@@ -0,0 +1,18 @@
+package com.group69.finance.export;
+
+import java.nio.file.Path;
+
+/**
+ * Outcome of one export.
+ *
+ * @param file      the written file
+ * @param rows      rows that matched the filter and were written
+ * @param bytes     size of the file on disk (compressed size for GZIP)
+ * @param nanos     wall time of the export
+ */
+public record ExportSummary(Path file, long rows, long bytes, long nanos) {
+
+    public double rowsPerSecond() {
+        return nanos == 0 ? 0 : rows / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,448 @@
+package com.group69.finance.generator;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Generates realistic, reproducible ledgers of any size for load and scale testing.
+ * <p>
+ * The distributions are hand-tuned from {@code sample_transactions_2025.csv}: a monthly salary and
+ * rent on fixed days, recurring utility/insurance bills, daily groceries, transport and dining with
+ * long-tailed amounts, occasional shopping sprees, red packets around Chinese New Year, and mixed
+ * English/Chinese descriptions across every {@link Source}. Large row counts are reached by simulating
+ * several households side by side over at most {@value #MAX_YEARS} years, so dates stay realistic.
+ * <p>
+ * Output is a pure function of the seed and row count (transaction IDs included) and is streamed
+ * row by row, so memory use is constant even for tens of millions of rows.
+ */
+public final class SyntheticLedgerGenerator {
+
+    public enum Format {
+        CSV, JSON;
+
+        /** Picks the format from a file extension, defaulting to CSV. */
+        public static Format fromFileName(String fileName) {
+            return fileName.toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    public static final LocalDate DEFAULT_START = LocalDate.of(2016, 1, 1);
+    static final int MAX_YEARS = 10;
+    // Average rows one simulated household produces per year with the rates below
+    private static final int ROWS_PER_HOUSEHOLD_YEAR = 950;
+    private static final double DEFAULT_UNCATEGORIZED_RATIO = 0.1;
+
+    // --- Description pools (no commas, so the CSV written here needs no quoting) ---
+    private static final String[] SALARY = {"Monthly Salary", "Salary payment", "工资 Salary"};
+    private static final String[] RENT = {"Apartment Rent", "房租 Rent"};
+    private static final String[] UTILITIES_ELECTRICITY = {"Electricity Bill", "电费 Electricity"};
+    private static final String[] UTILITIES_WATER = {"Water Bill", "水电煤 缴费"};
+    private static final String[] UTILITIES_GAS = {"Gas Bill"};
+    private static final String[] UTILITIES_INTERNET = {"Internet Bill", "Phone Bill"};
+    private static final String[] INSURANCE = {"Health Insurance", "Car Insurance", "Life Insurance"};
+    private static final String[] GROCERIES = {"Grocery shopping at Costco", "Grocery shopping at Whole Foods",
+            "Supermarket", "菜市场", "盒马 supermarket", "Grocery shopping at Trader Joe's"};
+    private static final String[] DINING = {"Lunch at Cafe", "Dinner at Japanese Restaurant", "Starbucks coffee",
+            "外卖 美团", "海底捞 吃饭", "Dinner at French Restaurant", "Breakfast cafe"};
+    private static final String[] TRANSPORT = {"Subway ride", "Taxi Ride", "Didi 打车", "地铁 Metro", "公交 Bus",
+            "Train Ticket", "Subway Monthly Pass"};
+    private static final String[] SHOPPING = {"淘宝 购物", "京东 JD.com order", "拼多多 PDD", "New Clothes Shopping",
+            "Electronics Shopping", "Shoes", "Furniture Shopping"};
+    private static final String[] ENTERTAINMENT = {"Movie Night", "Concert Tickets", "KTV", "Steam game",
+            "Amusement Park", "Bowling Night", "娱乐"};
+    private static final String[] HEALTHCARE = {"Doctor Visit", "Pharmacy", "医院 挂号", "Prescription Medicine",
+            "Dental Checkup", "药店"};
+    private static final String[] EDUCATION = {"Online Course Payment", "Language Course", "Professional Certification"};
+    private static final String[] INVESTMENT = {"Stock Dividend", "Bond Interest", "Mutual Fund Dividend"};
+    private static final String[] GIFT_RECEIVED = {"红包 Red packet", "Birthday Gift from Friend", "Gift received"};
+    private static final String[] GIFT_GIVEN = {"Wedding Gift", "发红包 red packet", "Charity Donation", "Anniversary Gift"};
+    private static final String[] OTHER_INCOME = {"Freelance Work Income", "Part-time Teaching Income", "Refund"};
+    private static final String[] OTHER_EXPENSE = {"Office Supplies", "Misc purchase", "Haircut", "Parking fee"};
+
+    private static final Source[] EVERYDAY_SOURCES = {Source.WECHAT_PAY, Source.ALIPAY, Source.CREDIT_CARD,
+            Source.DEBIT_CARD, Source.CASH, Source.OTHER};
+    private static final Source[] TRANSPORT_SOURCES = {Source.OCTOPUS, Source.OCTOPUS, Source.WECHAT_PAY,
+            Source.ALIPAY, Source.CASH};
+
+    private final long seed;
+    private final LocalDate startDate;
+    private final double uncategorizedRatio;
+
+    public SyntheticLedgerGenerator(long seed) {
+        this(seed, DEFAULT_START, DEFAULT_UNCATEGORIZED_RATIO);
+    }
+
+    /**
+     * @param uncategorizedRatio share of rows written as {@code UNCATEGORIZED}, so imports exercise
+     *                           the AI categorization path the way real bank exports do
+     */
+    public SyntheticLedgerGenerator(long seed, LocalDate startDate, double uncategorizedRatio) {
+        this.seed = seed;
+        this.startDate = startDate;
+        this.uncategorizedRatio = uncategorizedRatio;
+    }
+
+    // --- Output ---
+
+    /** Streams {@code rows} transactions to {@code sink}, with the same seeded IDs {@link #writeJson} writes. */
+    public void generate(long rows, Consumer<Transaction> sink) {
+        simulate(rows, row -> sink.accept(Transaction.restore(row.id.toString(), row.date, row.description,
+                row.cents / 100.0, row.category, row.source, false)));
+    }
+
+    public void write(long rows, Format format, Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        if (format == Format.JSON) {
+            writeJson(rows, file);
+        } else {
+            writeCsv(rows, file);
+        }
+    }
+
+    /** Writes the {@code date,description,amount,category,source} layout read by {@code CsvImportService}. */
+    public void writeCsv(long rows, Path file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), 1 << 16)) {
+            writer.write("date,description,amount,category,source\n");
+            StringBuilder line = new StringBuilder(96);
+            IOException[] failure = new IOException[1];
+            simulate(rows, row -> {
+                if (failure[0] != null) return;
+                line.setLength(0);
+                line.append(row.date).append(',').append(row.description).append(',');
+                appendAmount(line, row.cents);
+                line.append(',').append(row.csvCategory.name()).append(',').append(row.source.name()).append('\n');
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+        }
+    }
+
+    /** Writes a JSON array in the same shape {@code JsonPersistenceService} saves and loads. */
+    public void writeJson(long rows, Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             JsonGenerator json = new JsonFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartArray();
+            IOException[] failure = new IOException[1];
+            simulate(rows, row -> {
+                if (failure[0] != null) return;
+                try {
+                    json.writeStartObject();
+                    json.writeStringField("id", row.id.toString());
+                    json.writeStringField("date", row.date.toString());
+                    json.writeStringField("description", row.description);
+                    json.writeNumberField("amount", row.cents / 100.0);
+                    json.writeStringField("category", row.category.name());
+                    json.writeStringField("source", row.source.name());
+                    json.writeBooleanField("aiSuggestedCategory", false);
+                    json.writeEndObject();
+                } catch (IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) throw failure[0];
+            json.writeEndArray();
+        }
+    }
+
+    private static void appendAmount(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        sb.append(cents / 100).append('.');
+        long fraction = cents % 100;
+        if (fraction < 10) sb.append('0');
+        sb.append(fraction);
+    }
+
+    // --- Simulation ---
+
+    /** A generated row; a single instance is reused for every emission. */
+    private static final class Row {
+        UUID id;
+        LocalDate date;
+        String description;
+        long cents;
+        Category category;
+        Category csvCategory;
+        Source source;
+    }
+
+    /** Fixed per-household traits drawn once from the seed. */
+    private static final class Household {
+        long salaryCents;
+        int salaryDay;
+        long rentCents;
+        int rentDay;
+        int electricityDay;
+        int waterDay;
+        int internetDay;
+        int insuranceDay;
+        long insuranceCents;
+        double diningRate;
+        double shoppingRate;
+        Source favouriteSource;
+        // A household's bank and biller references read the same every month
+        String salaryDescription;
+        String rentDescription;
+        String electricityDescription;
+        String waterDescription;
+        String internetDescription;
+        String insuranceDescription;
+    }
+
+    private void simulate(long rows, Consumer<Row> sink) {
+        int years = (int) Math.max(1, Math.min(MAX_YEARS, ceilDiv(rows, ROWS_PER_HOUSEHOLD_YEAR)));
+        int householdCount = (int) Math.max(1, ceilDiv(rows, (long) ROWS_PER_HOUSEHOLD_YEAR * years));
+
+        SplittableRandom profileRandom = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        Household[] households = new Household[householdCount];
+        for (int i = 0; i < householdCount; i++) {
+            households[i] = newHousehold(profileRandom);
+        }
+
+        Emitter emitter = new Emitter(new SplittableRandom(seed), rows, sink);
+        for (LocalDate day = startDate; !emitter.done(); day = day.plusDays(1)) {
+            for (int h = 0; h < householdCount && !emitter.done(); h++) {
+                simulateDay(households[h], day, emitter);
+            }
+        }
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    private static Household newHousehold(SplittableRandom r) {
+        Household h = new Household();
+        h.salaryCents = roundToHundred(r.nextLong(400_000, 1_500_000));
+        h.salaryDay = r.nextBoolean() ? 1 + r.nextInt(3) : 15;
+        h.rentCents = roundToHundred(r.nextLong(120_000, 450_000));
+        h.rentDay = 5 + r.nextInt(2);
+        h.electricityDay = 7 + r.nextInt(3);
+        h.waterDay = 10 + r.nextInt(5);
+        h.internetDay = 25 + r.nextInt(3);
+        h.insuranceDay = 21;
+        h.insuranceCents = roundToHundred(r.nextLong(10_000, 30_000));
+        h.diningRate = 0.5 + r.nextDouble() * 1.2;
+        h.shoppingRate = 0.1 + r.nextDouble() * 0.3;
+        h.favouriteSource = EVERYDAY_SOURCES[r.nextInt(EVERYDAY_SOURCES.length)];
+        h.salaryDescription = pick(r, SALARY);
+        h.rentDescription = pick(r, RENT);
+        h.electricityDescription = pick(r, UTILITIES_ELECTRICITY);
+        h.waterDescription = pick(r, UTILITIES_WATER);
+        h.internetDescription = pick(r, UTILITIES_INTERNET);
+        h.insuranceDescription = pick(r, INSURANCE);
+        return h;
+    }
+
+    private static long roundToHundred(long cents) {
+        return cents / 10_000 * 10_000;
+    }
+
+    private static void simulateDay(Household h, LocalDate day, Emitter e) {
+        SplittableRandom r = e.random;
+        int dom = day.getDayOfMonth();
+
+        // Fixed-day monthly items
+        if (dom == h.salaryDay) {
+            e.emit(day, h.salaryDescription, h.salaryCents, Category.SALARY, Source.BANK_TRANSFER);
+        }
+        if (dom == h.rentDay) {
+            e.emit(day, h.rentDescription, -h.rentCents, Category.RENT, Source.BANK_TRANSFER);
+        }
+        if (dom == h.electricityDay) {
+            // Seasonal: higher in summer and winter
+            int month = day.getMonthValue();
+            double season = (month >= 6 && month <= 8) || month == 12 || month <= 2 ? 1.6 : 1.0;
+            e.emit(day, h.electricityDescription, -jitter(r, 8_000 * season, 0.15), Category.UTILITIES, Source.ALIPAY);
+        }
+        if (dom == h.waterDay) {
+            e.emit(day, h.waterDescription, -jitter(r, 6_000, 0.2), Category.UTILITIES, Source.ALIPAY);
+            if (day.getMonthValue() % 2 == 0) {
+                e.emit(day, pick(r, UTILITIES_GAS), -jitter(r, 7_000, 0.25), Category.UTILITIES, Source.WECHAT_PAY);
+            }
+        }
+        if (dom == h.internetDay) {
+            e.emit(day, h.internetDescription, -8_000, Category.UTILITIES, Source.ALIPAY);
+        }
+        if (dom == h.insuranceDay) {
+            e.emit(day, h.insuranceDescription, -h.insuranceCents, Category.INSURANCE, Source.BANK_TRANSFER);
+        }
+        if (dom == 23 && day.getMonthValue() % 3 == 0) {
+            e.emit(day, pick(r, INVESTMENT), jitter(r, 30_000, 0.3), Category.INVESTMENT, Source.BANK_TRANSFER);
+        }
+
+        // Everyday spending
+        boolean weekend = day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+        if (r.nextDouble() < (weekend ? 0.6 : 0.25)) {
+            e.emit(day, pick(r, GROCERIES), -jitter(r, 15_000, 0.35), Category.GROCERIES, h.favouriteSource);
+        }
+        for (int i = poisson(r, h.diningRate); i > 0; i--) {
+            e.emit(day, pick(r, DINING), -logNormal(r, 4_500, 0.6), Category.DINING_OUT, h.favouriteSource);
+        }
+        for (int i = poisson(r, weekend ? 0.4 : 0.9); i > 0; i--) {
+            e.emit(day, pick(r, TRANSPORT), -logNormal(r, 1_200, 0.8), Category.TRANSPORT,
+                    TRANSPORT_SOURCES[r.nextInt(TRANSPORT_SOURCES.length)]);
+        }
+        if (r.nextDouble() < h.shoppingRate) {
+            e.emit(day, pick(r, SHOPPING), -pareto(r, 3_000, 1.3, 2_000_000), Category.SHOPPING,
+                    r.nextBoolean() ? Source.ALIPAY : Source.CREDIT_CARD);
+        }
+        if (r.nextDouble() < (weekend ? 0.2 : 0.05)) {
+            e.emit(day, pick(r, ENTERTAINMENT), -logNormal(r, 8_000, 0.7), Category.ENTERTAINMENT,
+                    EVERYDAY_SOURCES[r.nextInt(EVERYDAY_SOURCES.length)]);
+        }
+
+        // Rare items
+        if (r.nextDouble() < 0.03) {
+            e.emit(day, pick(r, HEALTHCARE), -logNormal(r, 12_000, 0.9), Category.HEALTHCARE, Source.WECHAT_PAY);
+        }
+        if (r.nextDouble() < 0.01) {
+            e.emit(day, pick(r, EDUCATION), -jitter(r, 40_000, 0.5), Category.EDUCATION, Source.CREDIT_CARD);
+        }
+        if (r.nextDouble() < 0.02) {
+            e.emit(day, pick(r, OTHER_INCOME), jitter(r, 100_000, 0.5), Category.OTHER_INCOME, Source.CASH);
+        }
+        if (r.nextDouble() < 0.05) {
+            e.emit(day, pick(r, OTHER_EXPENSE), -logNormal(r, 4_000, 0.8), Category.OTHER_EXPENSE,
+                    EVERYDAY_SOURCES[r.nextInt(EVERYDAY_SOURCES.length)]);
+        }
+
+        // Red packets cluster around Chinese New Year (approximated as late Jan to mid Feb)
+        boolean newYear = (day.getMonthValue() == 1 && dom >= 20) || (day.getMonthValue() == 2 && dom <= 15);
+        double giftRate = newYear ? 0.25 : 0.01;
+        if (r.nextDouble() < giftRate) {
+            e.emit(day, pick(r, GIFT_RECEIVED), roundToHundred(logNormal(r, 30_000, 0.6)) + 10_000,
+                    Category.GIFT_RECEIVED, Source.WECHAT_PAY);
+        }
+        if (r.nextDouble() < giftRate) {
+            e.emit(day, pick(r, GIFT_GIVEN), -(roundToHundred(logNormal(r, 25_000, 0.6)) + 10_000),
+                    Category.GIFT_GIVEN, Source.WECHAT_PAY);
+        }
+    }
+
+    private static String pick(SplittableRandom r, String[] pool) {
+        return pool[r.nextInt(pool.length)];
+    }
+
+    private static long jitter(SplittableRandom r, double cents, double spread) {
+        return Math.max(1, Math.round(cents * (1 + (r.nextDouble() * 2 - 1) * spread)));
+    }
+
+    private static long logNormal(SplittableRandom r, double medianCents, double sigma) {
+        return Math.max(1, Math.round(medianCents * Math.exp(sigma * gaussian(r))));
+    }
+
+    private static long pareto(SplittableRandom r, double minCents, double alpha, long capCents) {
+        double value = minCents / Math.pow(1 - r.nextDouble(), 1 / alpha);
+        return Math.min(capCents, Math.round(value));
+    }
+
+    private static double gaussian(SplittableRandom r) {
+        // Box-Muller; SplittableRandom has no nextGaussian on Java 17
+        double u1 = 1 - r.nextDouble();
+        double u2 = r.nextDouble();
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static int poisson(SplittableRandom r, double lambda) {
+        double limit = Math.exp(-lambda);
+        double product = r.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            count++;
+            product *= r.nextDouble();
+        }
+        return count;
+    }
+
+    /** Applies the row budget and fills the reusable {@link Row}. */
+    private final class Emitter {
+        final SplittableRandom random;
+        final long limit;
+        final Consumer<Row> sink;
+        final Row row = new Row();
+        long emitted;
+
+        Emitter(SplittableRandom random, long limit, Consumer<Row> sink) {
+            this.random = random;
+            this.limit = limit;
+            this.sink = sink;
+        }
+
+        boolean done() {
+            return emitted >= limit;
+        }
+
+        void emit(LocalDate date, String description, long cents, Category category, Source source) {
+            if (done()) return;
+            row.id = new UUID(random.nextLong(), random.nextLong());
+            row.date = date;
+            row.description = description;
+            row.cents = cents;
+            row.category = category;
+            row.csvCategory = random.nextDouble() < uncategorizedRatio ? Category.UNCATEGORIZED : category;
+            row.source = source;
+            emitted++;
+            sink.accept(row);
+        }
+    }
+
+    /**
+     * Command line entry point:
+     * {@code SyntheticLedgerGenerator --rows 1000000 [--seed 69] [--format csv|json] --out ledger.csv}
+     */
+    public static void main(String[] args) throws IOException {
+        long rows = 10_000;
+        long seed = 69;
+        String out = null;
+        Format format = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--rows" -> rows = Long.parseLong(args[i + 1].replace("_", ""));
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--format" -> format = Format.valueOf(args[i + 1].toUpperCase(Locale.ROOT));
+                case "--out" -> out = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (out == null) {
+            System.err.println("Usage: SyntheticLedgerGenerator --rows N [--seed S] [--format csv|json] --out FILE");
+            System.exit(2);
+        }
+        Path file = Paths.get(out);
+        Format resolved = format != null ? format : Format.fromFileName(out);
+        long start = System.nanoTime();
+        new SyntheticLedgerGenerator(seed).write(rows, resolved, file);
+        System.out.printf("Wrote %,d rows (%s, seed %d) to %s in %.1f s, %,d bytes%n", rows, resolved, seed,
+                file.toAbsolutePath(), (System.nanoTime() - start) / 1e9, Files.size(file));
+    }
+}
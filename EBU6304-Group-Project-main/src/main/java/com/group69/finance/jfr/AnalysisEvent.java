@@ -0,0 +1,20 @@
+package com.group69.finance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.group69.finance.Analysis")
+@Label("Analysis Run")
+@Category({"Finance", "Analysis"})
+@Description("One getAIAnalysis computation")
+public class AnalysisEvent extends Event {
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Ledger Version")
+    public long ledgerVersion;
+}
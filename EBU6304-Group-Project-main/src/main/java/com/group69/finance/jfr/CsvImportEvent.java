@@ -0,0 +1,37 @@
+package com.group69.finance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.group69.finance.CsvImport")
+@Label("CSV Import")
+@Category({"Finance", "Import"})
+@Description("One CSV file parsed, categorized and added to the ledger")
+public class CsvImportEvent extends Event {
+
+    @Label("File")
+    public String file;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Imported Rows")
+    public int rows;
+
+    @Label("Duplicate Rows")
+    @Description("Rows skipped because the ledger already contained them")
+    public int duplicateRows;
+
+    @Label("Rejected Rows")
+    @Description("Lines that could not be parsed")
+    public int rejectedRows;
+
+    @Label("Rolled Back")
+    @Description("Cancelled or failed part way; the rows it had added were removed again")
+    public boolean rolledBack;
+}
@@ -0,0 +1,109 @@
+package com.group69.finance.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * On-demand Java Flight Recorder support. The finance events in this package cost next to nothing
+ * while no recording is running. {@link #startRecording()} begins a rolling recording that keeps
+ * the last {@code app.jfr.max-age-minutes} in JFR's repository (a temp directory), and
+ * {@link #dump(Path)} writes whatever is being recorded (ours or one started with
+ * {@code -XX:StartFlightRecording}) to a .jfr file.
+ */
+@Service
+public class FlightRecordingService {
+
+    private static final Logger log = LoggerFactory.getLogger(FlightRecordingService.class);
+    private static final String RECORDING_NAME = "finance-continuous";
+
+    private final boolean startOnLaunch;
+    private final Duration maxAge;
+
+    // Guarded by this
+    private Recording recording;
+
+    @Autowired
+    public FlightRecordingService(@Value("${app.jfr.start-on-launch:false}") boolean startOnLaunch,
+                                  @Value("${app.jfr.max-age-minutes:10}") long maxAgeMinutes) {
+        this.startOnLaunch = startOnLaunch;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (startOnLaunch) {
+            startRecording();
+        }
+    }
+
+    public boolean isAvailable() {
+        return FlightRecorder.isAvailable();
+    }
+
+    /** @return {@code true} if any flight recording is running in this JVM */
+    public boolean isRecording() {
+        return isAvailable() && FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .anyMatch(r -> r.getState() == RecordingState.RUNNING);
+    }
+
+    /** Starts the continuous recording (JDK "default" settings plus the finance events); no-op if running. */
+    public synchronized void startRecording() {
+        if (recording != null || !isAvailable()) {
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration("default"));
+            started.setName(RECORDING_NAME);
+            started.setToDisk(true); // Max age is only enforced for disk-backed recordings
+            started.setMaxAge(maxAge);
+            started.start();
+            recording = started;
+            log.info("Flight recording started (keeping the last {} minutes).", maxAge.toMinutes());
+        } catch (IOException | ParseException e) {
+            log.error("Could not start flight recording", e);
+        }
+    }
+
+    public synchronized void stopRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            log.info("Flight recording stopped.");
+        }
+    }
+
+    /**
+     * Writes a snapshot of all running recordings to {@code target}.
+     *
+     * @throws IllegalStateException if nothing is being recorded
+     */
+    public Path dump(Path target) throws IOException {
+        if (!isRecording()) {
+            throw new IllegalStateException("No flight recording is running.");
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            snapshot.dump(target);
+        }
+        log.info("Flight recording dumped to {}", target.toAbsolutePath());
+        return target;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopRecording();
+    }
+}
@@ -0,0 +1,28 @@
+package com.group69.finance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.group69.finance.LedgerSave")
+@Label("Ledger Save")
+@Category({"Finance", "Persistence"})
+@Description("The ledger written to its data file, including fsync and rename")
+public class LedgerSaveEvent extends Event {
+
+    @Label("Path")
+    public String path;
+
+    @Label("Format")
+    public String format;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Rows")
+    public int rows;
+}
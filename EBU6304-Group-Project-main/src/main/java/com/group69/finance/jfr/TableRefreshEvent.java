@@ -0,0 +1,17 @@
+package com.group69.finance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.group69.finance.TableRefresh")
+@Label("Table Refresh")
+@Category({"Finance", "UI"})
+@Description("The transaction table reloaded from the repository on the FX thread")
+public class TableRefreshEvent extends Event {
+
+    @Label("Rows")
+    public int rows;
+}
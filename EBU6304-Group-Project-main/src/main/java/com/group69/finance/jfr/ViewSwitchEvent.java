@@ -0,0 +1,20 @@
+package com.group69.finance.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.group69.finance.ViewSwitch")
+@Label("View Switch")
+@Category({"Finance", "UI"})
+@Description("Navigation between views, including FXML loading the first time a view is shown")
+public class ViewSwitchEvent extends Event {
+
+    @Label("From View")
+    public String fromView;
+
+    @Label("To View")
+    public String toView;
+}
@@ -0,0 +1,203 @@
+package com.group69.finance.metrics;
+
+import com.group69.finance.model.Category;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * All application meters in one place, so names and tags stay consistent between the services
+ * that record them, the actuator/JMX endpoints and the diagnostics panel.
+ * <p>
+ * Timers and summaries publish client-side p50/p95/p99 over a sliding window, which is what
+ * {@link #summaries()} reports as the "current" percentiles.
+ */
+@Component
+public class FinanceMetrics {
+
+    public static final String PREFIX = "finance.";
+    public static final String IMPORT_DURATION = "finance.import.duration";
+    public static final String IMPORT_ROWS = "finance.import.rows";
+    public static final String IMPORT_REJECTED_ROWS = "finance.import.rejected.rows";
+    public static final String IMPORT_DUPLICATE_ROWS = "finance.import.duplicate.rows";
+    public static final String IMPORT_THROUGHPUT = "finance.import.throughput";
+    public static final String PERSISTENCE_DURATION = "finance.persistence.duration";
+    public static final String PERSISTENCE_BYTES = "finance.persistence.bytes";
+    public static final String PERSISTENCE_FAILURES = "finance.persistence.failures";
+    public static final String CATEGORIZATION_SUGGESTIONS = "finance.categorization.suggestions";
+    public static final String ANALYSIS_DURATION = "finance.analysis.duration";
+    public static final String VIEW_SWITCH_DURATION = "finance.view.switch";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    private final MeterRegistry registry;
+    private final Timer importTimer;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+    private final Counter duplicateRows;
+    private final DistributionSummary importThroughput;
+    private final Timer analysisTimer;
+    // suggestCategory is a hot path: count into plain adders and let FunctionCounters read them,
+    // instead of paying for a registry meter (clock reads, composite fan-out) on every call
+    private final LongAdder[] ruleHits = new LongAdder[Category.values().length];
+    private final LongAdder[] defaultHits = new LongAdder[Category.values().length];
+    private final LongAdder[] modelHits = new LongAdder[Category.values().length];
+
+    @Autowired
+    public FinanceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.importTimer = timer(IMPORT_DURATION, "CSV import wall time").register(registry);
+        this.importedRows = Counter.builder(IMPORT_ROWS).description("Rows added by CSV imports").register(registry);
+        this.rejectedRows = Counter.builder(IMPORT_REJECTED_ROWS).description("CSV lines that could not be parsed").register(registry);
+        this.duplicateRows = Counter.builder(IMPORT_DUPLICATE_ROWS).description("CSV rows skipped as already in the ledger").register(registry);
+        this.importThroughput = DistributionSummary.builder(IMPORT_THROUGHPUT)
+                .description("Rows per second of each CSV import").baseUnit("rows/s")
+                .publishPercentiles(PERCENTILES).register(registry);
+        this.analysisTimer = timer(ANALYSIS_DURATION, "getAIAnalysis compute time").register(registry);
+        for (Category category : Category.values()) {
+            ruleHits[category.ordinal()] = suggestionCounter(category, "keyword");
+            modelHits[category.ordinal()] = suggestionCounter(category, "model");
+        }
+        // Only the income/expense fallbacks can be returned without a keyword match
+        defaultHits[Category.OTHER_INCOME.ordinal()] = suggestionCounter(Category.OTHER_INCOME, "default");
+        defaultHits[Category.OTHER_EXPENSE.ordinal()] = suggestionCounter(Category.OTHER_EXPENSE, "default");
+    }
+
+    /** Metrics that are recorded but not exported anywhere; for benchmarks and tools outside Spring. */
+    public static FinanceMetrics standalone() {
+        return new FinanceMetrics(new SimpleMeterRegistry());
+    }
+
+    // --- Recording ---
+
+    public void recordImport(long elapsedNanos, int rows, int rejected, int duplicates) {
+        importTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        importedRows.increment(rows);
+        rejectedRows.increment(rejected);
+        duplicateRows.increment(duplicates);
+        if (elapsedNanos > 0) {
+            importThroughput.record(rows * 1e9 / elapsedNanos);
+        }
+    }
+
+    /**
+     * @param operation {@code save} or {@code load}
+     * @param format    storage format tag, e.g. {@code json}
+     */
+    public void recordPersistence(String operation, String format, long elapsedNanos, long bytes) {
+        timer(PERSISTENCE_DURATION, "Ledger save/load latency")
+                .tags("operation", operation, "format", format)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(PERSISTENCE_BYTES)
+                .description("Size of each saved/loaded ledger").baseUnit("bytes")
+                .tags("operation", operation, "format", format)
+                .publishPercentiles(PERCENTILES)
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordPersistenceFailure(String operation, String format) {
+        registry.counter(PERSISTENCE_FAILURES, "operation", operation, "format", format).increment();
+    }
+
+    /** @param keywordRule {@code true} if a keyword rule matched, {@code false} for the income/expense default */
+    public void recordSuggestion(Category category, boolean keywordRule) {
+        (keywordRule ? ruleHits : defaultHits)[category.ordinal()].increment();
+    }
+
+    /** A suggestion made by the classifier trained on the user's corrections. */
+    public void recordModelSuggestion(Category category) {
+        modelHits[category.ordinal()].increment();
+    }
+
+    /** @param view the view switched to, e.g. {@code analysis} */
+    public void recordViewSwitch(String view, long elapsedNanos) {
+        timer(VIEW_SWITCH_DURATION, "Time to make a view the scene root, including a first load")
+                .tags("view", view)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer analysisTimer() {
+        return analysisTimer;
+    }
+
+    // --- Reading (diagnostics panel) ---
+
+    /** Point-in-time view of every {@code finance.*} meter, sorted by name and tags. */
+    public List<MeterSummary> summaries() {
+        List<MeterSummary> result = new ArrayList<>();
+        for (Meter meter : registry.getMeters()) {
+            Meter.Id id = meter.getId();
+            if (!id.getName().startsWith(PREFIX)) {
+                continue;
+            }
+            String tags = id.getTags().stream().map(t -> t.getKey() + "=" + t.getValue()).collect(Collectors.joining(", "));
+            if (meter instanceof Timer timer) {
+                result.add(fromSnapshot(id.getName(), tags, "ms", timer.takeSnapshot(), 1e-6));
+            } else if (meter instanceof DistributionSummary summary) {
+                result.add(fromSnapshot(id.getName(), tags, id.getBaseUnit(), summary.takeSnapshot(), 1));
+            } else if (meter instanceof Counter counter) {
+                addCount(result, id, tags, counter.count());
+            } else if (meter instanceof FunctionCounter counter) {
+                addCount(result, id, tags, counter.count());
+            }
+        }
+        result.sort(Comparator.comparing(MeterSummary::name).thenComparing(MeterSummary::tags));
+        return result;
+    }
+
+    private static void addCount(List<MeterSummary> result, Meter.Id id, String tags, double count) {
+        if (count > 0) {
+            result.add(new MeterSummary(id.getName(), tags, "", (long) count,
+                    Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN));
+        }
+    }
+
+    private static MeterSummary fromSnapshot(String name, String tags, String unit, HistogramSnapshot snapshot, double scale) {
+        double p50 = Double.NaN, p95 = Double.NaN, p99 = Double.NaN;
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            // Raw values of timers are nanoseconds; scale converts them to the display unit
+            double v = value.value() * scale;
+            if (value.percentile() == 0.5) p50 = v;
+            else if (value.percentile() == 0.95) p95 = v;
+            else if (value.percentile() == 0.99) p99 = v;
+        }
+        return new MeterSummary(name, tags, unit == null ? "" : unit, snapshot.count(),
+                snapshot.mean() * scale, p50, p95, p99, snapshot.max() * scale);
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentiles(PERCENTILES);
+    }
+
+    private LongAdder suggestionCounter(Category category, String rule) {
+        LongAdder adder = new LongAdder();
+        FunctionCounter.builder(CATEGORIZATION_SUGGESTIONS, adder, LongAdder::doubleValue)
+                .description("suggestCategory calls by resulting category and what decided it (model, keyword rule or default)")
+                .tags("category", category.name(), "rule", rule)
+                .register(registry);
+        return adder;
+    }
+
+    /** One row of the diagnostics panel; NaN where a statistic does not apply (counters). */
+    public record MeterSummary(String name, String tags, String unit, long count,
+                               double mean, double p50, double p95, double p99, double max) {
+    }
+}
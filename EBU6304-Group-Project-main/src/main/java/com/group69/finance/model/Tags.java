@@ -0,0 +1,65 @@
+package com.group69.finance.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Free-form transaction tags such as {@code trip-2025-japan} or {@code reimbursable}. Tags are kept
+ * lower case with no spaces, commas, semicolons, parentheses or {@code !}, so a list of them reads back
+ * unambiguously from one CSV cell or text field and a tag never looks like part of a query.
+ */
+public final class Tags {
+
+    // Runs of characters a tag cannot contain; each becomes one hyphen
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s,;()!]+");
+    // Between tags in a list typed or imported as text
+    private static final Pattern LIST_SEPARATORS = Pattern.compile("[\\s,;]+");
+
+    private Tags() {
+    }
+
+    /** @return the tag in its stored form, or {@code null} if nothing is left of it */
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+        String normalized = SEPARATORS.matcher(tag.trim().toLowerCase(Locale.ROOT)).replaceAll("-");
+        int start = 0;
+        int end = normalized.length();
+        while (start < end && normalized.charAt(start) == '-') start++;
+        while (end > start && normalized.charAt(end - 1) == '-') end--;
+        return start == end ? null : normalized.substring(start, end);
+    }
+
+    /** Normalized, sorted and unmodifiable; blank tags are dropped. */
+    public static SortedSet<String> of(Collection<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return Collections.emptySortedSet();
+        }
+        TreeSet<String> normalized = new TreeSet<>();
+        for (String tag : tags) {
+            String t = normalize(tag);
+            if (t != null) normalized.add(t);
+        }
+        return normalized.isEmpty() ? Collections.emptySortedSet() : Collections.unmodifiableSortedSet(normalized);
+    }
+
+    /** Tags separated by commas, semicolons or spaces, e.g. {@code "trip-2025-japan, reimbursable"}. */
+    public static SortedSet<String> parse(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptySortedSet();
+        }
+        return of(Arrays.asList(LIST_SEPARATORS.split(text.trim())));
+    }
+
+    /** The tags joined with {@code separator}, the inverse of {@link #parse}. */
+    public static String format(Set<String> tags, String separator) {
+        return String.join(separator, tags);
+    }
+}
@@ -1,11 +1,20 @@
 package com.group69.finance.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
+import java.util.SortedSet;
 import java.util.UUID;
 
+/**
+ * A single ledger row. The setters exist for Jackson and for building a row, but once a transaction
+ * is stored in {@code FinanceDataRepository} it is shared by immutable snapshots: change it by
+ * updating a {@link #copy()} and replacing the stored row (copy-on-write), never in place.
+ */
 public class Transaction {
 
     private String id;
@@ -16,6 +25,8 @@ public class Transaction {
     private Category category;
     private Source source;
     private boolean aiSuggestedCategory;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY) // Untagged rows look as they did before tags existed
+    private SortedSet<String> tags = Collections.emptySortedSet(); // Normalized and unmodifiable, see Tags
 
     public static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
 
@@ -49,6 +60,39 @@ public class Transaction {
         }
     }
 
+    /**
+     * A stored row as it was saved, ID included, for storage backends that read columns rather than
+     * JSON. Skips the constructor's ID generation and sign checks: the values were validated when saved.
+     */
+    public static Transaction restore(String id, LocalDate date, String description, double amount,
+                                      Category category, Source source, boolean aiSuggested) {
+        Transaction restored = new Transaction(Objects.requireNonNull(id, "ID cannot be null"));
+        restored.date = Objects.requireNonNull(date, "Date cannot be null");
+        restored.description = description;
+        restored.amount = amount;
+        restored.category = Objects.requireNonNull(category, "Category cannot be null");
+        restored.source = Objects.requireNonNull(source, "Source cannot be null");
+        restored.aiSuggestedCategory = aiSuggested;
+        return restored;
+    }
+
+    private Transaction(String id) {
+        this.id = id;
+    }
+
+    /** Field-by-field copy that keeps the same ID, for copy-on-write edits. */
+    public Transaction copy() {
+        Transaction copy = new Transaction(id); // Not the no-arg constructor, which draws a random UUID
+        copy.date = date;
+        copy.description = description;
+        copy.amount = amount;
+        copy.category = category;
+        copy.source = source;
+        copy.aiSuggestedCategory = aiSuggestedCategory;
+        copy.tags = tags;
+        return copy;
+    }
+
     // --- Getters ---
     public String getId() { return id; }
     public LocalDate getDate() { return date; }
@@ -57,6 +101,7 @@ public class Transaction {
     public Category getCategory() { return category; }
     public Source getSource() { return source; }
     public boolean isAiSuggestedCategory() { return aiSuggestedCategory; }
+    public SortedSet<String> getTags() { return tags; }
 
     // --- Setters (needed by Jackson if using no-arg constructor, also for modification) ---
     // Avoid public setId unless necessary
@@ -65,6 +110,7 @@ public class Transaction {
     public void setAmount(double amount) { this.amount = amount; }
     public void setSource(Source source) { this.source = Objects.requireNonNull(source); }
     public void setAiSuggestedCategory(boolean aiSuggestedCategory) { this.aiSuggestedCategory = aiSuggestedCategory; }
+    public void setTags(Collection<String> tags) { this.tags = Tags.of(tags); }
 
     // Special setter for category resets AI flag
     public void setCategory(Category category) {
@@ -74,8 +120,17 @@ public class Transaction {
 
     @Override
     public String toString() {
-        return String.format("Transaction{id='%s', date=%s, desc='%s', amount=%.2f, cat=%s, src=%s, ai=%b}",
-                id, date.format(DATE_FORMATTER), description, amount, category, source, aiSuggestedCategory);
+        return String.format("Transaction{id='%s', date=%s, desc='%s', amount=%.2f, cat=%s, src=%s, ai=%b%s}",
+                id, date.format(DATE_FORMATTER), description, amount, category, source, aiSuggestedCategory,
+                tags.isEmpty() ? "" : ", tags=" + tags);
+    }
+
+    /** @return {@code true} if every field, not just the ID, matches {@code other} */
+    public boolean sameValues(Transaction other) {
+        return other != null && Objects.equals(id, other.id) && Objects.equals(date, other.date)
+                && Objects.equals(description, other.description) && Double.compare(amount, other.amount) == 0
+                && category == other.category && source == other.source
+                && aiSuggestedCategory == other.aiSuggestedCategory && tags.equals(other.tags);
     }
 
     @Override
@@ -11,27 +11,70 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList; // Thread-safe list
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.UnaryOperator;
 
+/**
+ * In-memory ledger, safe for several concurrent writers (UI edits, background import, autosave).
+ * <p>
+ * The rows live in a {@link PersistentVector}, so {@link #snapshot()} hands out an immutable, versioned
+ * view in O(1) and a save or analysis never has to copy the ledger. Rows are treated as immutable once
+ * stored: edits replace a row with a modified copy (see {@link Transaction#copy()}) rather than mutating
+ * the instance other snapshots may be reading.
+ * <p>
+ * Mutations are addressed by transaction ID and serialized by the write side of a {@link StampedLock};
+ * an ID-to-position index makes them O(log n) (removal is O(n)). Readers never block writers: they take
+ * an optimistic stamp and only fall back to the read lock if a write slipped in. Change listeners are
+ * notified in version order while the write lock is held.
+ * <p>
+ * Changes another program makes to the stored ledger are brought in row by row with {@link #mergeStoredData()}.
+ */
 @Repository
 public class FinanceDataRepository {
 
     private static final Logger log = LoggerFactory.getLogger(FinanceDataRepository.class);
 
-    // Use a thread-safe list for internal storage
-    private final List<Transaction> transactions = new CopyOnWriteArrayList<>();
     private final PersistenceService persistenceService;
     private final String dataFilePath;
+    private final List<LedgerChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final StampedLock lock = new StampedLock();
+    // Current ledger state; replaced (never mutated) by writers. Its version is bumped on every mutation
+    // and the ledger is dirty while it differs from the last saved version.
+    private volatile LedgerSnapshot current = LedgerSnapshot.EMPTY;
+    // Position of every row in current, maintained under the write lock
+    private final Map<String, Integer> positionById = new ConcurrentHashMap<>();
+    private final AtomicLong savedVersion = new AtomicLong();
+    // StampedLock is not reentrant: remember the writer so listeners running under the write lock can still read
+    private volatile Thread writer;
+    // Serializes loads, saves and merges, so the rows below always match what storage holds
+    private final Object storeLock = new Object();
+    // Rows as last loaded, saved or merged (edited rows are replaced, so an unedited row is the same
+    // instance here and in current), and the data file's size and timestamp at that point
+    private PersistentVector<Transaction> storedRows = PersistentVector.empty();
+    private volatile StoredFile storedFile;
 
     @Autowired
     public FinanceDataRepository(
             // Use @Qualifier if multiple PersistenceService beans exist, otherwise optional
             // @Qualifier("jsonPersistenceService") PersistenceService persistenceService,
-            PersistenceService persistenceService, // Spring finds the JsonPersistenceService bean
+            PersistenceService persistenceService, // JSON, or H2 when app.data.store=h2
             @Value("${app.data.filepath}") String dataFilePath) {
         this.persistenceService = persistenceService;
         this.dataFilePath = dataFilePath;
@@ -40,119 +83,493 @@ public class FinanceDataRepository {
 
     @PostConstruct
     public void loadInitialData() {
-        log.info("Attempting to load initial data from: {}", dataFilePath);
-        try {
-            List<Transaction> loaded = persistenceService.loadTransactions(dataFilePath);
-            // Use setAll for CopyOnWriteArrayList or clear/addAll
-            transactions.clear();
-            transactions.addAll(loaded);
-            log.info("Successfully loaded {} transactions.", loaded.size());
-        } catch (IOException e) {
-            log.warn("Could not load initial data from {}. Starting with empty list. Error: {}", dataFilePath, e.getMessage());
-            transactions.clear();
-        } catch (Exception e) { // Catch unexpected errors during load
-            log.error("Unexpected error loading initial data from {}", dataFilePath, e);
-            transactions.clear();
+        synchronized (storeLock) {
+            log.info("Attempting to load initial data from: {}", dataFilePath);
+            StoredFile file = readStoredFile();
+            PersistentVector<Transaction> rows = PersistentVector.empty();
+            try {
+                List<Transaction> loaded = persistenceService.loadTransactions(dataFilePath);
+                rows = PersistentVector.copyOf(loaded);
+                log.info("Successfully loaded {} transactions.", loaded.size());
+            } catch (IOException e) {
+                log.warn("Could not load initial data from {}. Starting with empty list. Error: {}", dataFilePath, e.getMessage());
+            } catch (Exception e) { // Catch unexpected errors during load
+                log.error("Unexpected error loading initial data from {}", dataFilePath, e);
+            }
+            long stamp = writeLock();
+            try {
+                LedgerSnapshot loaded = publish(rows);
+                positionById.clear();
+                reindexFrom(0);
+                savedVersion.set(loaded.version()); // Freshly loaded data matches the file
+                storedRows = rows;
+                storedFile = file;
+                fireChange(new LedgerChange(LedgerChange.Kind.RELOADED, loaded, List.of(), loaded.version()));
+            } finally {
+                unlockWrite(stamp);
+            }
         }
     }
 
-    public void saveAllData() {
-        log.info("Attempting to save {} transactions to: {}", transactions.size(), dataFilePath);
+    /** @return {@code true} if the ledger was written successfully */
+    public boolean saveAllData() {
         try {
-            // Pass a stable copy (ArrayList) to the persistence service
-            persistenceService.saveTransactions(new ArrayList<>(transactions), dataFilePath);
+            synchronized (storeLock) {
+                // Taken under the store lock: a merge of outside changes cannot slip in between the
+                // snapshot and the write and then be overwritten by this older snapshot.
+                // The snapshot is immutable, so it can be serialized without copying while edits continue
+                LedgerSnapshot snapshot = snapshot();
+                if (snapshot.version() <= savedVersion.get() && persistenceService.hasStoredData(dataFilePath)) {
+                    log.debug("Ledger version {} is already saved to {}", snapshot.version(), dataFilePath);
+                    return true;
+                }
+                log.info("Attempting to save {} transactions to: {}", snapshot.size(), dataFilePath);
+                persistenceService.saveTransactions(snapshot, dataFilePath);
+                // Saves and merges are serialized by the store lock, so the saved marker only moves forward
+                savedVersion.set(snapshot.version());
+                storedRows = snapshot.rows();
+                storedFile = readStoredFile();
+            }
             log.info("Successfully saved data.");
+            return true;
         } catch (IOException e) {
             log.error("Failed to save data to {}: {}", dataFilePath, e.getMessage());
             // Consider notifying user through Controller/UI
         } catch (Exception e) {
             log.error("Unexpected error saving data to {}", dataFilePath, e);
         }
+        return false;
+    }
+
+    /**
+     * Replaces the stored ledger with {@code rows}, written through the configured store, and reloads
+     * from it; used to migrate a ledger between stores.
+     */
+    public void replaceStoredData(List<Transaction> rows) throws IOException {
+        log.info("Replacing the stored ledger at {} with {} transactions.", dataFilePath, rows.size());
+        synchronized (storeLock) {
+            persistenceService.saveTransactions(rows, dataFilePath);
+            loadInitialData();
+        }
+    }
+
+    /**
+     * Brings in changes another program (a sync tool, a second instance) made to the stored ledger without
+     * reloading it. The stored rows are compared by ID with those last loaded, saved or merged here, and
+     * only the rows added, edited or deleted in storage since then are applied: as at most three changes
+     * (removals, updates, additions), so listeners and the table update incrementally.
+     * <p>
+     * Unsaved local edits are kept. A row edited or deleted here that storage also changed keeps the local
+     * version (counted in {@link LedgerMerge#conflicts()}) and is written back by the next save. If the
+     * ledger had no unsaved edits, it is clean afterwards.
+     */
+    public LedgerMerge mergeStoredData() throws IOException {
+        synchronized (storeLock) {
+            StoredFile file = readStoredFile();
+            List<Transaction> stored = persistenceService.loadTransactions(dataFilePath);
+            Map<String, Transaction> before = new HashMap<>(storedRows.size() * 4 / 3 + 1);
+            storedRows.forEach(row -> before.put(row.getId(), row));
+
+            long stamp = writeLock();
+            try {
+                long fromVersion = current.version();
+                boolean wasDirty = isDirty();
+                PersistentVector.Builder<Transaction> merged = new PersistentVector.Builder<>();
+                List<Transaction> added = new ArrayList<>();
+                List<Transaction> replaced = new ArrayList<>();
+                List<Transaction> updated = new ArrayList<>();
+                Set<String> removedIds = new HashSet<>();
+                int conflicts = 0;
+                for (Transaction incoming : stored) {
+                    Transaction previous = before.remove(incoming.getId());
+                    Transaction local = lookup(incoming.getId());
+                    if (previous != null && previous.sameValues(incoming)) {
+                        merged.add(previous); // Unchanged in storage
+                    } else if (local == previous) {
+                        // Changed in storage only (or new there)
+                        if (local == null) {
+                            added.add(incoming);
+                        } else {
+                            replaced.add(local);
+                            updated.add(incoming);
+                        }
+                        merged.add(incoming);
+                    } else if (local != null && local.sameValues(incoming)) {
+                        merged.add(local); // The same edit was made on both sides
+                    } else {
+                        conflicts++;
+                        merged.add(incoming);
+                    }
+                }
+                for (Transaction previous : before.values()) {
+                    // Deleted in storage
+                    Transaction local = lookup(previous.getId());
+                    if (local == previous) {
+                        removedIds.add(previous.getId());
+                    } else if (local != null) {
+                        conflicts++;
+                    }
+                }
+
+                List<Transaction> removed = removedIds.isEmpty() ? List.of() : removeAll(removedIds);
+                if (!updated.isEmpty()) {
+                    PersistentVector<Transaction> rows = current.rows();
+                    for (Transaction row : updated) {
+                        rows = rows.with(positionById.get(row.getId()), row);
+                    }
+                    publish(rows);
+                    fireChange(LedgerChange.Kind.UPDATED, updated, replaced);
+                }
+                if (!added.isEmpty()) {
+                    PersistentVector<Transaction> rows = current.rows();
+                    for (Transaction row : added) {
+                        positionById.put(row.getId(), rows.size());
+                        rows = rows.plus(row);
+                    }
+                    publish(rows);
+                    fireChange(LedgerChange.Kind.ADDED, added, List.of());
+                }
+                storedRows = merged.build();
+                storedFile = file;
+                if (!wasDirty) {
+                    savedVersion.set(current.version()); // The ledger now matches storage again
+                }
+                log.info("Merged stored changes: {} added, {} updated, {} removed, {} kept local edits.",
+                        added.size(), updated.size(), removed.size(), conflicts);
+                return new LedgerMerge(fromVersion, current.version(), added, updated, removed, conflicts);
+            } finally {
+                unlockWrite(stamp);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if the data file's size or modification time differ from when this process
+     * last loaded, saved or merged it, i.e. something else has written it since
+     */
+    public boolean isStoredDataModified() {
+        StoredFile file = readStoredFile();
+        return file != null && !file.equals(storedFile);
     }
 
+    private StoredFile readStoredFile() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(Paths.get(dataFilePath), BasicFileAttributes.class);
+            return new StoredFile(attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return null; // Not saved yet, or a store that keeps its data under another name
+        }
+    }
+
+    private record StoredFile(long size, FileTime modified) {
+    }
+
+    // --- Writes ---
+
     public void addTransaction(Transaction transaction) {
         if (transaction != null) {
-            this.transactions.add(transaction);
-            log.debug("Added transaction: {}", transaction.getId());
+            addTransactions(List.of(transaction));
             // saveAllData(); // Optional: Save immediately after adding
         }
     }
 
-    public boolean removeTransactionAtIndex(int index) {
-        if (index >= 0 && index < transactions.size()) {
-            Transaction removed = this.transactions.remove(index);
-            log.debug("Removed transaction at index {}: {}", index, removed.getId());
-            // saveAllData(); // Optional: Save immediately
-            return true;
-        } else {
-            log.warn("Attempted to remove transaction at invalid index: {}", index);
-            return false;
+    /**
+     * Appends a batch of rows as a single change (one version bump, one listener notification).
+     * Rows whose ID is already present are skipped.
+     *
+     * @return the ledger version that contains the batch (the current one if nothing was added)
+     */
+    public long addTransactions(List<Transaction> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return current.version();
+        }
+        long stamp = writeLock();
+        try {
+            PersistentVector<Transaction> rows = current.rows();
+            List<Transaction> added = new ArrayList<>(batch.size());
+            for (Transaction transaction : batch) {
+                if (positionById.putIfAbsent(transaction.getId(), rows.size()) != null) {
+                    log.warn("Ignoring transaction with duplicate ID: {}", transaction.getId());
+                    continue;
+                }
+                rows = rows.plus(transaction);
+                added.add(transaction);
+            }
+            if (added.isEmpty()) {
+                return current.version();
+            }
+            LedgerSnapshot published = publish(rows);
+            log.debug("Added {} transaction(s).", added.size());
+            fireChange(LedgerChange.Kind.ADDED, added, List.of());
+            return published.version();
+        } finally {
+            unlockWrite(stamp);
         }
     }
 
     public boolean removeTransactionById(String id) {
-        boolean removed = this.transactions.removeIf(t -> t.getId().equals(id));
-        if (removed) {
+        long stamp = writeLock();
+        try {
+            Integer index = positionById.get(id);
+            if (index == null) {
+                log.warn("Attempted to remove transaction with non-existent ID: {}", id);
+                return false;
+            }
+            removeAt(index);
             log.debug("Removed transaction by ID: {}", id);
             // saveAllData(); // Optional: Save immediately
-        } else {
-            log.warn("Attempted to remove transaction with non-existent ID: {}", id);
+            return true;
+        } finally {
+            unlockWrite(stamp);
         }
-        return removed;
     }
 
-
-    public Optional<Transaction> getTransaction(int index) {
-        if (index >= 0 && index < transactions.size()) {
-            return Optional.of(transactions.get(index));
+    /**
+     * Removes every row whose ID is in {@code ids} as a single change; unknown IDs are ignored.
+     * Rebuilds the ledger once, so it suits large batches such as rolling back an import.
+     *
+     * @return the number of rows removed
+     */
+    public int removeTransactionsById(Collection<String> ids) {
+        long stamp = writeLock();
+        try {
+            Set<String> pending = new HashSet<>(ids);
+            pending.retainAll(positionById.keySet());
+            return pending.isEmpty() ? 0 : removeAll(pending).size();
+        } finally {
+            unlockWrite(stamp);
         }
-        return Optional.empty();
     }
 
-    public Optional<Transaction> getTransactionById(String id) {
-        return this.transactions.stream().filter(t -> t.getId().equals(id)).findFirst();
+    // Caller holds the write lock; every ID is present
+    private List<Transaction> removeAll(Set<String> pending) {
+        LedgerSnapshot snapshot = current;
+        PersistentVector.Builder<Transaction> kept = new PersistentVector.Builder<>();
+        List<Transaction> removed = new ArrayList<>(pending.size());
+        int firstRemoved = -1;
+        for (int i = 0; i < snapshot.size(); i++) {
+            Transaction row = snapshot.get(i);
+            if (pending.contains(row.getId())) {
+                if (firstRemoved < 0) firstRemoved = i;
+                removed.add(row);
+                positionById.remove(row.getId());
+            } else {
+                kept.add(row);
+            }
+        }
+        publish(kept.build());
+        reindexFrom(firstRemoved);
+        log.debug("Removed {} transaction(s).", removed.size());
+        fireChange(LedgerChange.Kind.REMOVED, List.of(), removed);
+        return removed;
     }
 
+    public boolean updateTransactionById(String id, Transaction updatedTransaction) {
+        if (updatedTransaction == null || !Objects.equals(id, updatedTransaction.getId())) {
+            log.warn("Attempted to update transaction {} with null data or a different ID.", id);
+            return false;
+        }
+        return modifyTransaction(id, existing -> updatedTransaction).isPresent();
+    }
 
-    public List<Transaction> getAllTransactions() {
-        // Return an immutable list view to prevent external modification
-        return Collections.unmodifiableList(transactions);
+    /**
+     * Atomically replaces the row with {@code id} by {@code edit.apply(currentRow)}. The function gets
+     * the latest stored row and must return a new instance with the same ID (e.g. an edited
+     * {@link Transaction#copy()}), so concurrent editors never overwrite each other's changes.
+     *
+     * @return the stored replacement, or empty if no row has that ID
+     */
+    public Optional<Transaction> modifyTransaction(String id, UnaryOperator<Transaction> edit) {
+        long stamp = writeLock();
+        try {
+            Integer index = positionById.get(id);
+            if (index == null) {
+                log.warn("Attempted to update transaction with non-existent ID: {}", id);
+                return Optional.empty();
+            }
+            PersistentVector<Transaction> rows = current.rows();
+            Transaction oldTransaction = rows.get(index);
+            Transaction updatedTransaction = Objects.requireNonNull(edit.apply(oldTransaction), "Edited transaction");
+            if (!oldTransaction.getId().equals(updatedTransaction.getId())) {
+                throw new IllegalArgumentException("An edit must keep the transaction ID " + id);
+            }
+            publish(rows.with(index, updatedTransaction));
+            log.debug("Updated transaction by ID: {}", id);
+            fireChange(LedgerChange.Kind.UPDATED, List.of(updatedTransaction), List.of(oldTransaction));
+            // saveAllData(); // Optional: Save immediately
+            return Optional.of(updatedTransaction);
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
-    public int getSize() {
-        return transactions.size();
+    /**
+     * @deprecated indices shift when another thread adds or removes rows; use {@link #removeTransactionById}.
+     */
+    @Deprecated
+    public boolean removeTransactionAtIndex(int index) {
+        long stamp = writeLock();
+        try {
+            if (index >= 0 && index < current.size()) {
+                Transaction removed = removeAt(index);
+                log.debug("Removed transaction at index {}: {}", index, removed.getId());
+                return true;
+            }
+            log.warn("Attempted to remove transaction at invalid index: {}", index);
+            return false;
+        } finally {
+            unlockWrite(stamp);
+        }
     }
 
+    /**
+     * @deprecated indices shift when another thread adds or removes rows; use {@link #modifyTransaction}.
+     */
+    @Deprecated
     public boolean updateTransaction(int index, Transaction updatedTransaction) {
-        if (updatedTransaction != null && index >= 0 && index < transactions.size()) {
-            // Ensure ID consistency if needed, or simply replace
-            Transaction oldTransaction = transactions.get(index);
-            if (!oldTransaction.getId().equals(updatedTransaction.getId())){
+        long stamp = writeLock();
+        try {
+            PersistentVector<Transaction> rows = current.rows();
+            if (updatedTransaction == null || index < 0 || index >= rows.size()) {
+                log.warn("Attempted to update transaction at invalid index {} or with null data.", index);
+                return false;
+            }
+            Transaction oldTransaction = rows.get(index);
+            if (!oldTransaction.getId().equals(updatedTransaction.getId())) {
+                // Replacing a different row would corrupt the ID index; refuse instead of guessing
                 log.warn("Updating transaction at index {} but ID mismatch! old={}, new={}", index, oldTransaction.getId(), updatedTransaction.getId());
-                // Decide how to handle ID mismatch - ignore, throw error, copy old ID?
-                // For simplicity, we replace but log:
+                return false;
             }
-            this.transactions.set(index, updatedTransaction);
+            publish(rows.with(index, updatedTransaction));
             log.debug("Updated transaction at index {}: {}", index, updatedTransaction.getId());
-            // saveAllData(); // Optional: Save immediately
+            fireChange(LedgerChange.Kind.UPDATED, List.of(updatedTransaction), List.of(oldTransaction));
             return true;
-        } else {
-            log.warn("Attempted to update transaction at invalid index {} or with null data.", index);
-            return false;
+        } finally {
+            unlockWrite(stamp);
         }
     }
-    // Optional: Update by ID
-    public boolean updateTransactionById(String id, Transaction updatedTransaction) {
-        for (int i = 0; i < transactions.size(); i++) {
-            if (transactions.get(i).getId().equals(id)) {
-                transactions.set(i, updatedTransaction);
-                log.debug("Updated transaction by ID: {}", id);
-                // saveAllData(); // Optional: Save immediately
-                return true;
+
+    // Caller holds the write lock
+    private Transaction removeAt(int index) {
+        PersistentVector<Transaction> rows = current.rows();
+        Transaction removed = rows.get(index);
+        publish(rows.without(index));
+        positionById.remove(removed.getId());
+        reindexFrom(index);
+        fireChange(LedgerChange.Kind.REMOVED, List.of(), List.of(removed));
+        return removed;
+    }
+
+    // Caller holds the write lock
+    private void reindexFrom(int from) {
+        LedgerSnapshot snapshot = current;
+        for (int i = from; i < snapshot.size(); i++) {
+            positionById.put(snapshot.get(i).getId(), i);
+        }
+    }
+
+    // --- Reads ---
+
+    /** Consistent, immutable point-in-time view of the whole ledger; O(1) and never blocks on writers. */
+    public LedgerSnapshot snapshot() {
+        // A single volatile read is already consistent: the snapshot object is immutable
+        return current;
+    }
+
+    public List<Transaction> getAllTransactions() {
+        // Snapshots are immutable, so no defensive copy or wrapper is needed
+        return snapshot();
+    }
+
+    public int getSize() {
+        return current.size();
+    }
+
+    public Optional<Transaction> getTransaction(int index) {
+        LedgerSnapshot snapshot = current;
+        if (index >= 0 && index < snapshot.size()) {
+            return Optional.of(snapshot.get(index));
+        }
+        return Optional.empty();
+    }
+
+    /** O(1) lookup that reads optimistically and only takes the read lock if a writer interfered. */
+    public Optional<Transaction> getTransactionById(String id) {
+        if (writer == Thread.currentThread()) {
+            return Optional.ofNullable(lookup(id)); // Called from a change listener
+        }
+        long stamp = lock.tryOptimisticRead();
+        Transaction found = lookup(id);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                found = lookup(id);
+            } finally {
+                lock.unlockRead(stamp);
             }
         }
-        log.warn("Attempted to update transaction with non-existent ID: {}", id);
-        return false;
+        return Optional.ofNullable(found);
     }
 
-}
\ No newline at end of file
+    private Transaction lookup(String id) {
+        Integer index = positionById.get(id);
+        LedgerSnapshot snapshot = current;
+        if (index == null || index >= snapshot.size()) {
+            return null;
+        }
+        Transaction candidate = snapshot.get(index);
+        // Under an optimistic read the index may belong to a different version; validate() decides
+        return candidate.getId().equals(id) ? candidate : null;
+    }
+
+    // --- Change tracking ---
+
+    public void addChangeListener(LedgerChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(LedgerChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Monotonically increasing version of the ledger contents, bumped by every mutation. */
+    public long getDataVersion() {
+        return current.version();
+    }
+
+    /** @return {@code true} if the ledger has changed since it was last loaded or saved */
+    public boolean isDirty() {
+        return current.version() != savedVersion.get();
+    }
+
+    private long writeLock() {
+        long stamp = lock.writeLock();
+        writer = Thread.currentThread();
+        return stamp;
+    }
+
+    private void unlockWrite(long stamp) {
+        writer = null;
+        lock.unlockWrite(stamp);
+    }
+
+    // Caller holds the write lock, so versions are assigned and announced in order
+    private LedgerSnapshot publish(PersistentVector<Transaction> rows) {
+        current = new LedgerSnapshot(rows, current.version() + 1);
+        return current;
+    }
+
+    private void fireChange(LedgerChange.Kind kind, List<Transaction> added, List<Transaction> removed) {
+        fireChange(new LedgerChange(kind, added, removed, current.version()));
+    }
+
+    private void fireChange(LedgerChange change) {
+        for (LedgerChangeListener listener : listeners) {
+            try {
+                listener.ledgerChanged(change);
+            } catch (Exception e) {
+                log.error("Ledger change listener failed for {}", change.kind(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.group69.finance.repository;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Describes one mutation of the ledger held by {@link FinanceDataRepository}.
+ * For {@link Kind#UPDATED} the replaced rows are in {@code removed} and their replacements in {@code added};
+ * {@link Kind#RELOADED} means the whole ledger was replaced (e.g. loaded from disk).
+ *
+ * @param version the repository data version after the change
+ */
+public record LedgerChange(Kind kind, List<Transaction> added, List<Transaction> removed, long version) {
+
+    public enum Kind { ADDED, UPDATED, REMOVED, RELOADED }
+}
@@ -0,0 +1,11 @@
+package com.group69.finance.repository;
+
+/**
+ * Callback for ledger mutations. Invoked synchronously on the thread that changed the repository,
+ * while it holds the repository's write lock, so implementations should hand long-running work to
+ * their own executor and must not call the repository's mutating methods.
+ */
+@FunctionalInterface
+public interface LedgerChangeListener {
+    void ledgerChanged(LedgerChange change);
+}
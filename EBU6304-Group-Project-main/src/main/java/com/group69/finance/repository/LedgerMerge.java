@@ -0,0 +1,23 @@
+package com.group69.finance.repository;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.List;
+
+/**
+ * What {@link FinanceDataRepository#mergeStoredData()} applied to the ledger.
+ *
+ * @param fromVersion data version before the merge
+ * @param toVersion   data version after it (equal to {@code fromVersion} if nothing changed)
+ * @param added       rows added in storage
+ * @param updated     new versions of rows edited in storage
+ * @param removed     rows deleted in storage, as they were in the ledger
+ * @param conflicts   rows changed both in storage and by unsaved local edits; the local version was kept
+ */
+public record LedgerMerge(long fromVersion, long toVersion, List<Transaction> added, List<Transaction> updated,
+                          List<Transaction> removed, int conflicts) {
+
+    public boolean isEmpty() {
+        return added.isEmpty() && updated.isEmpty() && removed.isEmpty() && conflicts == 0;
+    }
+}
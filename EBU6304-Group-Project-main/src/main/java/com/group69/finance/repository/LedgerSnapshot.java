@@ -0,0 +1,55 @@
+package com.group69.finance.repository;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Immutable point-in-time view of the ledger, handed out by {@link FinanceDataRepository#snapshot()}
+ * in O(1). Later edits never show up in (or tear) an existing snapshot: the rows live in a
+ * {@link PersistentVector} and the repository replaces rows instead of mutating them.
+ */
+public final class LedgerSnapshot extends AbstractList<Transaction> implements RandomAccess {
+
+    static final LedgerSnapshot EMPTY = new LedgerSnapshot(PersistentVector.empty(), 0);
+
+    private final PersistentVector<Transaction> rows;
+    private final long version;
+
+    LedgerSnapshot(PersistentVector<Transaction> rows, long version) {
+        this.rows = rows;
+        this.version = version;
+    }
+
+    /** The repository data version this snapshot was taken at. */
+    public long version() {
+        return version;
+    }
+
+    PersistentVector<Transaction> rows() {
+        return rows;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public Iterator<Transaction> iterator() {
+        return rows.iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Transaction> action) {
+        rows.forEach(action);
+    }
+}
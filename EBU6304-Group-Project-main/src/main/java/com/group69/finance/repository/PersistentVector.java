@@ -0,0 +1,258 @@
+package com.group69.finance.repository;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Immutable list with structural sharing: a 32-way trie plus a tail buffer (the layout popularised
+ * by Clojure's vector). "Modifying" operations return a new vector that shares all untouched nodes
+ * with the old one, so old versions stay valid and cheap to keep around.
+ * <ul>
+ *   <li>{@link #get}, {@link #with}: O(log32 n), i.e. at most 5 hops for 30M elements</li>
+ *   <li>{@link #plus}: amortized O(1)</li>
+ *   <li>{@link #without}: O(n) rebuild (removals are rare, user-driven operations)</li>
+ * </ul>
+ * The {@link List} mutators inherited from {@link AbstractList} throw {@link UnsupportedOperationException}.
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final Object[] EMPTY_NODE = new Object[WIDTH];
+    private static final Object[] EMPTY_TAIL = new Object[0];
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_TAIL);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    public static <E> PersistentVector<E> copyOf(Collection<? extends E> elements) {
+        Builder<E> builder = new Builder<>();
+        elements.forEach(builder::add);
+        return builder.build();
+    }
+
+    // --- Reads ---
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index);
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private Object[] leaf;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (index >= size) throw new NoSuchElementException();
+                if ((index & MASK) == 0 || leaf == null) {
+                    leaf = leafFor(index);
+                }
+                return (E) leaf[index++ & MASK];
+            }
+        };
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        for (int i = 0; i < size; i += WIDTH) {
+            Object[] leaf = leafFor(i);
+            int count = Math.min(WIDTH, size - i);
+            for (int j = 0; j < count; j++) {
+                action.accept((E) leaf[j]);
+            }
+        }
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    // --- Persistent updates ---
+
+    /** @return a vector with {@code element} appended */
+    public PersistentVector<E> plus(E element) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+        // Tail is full: push it into the trie and start a new tail
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{element});
+    }
+
+    /** @return a vector with all {@code elements} appended */
+    public PersistentVector<E> plusAll(Collection<? extends E> elements) {
+        PersistentVector<E> result = this;
+        for (E element : elements) {
+            result = result.plus(element);
+        }
+        return result;
+    }
+
+    /** @return a vector with the element at {@code index} replaced */
+    public PersistentVector<E> with(int index, E element) {
+        checkIndex(index);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = element;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, element), tail);
+    }
+
+    /** @return a vector without the element at {@code index}; O(n) */
+    public PersistentVector<E> without(int index) {
+        checkIndex(index);
+        Builder<E> builder = new Builder<>();
+        int i = 0;
+        for (E element : this) {
+            if (i++ != index) builder.add(element);
+        }
+        return builder.build();
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        if (level == BITS) {
+            result[subIndex] = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            result[subIndex] = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object element) {
+        Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = element;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, element);
+        }
+        return result;
+    }
+
+    /** Bulk loader that fills leaves directly and builds the trie bottom-up in O(n). */
+    public static final class Builder<E> {
+        private final List<Object[]> leaves = new ArrayList<>();
+        private Object[] current = new Object[WIDTH];
+        private int currentSize;
+        private int size;
+
+        public Builder<E> add(E element) {
+            if (currentSize == WIDTH) {
+                leaves.add(current);
+                current = new Object[WIDTH];
+                currentSize = 0;
+            }
+            current[currentSize++] = element;
+            size++;
+            return this;
+        }
+
+        public PersistentVector<E> build() {
+            if (size == 0) {
+                return empty();
+            }
+            // The last (possibly full) leaf becomes the tail, everything before it goes into the trie
+            Object[] tail = Arrays.copyOf(current, currentSize);
+            List<Object[]> nodes = leaves;
+            int shift = BITS;
+            while (nodes.size() > WIDTH) {
+                List<Object[]> parents = new ArrayList<>((nodes.size() + MASK) >>> BITS);
+                for (int i = 0; i < nodes.size(); i += WIDTH) {
+                    parents.add(pack(nodes, i));
+                }
+                nodes = parents;
+                shift += BITS;
+            }
+            Object[] root = nodes.isEmpty() ? EMPTY_NODE : pack(nodes, 0);
+            return new PersistentVector<>(size, shift, root, tail);
+        }
+
+        private static Object[] pack(List<Object[]> nodes, int from) {
+            Object[] parent = new Object[WIDTH];
+            for (int i = 0; i < WIDTH && from + i < nodes.size(); i++) {
+                parent[i] = nodes.get(from + i);
+            }
+            return parent;
+        }
+    }
+}
@@ -1,54 +1,117 @@
 package com.group69.finance.service;
 
+import com.group69.finance.analysis.LedgerAggregates;
+import com.group69.finance.analysis.LedgerTotals;
+import com.group69.finance.analysis.QuantileSketch;
+import com.group69.finance.analysis.RecurringDetector;
+import com.group69.finance.analysis.RecurringReport;
+import com.group69.finance.analysis.RecurringSeries;
+import com.group69.finance.analysis.SpendingSketches;
+import com.group69.finance.jfr.AnalysisEvent;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
 import com.group69.finance.model.Transaction;
-import com.group69.finance.repository.FinanceDataRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
+/**
+ * The "AI analysis" sections shown in the analysis view and written by the batch report.
+ * <p>
+ * Results are cached against the ledger data version: asking again without an intervening change
+ * returns the previous result. After a change, the trend, habit and budget sections are derived from
+ * the incrementally maintained {@link LedgerAggregates} rather than a ledger scan, and anomalies are
+ * only searched for again in the categories whose rows changed. Recurring commitments come from
+ * {@link RecurringDetector}, which likewise only re-examines the description groups that changed, and
+ * spending percentiles from the per-category, per-month sketches of {@link SpendingSketches}. Tag totals
+ * are read from the aggregates like the category totals.
+ */
 @Service
 public class AnalysisService {
 
-    private final FinanceDataRepository repository;
+    private static final int MAX_RECURRING_DETAILS = 20;
+    private static final int PERCENTILE_MONTHS = 12;
+
+    private final LedgerAggregates aggregates;
+    private final RecurringDetector recurringDetector;
+    private final SpendingSketches spendingSketches;
+    private final FinanceMetrics metrics;
+
+    // Guarded by this
+    private Map<String, Object> cachedAnalysis;
+    private long cachedVersion = -1;
+    private RecurringReport cachedRecurring;
+    private long cachedSketchVersion = -1;
+    private final Map<Category, CategoryAnomalies> anomaliesByCategory = new EnumMap<>(Category.class);
 
     @Autowired
-    public AnalysisService(FinanceDataRepository repository) {
-        this.repository = repository;
+    public AnalysisService(LedgerAggregates aggregates, RecurringDetector recurringDetector,
+                           SpendingSketches spendingSketches, FinanceMetrics metrics) {
+        this.aggregates = aggregates;
+        this.recurringDetector = recurringDetector;
+        this.spendingSketches = spendingSketches;
+        this.metrics = metrics;
+    }
+
+    public synchronized Map<String, Object> getAIAnalysis() {
+        // Each source follows the repository on its own; a change reaches one before the other
+        LedgerTotals totals = aggregates.totals();
+        RecurringReport recurring = recurringDetector.report();
+        long sketchVersion = spendingSketches.version();
+        if (cachedAnalysis == null || cachedVersion != totals.version() || cachedRecurring != recurring
+                || cachedSketchVersion != sketchVersion) {
+            cachedAnalysis = metrics.analysisTimer().record(() -> computeAnalysis(totals, recurring));
+            cachedVersion = totals.version();
+            cachedRecurring = recurring;
+            cachedSketchVersion = sketchVersion;
+        }
+        return cachedAnalysis;
     }
 
-    public Map<String, Object> getAIAnalysis() {
-        List<Transaction> transactions = repository.getAllTransactions();
+    private Map<String, Object> computeAnalysis(LedgerTotals totals, RecurringReport recurring) {
+        // Totals and ledger are one consistent version: every section below sees the same data
+        AnalysisEvent event = new AnalysisEvent();
+        event.begin();
+        event.rows = totals.ledger().size();
+        event.ledgerVersion = totals.version();
         Map<String, Object> analysis = new HashMap<>();
 
         // 1. Expense trend analysis
-        analysis.put("expenseTrend", analyzeExpenseTrend(transactions));
+        analysis.put("expenseTrend", analyzeExpenseTrend(totals));
 
         // 2. Spending habits analysis
-        analysis.put("spendingHabits", analyzeSpendingHabits(transactions));
+        analysis.put("spendingHabits", analyzeSpendingHabits(totals));
 
         // 3. Budget advice
-        analysis.put("budgetAdvice", generateBudgetAdvice(transactions));
+        analysis.put("budgetAdvice", generateBudgetAdvice(totals));
 
         // 4. Anomaly detection
-        analysis.put("anomalies", detectAnomalies(transactions));
+        analysis.put("anomalies", detectAnomalies(totals));
+
+        // 5. Recurring commitments
+        analysis.put("recurringCommitments", summarizeRecurring(recurring));
+
+        // 6. Spending percentiles
+        analysis.put("spendingPercentiles", summarizePercentiles());
 
-        return analysis;
+        // 7. Tag totals
+        analysis.put("tagTotals", summarizeTags(totals));
+
+        event.commit();
+        // Shared between callers until the next change
+        return Collections.unmodifiableMap(analysis);
     }
 
-    private Map<String, Object> analyzeExpenseTrend(List<Transaction> transactions) {
+    private Map<String, Object> analyzeExpenseTrend(LedgerTotals totals) {
         Map<String, Object> trend = new HashMap<>();
         
         // Calculate monthly expenses
-        Map<String, Double> monthlyExpenses = transactions.stream()
-            .filter(t -> !t.getCategory().isIncome())
-            .collect(Collectors.groupingBy(
-                t -> t.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                Collectors.summingDouble(Transaction::getAmount)
-            ));
+        Map<String, Double> monthlyExpenses = new HashMap<>();
+        totals.months().forEach((month, t) -> {
+            if (t.expenseRows() > 0) monthlyExpenses.put(month.toString(), t.expense());
+        });
 
         // Calculate trend
         List<Double> values = new ArrayList<>(monthlyExpenses.values());
@@ -64,16 +127,14 @@ public class AnalysisService {
         return trend;
     }
 
-    private Map<String, Object> analyzeSpendingHabits(List<Transaction> transactions) {
+    private Map<String, Object> analyzeSpendingHabits(LedgerTotals totals) {
         Map<String, Object> habits = new HashMap<>();
         
         // Calculate expenses by category
-        Map<String, Double> categoryExpenses = transactions.stream()
-            .filter(t -> !t.getCategory().isIncome())
-            .collect(Collectors.groupingBy(
-                t -> t.getCategory().name(),
-                Collectors.summingDouble(Transaction::getAmount)
-            ));
+        Map<String, Double> categoryExpenses = new HashMap<>();
+        totals.categories().forEach((category, t) -> {
+            if (!category.isIncome()) categoryExpenses.put(category.name(), t.total());
+        });
 
         // Find main spending category
         String mainCategory = categoryExpenses.entrySet().stream()
@@ -88,31 +149,19 @@ public class AnalysisService {
         return habits;
     }
 
-    private Map<String, Object> generateBudgetAdvice(List<Transaction> transactions) {
+    private Map<String, Object> generateBudgetAdvice(LedgerTotals totals) {
         Map<String, Object> advice = new HashMap<>();
         
-        // Calculate average monthly income and expenses
-        double avgMonthlyIncome = transactions.stream()
-            .filter(t -> t.getCategory().isIncome())
-            .collect(Collectors.groupingBy(
-                t -> t.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                Collectors.summingDouble(Transaction::getAmount)
-            ))
-            .values()
-            .stream()
-            .mapToDouble(Double::doubleValue)
+        // Calculate average monthly income and expenses, over the months that have any
+        double avgMonthlyIncome = totals.months().values().stream()
+            .filter(t -> t.incomeRows() > 0)
+            .mapToDouble(LedgerTotals.MonthTotals::income)
             .average()
             .orElse(0);
 
-        double avgMonthlyExpense = transactions.stream()
-            .filter(t -> !t.getCategory().isIncome())
-            .collect(Collectors.groupingBy(
-                t -> t.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                Collectors.summingDouble(Transaction::getAmount)
-            ))
-            .values()
-            .stream()
-            .mapToDouble(Double::doubleValue)
+        double avgMonthlyExpense = totals.months().values().stream()
+            .filter(t -> t.expenseRows() > 0)
+            .mapToDouble(LedgerTotals.MonthTotals::expense)
             .average()
             .orElse(0);
 
@@ -128,36 +177,119 @@ public class AnalysisService {
         return advice;
     }
 
-    private List<Map<String, Object>> detectAnomalies(List<Transaction> transactions) {
-        List<Map<String, Object>> anomalies = new ArrayList<>();
-        
-        // Calculate expenses by category
-        Map<String, Double> categoryAverages = transactions.stream()
-            .filter(t -> !t.getCategory().isIncome())
-            .collect(Collectors.groupingBy(
-                t -> t.getCategory().name(),
-                Collectors.averagingDouble(Transaction::getAmount)
-            ));
-
-        // Detect anomalous expenses
-        transactions.stream()
-            .filter(t -> !t.getCategory().isIncome())
-            .forEach(t -> {
-                double avg = categoryAverages.getOrDefault(t.getCategory().name(), 0.0);
-                if (t.getAmount() > avg * 3) { // 超过平均值的3倍视为异常
+    private List<Map<String, Object>> detectAnomalies(LedgerTotals totals) {
+        // Only categories with changed rows need a new search; their averages are the only ones that moved
+        EnumSet<Category> stale = EnumSet.noneOf(Category.class);
+        anomaliesByCategory.keySet().removeIf(category -> !totals.categories().containsKey(category));
+        for (Category category : totals.categories().keySet()) {
+            CategoryAnomalies cached = anomaliesByCategory.get(category);
+            if (!category.isIncome() && (cached == null || cached.version() != totals.categoryVersion(category))) {
+                stale.add(category);
+                anomaliesByCategory.put(category, new CategoryAnomalies(totals.categoryVersion(category), new ArrayList<>()));
+            }
+        }
+
+        if (!stale.isEmpty()) {
+            // Detect anomalous expenses: 超过平均值的3倍视为异常. The column scan (a cent of slack for
+            // rounding) narrows the rows to check; if the ledger has moved on, all rows are checked
+            double[] limitCents = new double[Category.values().length];
+            Arrays.fill(limitCents, Double.POSITIVE_INFINITY);
+            for (Category category : stale) {
+                limitCents[category.ordinal()] = totals.categories().get(category).average() * 3 * 100 - 1;
+            }
+            List<Transaction> candidates = aggregates.rowsAbove(totals.version(), limitCents);
+            if (candidates == null) {
+                candidates = totals.ledger();
+            }
+            for (Transaction t : candidates) {
+                if (!stale.contains(t.getCategory())) continue;
+                double avg = totals.categories().get(t.getCategory()).average();
+                if (t.getAmount() > avg * 3) {
                     Map<String, Object> anomaly = new HashMap<>();
                     anomaly.put("date", t.getDate());
                     anomaly.put("category", t.getCategory().name());
                     anomaly.put("amount", t.getAmount());
                     anomaly.put("description", t.getDescription());
                     anomaly.put("deviation", (t.getAmount() - avg) / avg * 100);
-                    anomalies.add(anomaly);
+                    anomaliesByCategory.get(t.getCategory()).anomalies().add(anomaly);
                 }
-            });
+            }
+        }
 
+        List<Map<String, Object>> anomalies = new ArrayList<>();
+        anomaliesByCategory.values().forEach(c -> anomalies.addAll(c.anomalies()));
         return anomalies;
     }
 
+    private Map<String, Object> summarizeRecurring(RecurringReport report) {
+        Map<String, Object> recurring = new HashMap<>();
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (RecurringSeries s : report.series()) {
+            if (series.size() == MAX_RECURRING_DETAILS) break; // Largest first
+            Map<String, Object> item = new HashMap<>();
+            item.put("description", s.description());
+            item.put("category", s.category().name());
+            item.put("periodicity", s.periodicity().name());
+            item.put("amount", s.amount());
+            item.put("monthlyAmount", s.monthlyAmount());
+            item.put("occurrences", s.occurrences());
+            item.put("nextExpected", s.nextExpected());
+            item.put("missed", s.missed());
+            item.put("unusual", s.unusual().stream()
+                    .map(t -> Map.<String, Object>of("date", t.getDate(), "amount", t.getAmount()))
+                    .toList());
+            series.add(item);
+        }
+        recurring.put("series", series);
+        recurring.put("seriesCount", report.series().size());
+        recurring.put("monthlyIncome", report.monthlyIncome());
+        recurring.put("monthlyExpense", report.monthlyExpense());
+        return recurring;
+    }
+
+    private Map<String, Object> summarizePercentiles() {
+        // Whole history per category, and the latest months over all categories
+        Map<String, Object> byCategory = new LinkedHashMap<>();
+        for (Category category : spendingSketches.categories()) {
+            byCategory.put(category.name(), percentiles(spendingSketches.category(category, null, null)));
+        }
+        Map<String, Object> byMonth = new LinkedHashMap<>();
+        for (YearMonth month : spendingSketches.months().descendingSet()) {
+            if (byMonth.size() == PERCENTILE_MONTHS) break;
+            byMonth.put(month.toString(), percentiles(spendingSketches.month(month)));
+        }
+
+        Map<String, Object> percentiles = new HashMap<>();
+        percentiles.put("byCategory", byCategory);
+        percentiles.put("byMonth", byMonth);
+        percentiles.put("relativeError", QuantileSketch.RELATIVE_ACCURACY);
+        return percentiles;
+    }
+
+    private static Map<String, Object> summarizeTags(LedgerTotals totals) {
+        Map<String, Object> tags = new LinkedHashMap<>();
+        totals.tags().forEach((tag, t) -> {
+            Map<String, Object> item = new HashMap<>();
+            item.put("income", t.income());
+            item.put("expense", t.expense());
+            item.put("rows", t.rows());
+            tags.put(tag, item);
+        });
+        return tags;
+    }
+
+    private static Map<String, Object> percentiles(QuantileSketch sketch) {
+        Map<String, Object> percentiles = new HashMap<>();
+        percentiles.put("rows", sketch.count());
+        percentiles.put("median", sketch.quantile(0.5) / 100);
+        percentiles.put("p90", sketch.quantile(0.9) / 100);
+        percentiles.put("p99", sketch.quantile(0.99) / 100);
+        return percentiles;
+    }
+
+    private record CategoryAnomalies(long version, List<Map<String, Object>> anomalies) {
+    }
+
     private double calculatePercentage(Map<String, Double> expenses, String category) {
         double total = expenses.values().stream().mapToDouble(Double::doubleValue).sum();
         return total == 0 ? 0 : (expenses.getOrDefault(category, 0.0) / total) * 100;
@@ -0,0 +1,132 @@
+package com.group69.finance.service;
+
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerChange;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Debounced background saving. Every ledger mutation (re)arms a timer; once no edit has arrived for
+ * the quiet period, a single save runs on a dedicated I/O thread, so bursts of edits coalesce into
+ * one write and the FX thread never blocks on serialization. A continuous stream of edits is still
+ * flushed at least every {@code max-delay-ms}.
+ */
+@Service
+public class AutosaveService {
+
+    private static final Logger log = LoggerFactory.getLogger(AutosaveService.class);
+    private static final long SHUTDOWN_FLUSH_TIMEOUT_SECONDS = 30;
+
+    private final FinanceDataRepository repository;
+    private final boolean enabled;
+    private final long quietPeriodMillis;
+    private final long maxDelayMillis;
+    private final ScheduledExecutorService ioExecutor;
+
+    // Guarded by this
+    private ScheduledFuture<?> pendingSave;
+    private long firstUnsavedChangeAt;
+
+    @Autowired
+    public AutosaveService(FinanceDataRepository repository,
+                           @Value("${app.autosave.enabled:true}") boolean enabled,
+                           @Value("${app.autosave.quiet-period-ms:2000}") long quietPeriodMillis,
+                           @Value("${app.autosave.max-delay-ms:30000}") long maxDelayMillis) {
+        this.repository = repository;
+        this.enabled = enabled;
+        this.quietPeriodMillis = quietPeriodMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.ioExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "finance-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        repository.addChangeListener(this::onLedgerChanged);
+        log.info("AutosaveService initialized (enabled={}, quiet period {} ms, max delay {} ms).",
+                enabled, quietPeriodMillis, maxDelayMillis);
+    }
+
+    private void onLedgerChanged(LedgerChange change) {
+        if (!enabled || change.kind() == LedgerChange.Kind.RELOADED) {
+            return; // A reload leaves the ledger identical to the file
+        }
+        scheduleSave();
+    }
+
+    private synchronized void scheduleSave() {
+        long now = System.currentTimeMillis();
+        if (pendingSave == null || pendingSave.isDone()) {
+            firstUnsavedChangeAt = now;
+        } else {
+            pendingSave.cancel(false);
+        }
+        // Debounce, but never postpone the oldest unsaved edit beyond the max delay
+        long delay = Math.min(quietPeriodMillis, Math.max(0, firstUnsavedChangeAt + maxDelayMillis - now));
+        pendingSave = ioExecutor.schedule(this::saveIfDirty, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Saves immediately on the I/O thread, replacing any pending autosave. Returns without blocking;
+     * the future completes with {@code true} once the ledger is on disk.
+     */
+    public CompletableFuture<Boolean> flush() {
+        synchronized (this) {
+            if (pendingSave != null) {
+                pendingSave.cancel(false);
+                pendingSave = null;
+            }
+        }
+        return CompletableFuture.supplyAsync(repository::saveAllData, ioExecutor);
+    }
+
+    /** Drops a scheduled autosave, e.g. when the user chose to exit without saving. */
+    public synchronized void cancelPending() {
+        if (pendingSave != null) {
+            pendingSave.cancel(false);
+            pendingSave = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void saveIfDirty() {
+        if (repository.isDirty()) {
+            log.debug("Autosaving ledger (version {}).", repository.getDataVersion());
+            repository.saveAllData();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        boolean hadPending;
+        synchronized (this) {
+            hadPending = pendingSave != null && !pendingSave.isDone();
+        }
+        if (hadPending) {
+            // Don't lose the last few seconds of edits when the window is simply closed
+            log.info("Flushing pending autosave before shutdown...");
+            try {
+                flush().get(SHUTDOWN_FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Final autosave did not complete", e);
+            }
+        }
+        ioExecutor.shutdown();
+    }
+}
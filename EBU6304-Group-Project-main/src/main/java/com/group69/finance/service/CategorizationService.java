@@ -1,26 +1,66 @@
 package com.group69.finance.service;
 
+import com.group69.finance.classifier.CategoryClassifier;
+import com.group69.finance.classifier.Prediction;
+import com.group69.finance.metrics.FinanceMetrics;
 import com.group69.finance.model.Category;
 import com.group69.finance.model.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CategorizationService {
     private static final Logger log = LoggerFactory.getLogger(CategorizationService.class);
 
+    private final FinanceMetrics metrics;
+    private final CategoryClassifier classifier;
+
+    @Autowired
+    public CategorizationService(FinanceMetrics metrics, CategoryClassifier classifier) {
+        this.metrics = metrics;
+        this.classifier = classifier;
+    }
+
     /**
-     * Simulates AI categorization based on simple keyword matching.
-     * In a real application, this would involve a more complex model or API call.
+     * Suggests a category: from the classifier trained on the user's corrections when it is confident,
+     * otherwise by simple keyword matching.
      * @param transaction The transaction to categorize (description is key).
      * @return The suggested Category.
      */
     public Category suggestCategory(Transaction transaction) {
+        Prediction prediction = classifier.predict(transaction);
+        if (prediction != null) {
+            metrics.recordModelSuggestion(prediction.category());
+            return prediction.category();
+        }
+
         String description = transaction.getDescription().toLowerCase();
         double amount = transaction.getAmount();
         log.debug("Suggesting category for description: '{}', amount: {}", description, amount);
 
+        Category matched = matchKeywordRule(description, amount);
+        if (matched != null) {
+            metrics.recordSuggestion(matched, true);
+            return matched;
+        }
+
+        // --- Default ---
+        Category defaultCategory = (amount >= 0) ? Category.OTHER_INCOME : Category.OTHER_EXPENSE;
+        log.debug("No specific category rule matched. Returning default: {}", defaultCategory);
+        metrics.recordSuggestion(defaultCategory, false);
+        return defaultCategory; // Return default based on amount sign if no rules match
+    }
+
+    /** Records a category the user chose by hand, so later suggestions for similar transactions follow it. */
+    public void learnFromUser(Transaction transaction) {
+        classifier.learn(transaction);
+    }
+
+    /** @return the category of the first matching keyword rule, or {@code null} if none matches */
+    private Category matchKeywordRule(String description, double amount) {
+
         // --- Income Rules (only apply if amount is positive) ---
         if (amount >= 0) {
             if (description.contains("salary") || description.contains("wages") || description.contains("工资")) return Category.SALARY;
@@ -40,9 +80,6 @@ public class CategorizationService {
         if (description.contains("doctor") || description.contains("hospital") || description.contains("pharmacy") || description.contains("药") || description.contains("医院")) return Category.HEALTHCARE;
         if (description.contains("gift") || (description.contains("red packet") && amount < 0) || (description.contains("红包") && amount < 0) ) return Category.GIFT_GIVEN; // Sent red packets as expense
 
-        // --- Default ---
-        Category defaultCategory = (amount >= 0) ? Category.OTHER_INCOME : Category.OTHER_EXPENSE;
-        log.debug("No specific category rule matched. Returning default: {}", defaultCategory);
-        return defaultCategory; // Return default based on amount sign if no rules match
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.group69.finance.service;
+
+/**
+ * A CSV line an import could not read.
+ *
+ * @param line   line number in the file, counting the header as line 1
+ * @param reason what was wrong with it, e.g. {@code Invalid amount '12,5'}
+ */
+public record CsvImportError(long line, String reason) {
+
+    @Override
+    public String toString() {
+        return "Line " + line + ": " + reason;
+    }
+}
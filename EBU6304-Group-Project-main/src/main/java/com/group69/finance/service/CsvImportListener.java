@@ -0,0 +1,32 @@
+package com.group69.finance.service;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Follows an import run by {@link CsvImportService#importTransactionsFromCsv(String, CsvImportListener)}.
+ * All methods are called on the importing thread.
+ */
+public interface CsvImportListener {
+
+    CsvImportListener NONE = new CsvImportListener() {
+    };
+
+    /** Reported after every batch and at least every few thousand lines. */
+    default void progress(CsvImportProgress progress) {
+    }
+
+    /**
+     * A batch of rows has been added to the ledger.
+     *
+     * @param ledgerVersion the ledger version that contains the batch
+     */
+    default void batchAdded(List<Transaction> rows, long ledgerVersion) {
+    }
+
+    /** Polled for every line; once it returns {@code true} the import stops and its rows are removed again. */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.group69.finance.service;
+
+/**
+ * How far a running import has got.
+ *
+ * @param lines      lines read so far, excluding the header
+ * @param imported   rows added to the ledger so far
+ * @param bytesRead  bytes of the file read so far
+ * @param totalBytes size of the file
+ */
+public record CsvImportProgress(long lines, int imported, long bytesRead, long totalBytes) {
+}
@@ -0,0 +1,17 @@
+package com.group69.finance.service;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Outcome of one CSV import.
+ *
+ * @param imported          rows added to the ledger
+ * @param duplicatesSkipped rows already present in the ledger (same date, amount, description and source)
+ * @param rejectedRows      lines that could not be parsed
+ * @param errors            why, for the first {@link CsvImportService#MAX_REPORTED_ERRORS} of them
+ */
+public record CsvImportResult(List<Transaction> imported, int duplicatesSkipped, int rejectedRows,
+                              List<CsvImportError> errors) {
+}
@@ -1,76 +1,310 @@
 package com.group69.finance.service;
 
+import com.group69.finance.dedup.DuplicateIndex;
+import com.group69.finance.dedup.Fingerprint;
+import com.group69.finance.jfr.CsvImportEvent;
+import com.group69.finance.metrics.FinanceMetrics;
 import com.group69.finance.model.Category;
 import com.group69.finance.model.Source;
+import com.group69.finance.model.Tags;
 import com.group69.finance.model.Transaction;
 import com.group69.finance.repository.FinanceDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 
 @Service
 public class CsvImportService {
 
+    private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
+
+    /** Rows added to the ledger per change while an import runs. */
+    public static final int BATCH_ROWS = 10_000;
+    /** Unreadable lines described in {@link CsvImportResult#errors()}; the rest are only counted. */
+    public static final int MAX_REPORTED_ERRORS = 100;
+    /**
+     * Lines one quoted field may span. A quote that is not closed within them, or whose row is then short
+     * of columns, is rejected with the line it starts on, and the lines after it are read again as rows.
+     */
+    public static final int MAX_RECORD_LINES = 20;
+
     private final FinanceDataRepository repository;
     private final CategorizationService categorizationService;
+    private final DuplicateIndex duplicateIndex;
+    private final FinanceMetrics metrics;
 
     @Autowired
-    public CsvImportService(FinanceDataRepository repository, CategorizationService categorizationService) {
+    public CsvImportService(FinanceDataRepository repository, CategorizationService categorizationService,
+                            DuplicateIndex duplicateIndex, FinanceMetrics metrics) {
         this.repository = repository;
         this.categorizationService = categorizationService;
+        this.duplicateIndex = duplicateIndex;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Imports a CSV file, skipping rows that are already in the ledger (e.g. the same bank export
+     * imported twice, or overlapping monthly exports).
+     */
+    public CsvImportResult importTransactionsFromCsv(String filePath) throws Exception {
+        return importTransactionsFromCsv(filePath, CsvImportListener.NONE);
     }
 
-    public List<Transaction> importTransactionsFromCsv(String filePath) throws Exception {
+    /**
+     * Imports a CSV file as above, adding the rows to the ledger in batches of {@value #BATCH_ROWS} while
+     * the file is still being read, so a large import shows up (and can be edited) as it goes. If the
+     * listener cancels the import, or reading fails part way, the rows already added are removed again.
+     *
+     * @throws CancellationException if the listener cancelled the import
+     */
+    public CsvImportResult importTransactionsFromCsv(String filePath, CsvImportListener listener) throws Exception {
+        CsvImportEvent event = new CsvImportEvent();
+        event.begin();
+        event.file = filePath;
+        try {
+            return importFile(filePath, listener, event);
+        } finally {
+            // Committed on failure too, so a stalled or failing import still shows up in a recording
+            event.commit();
+        }
+    }
+
+    private CsvImportResult importFile(String filePath, CsvImportListener listener, CsvImportEvent event) throws Exception {
+        long startNanos = System.nanoTime();
+        long totalBytes = new File(filePath).length();
+        DuplicateIndex.Session duplicates = duplicateIndex.newSession();
         List<Transaction> importedTransactions = new ArrayList<>();
+        List<Transaction> batch = new ArrayList<>(BATCH_ROWS);
+        List<CsvImportError> errors = new ArrayList<>();
+        int rejectedRows = 0;
+        long lines = 0;
         DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        List<String> values = new ArrayList<>(6);
+        // Lines read past an unclosed quote, to be read again
+        Deque<String> readAgain = new ArrayDeque<>();
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+        try (CountingInputStream in = new CountingInputStream(new FileInputStream(filePath));
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
             String line;
             // Skip header row
             reader.readLine();
 
-            while ((line = reader.readLine()) != null) {
-                String[] values = line.split(",");
-                if (values.length >= 5) {
+            while ((line = readAgain.isEmpty() ? reader.readLine() : readAgain.poll()) != null) {
+                if (listener.isCancelled()) {
+                    throw new CancellationException("Import of " + filePath + " cancelled");
+                }
+                lines++;
+                long recordLine = lines + 1; // 1-based, counting the header
+                CsvImportError error = null;
+                // A quoted field may hold line breaks: keep reading until its closing quote
+                String record = line;
+                List<String> continued = new ArrayList<>(0);
+                boolean closed = splitRecord(record, values);
+                while (!closed && continued.size() < MAX_RECORD_LINES - 1
+                        && (line = readAgain.isEmpty() ? reader.readLine() : readAgain.poll()) != null) {
+                    lines++;
+                    continued.add(line);
+                    record = record + "\n" + line;
+                    closed = splitRecord(record, values);
+                }
+                // A quote that closes lines later but leaves the row short of columns was a stray quote
+                // that happened to pair with one further down, not a line break inside a field
+                if (!closed || (!continued.isEmpty() && values.size() < 5)) {
+                    // Reject only the line the quote opened on; the lines after it are rows of their own
+                    lines -= continued.size();
+                    for (int i = continued.size() - 1; i >= 0; i--) {
+                        readAgain.push(continued.get(i));
+                    }
+                    error = new CsvImportError(recordLine, "Quoted field is not closed on this line or the next "
+                            + (MAX_RECORD_LINES - 1));
+                } else if (values.size() >= 5) {
+                    String field = "date";
                     try {
-                        LocalDate date = LocalDate.parse(values[0].trim(), dateFormatter);
-                        String description = values[1].trim();
-                        double amount = Double.parseDouble(values[2].trim());
-                        Category category = Category.valueOf(values[3].trim().toUpperCase());
-                        Source source = Source.valueOf(values[4].trim().toUpperCase());
-
-                        // If category is uncategorized, use AI for automatic classification
-                        boolean aiSuggested = false;
-                        if (category == Category.UNCATEGORIZED) {
-                            Transaction tempTransaction = new Transaction(date, description, amount, Category.UNCATEGORIZED, source, false);
-                            Category suggestedCategory = categorizationService.suggestCategory(tempTransaction);
-                            if (suggestedCategory != null && suggestedCategory != Category.UNCATEGORIZED) {
-                                category = suggestedCategory;
-                                aiSuggested = true;
+                        LocalDate date = LocalDate.parse(values.get(0).trim(), dateFormatter);
+                        String description = values.get(1).trim();
+                        field = "amount";
+                        double amount = Double.parseDouble(values.get(2).trim());
+                        field = "category";
+                        Category category = Category.valueOf(values.get(3).trim().toUpperCase());
+                        field = "source";
+                        Source source = Source.valueOf(values.get(4).trim().toUpperCase());
+
+                        // Skip rows the ledger already has; checked before categorization, which is the costly part
+                        if (!duplicates.isDuplicate(Fingerprint.of(date, description, amount, source))) {
+                            Transaction row = newTransaction(date, description, amount, category, source);
+                            if (values.size() > 5) {
+                                row.setTags(Tags.parse(values.get(5))); // Optional sixth column, as exported
                             }
+                            batch.add(row);
                         }
-
-                        Transaction transaction = new Transaction(date, description, amount, category, source, aiSuggested);
-                        importedTransactions.add(transaction);
-                    } catch (Exception e) {
-                        // Log error but continue processing other rows
-                        System.err.println("Error parsing line: " + line + ", Error: " + e.getMessage());
+                    } catch (RuntimeException e) {
+                        int column = switch (field) {
+                            case "date" -> 0;
+                            case "amount" -> 2;
+                            case "category" -> 3;
+                            default -> 4;
+                        };
+                        error = new CsvImportError(recordLine, "Invalid " + field + " '" + values.get(column).trim() + "'");
+                    }
+                } else if (!record.isBlank()) {
+                    error = new CsvImportError(recordLine, "Expected 5 columns, found " + values.size());
+                }
+                if (error != null) {
+                    rejectedRows++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add(error);
                     }
                 }
+
+                boolean full = batch.size() == BATCH_ROWS;
+                if (full) {
+                    addBatch(batch, importedTransactions, duplicates, listener);
+                    batch = new ArrayList<>(BATCH_ROWS);
+                }
+                if (full || lines % BATCH_ROWS == 0) {
+                    listener.progress(new CsvImportProgress(lines, importedTransactions.size(), in.count(), totalBytes));
+                }
             }
+            addBatch(batch, importedTransactions, duplicates, listener);
+            listener.progress(new CsvImportProgress(lines, importedTransactions.size(), totalBytes, totalBytes));
+        } catch (Exception e) {
+            // All or nothing: take back the batches already added (and any edits made to them since)
+            int removed = repository.removeTransactionsById(importedTransactions.stream().map(Transaction::getId).toList());
+            log.info("Import of {} stopped after {} lines; removed the {} rows it had added.", filePath, lines, removed);
+            event.rolledBack = true;
+            throw e;
         }
 
-        // Add imported transactions to repository
-        for (Transaction transaction : importedTransactions) {
-            repository.addTransaction(transaction);
+        event.bytes = totalBytes;
+        event.rows = importedTransactions.size();
+        event.rejectedRows = rejectedRows;
+        event.duplicateRows = duplicates.duplicates();
+        if (rejectedRows > 0) {
+            log.warn("{} of {} lines in {} could not be read, first: {}", rejectedRows, lines, filePath, errors.get(0));
         }
 
-        return importedTransactions;
+        metrics.recordImport(System.nanoTime() - startNanos, importedTransactions.size(), rejectedRows,
+                duplicates.duplicates());
+        return new CsvImportResult(importedTransactions, duplicates.duplicates(), rejectedRows, List.copyOf(errors));
+    }
+
+    /**
+     * Splits one record into {@code fields}, reading quoted fields the way {@code ExportService} writes
+     * them (RFC 4180): a field that starts with {@code "} runs to the next lone quote, {@code ""} inside it
+     * is a quote, and commas and line breaks inside it are data. A quote later in an unquoted field is
+     * kept as is, as bank exports write {@code 27" monitor}.
+     *
+     * @return {@code false} if the record ends inside a quoted field, which then continues on the next line
+     */
+    static boolean splitRecord(String record, List<String> fields) {
+        fields.clear();
+        if (record.indexOf('"') < 0) {
+            // Nothing quoted, as in most bank exports
+            int start = 0;
+            for (int comma; (comma = record.indexOf(',', start)) >= 0; start = comma + 1) {
+                fields.add(record.substring(start, comma));
+            }
+            fields.add(record.substring(start));
+            return true;
+        }
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+                continue;
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+            } else {
+                field.append(c);
+            }
+            fieldStart = false;
+        }
+        fields.add(field.toString());
+        return !quoted;
+    }
+
+    private Transaction newTransaction(LocalDate date, String description, double amount, Category category, Source source) {
+        // If category is uncategorized, use AI for automatic classification
+        boolean aiSuggested = false;
+        if (category == Category.UNCATEGORIZED) {
+            Transaction tempTransaction = new Transaction(date, description, amount, Category.UNCATEGORIZED, source, false);
+            Category suggestedCategory = categorizationService.suggestCategory(tempTransaction);
+            if (suggestedCategory != null && suggestedCategory != Category.UNCATEGORIZED) {
+                category = suggestedCategory;
+                aiSuggested = true;
+            }
+        }
+        return new Transaction(date, description, amount, category, source, aiSuggested);
+    }
+
+    private void addBatch(List<Transaction> batch, List<Transaction> importedTransactions,
+                          DuplicateIndex.Session duplicates, CsvImportListener listener) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        // One change per batch for the listeners; later lines of the file must not count these rows as duplicates
+        long version = repository.addTransactions(batch);
+        duplicates.added(batch);
+        importedTransactions.addAll(batch);
+        listener.batchAdded(Collections.unmodifiableList(batch), version);
+    }
+
+    /** Counts the bytes read from the file, for progress in bytes. */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        long count() {
+            return count;
+        }
     }
-} 
\ No newline at end of file
+}
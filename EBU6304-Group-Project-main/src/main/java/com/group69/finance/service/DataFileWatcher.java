@@ -0,0 +1,140 @@
+package com.group69.finance.service;
+
+import com.group69.finance.batch.BatchRunner;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.repository.LedgerMerge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the data file for changes made by other programs (a sync tool, a second instance, a hand
+ * edit) and merges them into the ledger with {@link FinanceDataRepository#mergeStoredData()}, so only
+ * the rows that changed are applied and unsaved edits made here are kept.
+ * <p>
+ * The file's directory is watched, since a save replaces the file by renaming a temporary one over it.
+ * Events are debounced until the directory has been quiet for {@code app.data.watch.quiet-period-ms},
+ * and the app's own saves are recognised by the file's size and timestamp and ignored. Only the JSON
+ * store is watched; the H2 database file is locked by the app while it runs.
+ */
+@Service
+@Profile("!" + BatchRunner.PROFILE) // Nothing else should write the file during a batch run
+public class DataFileWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(DataFileWatcher.class);
+
+    private final FinanceDataRepository repository;
+    private final Path dataFile;
+    private final boolean enabled;
+    private final long quietPeriodMillis;
+    private final List<Consumer<LedgerMerge>> mergeListeners = new CopyOnWriteArrayList<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    @Autowired
+    public DataFileWatcher(FinanceDataRepository repository,
+                           @Value("${app.data.filepath}") String dataFilePath,
+                           @Value("${app.data.store:json}") String store,
+                           @Value("${app.data.watch.enabled:true}") boolean enabled,
+                           @Value("${app.data.watch.quiet-period-ms:500}") long quietPeriodMillis) {
+        this.repository = repository;
+        this.dataFile = Paths.get(dataFilePath).toAbsolutePath();
+        this.enabled = enabled && "json".equalsIgnoreCase(store);
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    /** Registers a callback for every merge that changed something; called on the watcher thread. */
+    public void addMergeListener(Consumer<LedgerMerge> listener) {
+        mergeListeners.add(listener);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Path directory = dataFile.getParent();
+        if (!enabled || directory == null || !Files.isDirectory(directory)) {
+            log.info("Not watching the data file {} for outside changes.", dataFile);
+            return;
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchThread = new Thread(this::watch, "finance-file-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        log.info("Watching {} for outside changes.", dataFile);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close(); // Ends the watch loop
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!concernsDataFile(watchService.take())) {
+                    continue;
+                }
+                // A writer may touch the file several times (truncate, write, rename): wait for it to finish
+                WatchKey more;
+                while ((more = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+                    concernsDataFile(more);
+                }
+                mergeIfChanged();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private boolean concernsDataFile(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            relevant |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || dataFile.getFileName().equals(event.context());
+        }
+        key.reset();
+        return relevant;
+    }
+
+    private void mergeIfChanged() {
+        // A missing file is most likely mid-replacement; merging it would delete every row
+        if (!Files.exists(dataFile) || !repository.isStoredDataModified()) {
+            return;
+        }
+        try {
+            LedgerMerge merge = repository.mergeStoredData();
+            if (!merge.isEmpty()) {
+                mergeListeners.forEach(listener -> listener.accept(merge));
+            }
+        } catch (IOException e) {
+            // Typically a file still being written in place; its next write triggers another attempt
+            log.warn("Could not merge changes from {}: {}", dataFile, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Unexpected error merging changes from {}", dataFile, e);
+        }
+    }
+}
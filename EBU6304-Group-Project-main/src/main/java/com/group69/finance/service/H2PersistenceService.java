@@ -0,0 +1,492 @@
+package com.group69.finance.service;
+
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.jfr.LedgerLoadEvent;
+import com.group69.finance.jfr.LedgerSaveEvent;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Tags;
+import com.group69.finance.model.Transaction;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stores the ledger in an embedded H2 database file ({@code app.data.store=h2}), one table row per
+ * transaction, indexed on date, category and source.
+ * <p>
+ * Saves are row-level: stored rows are never mutated (edits replace them), so a snapshot row that is
+ * the same object as the one written last time is unchanged, and only a different object with
+ * different values counts as an edit. Only added, edited and removed rows are written, as batched
+ * prepared statements in one database transaction. The first save to a file, or a save after a failed
+ * one, rewrites the table. {@link #find} and {@link #totalsByMonthAndCategory} answer filters and
+ * monthly totals in SQL from the last saved state, without loading the ledger.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.data.store", havingValue = "h2")
+public class H2PersistenceService implements PersistenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(H2PersistenceService.class);
+    private static final String FORMAT = "h2";
+    private static final String FILE_SUFFIX = ".mv.db";
+    private static final int BATCH_ROWS = 1000;
+
+    // Rows are clustered by seq, their position in the ledger, so loading reads the table in key order
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS %s ("
+            + "seq BIGINT PRIMARY KEY, id VARCHAR(64) NOT NULL, tx_date DATE NOT NULL, description VARCHAR,"
+            + " amount DOUBLE PRECISION NOT NULL, category VARCHAR(32) NOT NULL, source VARCHAR(32) NOT NULL,"
+            + " ai_suggested BOOLEAN NOT NULL, tags VARCHAR)";
+    // Databases created before tags existed
+    private static final String ADD_TAGS = "ALTER TABLE ledger_rows ADD COLUMN IF NOT EXISTS tags VARCHAR";
+    private static final String[] INDEXES = {
+            "CREATE UNIQUE INDEX IF NOT EXISTS ledger_rows_id ON ledger_rows(id)",
+            "CREATE INDEX IF NOT EXISTS ledger_rows_date ON ledger_rows(tx_date)",
+            "CREATE INDEX IF NOT EXISTS ledger_rows_category ON ledger_rows(category, tx_date)",
+            "CREATE INDEX IF NOT EXISTS ledger_rows_source ON ledger_rows(source, tx_date)"
+    };
+    // A rewrite fills this table, then swaps it in
+    private static final String REWRITE_TABLE = "ledger_rows_new";
+    private static final int REWRITE_COMMIT_ROWS = 100_000;
+    private static final String COLUMNS = "id, tx_date, description, amount, category, source, ai_suggested, tags";
+    private static final String INSERT = "INSERT INTO %s (seq, " + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE = "UPDATE ledger_rows SET tx_date = ?, description = ?, amount = ?, category = ?,"
+            + " source = ?, ai_suggested = ?, tags = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM ledger_rows WHERE id = ?";
+
+    private final FinanceMetrics metrics;
+
+    // Guarded by this. The open database and, for it, the rows as last loaded or saved by ID
+    // (null until the table is known to match them), the save that last saw each, and the next row order number
+    private Connection connection;
+    private Path database;
+    private Map<String, WrittenRow> written;
+    private long saves;
+    private long nextSeq;
+
+    private static final class WrittenRow {
+        Transaction row;
+        long save;
+
+        WrittenRow(Transaction row, long save) {
+            this.row = row;
+            this.save = save;
+        }
+    }
+
+    /** Monthly totals of one category, as summed by the database. */
+    public record MonthCategoryTotal(YearMonth month, Category category, long cents, int rows) {
+    }
+
+    @Autowired
+    public H2PersistenceService(FinanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void saveTransactions(List<Transaction> transactions, String filePath) throws IOException {
+        LedgerSaveEvent event = new LedgerSaveEvent();
+        event.begin();
+        event.path = filePath;
+        event.format = FORMAT;
+        event.rows = transactions.size();
+        long startNanos = System.nanoTime();
+        try {
+            Connection db = open(filePath);
+            db.setAutoCommit(false);
+            int changed;
+            try {
+                changed = written == null ? rewrite(db, transactions) : writeChanges(db, transactions);
+                db.commit();
+            } catch (SQLException | RuntimeException e) {
+                db.rollback();
+                written = null; // The table may no longer match; the next save rewrites it
+                throw e;
+            } finally {
+                db.setAutoCommit(true);
+            }
+            long bytes = fileSize();
+            event.bytes = bytes;
+            metrics.recordPersistence("save", FORMAT, System.nanoTime() - startNanos, bytes);
+            log.info("Data successfully written to {} ({} rows changed)", database, changed);
+        } catch (SQLException e) {
+            metrics.recordPersistenceFailure("save", FORMAT);
+            log.error("SQLException during save to {}: {}", filePath, e.getMessage());
+            throw new IOException("Failed to save to database: " + e.getMessage(), e);
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public synchronized List<Transaction> loadTransactions(String filePath) throws IOException {
+        LedgerLoadEvent event = new LedgerLoadEvent();
+        event.begin();
+        event.path = filePath;
+        event.format = FORMAT;
+        long startNanos = System.nanoTime();
+        try {
+            Connection db = open(filePath);
+            List<Transaction> loaded = new ArrayList<>();
+            try (Statement statement = db.createStatement()) {
+                statement.setFetchSize(BATCH_ROWS);
+                try (ResultSet rows = statement.executeQuery("SELECT " + COLUMNS + " FROM ledger_rows ORDER BY seq")) {
+                    while (rows.next()) {
+                        loaded.add(read(rows));
+                    }
+                }
+            }
+            written = byId(loaded);
+            nextSeq = nextSeq(db);
+            long bytes = fileSize();
+            event.rows = loaded.size();
+            event.bytes = bytes;
+            metrics.recordPersistence("load", FORMAT, System.nanoTime() - startNanos, bytes);
+            log.info("Data successfully loaded {} transactions from {}", loaded.size(), database);
+            return loaded;
+        } catch (SQLException | RuntimeException e) {
+            metrics.recordPersistenceFailure("load", FORMAT);
+            log.error("Failed to load from {}: {}", filePath, e.getMessage());
+            throw new IOException("Failed to load from database: " + e.getMessage(), e);
+        } finally {
+            event.commit();
+        }
+    }
+
+    /** The data lives in {@code <filePath>.mv.db}, not at {@code filePath} itself. */
+    @Override
+    public boolean hasStoredData(String filePath) {
+        return Files.exists(Paths.get(filePath.endsWith(FILE_SUFFIX) ? filePath : filePath + FILE_SUFFIX));
+    }
+
+    // --- Queries (answered from the last saved state) ---
+
+    /** The saved rows that match {@code filter}, in ledger order; the indexes narrow the date, category and source. */
+    public synchronized List<Transaction> find(String filePath, ExportFilter filter) throws IOException {
+        List<Object> parameters = new ArrayList<>();
+        String sql = "SELECT " + COLUMNS + " FROM ledger_rows" + where(filter, parameters) + " ORDER BY seq";
+        try (PreparedStatement query = open(filePath).prepareStatement(sql)) {
+            bind(query, parameters);
+            List<Transaction> found = new ArrayList<>();
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    found.add(read(rows));
+                }
+            }
+            return found;
+        } catch (SQLException e) {
+            throw new IOException("Query failed: " + e.getMessage(), e);
+        }
+    }
+
+    /** Cents and row counts per month and category of the saved rows matching {@code filter}, in month order. */
+    public synchronized List<MonthCategoryTotal> totalsByMonthAndCategory(String filePath, ExportFilter filter) throws IOException {
+        List<Object> parameters = new ArrayList<>();
+        String sql = "SELECT YEAR(tx_date) y, MONTH(tx_date) m, category, SUM(CAST(ROUND(amount * 100) AS BIGINT)), COUNT(*)"
+                + " FROM ledger_rows" + where(filter, parameters) + " GROUP BY y, m, category ORDER BY y, m, category";
+        try (PreparedStatement query = open(filePath).prepareStatement(sql)) {
+            bind(query, parameters);
+            List<MonthCategoryTotal> totals = new ArrayList<>();
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    totals.add(new MonthCategoryTotal(YearMonth.of(rows.getInt(1), rows.getInt(2)),
+                            Category.valueOf(rows.getString(3)), rows.getLong(4), rows.getInt(5)));
+                }
+            }
+            return totals;
+        } catch (SQLException e) {
+            throw new IOException("Query failed: " + e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Closing database {} failed: {}", database, e.getMessage());
+            }
+            connection = null;
+            database = null;
+            written = null;
+        }
+    }
+
+    // --- Writing ---
+
+    /**
+     * Bulk-loads a new table without indexes, committing as it goes, then swaps it for the old one and
+     * indexes it: far cheaper than one huge transaction against an indexed table. Until the swap the old
+     * table is untouched; see {@link #recoverRewrite} for a crash during it.
+     */
+    private int rewrite(Connection db, List<Transaction> transactions) throws SQLException {
+        try (Statement statement = db.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + REWRITE_TABLE);
+            statement.execute(CREATE_TABLE.formatted(REWRITE_TABLE));
+        }
+        nextSeq = 0;
+        try (PreparedStatement insert = db.prepareStatement(INSERT.formatted(REWRITE_TABLE))) {
+            int pending = 0;
+            for (Transaction row : transactions) {
+                bindInsert(insert, row);
+                pending = flushIfFull(insert, pending + 1);
+                if (nextSeq % REWRITE_COMMIT_ROWS == 0) {
+                    insert.executeBatch();
+                    pending = 0;
+                    db.commit();
+                }
+            }
+            insert.executeBatch();
+        }
+        db.commit();
+        try (Statement statement = db.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS ledger_rows");
+            statement.execute("ALTER TABLE " + REWRITE_TABLE + " RENAME TO ledger_rows");
+            for (String ddl : INDEXES) {
+                statement.execute(ddl);
+            }
+        }
+        written = byId(transactions);
+        return transactions.size();
+    }
+
+    private int writeChanges(Connection db, List<Transaction> transactions) throws SQLException {
+        // Marks every row this save sees; rows left unmarked were removed. Nothing is copied per save
+        long save = ++saves;
+        List<Transaction> inserted = new ArrayList<>();
+        List<Transaction> updated = new ArrayList<>();
+        for (Transaction row : transactions) {
+            WrittenRow before = written.get(row.getId());
+            if (before == null) {
+                written.put(row.getId(), new WrittenRow(row, save));
+                inserted.add(row);
+            } else {
+                if (before.row != row) {
+                    // A new object is usually an edit, but rows reloaded for a merge are new objects with
+                    // the same values: only a difference in the values is worth an UPDATE
+                    if (!before.row.sameValues(row)) {
+                        updated.add(row);
+                    }
+                    before.row = row;
+                }
+                before.save = save;
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        written.values().removeIf(w -> {
+            if (w.save == save) return false;
+            removed.add(w.row.getId());
+            return true;
+        });
+        try (PreparedStatement delete = db.prepareStatement(DELETE)) {
+            int pending = 0;
+            for (String id : removed) {
+                delete.setString(1, id);
+                delete.addBatch();
+                pending = flushIfFull(delete, pending + 1);
+            }
+            delete.executeBatch();
+        }
+        try (PreparedStatement update = db.prepareStatement(UPDATE)) {
+            int pending = 0;
+            for (Transaction row : updated) {
+                bindColumns(update, 1, row);
+                update.setString(8, row.getId());
+                update.addBatch();
+                pending = flushIfFull(update, pending + 1);
+            }
+            update.executeBatch();
+        }
+        try (PreparedStatement insert = db.prepareStatement(INSERT.formatted("ledger_rows"))) {
+            int pending = 0;
+            for (Transaction row : inserted) {
+                bindInsert(insert, row);
+                pending = flushIfFull(insert, pending + 1);
+            }
+            insert.executeBatch();
+        }
+        return removed.size() + updated.size() + inserted.size();
+    }
+
+    private void bindInsert(PreparedStatement insert, Transaction row) throws SQLException {
+        insert.setLong(1, nextSeq++);
+        insert.setString(2, row.getId());
+        bindColumns(insert, 3, row);
+        insert.addBatch();
+    }
+
+    /** Binds date, description, amount, category, source, the AI flag and the tags from parameter {@code first} on. */
+    private static void bindColumns(PreparedStatement statement, int first, Transaction row) throws SQLException {
+        statement.setObject(first, row.getDate());
+        statement.setString(first + 1, row.getDescription());
+        statement.setDouble(first + 2, row.getAmount());
+        statement.setString(first + 3, row.getCategory().name());
+        statement.setString(first + 4, row.getSource().name());
+        statement.setBoolean(first + 5, row.isAiSuggestedCategory());
+        statement.setString(first + 6, row.getTags().isEmpty() ? null : Tags.format(row.getTags(), ","));
+    }
+
+    private static int flushIfFull(PreparedStatement statement, int pending) throws SQLException {
+        if (pending < BATCH_ROWS) {
+            return pending;
+        }
+        statement.executeBatch();
+        return 0;
+    }
+
+    private static long nextSeq(Connection db) throws SQLException {
+        try (Statement statement = db.createStatement();
+             ResultSet max = statement.executeQuery("SELECT COALESCE(MAX(seq) + 1, 0) FROM ledger_rows")) {
+            max.next();
+            return max.getLong(1);
+        }
+    }
+
+    // --- Reading ---
+
+    private static Transaction read(ResultSet rows) throws SQLException {
+        Transaction row = Transaction.restore(rows.getString(1), rows.getObject(2, LocalDate.class), rows.getString(3),
+                rows.getDouble(4), Category.valueOf(rows.getString(5)), Source.valueOf(rows.getString(6)),
+                rows.getBoolean(7));
+        String tags = rows.getString(8);
+        if (tags != null) {
+            row.setTags(Arrays.asList(tags.split(",")));
+        }
+        return row;
+    }
+
+    private static String where(ExportFilter filter, List<Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.from() != null) {
+            conditions.add("tx_date >= ?");
+            parameters.add(filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("tx_date <= ?");
+            parameters.add(filter.to());
+        }
+        if (!filter.categories().isEmpty()) {
+            conditions.add(in("category", filter.categories().size()));
+            filter.categories().forEach(category -> parameters.add(category.name()));
+        }
+        if (!filter.sources().isEmpty()) {
+            conditions.add(in("source", filter.sources().size()));
+            filter.sources().forEach(source -> parameters.add(source.name()));
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static String in(String column, int values) {
+        return column + " IN (" + String.join(", ", Collections.nCopies(values, "?")) + ")";
+    }
+
+    private static void bind(PreparedStatement statement, List<Object> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+    }
+
+    // --- Database file ---
+
+    /** The connection to the database at {@code filePath} ({@code .mv.db} optional), opened and set up on first use. */
+    private Connection open(String filePath) throws SQLException {
+        Path requested = Paths.get(filePath.endsWith(FILE_SUFFIX)
+                ? filePath.substring(0, filePath.length() - FILE_SUFFIX.length()) : filePath).toAbsolutePath();
+        if (connection != null && requested.equals(database)) {
+            return connection;
+        }
+        close();
+        try {
+            Files.createDirectories(requested.getParent());
+        } catch (IOException e) {
+            throw new SQLException("Cannot create directory for " + requested, e);
+        }
+        // The driver directly rather than through DriverManager, which may not see it from the packaged jar's class loader
+        Connection db = org.h2.Driver.load().connect("jdbc:h2:file:" + requested, new Properties());
+        recoverRewrite(db);
+        try (Statement statement = db.createStatement()) {
+            statement.execute(CREATE_TABLE.formatted("ledger_rows"));
+            statement.execute(ADD_TAGS);
+            for (String ddl : INDEXES) {
+                statement.execute(ddl);
+            }
+        }
+        connection = db;
+        database = requested;
+        written = null;
+        log.debug("Opened database {}", requested);
+        return db;
+    }
+
+    /**
+     * A rewrite interrupted before the swap leaves a partial new table, which is dropped; one interrupted
+     * between dropping the old table and renaming the new one leaves a complete new table, which is kept.
+     */
+    private static void recoverRewrite(Connection db) throws SQLException {
+        boolean rewritten = tableExists(db, REWRITE_TABLE);
+        if (!rewritten) {
+            return;
+        }
+        try (Statement statement = db.createStatement()) {
+            if (tableExists(db, "ledger_rows")) {
+                statement.execute("DROP TABLE " + REWRITE_TABLE);
+            } else {
+                log.warn("Completing a ledger rewrite that was interrupted");
+                statement.execute("ALTER TABLE " + REWRITE_TABLE + " RENAME TO ledger_rows");
+            }
+        }
+    }
+
+    private static boolean tableExists(Connection db, String table) throws SQLException {
+        try (PreparedStatement query = db.prepareStatement(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME = ?")) {
+            query.setString(1, table.toUpperCase(Locale.ROOT));
+            try (ResultSet result = query.executeQuery()) {
+                result.next();
+                return result.getLong(1) > 0;
+            }
+        }
+    }
+
+    private long fileSize() {
+        try {
+            return Files.size(Paths.get(database + FILE_SUFFIX));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private Map<String, WrittenRow> byId(List<Transaction> rows) {
+        Map<String, WrittenRow> byId = new HashMap<>(rows.size() * 4 / 3 + 1);
+        for (Transaction row : rows) {
+            byId.put(row.getId(), new WrittenRow(row, saves));
+        }
+        return byId;
+    }
+}
@@ -1,46 +1,89 @@
 package com.group69.finance.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group69.finance.jfr.LedgerLoadEvent;
+import com.group69.finance.jfr.LedgerSaveEvent;
+import com.group69.finance.metrics.FinanceMetrics;
 import com.group69.finance.model.Transaction;
+import com.group69.finance.storage.AtomicFiles;
+import com.group69.finance.storage.StorageCodec;
+import com.group69.finance.storage.StorageCodecs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Saves and loads the ledger as a JSON array, encoded with the configured {@link StorageCodecs#writeCodec()}.
+ * Loading detects the codec from the file's first bytes, so plain and compressed files both open.
+ */
 @Service
 public class JsonPersistenceService implements PersistenceService {
 
     private static final Logger log = LoggerFactory.getLogger(JsonPersistenceService.class);
+    private static final String FORMAT = "json";
+
     private final ObjectMapper objectMapper; // Use Jackson
+    private final FinanceMetrics metrics;
+    private final StorageCodecs codecs;
 
     @Autowired // Inject the configured ObjectMapper from JacksonConfig
-    public JsonPersistenceService(ObjectMapper objectMapper) {
+    public JsonPersistenceService(ObjectMapper objectMapper, FinanceMetrics metrics, StorageCodecs codecs) {
         this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.codecs = codecs;
     }
 
     @Override
     public void saveTransactions(List<Transaction> transactions, String filePath) throws IOException {
         Path path = Paths.get(filePath);
         log.debug("Saving {} transactions to {}", transactions.size(), path.toAbsolutePath());
+        StorageCodec codec = codecs.writeCodec();
+        String format = formatOf(codec);
+        LedgerSaveEvent event = new LedgerSaveEvent();
+        event.begin();
+        event.path = filePath;
+        event.format = format;
+        event.rows = transactions.size();
+        long startNanos = System.nanoTime();
         try {
-            Files.createDirectories(path.getParent()); // Ensure directory exists
-            // Write list as JSON using injected ObjectMapper (handles pretty printing via config)
-            objectMapper.writeValue(path.toFile(), transactions);
+            // A crash mid-write leaves the previous ledger untouched
+            long bytes = AtomicFiles.write(path, channel -> {
+                try (OutputStream out = new BufferedOutputStream(codec.encode(AtomicFiles.outputStream(channel)), 1 << 16)) {
+                    // Write list as JSON using injected ObjectMapper (handles pretty printing via config)
+                    objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(out, transactions);
+                }
+                return channel.size();
+            });
+            event.bytes = bytes;
+            metrics.recordPersistence("save", format, System.nanoTime() - startNanos, bytes);
             log.info("Data successfully written to {}", filePath);
         } catch (IOException e) {
+            metrics.recordPersistenceFailure("save", format);
             log.error("IOException during save to {}: {}", filePath, e.getMessage());
             throw e; // Re-throw for the caller (e.g., Repository) to handle
+        } finally {
+            event.commit();
         }
     }
 
+    private static String formatOf(StorageCodec codec) {
+        return codec == StorageCodecs.NONE ? FORMAT : FORMAT + "+" + codec.name();
+    }
+
     @Override
     public List<Transaction> loadTransactions(String filePath) throws IOException {
         Path path = Paths.get(filePath);
@@ -50,17 +93,34 @@ public class JsonPersistenceService implements PersistenceService {
             return new ArrayList<>();
         }
 
-        try {
-            // Use ObjectMapper to read the JSON file into a List<Transaction>
-            List<Transaction> loaded = objectMapper.readValue(path.toFile(), new TypeReference<List<Transaction>>() {});
+        LedgerLoadEvent event = new LedgerLoadEvent();
+        event.begin();
+        event.path = filePath;
+        String format = FORMAT;
+        event.format = format;
+        long startNanos = System.nanoTime();
+        long bytes = Files.size(path);
+        event.bytes = bytes;
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path), 1 << 16)) {
+            StorageCodec codec = codecs.detect(file);
+            format = formatOf(codec);
+            event.format = format;
+            // Decoded bytes go straight into the parser; the file is never inflated in memory as a whole
+            List<Transaction> loaded = objectMapper.readValue(codec.decode(file), new TypeReference<List<Transaction>>() {});
+            event.rows = loaded != null ? loaded.size() : 0;
+            metrics.recordPersistence("load", format, System.nanoTime() - startNanos, bytes);
             log.info("Data successfully loaded {} transactions from {}", loaded.size(), filePath);
             return loaded != null ? loaded : new ArrayList<>();
         } catch (IOException e) {
+            metrics.recordPersistenceFailure("load", format);
             log.error("IOException during load from {}: {}", filePath, e.getMessage());
             throw e; // Re-throw
         } catch (Exception e) { // Catch other potential parsing errors
+            metrics.recordPersistenceFailure("load", format);
             log.error("Failed to parse data from {}: {}", filePath, e.getMessage(), e);
             throw new IOException("Failed to parse data from file: " + e.getMessage(), e);
+        } finally {
+            event.commit();
         }
     }
 }
\ No newline at end of file
@@ -2,10 +2,17 @@ package com.group69.finance.service;
 
 import com.group69.finance.model.Transaction;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.List;
 
 // Interface for saving and loading transaction data
 public interface PersistenceService {
     void saveTransactions(List<Transaction> transactions, String filePath) throws IOException;
     List<Transaction> loadTransactions(String filePath) throws IOException;
+
+    /** @return {@code true} if something has been saved for {@code filePath}; stores that write elsewhere override this */
+    default boolean hasStoredData(String filePath) {
+        return Files.exists(Paths.get(filePath));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.group69.finance.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replaces a file as a whole: the content goes to a temp file in the same directory, is forced to disk
+ * and is then renamed over the target, so a crash mid-write leaves the previous file untouched and
+ * readers never see half a file. The new file keeps the permissions of the one it replaces; a file
+ * that did not exist yet gets the usual permissions for new files (the umask).
+ */
+public final class AtomicFiles {
+
+    private static final Logger log = LoggerFactory.getLogger(AtomicFiles.class);
+    private static final int MAX_NAME_ATTEMPTS = 100;
+
+    /**
+     * Writes the content of a file to its channel; returns whatever the caller wants back. The channel
+     * must stay open, so stream through {@link #outputStream(FileChannel)}.
+     */
+    @FunctionalInterface
+    public interface ContentWriter<T> {
+        T write(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFiles() {
+    }
+
+    public static void write(Path target, byte[] content) throws IOException {
+        write(target, channel -> {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            return null;
+        });
+    }
+
+    /** @return what {@code writer} returned */
+    public static <T> T write(Path target, ContentWriter<T> writer) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        // Not Files.createTempFile: that makes the file readable by its owner only, whatever the umask
+        Path tempFile = createTempFile(directory, target.getFileName().toString());
+        try {
+            T result;
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                result = writer.write(channel);
+                channel.force(true); // Make sure the bytes are on disk before the rename publishes them
+            }
+            copyPermissions(target, tempFile);
+            moveIntoPlace(tempFile, target);
+            tempFile = null;
+            return result;
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    /**
+     * A stream over {@code channel} whose {@code close()} only flushes: closing whatever wraps it finishes
+     * the content but leaves the channel open for the force before the rename.
+     */
+    public static OutputStream outputStream(FileChannel channel) {
+        return new FilterOutputStream(Channels.newOutputStream(channel)) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len); // FilterOutputStream would otherwise write byte by byte
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    // --- Temp file ---
+
+    private static Path createTempFile(Path directory, String name) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Path tempFile = directory.resolve(
+                    name + "." + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                return Files.createFile(tempFile); // No attributes: the umask decides
+            } catch (FileAlreadyExistsException e) {
+                if (attempt == MAX_NAME_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        if (!Files.exists(from)) {
+            return; // The temp file was created with the umask, like any new file
+        }
+        try {
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(from);
+            Files.setPosixFilePermissions(to, permissions);
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system (Windows): the new file inherits the directory's ACLs
+        }
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            log.warn("Atomic rename not supported for {}; falling back to a plain replace.", target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.group69.finance.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * DEFLATE in the zlib wrapper (RFC 1950). Slightly smaller headers than GZIP and an Adler-32 instead of
+ * a CRC-32 checksum, which is cheaper to compute; the zlib header is what makes it detectable.
+ */
+final class DeflateCodec implements StorageCodec {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int level;
+
+    DeflateCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String name() {
+        return "deflate";
+    }
+
+    @Override
+    public boolean matches(byte[] header, int length) {
+        if (length < 2) {
+            return false;
+        }
+        int cmf = header[0] & 0xff;
+        int flg = header[1] & 0xff;
+        // Method 8 (deflate) with a window of at most 32K and a valid header check; no preset dictionary
+        return (cmf & 0x0f) == 8 && (cmf >> 4) <= 7 && (cmf << 8 | flg) % 31 == 0 && (flg & 0x20) == 0;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream out) {
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end(); // Not done by DeflaterOutputStream for a caller-supplied Deflater
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream decode(InputStream in) {
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.group69.finance.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/** GZIP (RFC 1952) at a chosen DEFLATE level; files can also be opened with {@code gzip -d}. */
+final class GzipCodec implements StorageCodec {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final int level;
+
+    GzipCodec(int level) {
+        this.level = level;
+    }
+
+    @Override
+    public String name() {
+        return "gzip";
+    }
+
+    @Override
+    public boolean matches(byte[] header, int length) {
+        return length >= 2 && (header[0] & 0xff) == 0x1f && (header[1] & 0xff) == 0x8b;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    @Override
+    public InputStream decode(InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,29 @@
+package com.group69.finance.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A byte-level encoding for the ledger file, applied underneath the JSON. Codecs announce themselves
+ * with a magic header so files can be read back without knowing how they were written.
+ * <p>
+ * Additional codecs can be registered as Spring beans; {@link StorageCodecs} picks them up.
+ */
+public interface StorageCodec {
+
+    /** Longest header any codec needs to look at; {@link #matches} never sees more than this. */
+    int MAX_MAGIC_LENGTH = 8;
+
+    /** Name used in {@code app.data.compression} and in metric tags, e.g. {@code gzip}. */
+    String name();
+
+    /** @return {@code true} if a file starting with {@code header[0..length)} was written by this codec */
+    boolean matches(byte[] header, int length);
+
+    /** Wraps {@code out}; closing the returned stream must finish the encoding and close {@code out}. */
+    OutputStream encode(OutputStream out) throws IOException;
+
+    /** Wraps {@code in}, positioned at the start of the file. */
+    InputStream decode(InputStream in) throws IOException;
+}
@@ -0,0 +1,110 @@
+package com.group69.finance.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * The codec used to write the ledger ({@code app.data.compression}: {@code none}, {@code gzip} or
+ * {@code deflate}, at {@code app.data.compression-level} 1-9) and detection of the codec a file was
+ * written with, so changing the setting never strands an existing data file: it is read as it is and
+ * rewritten in the new encoding on the next save.
+ */
+@Component
+public class StorageCodecs {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageCodecs.class);
+
+    /** Plain bytes; also what any file that no codec recognises is read as. */
+    public static final StorageCodec NONE = new StorageCodec() {
+        @Override
+        public String name() {
+            return "none";
+        }
+
+        @Override
+        public boolean matches(byte[] header, int length) {
+            return false;
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out) {
+            return out;
+        }
+
+        @Override
+        public InputStream decode(InputStream in) {
+            return in;
+        }
+    };
+
+    private final List<StorageCodec> codecs = new ArrayList<>();
+    private final StorageCodec writeCodec;
+
+    @Autowired
+    public StorageCodecs(@Value("${app.data.compression:none}") String compression,
+                         @Value("${app.data.compression-level:6}") int level,
+                         ObjectProvider<StorageCodec> additionalCodecs) {
+        this(compression, level, additionalCodecs.orderedStream().collect(Collectors.toList()));
+    }
+
+    private StorageCodecs(String compression, int level, List<StorageCodec> additionalCodecs) {
+        if (level < 1 || level > 9) {
+            throw new IllegalArgumentException("app.data.compression-level must be between 1 and 9, was " + level);
+        }
+        // Registered codecs first so they can claim a header before the built-ins look at it
+        codecs.addAll(additionalCodecs);
+        codecs.add(new GzipCodec(level));
+        codecs.add(new DeflateCodec(level));
+        this.writeCodec = byName(compression);
+        log.debug("Ledger files are written with codec '{}' (level {}).", writeCodec.name(), level);
+    }
+
+    /** For use outside Spring (benchmarks, tools): the built-in codecs only. */
+    public static StorageCodecs of(String compression, int level) {
+        return new StorageCodecs(compression, level, List.of());
+    }
+
+    public StorageCodec writeCodec() {
+        return writeCodec;
+    }
+
+    /**
+     * Identifies the codec {@code in} was written with from its first bytes. {@code in} must support
+     * mark/reset (e.g. a {@code BufferedInputStream}) and is left at the start of the file.
+     */
+    public StorageCodec detect(InputStream in) throws IOException {
+        byte[] header = new byte[StorageCodec.MAX_MAGIC_LENGTH];
+        in.mark(header.length);
+        int length = in.readNBytes(header, 0, header.length);
+        in.reset();
+        for (StorageCodec codec : codecs) {
+            if (codec.matches(header, length)) {
+                return codec;
+            }
+        }
+        return NONE;
+    }
+
+    private StorageCodec byName(String name) {
+        String wanted = name.trim().toLowerCase(Locale.ROOT);
+        if (wanted.isEmpty() || wanted.equals(NONE.name())) {
+            return NONE;
+        }
+        return codecs.stream()
+                .filter(codec -> codec.name().equalsIgnoreCase(wanted))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown app.data.compression codec: " + name));
+    }
+}
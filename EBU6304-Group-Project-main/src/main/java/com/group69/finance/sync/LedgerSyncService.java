@@ -0,0 +1,231 @@
+package com.group69.finance.sync;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.JsonPersistenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Two-way sync of a ledger kept in two places, e.g. the data files of a laptop and a desktop copy of the
+ * app, exchanging only the months in which they differ.
+ * <p>
+ * Next to each data file lives its base, {@code <name>.sync}: the ledger as of the last sync. The
+ * {@link MerkleTree}s of the two ledgers pick out the months that differ, and only the rows of those
+ * months (plus rows that moved out of them) are read from the other side. Each side's rows are compared
+ * with its base by transaction ID to see who changed what: a change made on one side is taken over, and
+ * when both sides edited the same row the edits are merged field by field. Only where both changed the
+ * same field, or one side edited a row the other deleted (the edit is kept), does one side win outright:
+ * the local one. Afterwards both ledgers and both bases are identical.
+ */
+@Service
+public class LedgerSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerSyncService.class);
+    static final String BASE_SUFFIX = ".sync";
+
+    private final JsonPersistenceService persistenceService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public LedgerSyncService(JsonPersistenceService persistenceService, ObjectMapper objectMapper) {
+        this.persistenceService = persistenceService;
+        this.objectMapper = objectMapper;
+    }
+
+    public static Path baseFileFor(Path dataFile) {
+        return dataFile.resolveSibling(dataFile.getFileName() + BASE_SUFFIX);
+    }
+
+    /** Syncs two JSON data files; see the class comment. Either may not exist yet. */
+    public SyncReport sync(Path localFile, Path remoteFile) throws IOException {
+        long start = System.nanoTime();
+        List<Transaction> local = load(localFile);
+        List<Transaction> remote = load(remoteFile);
+        MerkleTree localTree = MerkleTree.of(local);
+        MerkleTree remoteTree = MerkleTree.of(remote);
+        MerkleTree.Diff diff = localTree.diff(remoteTree);
+        Set<YearMonth> allMonths = new TreeSet<>(localTree.months());
+        allMonths.addAll(remoteTree.months());
+        long fullCopyBytes = Files.exists(localFile) ? Files.size(localFile) : 0;
+
+        if (diff.months().isEmpty()) {
+            // Already identical, but the bases may predate it (the same edit made on both sides, or a first
+            // sync of identical copies): each base must become its ledger, or a later revert looks unchanged
+            refreshBase(localFile, local);
+            refreshBase(remoteFile, remote);
+            return new SyncReport(allMonths.size(), 0, 0, 0, diff.hashBytes(), fullCopyBytes, 0, 0, 0,
+                    System.nanoTime() - start);
+        }
+
+        // Everything that may have changed: rows in the differing months on either side, and rows whose
+        // base version was in one of them (deleted since, or moved to another month)
+        Set<String> ids = new HashSet<>();
+        collectIds(local, diff.months(), ids);
+        collectIds(remote, diff.months(), ids);
+        Map<String, Transaction> localBase = baseRows(localFile, diff.months(), ids);
+        Map<String, Transaction> remoteBase = baseRows(remoteFile, diff.months(), ids);
+        ids.addAll(localBase.keySet());
+        ids.addAll(remoteBase.keySet());
+        Map<String, Transaction> mine = select(local, ids);
+        Map<String, Transaction> theirs = select(remote, ids);
+        long bytes = diff.hashBytes()
+                + objectMapper.writeValueAsBytes(mine.values()).length
+                + objectMapper.writeValueAsBytes(theirs.values()).length;
+
+        Map<String, Transaction> merged = new HashMap<>();
+        int conflicts = 0;
+        for (String id : ids) {
+            Merged result = merge(mine.get(id), theirs.get(id), localBase.get(id), remoteBase.get(id));
+            merged.put(id, result.row());
+            if (result.conflict()) conflicts++;
+        }
+
+        int localChanges = countChanges(mine, merged);
+        int remoteChanges = countChanges(theirs, merged);
+        List<Transaction> localAfter = apply(local, merged);
+        List<Transaction> remoteAfter = apply(remote, merged);
+        if (localChanges > 0) {
+            persistenceService.saveTransactions(localAfter, localFile.toString());
+        }
+        if (remoteChanges > 0) {
+            persistenceService.saveTransactions(remoteAfter, remoteFile.toString());
+        }
+        // Each file now holds exactly its new base, so copying it is cheaper than writing the rows again
+        Files.copy(localFile, baseFileFor(localFile), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(remoteFile, baseFileFor(remoteFile), StandardCopyOption.REPLACE_EXISTING);
+
+        SyncReport report = new SyncReport(allMonths.size(), diff.months().size(), mine.size(), theirs.size(), bytes,
+                fullCopyBytes, localChanges, remoteChanges, conflicts, System.nanoTime() - start);
+        log.info("Synced {} with {}: {} of {} months differed, {} local and {} remote changes, {} conflicts, {} bytes exchanged.",
+                localFile, remoteFile, report.monthsExchanged(), report.months(), localChanges, remoteChanges,
+                conflicts, bytes);
+        return report;
+    }
+
+    // --- Merging ---
+
+    private record Merged(Transaction row, boolean conflict) {
+    }
+
+    /** Three-way merge of one transaction; a {@code null} row is absent on that side (or deleted). */
+    private static Merged merge(Transaction mine, Transaction theirs, Transaction mineBase, Transaction theirsBase) {
+        if (same(theirs, theirsBase)) {
+            return new Merged(mine, false);
+        }
+        if (same(mine, mineBase) || same(mine, theirs)) {
+            return new Merged(theirs, false);
+        }
+        if (mine == null || theirs == null) {
+            return new Merged(mine != null ? mine : theirs, true); // Edited on one side, deleted on the other
+        }
+        Transaction base = mineBase != null ? mineBase : theirsBase;
+        if (base == null) {
+            return new Merged(mine, true); // Added on both sides with the same ID
+        }
+        boolean[] conflict = {false};
+        Transaction row = Transaction.restore(mine.getId(),
+                pick(mine.getDate(), theirs.getDate(), base.getDate(), conflict),
+                pick(mine.getDescription(), theirs.getDescription(), base.getDescription(), conflict),
+                pick(mine.getAmount(), theirs.getAmount(), base.getAmount(), conflict),
+                pick(mine.getCategory(), theirs.getCategory(), base.getCategory(), conflict),
+                pick(mine.getSource(), theirs.getSource(), base.getSource(), conflict),
+                pick(mine.isAiSuggestedCategory(), theirs.isAiSuggestedCategory(), base.isAiSuggestedCategory(), conflict));
+        row.setTags(pick(mine.getTags(), theirs.getTags(), base.getTags(), conflict)); // The tag set as one field
+        return new Merged(row, conflict[0]);
+    }
+
+    private static <T> T pick(T mine, T theirs, T base, boolean[] conflict) {
+        if (Objects.equals(mine, base)) return theirs;
+        if (Objects.equals(theirs, base) || Objects.equals(mine, theirs)) return mine;
+        conflict[0] = true;
+        return mine;
+    }
+
+    private static boolean same(Transaction a, Transaction b) {
+        return a == null ? b == null : a.sameValues(b);
+    }
+
+    private static int countChanges(Map<String, Transaction> before, Map<String, Transaction> merged) {
+        int changes = 0;
+        for (Map.Entry<String, Transaction> entry : merged.entrySet()) {
+            if (!same(before.get(entry.getKey()), entry.getValue())) changes++;
+        }
+        return changes;
+    }
+
+    /** The ledger with the merged rows in place, deleted ones dropped and new ones appended. */
+    private static List<Transaction> apply(List<Transaction> rows, Map<String, Transaction> merged) {
+        List<Transaction> result = new ArrayList<>(rows.size());
+        Set<String> present = new HashSet<>();
+        for (Transaction row : rows) {
+            if (!merged.containsKey(row.getId())) {
+                result.add(row);
+            } else if (merged.get(row.getId()) != null) {
+                result.add(merged.get(row.getId()));
+                present.add(row.getId());
+            }
+        }
+        merged.forEach((id, row) -> {
+            if (row != null && !present.contains(id)) result.add(row);
+        });
+        return result;
+    }
+
+    // --- Files ---
+
+    private List<Transaction> load(Path file) throws IOException {
+        return persistenceService.loadTransactions(file.toString());
+    }
+
+    private Map<String, Transaction> baseRows(Path dataFile, Set<YearMonth> months, Set<String> ids) throws IOException {
+        Map<String, Transaction> rows = new HashMap<>();
+        for (Transaction row : load(baseFileFor(dataFile))) {
+            if (ids.contains(row.getId()) || months.contains(YearMonth.from(row.getDate()))) {
+                rows.put(row.getId(), row);
+            }
+        }
+        return rows;
+    }
+
+    private void refreshBase(Path dataFile, List<Transaction> rows) throws IOException {
+        Path base = baseFileFor(dataFile);
+        if (!Files.exists(dataFile)) {
+            if (!Files.exists(base)) {
+                persistenceService.saveTransactions(rows, base.toString());
+            }
+        } else if (!Files.exists(base) || Files.mismatch(dataFile, base) != -1) {
+            Files.copy(dataFile, base, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void collectIds(List<Transaction> rows, Set<YearMonth> months, Set<String> ids) {
+        for (Transaction row : rows) {
+            if (months.contains(YearMonth.from(row.getDate()))) ids.add(row.getId());
+        }
+    }
+
+    private static Map<String, Transaction> select(List<Transaction> rows, Set<String> ids) {
+        Map<String, Transaction> selected = new HashMap<>();
+        for (Transaction row : rows) {
+            if (ids.contains(row.getId())) selected.put(row.getId(), row);
+        }
+        return selected;
+    }
+}
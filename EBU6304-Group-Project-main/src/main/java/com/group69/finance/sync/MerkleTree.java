@@ -0,0 +1,173 @@
+package com.group69.finance.sync;
+
+import com.group69.finance.model.Transaction;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Hash tree over a ledger, for finding where two copies of it differ without sending either. The leaves
+ * are calendar months, each a SHA-256 over its rows' IDs and contents in ID order; above them is one
+ * node per year and then the root. Comparing two trees top-down costs one hash for identical ledgers
+ * and a few dozen when a handful of months differ.
+ */
+public final class MerkleTree {
+
+    /** Size of every node hash. */
+    public static final int HASH_BYTES = 32;
+    // A year or month key as it would be sent alongside its hash
+    private static final int KEY_BYTES = Integer.BYTES;
+
+    private final byte[] root;
+    private final NavigableMap<Integer, byte[]> years;
+    private final NavigableMap<YearMonth, byte[]> months;
+
+    private MerkleTree(byte[] root, NavigableMap<Integer, byte[]> years, NavigableMap<YearMonth, byte[]> months) {
+        this.root = root;
+        this.years = years;
+        this.months = months;
+    }
+
+    public static MerkleTree of(Collection<Transaction> rows) {
+        TreeMap<YearMonth, List<Transaction>> byMonth = new TreeMap<>();
+        for (Transaction row : rows) {
+            byMonth.computeIfAbsent(YearMonth.from(row.getDate()), m -> new ArrayList<>()).add(row);
+        }
+        MessageDigest digest = sha256();
+        TreeMap<YearMonth, byte[]> months = new TreeMap<>();
+        for (Map.Entry<YearMonth, List<Transaction>> month : byMonth.entrySet()) {
+            List<Transaction> monthRows = month.getValue();
+            monthRows.sort(Comparator.comparing(Transaction::getId));
+            for (Transaction row : monthRows) {
+                update(digest, row);
+            }
+            months.put(month.getKey(), digest.digest());
+        }
+        TreeMap<Integer, byte[]> years = new TreeMap<>();
+        int year = Integer.MIN_VALUE;
+        for (Map.Entry<YearMonth, byte[]> month : months.entrySet()) {
+            if (month.getKey().getYear() != year) {
+                if (year != Integer.MIN_VALUE) years.put(year, digest.digest());
+                year = month.getKey().getYear();
+            }
+            digest.update((byte) month.getKey().getMonthValue());
+            digest.update(month.getValue());
+        }
+        if (year != Integer.MIN_VALUE) years.put(year, digest.digest());
+        for (Map.Entry<Integer, byte[]> node : years.entrySet()) {
+            updateInt(digest, node.getKey());
+            digest.update(node.getValue());
+        }
+        return new MerkleTree(digest.digest(), years, months);
+    }
+
+    public byte[] root() {
+        return root.clone();
+    }
+
+    public Set<YearMonth> months() {
+        return months.keySet();
+    }
+
+    /**
+     * Months whose rows differ between this ledger and {@code other}, including months only one of them
+     * has, found the way two machines would: one sends its root; if the other's differs it answers with
+     * its year nodes, is asked for the months of the years that differ and answers with those.
+     */
+    public Diff diff(MerkleTree other) {
+        long bytes = HASH_BYTES;
+        SortedSet<YearMonth> differing = new TreeSet<>();
+        if (Arrays.equals(root, other.root)) {
+            return new Diff(differing, bytes);
+        }
+        bytes += (long) other.years.size() * (KEY_BYTES + HASH_BYTES);
+        Set<Integer> allYears = new TreeSet<>(years.keySet());
+        allYears.addAll(other.years.keySet());
+        for (int year : allYears) {
+            if (Arrays.equals(years.get(year), other.years.get(year))) {
+                continue;
+            }
+            bytes += KEY_BYTES;
+            NavigableMap<YearMonth, byte[]> mine = monthsOf(months, year);
+            NavigableMap<YearMonth, byte[]> theirs = monthsOf(other.months, year);
+            bytes += (long) theirs.size() * (KEY_BYTES + HASH_BYTES);
+            Set<YearMonth> yearMonths = new TreeSet<>(mine.keySet());
+            yearMonths.addAll(theirs.keySet());
+            for (YearMonth month : yearMonths) {
+                if (!Arrays.equals(mine.get(month), theirs.get(month))) {
+                    differing.add(month);
+                }
+            }
+        }
+        return new Diff(differing, bytes);
+    }
+
+    /**
+     * @param months    months whose rows differ
+     * @param hashBytes node hashes and keys sent to find them
+     */
+    public record Diff(SortedSet<YearMonth> months, long hashBytes) {
+    }
+
+    private static NavigableMap<YearMonth, byte[]> monthsOf(NavigableMap<YearMonth, byte[]> months, int year) {
+        return months.subMap(YearMonth.of(year, 1), true, YearMonth.of(year, 12), true);
+    }
+
+    private static void update(MessageDigest digest, Transaction row) {
+        updateString(digest, row.getId());
+        updateLong(digest, row.getDate().toEpochDay());
+        updateString(digest, row.getDescription());
+        updateLong(digest, Double.doubleToLongBits(row.getAmount()));
+        updateString(digest, row.getCategory() == null ? null : row.getCategory().name());
+        updateString(digest, row.getSource() == null ? null : row.getSource().name());
+        digest.update((byte) (row.isAiSuggestedCategory() ? 1 : 0));
+        updateInt(digest, row.getTags().size());
+        for (String tag : row.getTags()) {
+            updateString(digest, tag);
+        }
+    }
+
+    private static void updateString(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 1);
+            return;
+        }
+        digest.update((byte) 0);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        updateInt(digest, bytes.length); // Length prefix: ("ab", "c") and ("a", "bc") must not collide
+        digest.update(bytes);
+    }
+
+    private static void updateLong(MessageDigest digest, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            digest.update((byte) (value >>> shift));
+        }
+    }
+
+    private static void updateInt(MessageDigest digest, int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            digest.update((byte) (value >>> shift));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required of every JVM", e);
+        }
+    }
+}
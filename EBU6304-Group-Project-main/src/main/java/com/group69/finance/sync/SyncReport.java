@@ -0,0 +1,19 @@
+package com.group69.finance.sync;
+
+/**
+ * Outcome of one {@link LedgerSyncService#sync} run.
+ *
+ * @param months          months either ledger has
+ * @param monthsExchanged months whose rows differed and were sent both ways
+ * @param rowsSent        rows sent from the local ledger to the remote one
+ * @param rowsReceived    rows sent from the remote ledger to the local one
+ * @param bytesExchanged  tree hashes plus the JSON of the rows sent both ways
+ * @param fullCopyBytes   size of the local data file, i.e. what copying it over would send
+ * @param localChanges    rows added, changed or removed in the local ledger
+ * @param remoteChanges   rows added, changed or removed in the remote ledger
+ * @param conflicts       rows changed on both sides in ways that could not both be kept (the local side won)
+ * @param elapsedNanos    wall time of the whole sync, including reading and writing both ledgers
+ */
+public record SyncReport(int months, int monthsExchanged, int rowsSent, int rowsReceived, long bytesExchanged,
+                         long fullCopyBytes, int localChanges, int remoteChanges, int conflicts, long elapsedNanos) {
+}
@@ -0,0 +1,154 @@
+package com.group69.finance.analysis;
+
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The bitmap indexes of {@link ColumnarLedger} must follow every add, remove (which moves the last row
+ * into the hole) and replace: after a random mix of them, {@link ColumnarLedger#select} and
+ * {@link ColumnarLedger#sumByTag} must agree with filtering the rows one by one.
+ */
+class ColumnarLedgerTest {
+
+    private static final String[] TAGS = {"shared", "trip", "work", "gift", "kids"};
+    private static final String[] QUERIES = {"shared", "trip AND NOT work", "shared OR gift", "NOT kids",
+            "(trip OR work) AND shared", "unknown", "NOT unknown"};
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void indexesFollowAddsRemovesAndReplaces() {
+        SplittableRandom random = new SplittableRandom(69);
+        ColumnarLedger ledger = new ColumnarLedger();
+        List<Transaction> live = new ArrayList<>();
+
+        for (int round = 0; round < 6; round++) {
+            for (int step = 0; step < 3_000; step++) {
+                int op = random.nextInt(10);
+                if (op < 6 || live.isEmpty()) {
+                    Transaction row = randomRow(random);
+                    if (random.nextBoolean()) {
+                        ledger.add(row);
+                    } else {
+                        ledger.addAll(List.of(row));
+                    }
+                    live.add(row);
+                } else if (op < 8) {
+                    Transaction removed = live.remove(random.nextInt(live.size()));
+                    assertThat(ledger.remove(removed)).isTrue();
+                } else {
+                    int index = random.nextInt(live.size());
+                    Transaction edited = live.get(index).copy();
+                    edited.setTags(randomTags(random));
+                    edited.setCategory(Category.values()[random.nextInt(Category.values().length)]);
+                    assertThat(ledger.replace(live.get(index), edited)).isTrue();
+                    live.set(index, edited);
+                }
+            }
+            assertMatchesRowByRow(ledger, live, random);
+        }
+
+        assertThat(ledger.remove(randomRow(random))).as("row never added").isFalse();
+    }
+
+    @Test
+    void aTagDisappearsWithItsLastRow() {
+        ColumnarLedger ledger = new ColumnarLedger();
+        Transaction tagged = row(START, -5, Category.GROCERIES, Set.of("once"));
+        Transaction plain = row(START, -7, Category.GROCERIES, Set.of());
+        ledger.addAll(List.of(tagged, plain));
+        assertThat(ledger.sumByTag()).containsOnlyKeys("once");
+
+        Transaction untagged = tagged.copy();
+        untagged.setTags(Set.of());
+        ledger.replace(tagged, untagged);
+
+        assertThat(ledger.sumByTag()).isEmpty();
+        assertThat(ledger.select(1, TagQuery.parse("once"), ExportFilter.ALL).rows()).isEmpty();
+        assertThat(ledger.select(1, TagQuery.parse("NOT once"), ExportFilter.ALL).rows())
+                .containsExactlyInAnyOrder(untagged, plain);
+    }
+
+    private static void assertMatchesRowByRow(ColumnarLedger ledger, List<Transaction> live, SplittableRandom random) {
+        assertThat(ledger.size()).isEqualTo(live.size());
+        for (String text : QUERIES) {
+            TagQuery query = TagQuery.parse(text);
+            for (ExportFilter filter : filters(random)) {
+                List<Transaction> expected = live.stream()
+                        .filter(t -> query.matches(t.getTags()) && filter.matches(t)).toList();
+                RowSelection selection = ledger.select(7, query, filter);
+                assertThat(selection.version()).isEqualTo(7);
+                assertThat(new HashSet<>(selection.rows())).as("%s with %s", text, filter)
+                        .isEqualTo(new HashSet<>(expected));
+                assertThat(selection.rows()).hasSameSizeAs(expected);
+                long[] totals = totals(expected);
+                assertThat(new long[]{selection.incomeCents(), selection.incomeRows(), selection.expenseCents(),
+                        selection.expenseRows()}).as("totals of %s with %s", text, filter).isEqualTo(totals);
+            }
+        }
+
+        Map<String, long[]> expectedByTag = new HashMap<>();
+        for (String tag : TAGS) {
+            List<Transaction> tagged = live.stream().filter(t -> t.getTags().contains(tag)).toList();
+            if (!tagged.isEmpty()) expectedByTag.put(tag, totals(tagged));
+        }
+        Map<String, long[]> byTag = ledger.sumByTag();
+        assertThat(byTag.keySet()).isEqualTo(expectedByTag.keySet());
+        expectedByTag.forEach((tag, totals) -> assertThat(byTag.get(tag)).as("tag %s", tag).isEqualTo(totals));
+    }
+
+    private static List<ExportFilter> filters(SplittableRandom random) {
+        LocalDate from = START.plusDays(random.nextInt(200));
+        return List.of(
+                ExportFilter.ALL,
+                new ExportFilter(from, from.plusDays(random.nextInt(120)), Set.of(), Set.of()),
+                new ExportFilter(null, null, Set.of(Category.GROCERIES, Category.SALARY), Set.of()),
+                new ExportFilter(from, null, Set.of(), Set.of(Source.CASH)));
+    }
+
+    private static long[] totals(List<Transaction> rows) {
+        long[] totals = new long[4];
+        for (Transaction t : rows) {
+            int offset = t.getCategory().isIncome() ? 0 : 2;
+            totals[offset] += Math.round(t.getAmount() * 100);
+            totals[offset + 1]++;
+        }
+        return totals;
+    }
+
+    private static Transaction randomRow(SplittableRandom random) {
+        Category category = Category.values()[random.nextInt(Category.values().length)];
+        double amount = (category.isIncome() ? 1 : -1) * random.nextInt(1, 50_000) / 100.0;
+        Transaction row = new Transaction(START.plusDays(random.nextInt(400)), "Row", amount, category,
+                Source.values()[random.nextInt(Source.values().length)], false);
+        row.setTags(randomTags(random));
+        return row;
+    }
+
+    private static Set<String> randomTags(SplittableRandom random) {
+        Set<String> tags = new HashSet<>();
+        for (String tag : TAGS) {
+            if (random.nextInt(3) == 0) tags.add(tag);
+        }
+        return tags;
+    }
+
+    private static Transaction row(LocalDate date, double amount, Category category, Set<String> tags) {
+        Transaction row = new Transaction(date, "Row", amount, category, Source.CASH, false);
+        row.setTags(tags);
+        return row;
+    }
+}
@@ -0,0 +1,139 @@
+package com.group69.finance.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 1};
+
+    @Test
+    void staysWithinTheRelativeAccuracyOfTheExactQuantile() {
+        long[] values = spending(new SplittableRandom(69), 50_000);
+        QuantileSketch sketch = new QuantileSketch();
+        for (long value : values) {
+            sketch.add(value);
+        }
+
+        assertThat(sketch.count()).isEqualTo(values.length);
+        assertAccurate(sketch, values);
+    }
+
+    @Test
+    void removingValuesGivesTheSketchOfWhatIsLeft() {
+        SplittableRandom random = new SplittableRandom(69);
+        long[] kept = spending(random, 10_000);
+        long[] removed = spending(random, 10_000);
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < kept.length; i++) {
+            sketch.add(kept[i]);
+            sketch.add(removed[i]);
+        }
+        for (long value : removed) {
+            sketch.remove(value);
+        }
+
+        assertThat(sketch.count()).isEqualTo(kept.length);
+        assertAccurate(sketch, kept);
+    }
+
+    @Test
+    void mergingGivesTheSameSketchAsFeedingOne() {
+        SplittableRandom random = new SplittableRandom(69);
+        long[] small = spending(random, 5_000);
+        long[] large = new long[5_000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = 100_000 + random.nextLong(10_000_000); // Reaches buckets the small sketch lacks
+        }
+        QuantileSketch left = new QuantileSketch();
+        QuantileSketch right = new QuantileSketch();
+        QuantileSketch both = new QuantileSketch();
+        for (long value : small) {
+            left.add(value);
+            both.add(value);
+        }
+        for (long value : large) {
+            right.add(value);
+            both.add(value);
+        }
+        QuantileSketch copy = left.copy();
+        left.merge(right);
+
+        assertThat(left.count()).isEqualTo(both.count());
+        for (double q : QUANTILES) {
+            assertThat(left.quantile(q)).as("q=%s", q).isEqualTo(both.quantile(q));
+        }
+        assertThat(copy.count()).as("copy is independent").isEqualTo(small.length);
+    }
+
+    @Test
+    void countsZerosAndAnswersNaNWhenEmpty() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertThat(sketch.isEmpty()).isTrue();
+        assertThat(sketch.quantile(0.5)).isNaN();
+
+        sketch.add(0);
+        sketch.add(0);
+        sketch.add(500);
+        assertThat(sketch.quantile(0.5)).isZero();
+        assertThat(sketch.quantile(1)).isCloseTo(500, within(500 * QuantileSketch.RELATIVE_ACCURACY));
+
+        sketch.remove(0);
+        sketch.remove(0);
+        assertThat(sketch.quantile(0)).isCloseTo(500, within(500 * QuantileSketch.RELATIVE_ACCURACY));
+    }
+
+    @Test
+    void foldsTheLowestBucketsWhenValuesSpreadTooWide() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 100; i++) {
+            sketch.add(1);
+            sketch.add(1_000_000_000_000L);
+        }
+
+        assertThat(sketch.count()).isEqualTo(200);
+        // The top stays exact to the accuracy; only the folded bottom is coarse
+        assertThat(sketch.quantile(1)).isCloseTo(1e12, within(1e12 * QuantileSketch.RELATIVE_ACCURACY));
+        assertThat(sketch.quantile(0)).isLessThan(1e12 / 2);
+        sketch.remove(1); // Still found in the folded bucket
+        assertThat(sketch.count()).isEqualTo(199);
+    }
+
+    @Test
+    void rejectsBadInput() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(100);
+
+        assertThatThrownBy(() -> sketch.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sketch.remove(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sketch.remove(100_000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> sketch.quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(sketch.count()).isEqualTo(1);
+    }
+
+    private static void assertAccurate(QuantileSketch sketch, long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            long exact = sorted[(int) (q * (sorted.length - 1))];
+            assertThat(sketch.quantile(q)).as("q=%s", q)
+                    .isCloseTo(exact, within(exact * QuantileSketch.RELATIVE_ACCURACY + 1e-9));
+        }
+    }
+
+    /** Log-normal amounts in cents, like card spending: mostly small, a long tail of large ones. */
+    private static long[] spending(SplittableRandom random, int n) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++) {
+            double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+            values[i] = Math.max(1, Math.round(Math.exp(7 + 1.5 * gaussian)));
+        }
+        return values;
+    }
+}
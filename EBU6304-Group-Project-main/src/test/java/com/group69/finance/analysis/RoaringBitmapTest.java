@@ -0,0 +1,135 @@
+package com.group69.finance.analysis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoaringBitmapTest {
+
+    private static final int SPAN = 3 << 16; // Three chunks
+
+    @Test
+    void addsAndRemovesLikeABitSetAcrossContainerKinds() {
+        SplittableRandom random = new SplittableRandom(69);
+        RoaringBitmap bitmap = new RoaringBitmap();
+        BitSet expected = new BitSet();
+
+        // Fill the first chunk past ARRAY_MAX (array to bitmap), then thin it out again (bitmap to array)
+        for (int i = 0; i < RoaringBitmap.ARRAY_MAX + 1_000; i++) {
+            int value = random.nextInt(1 << 16);
+            bitmap.add(value);
+            expected.set(value);
+        }
+        assertSame(bitmap, expected);
+        for (int value = 0; value < (1 << 16); value += 2) {
+            bitmap.remove(value);
+            expected.clear(value);
+        }
+        assertSame(bitmap, expected);
+
+        for (int step = 0; step < 50_000; step++) {
+            int value = random.nextInt(SPAN);
+            if (random.nextInt(4) == 0) {
+                bitmap.remove(value);
+                expected.clear(value);
+            } else {
+                bitmap.add(value);
+                expected.set(value);
+            }
+        }
+        assertSame(bitmap, expected);
+    }
+
+    @Test
+    void removingTheLastValueOfAChunkDropsIt() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        bitmap.add(5);
+        bitmap.add(70_000);
+        bitmap.remove(5);
+        bitmap.remove(5); // Absent values are ignored
+        bitmap.remove(1 << 20);
+
+        assertThat(bitmap.cardinality()).isEqualTo(1);
+        assertThat(values(bitmap)).containsExactly(70_000);
+        bitmap.remove(70_000);
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void setOperationsMatchBitSets() {
+        SplittableRandom random = new SplittableRandom(69);
+        // Sparse against sparse, sparse against dense and dense against dense chunks
+        int[] densities = {50, 3_000, 20_000};
+        for (int densityA : densities) {
+            for (int densityB : densities) {
+                BitSet a = new BitSet();
+                BitSet b = new BitSet();
+                RoaringBitmap left = randomBitmap(random, densityA, a);
+                RoaringBitmap right = randomBitmap(random, densityB, b);
+
+                BitSet and = (BitSet) a.clone();
+                and.and(b);
+                BitSet or = (BitSet) a.clone();
+                or.or(b);
+                BitSet andNot = (BitSet) a.clone();
+                andNot.andNot(b);
+
+                assertSame(RoaringBitmap.and(left, right), and);
+                assertSame(RoaringBitmap.or(left, right), or);
+                assertSame(RoaringBitmap.andNot(left, right), andNot);
+                // Results share nothing with their inputs
+                RoaringBitmap union = RoaringBitmap.or(left, right);
+                union.add(SPAN + 1);
+                assertThat(left.contains(SPAN + 1)).isFalse();
+                assertSame(left, a);
+            }
+        }
+    }
+
+    @Test
+    void rangeHoldsEveryValueBelowItsEnd() {
+        for (int end : new int[]{0, 1, RoaringBitmap.ARRAY_MAX, RoaringBitmap.ARRAY_MAX + 1, 1 << 16, (1 << 16) + 1, 200_003}) {
+            BitSet expected = new BitSet();
+            expected.set(0, end);
+            RoaringBitmap range = RoaringBitmap.range(end);
+            assertSame(range, expected);
+            // A range is an ordinary bitmap afterwards
+            range.remove(0);
+            range.add(end + 10);
+            assertThat(range.cardinality()).isEqualTo(end == 0 ? 1 : end);
+        }
+    }
+
+    private static RoaringBitmap randomBitmap(SplittableRandom random, int perChunk, BitSet expected) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int chunk = 0; chunk < 3; chunk++) {
+            if (random.nextInt(4) == 0) continue; // Chunks present on one side only
+            for (int i = 0; i < perChunk; i++) {
+                int value = (chunk << 16) + random.nextInt(1 << 16);
+                bitmap.add(value);
+                expected.set(value);
+            }
+        }
+        return bitmap;
+    }
+
+    private static void assertSame(RoaringBitmap bitmap, BitSet expected) {
+        assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(bitmap.isEmpty()).isEqualTo(expected.isEmpty());
+        assertThat(values(bitmap)).isEqualTo(expected.stream().boxed().toList());
+        for (int probe = 0; probe < SPAN; probe += 997) {
+            assertThat(bitmap.contains(probe)).as("contains %d", probe).isEqualTo(expected.get(probe));
+        }
+    }
+
+    private static List<Integer> values(RoaringBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
@@ -0,0 +1,48 @@
+package com.group69.finance.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverForgetsAnAddedHash() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        SplittableRandom random = new SplittableRandom(69);
+        long[] hashes = new long[10_000];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = random.nextLong();
+            filter.add(hashes[i]);
+        }
+        for (long hash : hashes) {
+            assertThat(filter.mightContain(hash)).isTrue();
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRateAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        SplittableRandom random = new SplittableRandom(69);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(random.nextLong());
+        }
+        int falsePositives = 0;
+        int probes = 100_000;
+        SplittableRandom other = new SplittableRandom(70);
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(other.nextLong())) falsePositives++;
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void anEmptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_024, 0.01);
+        assertThat(filter.mightContain(0)).isFalse();
+        assertThat(filter.mightContain(42)).isFalse();
+        assertThat(filter.capacity()).isEqualTo(1_024);
+    }
+}
@@ -0,0 +1,137 @@
+package com.group69.finance.dedup;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import com.group69.finance.service.InMemoryPersistenceService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DuplicateIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 1);
+
+    @Test
+    void followsAddsEditsAndRemovals() {
+        Transaction coffee = row(DAY, "Coffee", -3.5);
+        FinanceDataRepository repository = repository(List.of(coffee, row(DAY, "Lunch", -12)));
+        DuplicateIndex index = new DuplicateIndex(repository);
+
+        assertThat(index.size()).isEqualTo(2);
+        // Case and whitespace do not make a row new
+        assertThat(index.count(Fingerprint.of(DAY, "  COFFEE ", -3.5, Source.CASH))).isEqualTo(1);
+        assertThat(index.count(Fingerprint.of(DAY, "Coffee", -3.51, Source.CASH))).isZero();
+
+        repository.addTransaction(row(DAY, "Coffee", -3.5));
+        assertThat(index.count(Fingerprint.of(coffee))).isEqualTo(2);
+
+        repository.modifyTransaction(coffee.getId(), stored -> {
+            Transaction copy = stored.copy();
+            copy.setDescription("Tea");
+            return copy;
+        });
+        assertThat(index.count(Fingerprint.of(DAY, "Coffee", -3.5, Source.CASH))).isEqualTo(1);
+        assertThat(index.count(Fingerprint.of(DAY, "Tea", -3.5, Source.CASH))).isEqualTo(1);
+
+        repository.removeTransactionById(coffee.getId());
+        assertThat(index.count(Fingerprint.of(DAY, "Tea", -3.5, Source.CASH))).isZero();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void matchesDuplicatesAsAMultiset() {
+        FinanceDataRepository repository = repository(List.of(row(DAY, "Coffee", -3.5), row(DAY, "Coffee", -3.5)));
+        DuplicateIndex index = new DuplicateIndex(repository);
+        Fingerprint coffee = Fingerprint.of(DAY, "Coffee", -3.5, Source.CASH);
+
+        DuplicateIndex.Session session = index.newSession();
+        // The ledger holds two coffees: a file with three has one new one
+        assertThat(session.isDuplicate(coffee)).isTrue();
+        assertThat(session.isDuplicate(coffee)).isTrue();
+        assertThat(session.isDuplicate(coffee)).isFalse();
+        assertThat(session.isDuplicate(Fingerprint.of(DAY, "Bus", -2, Source.CASH))).isFalse();
+        assertThat(session.duplicates()).isEqualTo(2);
+    }
+
+    @Test
+    void rowsTheImportAddedDoNotCountAsAlreadyInTheLedger() {
+        FinanceDataRepository repository = repository(List.of());
+        DuplicateIndex index = new DuplicateIndex(repository);
+        DuplicateIndex.Session session = index.newSession();
+        List<Transaction> batch = List.of(row(DAY, "Coffee", -3.5), row(DAY, "Coffee", -3.5));
+
+        repository.addTransactions(batch);
+        session.added(batch);
+
+        assertThat(session.isDuplicate(Fingerprint.of(batch.get(0)))).isFalse();
+        assertThat(index.newSession().isDuplicate(Fingerprint.of(batch.get(0)))).isTrue();
+    }
+
+    @Test
+    void randomAddsAndRemovalsMatchABruteForceCount() {
+        SplittableRandom random = new SplittableRandom(69);
+        FinanceDataRepository repository = repository(List.of());
+        DuplicateIndex index = new DuplicateIndex(repository);
+        List<Transaction> live = new ArrayList<>();
+
+        // Enough rows to grow the table and the Bloom filter, and enough removals to rebuild the filter
+        for (int step = 0; step < 20_000; step++) {
+            if (live.isEmpty() || random.nextInt(3) != 0) {
+                Transaction added = randomRow(random);
+                repository.addTransaction(added);
+                live.add(added);
+            } else {
+                Transaction removed = live.remove(random.nextInt(live.size()));
+                repository.removeTransactionById(removed.getId());
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(live.size());
+        for (int i = 0; i < 2_000; i++) {
+            Fingerprint probe = Fingerprint.of(randomRow(random));
+            long expected = live.stream().filter(t -> Fingerprint.of(t).equals(probe)).count();
+            assertThat(index.count(probe)).as("count of %s", probe).isEqualTo(expected);
+        }
+        for (Transaction row : live) {
+            assertThat(index.count(Fingerprint.of(row))).isPositive();
+        }
+    }
+
+    @Test
+    void rebuildsWhenTheLedgerIsReloaded() {
+        InMemoryPersistenceService store = new InMemoryPersistenceService(List.of(row(DAY, "Coffee", -3.5)));
+        FinanceDataRepository repository = new FinanceDataRepository(store, "unused.json");
+        repository.loadInitialData();
+        DuplicateIndex index = new DuplicateIndex(repository);
+
+        store.replaceStored(List.of(row(DAY, "Rent", -900), row(DAY, "Rent", -900)));
+        repository.loadInitialData();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.count(Fingerprint.of(DAY, "Coffee", -3.5, Source.CASH))).isZero();
+        assertThat(index.count(Fingerprint.of(DAY, "Rent", -900, Source.CASH))).isEqualTo(2);
+    }
+
+    private static FinanceDataRepository repository(List<Transaction> rows) {
+        FinanceDataRepository repository = new FinanceDataRepository(new InMemoryPersistenceService(rows), "unused.json");
+        repository.loadInitialData();
+        return repository;
+    }
+
+    private static Transaction row(LocalDate date, String description, double amount) {
+        return new Transaction(date, description, amount, Category.OTHER_EXPENSE, Source.CASH, false);
+    }
+
+    /** Drawn from a small space so that fingerprints repeat. */
+    private static Transaction randomRow(SplittableRandom random) {
+        return new Transaction(DAY.plusDays(random.nextInt(60)), "Shop " + random.nextInt(40), -random.nextInt(1, 8),
+                Category.SHOPPING, Source.values()[random.nextInt(2)], false);
+    }
+}
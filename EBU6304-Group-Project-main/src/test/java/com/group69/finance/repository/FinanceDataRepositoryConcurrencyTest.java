@@ -0,0 +1,264 @@
+package com.group69.finance.repository;
+
+import com.group69.finance.generator.SyntheticLedgerGenerator;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.PersistenceService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers {@link FinanceDataRepository} from several threads at once: an importer appends generated
+ * batches, an editor re-categorizes and deletes random rows by ID, and a saver keeps saving snapshots
+ * and merging the stored data back in. Afterwards every edit and deletion must be in the final ledger,
+ * and every saved snapshot must have had unique IDs, increasing versions and no rows changing under it.
+ * Runs for {@value #DEFAULT_SECONDS} seconds, or {@code -Dstress.seconds=N}.
+ */
+class FinanceDataRepositoryConcurrencyTest {
+
+    private static final int DEFAULT_SECONDS = 3;
+    private static final int INITIAL_ROWS = 20_000;
+    private static final int IMPORT_BATCH = 500;
+    private static final int IMPORT_ROUND_ROWS = 50_000;
+    private static final int MERGE_EVERY = 5; // Saves per merge
+    private static final Category[] EDIT_CATEGORIES = {Category.GROCERIES, Category.SHOPPING, Category.OTHER_EXPENSE,
+            Category.ENTERTAINMENT, Category.DINING_OUT};
+
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final AtomicReference<String> failure = new AtomicReference<>();
+
+    private final AtomicLong importedRows = new AtomicLong();
+    private final AtomicLong edits = new AtomicLong();
+    private final AtomicLong deletes = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+    private final AtomicLong merges = new AtomicLong();
+
+    // Written only by the edit thread
+    private final Map<String, Category> expectedCategory = new ConcurrentHashMap<>();
+    private final Set<String> deletedIds = ConcurrentHashMap.newKeySet();
+
+    @Test
+    @Timeout(value = 120, unit = TimeUnit.SECONDS)
+    void concurrentImportEditSaveAndMergeKeepEveryChange() throws Exception {
+        int seconds = Integer.getInteger("stress.seconds", DEFAULT_SECONDS);
+        List<Transaction> initial = new ArrayList<>(INITIAL_ROWS);
+        new SyntheticLedgerGenerator(69).generate(INITIAL_ROWS, initial::add);
+        SnapshotCheckingStore store = new SnapshotCheckingStore(initial);
+        FinanceDataRepository repository = new FinanceDataRepository(store, "unused.json");
+        repository.loadInitialData();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = List.of(
+                worker("importer", start, () -> importLoop(repository)),
+                worker("editor", start, () -> editLoop(repository)),
+                worker("saver", start, () -> saveLoop(repository)));
+        threads.forEach(Thread::start);
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failure.get()).isNull();
+        assertThat(importedRows.get()).isPositive();
+        assertThat(edits.get()).isPositive();
+        assertThat(saves.get()).isPositive();
+        assertThat(merges.get()).isPositive();
+
+        LedgerSnapshot last = repository.snapshot();
+        assertThat(last.size()).isEqualTo(INITIAL_ROWS + importedRows.get() - deletes.get());
+        Set<String> ids = new HashSet<>(last.size() * 2);
+        for (Transaction row : last) {
+            assertThat(ids.add(row.getId())).as("unique ID %s", row.getId()).isTrue();
+            assertThat(repository.getTransactionById(row.getId())).as("ID index of %s", row.getId()).containsSame(row);
+        }
+        for (String id : deletedIds) {
+            assertThat(repository.getTransactionById(id)).as("deleted row %s", id).isEmpty();
+        }
+        expectedCategory.forEach((id, category) -> assertThat(repository.getTransactionById(id))
+                .as("category of %s", id).map(Transaction::getCategory).contains(category));
+
+        // A final save stores exactly the final ledger
+        assertThat(repository.saveAllData()).isTrue();
+        assertThat(repository.isDirty()).isFalse();
+        assertThat(store.lastSavedVersion()).isEqualTo(last.version());
+        assertThat(ids(store.loadTransactions("unused.json"))).isEqualTo(ids);
+    }
+
+    private Thread worker(String name, CountDownLatch start, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+                body.run();
+            } catch (Throwable t) {
+                fail(name + " crashed: " + t);
+            }
+        }, "stress-" + name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void importLoop(FinanceDataRepository repository) {
+        // Batches the way a background CSV import commits them; each round's seed gives it fresh IDs
+        List<Transaction> batch = new ArrayList<>(IMPORT_BATCH);
+        try {
+            for (long seed = 1_000; ; seed++) {
+                new SyntheticLedgerGenerator(seed).generate(IMPORT_ROUND_ROWS, row -> {
+                    if (!running.get()) {
+                        throw new StopGenerating();
+                    }
+                    batch.add(row);
+                    if (batch.size() == IMPORT_BATCH) {
+                        repository.addTransactions(batch);
+                        importedRows.addAndGet(batch.size());
+                        batch.clear();
+                    }
+                });
+            }
+        } catch (StopGenerating stop) {
+            // Time is up; the partial batch is dropped
+        }
+    }
+
+    private void editLoop(FinanceDataRepository repository) {
+        SplittableRandom random = new SplittableRandom(31L);
+        while (running.get()) {
+            LedgerSnapshot snapshot = repository.snapshot();
+            if (snapshot.isEmpty()) continue;
+            String id = snapshot.get(random.nextInt(snapshot.size())).getId();
+            if (random.nextInt(50) == 0) {
+                if (repository.removeTransactionById(id)) {
+                    deletedIds.add(id);
+                    expectedCategory.remove(id);
+                    deletes.incrementAndGet();
+                } else if (!deletedIds.contains(id)) {
+                    fail("Delete of live row " + id + " reported missing");
+                }
+                continue;
+            }
+            Category target = EDIT_CATEGORIES[random.nextInt(EDIT_CATEGORIES.length)];
+            Optional<Transaction> edited = repository.modifyTransaction(id, stored -> {
+                Transaction copy = stored.copy();
+                copy.setCategory(target);
+                return copy;
+            });
+            if (edited.isPresent()) {
+                expectedCategory.put(id, target);
+                edits.incrementAndGet();
+            } else if (!deletedIds.contains(id)) {
+                fail("Edit of live row " + id + " reported missing");
+            }
+        }
+    }
+
+    private void saveLoop(FinanceDataRepository repository) {
+        while (running.get()) {
+            if (!repository.saveAllData()) {
+                fail("saveAllData reported failure");
+            }
+            if (saves.incrementAndGet() % MERGE_EVERY == 0) {
+                try {
+                    // Storage holds only what this repository saved, so a merge must change nothing
+                    LedgerMerge merge = repository.mergeStoredData();
+                    if (!merge.added().isEmpty() || !merge.updated().isEmpty() || !merge.removed().isEmpty()
+                            || merge.conflicts() != 0) {
+                        fail("Merge of our own save changed the ledger: " + merge.added().size() + " added, "
+                                + merge.updated().size() + " updated, " + merge.removed().size() + " removed, "
+                                + merge.conflicts() + " conflicts");
+                    }
+                    merges.incrementAndGet();
+                } catch (Exception e) {
+                    fail("mergeStoredData failed: " + e);
+                }
+            }
+        }
+    }
+
+    private void fail(String message) {
+        failure.compareAndSet(null, message);
+    }
+
+    private static Set<String> ids(List<Transaction> rows) {
+        Set<String> ids = new HashSet<>(rows.size() * 2);
+        rows.forEach(row -> ids.add(row.getId()));
+        return ids;
+    }
+
+    private static final class StopGenerating extends RuntimeException {
+        StopGenerating() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** Checks every saved snapshot (unique IDs, increasing versions, no torn rows) and loads the last one back. */
+    private final class SnapshotCheckingStore implements PersistenceService {
+        private List<Transaction> stored;
+        private long lastVersion = -1;
+
+        SnapshotCheckingStore(List<Transaction> initialRows) {
+            this.stored = initialRows;
+        }
+
+        @Override
+        public synchronized void saveTransactions(List<Transaction> transactions, String filePath) {
+            LedgerSnapshot snapshot = (LedgerSnapshot) transactions;
+            if (snapshot.version() < lastVersion) {
+                fail("Snapshot versions went backwards: " + snapshot.version() + " < " + lastVersion);
+            }
+            lastVersion = snapshot.version();
+            long before = checksum(snapshot);
+            Set<String> ids = new HashSet<>(snapshot.size() * 2);
+            for (Transaction t : snapshot) {
+                if (!ids.add(t.getId())) fail("Duplicate ID in snapshot " + snapshot.version() + ": " + t.getId());
+            }
+            if (checksum(snapshot) != before) {
+                fail("Snapshot " + snapshot.version() + " changed while being saved (torn rows)");
+            }
+            stored = snapshot;
+        }
+
+        @Override
+        public synchronized List<Transaction> loadTransactions(String filePath) {
+            // Copies, as a real load reads new objects
+            List<Transaction> loaded = new ArrayList<>(stored.size());
+            stored.forEach(row -> loaded.add(row.copy()));
+            return loaded;
+        }
+
+        @Override
+        public boolean hasStoredData(String filePath) {
+            return true;
+        }
+
+        synchronized long lastSavedVersion() {
+            return lastVersion;
+        }
+
+        private long checksum(List<Transaction> rows) {
+            long hash = rows.size();
+            for (Transaction t : rows) {
+                hash = hash * 31 + t.getId().hashCode();
+                hash = hash * 31 + t.getCategory().ordinal();
+                hash = hash * 31 + Double.hashCode(t.getAmount());
+            }
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.group69.finance.repository;
+
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.InMemoryPersistenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link FinanceDataRepository#mergeStoredData()}: storage is changed behind the repository's back, as a
+ * sync tool or a second instance would, and the merge must apply only what changed there while keeping
+ * unsaved local edits.
+ */
+class FinanceDataRepositoryMergeTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 1);
+
+    private InMemoryPersistenceService store;
+    private FinanceDataRepository repository;
+    private final List<LedgerChange> changes = new ArrayList<>();
+
+    @BeforeEach
+    void loadLedger() {
+        List<Transaction> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(Transaction.restore("id-" + i, DAY.plusDays(i), "Row " + i, -10 - i, Category.GROCERIES,
+                    Source.CASH, false));
+        }
+        store = new InMemoryPersistenceService(rows);
+        repository = new FinanceDataRepository(store, "unused.json");
+        repository.loadInitialData();
+        repository.addChangeListener(changes::add);
+    }
+
+    @Test
+    void appliesChangesMadeOnlyInStorage() throws IOException {
+        Transaction added = Transaction.restore("id-new", DAY, "New in storage", -7, Category.SHOPPING, Source.CASH, false);
+        editStorage(rows -> {
+            rows.removeIf(row -> row.getId().equals("id-1"));
+            rows.get(0).setDescription("Edited in storage");
+            rows.add(added);
+        });
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.added()).extracting(Transaction::getId).containsExactly("id-new");
+        assertThat(merge.updated()).extracting(Transaction::getId).containsExactly("id-0");
+        assertThat(merge.removed()).extracting(Transaction::getId).containsExactly("id-1");
+        assertThat(merge.conflicts()).isZero();
+        assertThat(description("id-0")).isEqualTo("Edited in storage");
+        assertThat(repository.getTransactionById("id-1")).isEmpty();
+        assertThat(repository.getTransactionById("id-new")).isPresent();
+        assertThat(repository.getSize()).isEqualTo(5);
+        // One change event per kind, not a reload
+        assertThat(changes).extracting(LedgerChange::kind).containsExactlyInAnyOrder(
+                LedgerChange.Kind.REMOVED, LedgerChange.Kind.UPDATED, LedgerChange.Kind.ADDED);
+        assertThat(repository.isDirty()).as("matches storage again").isFalse();
+        assertThat(repository.mergeStoredData().isEmpty()).as("second merge").isTrue();
+    }
+
+    @Test
+    void rowsReloadedUnchangedAreNotReportedAsUpdates() throws IOException {
+        editStorage(rows -> { }); // New objects, same values
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.isEmpty()).isTrue();
+        assertThat(merge.toVersion()).isEqualTo(merge.fromVersion());
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void keepsLocalEditsOfRowsStorageLeftAlone() throws IOException {
+        editLocally("id-2", "Edited here");
+        editStorage(rows -> rows.get(3).setDescription("Edited in storage"));
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.conflicts()).isZero();
+        assertThat(description("id-2")).isEqualTo("Edited here");
+        assertThat(description("id-3")).isEqualTo("Edited in storage");
+        assertThat(repository.isDirty()).as("local edit still unsaved").isTrue();
+    }
+
+    @Test
+    void aRowEditedOnBothSidesKeepsTheLocalVersionUntilSaved() throws IOException {
+        editLocally("id-2", "Edited here");
+        editStorage(rows -> rows.get(2).setDescription("Edited in storage"));
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.conflicts()).isEqualTo(1);
+        assertThat(merge.updated()).isEmpty();
+        assertThat(description("id-2")).isEqualTo("Edited here");
+        assertThat(repository.isDirty()).isTrue();
+
+        assertThat(repository.saveAllData()).isTrue();
+        assertThat(store.stored()).filteredOn(row -> row.getId().equals("id-2"))
+                .extracting(Transaction::getDescription).containsExactly("Edited here");
+    }
+
+    @Test
+    void theSameEditOnBothSidesIsNoConflict() throws IOException {
+        editLocally("id-2", "Same edit");
+        editStorage(rows -> rows.get(2).setDescription("Same edit"));
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.conflicts()).isZero();
+        assertThat(merge.updated()).isEmpty();
+        assertThat(description("id-2")).isEqualTo("Same edit");
+    }
+
+    @Test
+    void aLocalDeletionWinsOverAnEditInStorage() throws IOException {
+        assertThat(repository.removeTransactionById("id-2")).isTrue();
+        editStorage(rows -> rows.get(2).setDescription("Edited in storage"));
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.conflicts()).isEqualTo(1);
+        assertThat(repository.getTransactionById("id-2")).isEmpty();
+    }
+
+    @Test
+    void aLocalEditWinsOverADeletionInStorage() throws IOException {
+        editLocally("id-2", "Edited here");
+        editStorage(rows -> rows.removeIf(row -> row.getId().equals("id-2")));
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.conflicts()).isEqualTo(1);
+        assertThat(merge.removed()).isEmpty();
+        assertThat(description("id-2")).isEqualTo("Edited here");
+    }
+
+    @Test
+    void leavesUnsavedLocalAdditionsAlone() throws IOException {
+        Transaction local = new Transaction(DAY, "Added here", -3, Category.DINING_OUT, Source.CASH, false);
+        repository.addTransaction(local);
+        editStorage(rows -> rows.get(0).setAmount(-99));
+
+        LedgerMerge merge = repository.mergeStoredData();
+
+        assertThat(merge.conflicts()).isZero();
+        assertThat(repository.getTransactionById(local.getId())).containsSame(local);
+        assertThat(repository.getTransactionById("id-0")).map(Transaction::getAmount).contains(-99.0);
+        assertThat(repository.isDirty()).isTrue();
+    }
+
+    /** Rewrites storage with copies of what it holds, as another program loading and saving it would. */
+    private void editStorage(Consumer<List<Transaction>> edit) {
+        List<Transaction> rows = new ArrayList<>();
+        store.stored().forEach(row -> rows.add(row.copy()));
+        edit.accept(rows);
+        store.replaceStored(rows);
+    }
+
+    private void editLocally(String id, String description) {
+        assertThat(repository.modifyTransaction(id, stored -> {
+            Transaction copy = stored.copy();
+            copy.setDescription(description);
+            return copy;
+        })).isPresent();
+    }
+
+    private String description(String id) {
+        return repository.getTransactionById(id).orElseThrow().getDescription();
+    }
+}
@@ -0,0 +1,109 @@
+package com.group69.finance.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersistentVectorTest {
+
+    // Around the tail (32), the first trie level (32 + 32*32) and the second (32 + 32^3)
+    private static final int[] SIZES = {0, 1, 31, 32, 33, 64, 65, 1_056, 1_057, 1_100, 32_800, 32_801, 33_000};
+
+    @Test
+    void appendingAndBulkLoadingGiveTheSameList() {
+        for (int size : SIZES) {
+            List<Integer> expected = range(size);
+            PersistentVector<Integer> appended = PersistentVector.empty();
+            for (int i = 0; i < size; i++) {
+                appended = appended.plus(i);
+            }
+            PersistentVector<Integer> built = PersistentVector.copyOf(expected);
+
+            assertThat(appended).as("plus, size %d", size).hasSize(size).isEqualTo(expected);
+            assertThat(built).as("builder, size %d", size).hasSize(size).isEqualTo(expected);
+            List<Integer> forEach = new ArrayList<>(size);
+            built.forEach(forEach::add);
+            assertThat(forEach).as("forEach, size %d", size).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void appendingToABulkLoadedVectorCrossesTrieLevels() {
+        for (int size : SIZES) {
+            PersistentVector<Integer> vector = PersistentVector.copyOf(range(size));
+            List<Integer> expected = range(size + 1_100);
+            for (int i = size; i < size + 1_100; i++) {
+                vector = vector.plus(i);
+            }
+            assertThat(vector).as("copyOf(%d) then plus", size).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void updatesLeaveEarlierVersionsUnchanged() {
+        PersistentVector<Integer> original = PersistentVector.copyOf(range(2_000));
+        PersistentVector<Integer> inTrie = original.with(5, -5);
+        PersistentVector<Integer> inTail = inTrie.with(1_999, -1_999);
+        PersistentVector<Integer> removed = inTail.without(1_000);
+        PersistentVector<Integer> appended = original.plus(2_000);
+
+        assertThat(original).isEqualTo(range(2_000));
+        assertThat(inTrie.get(5)).isEqualTo(-5);
+        assertThat(inTrie.get(1_999)).isEqualTo(1_999);
+        assertThat(inTail.get(5)).isEqualTo(-5);
+        assertThat(inTail.get(1_999)).isEqualTo(-1_999);
+        assertThat(removed).hasSize(1_999);
+        assertThat(removed.get(999)).isEqualTo(999);
+        assertThat(removed.get(1_000)).isEqualTo(1_001);
+        assertThat(inTail).hasSize(2_000);
+        assertThat(appended).hasSize(2_001).isEqualTo(range(2_001));
+    }
+
+    @Test
+    void randomEditsMatchAnArrayList() {
+        SplittableRandom random = new SplittableRandom(69);
+        List<Integer> expected = new ArrayList<>();
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int step = 0; step < 20_000; step++) {
+            int op = random.nextInt(10);
+            if (op < 7 || expected.isEmpty()) {
+                expected.add(step);
+                vector = vector.plus(step);
+            } else if (op < 9) {
+                int index = random.nextInt(expected.size());
+                expected.set(index, -step);
+                vector = vector.with(index, -step);
+            } else {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                vector = vector.without(index);
+            }
+        }
+        assertThat(vector).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsIndexesOutsideTheVectorAndListMutators() {
+        PersistentVector<Integer> vector = PersistentVector.copyOf(range(40));
+
+        assertThatThrownBy(() -> vector.get(40)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> vector.get(-1)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> vector.with(40, 0)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> vector.without(40)).isInstanceOf(IndexOutOfBoundsException.class);
+        assertThatThrownBy(() -> vector.add(0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> PersistentVector.empty().get(0)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    private static List<Integer> range(int size) {
+        List<Integer> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
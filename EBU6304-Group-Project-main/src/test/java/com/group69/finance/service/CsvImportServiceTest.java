@@ -0,0 +1,146 @@
+package com.group69.finance.service;
+
+import com.group69.finance.classifier.CategoryClassifier;
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.dedup.DuplicateIndex;
+import com.group69.finance.export.ExportFilter;
+import com.group69.finance.export.ExportFormat;
+import com.group69.finance.export.ExportService;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.repository.FinanceDataRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvImportServiceTest {
+
+    private static final String HEADER = "date,description,amount,category,source\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void splitsPlainAndQuotedFields() {
+        List<String> fields = new ArrayList<>();
+
+        assertThat(CsvImportService.splitRecord("2024-01-01,Lunch,-5,DINING_OUT,CASH,", fields)).isTrue();
+        assertThat(fields).containsExactly("2024-01-01", "Lunch", "-5", "DINING_OUT", "CASH", "");
+
+        assertThat(CsvImportService.splitRecord("a,\"b, \"\"c\"\"\",d", fields)).isTrue();
+        assertThat(fields).containsExactly("a", "b, \"c\"", "d");
+
+        // A quote inside an unquoted field is data
+        assertThat(CsvImportService.splitRecord("a,27\" tv,d", fields)).isTrue();
+        assertThat(fields).containsExactly("a", "27\" tv", "d");
+
+        assertThat(CsvImportService.splitRecord("a,\"open", fields)).isFalse();
+        assertThat(CsvImportService.splitRecord("a,\"open\nclosed\",b", fields)).isTrue();
+        assertThat(fields).containsExactly("a", "open\nclosed", "b");
+    }
+
+    @Test
+    void readsQuotedFieldsAcrossLines() throws Exception {
+        Path file = write(HEADER
+                + "2024-01-01,\"Dinner, drinks\",-30,DINING_OUT,CASH\n"
+                + "2024-01-02,\"Two-line\nnote\",-1,SHOPPING,CASH,shared;x\n"
+                + "2024-01-03,bad,oops,SHOPPING,CASH\n");
+
+        CsvImportResult result = newService(newRepository()).importTransactionsFromCsv(file.toString());
+
+        assertThat(result.imported()).extracting(Transaction::getDescription).containsExactly("Dinner, drinks", "Two-line\nnote");
+        assertThat(result.imported().get(1).getTags()).containsExactly("shared", "x");
+        assertThat(result.errors()).containsExactly(new CsvImportError(5, "Invalid amount 'oops'"));
+    }
+
+    @Test
+    void rejectsOnlyTheLineOfAnUnclosedQuote() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER).append("2024-01-01,\"open,-1,SHOPPING,CASH\n");
+        for (int day = 2; day <= 28; day++) {
+            csv.append("2024-01-").append(day < 10 ? "0" : "").append(day).append(",Row ").append(day).append(",-1,SHOPPING,CASH\n");
+        }
+        Path file = write(csv.toString());
+
+        CsvImportResult result = newService(newRepository()).importTransactionsFromCsv(file.toString());
+
+        assertThat(result.imported()).hasSize(27);
+        assertThat(result.rejectedRows()).isEqualTo(1);
+        assertThat(result.errors()).extracting(CsvImportError::line).containsExactly(2L);
+    }
+
+    @Test
+    void rejectsAStrayQuoteThatPairsWithALaterOne() throws Exception {
+        Path file = write(HEADER
+                + "2024-01-01,\"open,-1,SHOPPING,CASH\n"
+                + "2024-01-02,Kept,-1,SHOPPING,CASH\n"
+                + "2024-01-03,\"Two\nlines\",-1,SHOPPING,CASH\n"
+                + "2024-01-04,Last,-1,SHOPPING,CASH\n");
+
+        CsvImportResult result = newService(newRepository()).importTransactionsFromCsv(file.toString());
+
+        assertThat(result.imported()).extracting(Transaction::getDescription).containsExactly("Kept", "Two\nlines", "Last");
+        assertThat(result.errors()).extracting(CsvImportError::line).containsExactly(2L);
+    }
+
+    @Test
+    void importsAnExportUnchanged() throws Exception {
+        List<Transaction> ledger = new ArrayList<>();
+        String[] descriptions = {"Plain", "Dinner, drinks", "27\" monitor", "\"Quoted\" start", "Two\nlines", "淘宝, 购物"};
+        for (int i = 0; i < descriptions.length; i++) {
+            Transaction row = new Transaction(LocalDate.of(2024, 3, 1 + i), descriptions[i], -12.5 - i, Category.SHOPPING,
+                    Source.values()[i % Source.values().length], false);
+            row.setTags(i % 2 == 0 ? Set.of("shared", "trip-2024-kyoto") : Set.of());
+            ledger.add(row);
+        }
+        FinanceDataRepository source = new FinanceDataRepository(new InMemoryPersistenceService(ledger), "unused.json");
+        source.loadInitialData();
+        Path file = directory.resolve("export.csv");
+        new ExportService(source, new JacksonConfig().objectMapper()).export(ExportFilter.ALL, ExportFormat.CSV, false, file);
+
+        FinanceDataRepository target = newRepository();
+        CsvImportResult result = newService(target).importTransactionsFromCsv(file.toString());
+
+        assertThat(result.rejectedRows()).isZero();
+        assertThat(describe(target.getAllTransactions())).isEqualTo(describe(ledger));
+    }
+
+    private Path write(String csv) throws Exception {
+        Path file = Files.createTempFile(directory, "import-", ".csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    private static FinanceDataRepository newRepository() {
+        FinanceDataRepository repository = new FinanceDataRepository(new InMemoryPersistenceService(List.of()), "unused.json");
+        repository.loadInitialData();
+        return repository;
+    }
+
+    private static CsvImportService newService(FinanceDataRepository repository) {
+        FinanceMetrics metrics = FinanceMetrics.standalone();
+        return new CsvImportService(repository, new CategorizationService(metrics, new CategoryClassifier((Path) null, 0.6)),
+                new DuplicateIndex(repository), metrics);
+    }
+
+    /** The columns the CSV layout carries, sorted; IDs are assigned anew on import. */
+    private static List<String> describe(List<Transaction> rows) {
+        List<String> described = new ArrayList<>();
+        for (Transaction t : rows) {
+            described.add(t.getDate() + "|" + t.getDescription() + "|" + Math.round(t.getAmount() * 100) + "|"
+                    + t.getCategory() + "|" + t.getSource() + "|" + t.getTags());
+        }
+        Collections.sort(described);
+        return described;
+    }
+}
@@ -0,0 +1,46 @@
+package com.group69.finance.service;
+
+import com.group69.finance.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** A store that keeps the last saved rows in memory, for tests that need a repository without a file. */
+public class InMemoryPersistenceService implements PersistenceService {
+
+    private List<Transaction> stored;
+    private int saves;
+
+    public InMemoryPersistenceService(List<Transaction> stored) {
+        this.stored = new ArrayList<>(stored);
+    }
+
+    @Override
+    public synchronized void saveTransactions(List<Transaction> transactions, String filePath) {
+        stored = new ArrayList<>(transactions);
+        saves++;
+    }
+
+    @Override
+    public synchronized List<Transaction> loadTransactions(String filePath) {
+        return new ArrayList<>(stored);
+    }
+
+    @Override
+    public boolean hasStoredData(String filePath) {
+        return true;
+    }
+
+    /** Replaces the stored rows, as another process writing the data file would. */
+    public synchronized void replaceStored(List<Transaction> transactions) {
+        stored = new ArrayList<>(transactions);
+    }
+
+    public synchronized List<Transaction> stored() {
+        return new ArrayList<>(stored);
+    }
+
+    public synchronized int saves() {
+        return saves;
+    }
+}
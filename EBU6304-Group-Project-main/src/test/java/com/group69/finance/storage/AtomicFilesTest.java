@@ -0,0 +1,79 @@
+package com.group69.finance.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AtomicFilesTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replacesTheContentAndLeavesNoTempFile() throws IOException {
+        Path target = directory.resolve("nested").resolve("ledger.json");
+
+        AtomicFiles.write(target, "first".getBytes(StandardCharsets.UTF_8));
+        long size = AtomicFiles.write(target, channel -> {
+            channel.write(ByteBuffer.wrap("second".getBytes(StandardCharsets.UTF_8)));
+            return channel.size();
+        });
+
+        assertThat(size).isEqualTo(6);
+        assertThat(Files.readString(target)).isEqualTo("second");
+        try (var files = Files.list(target.getParent())) {
+            assertThat(files).containsExactly(target);
+        }
+    }
+
+    @Test
+    void keepsThePermissionsOfTheReplacedFile() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path target = directory.resolve("shared.csv");
+        Files.writeString(target, "old");
+        Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-rw-r--"));
+
+        AtomicFiles.write(target, "new".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(Files.getPosixFilePermissions(target)).isEqualTo(PosixFilePermissions.fromString("rw-rw-r--"));
+    }
+
+    @Test
+    void createsNewFilesLikeAnyOtherNewFile() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path plain = Files.createFile(directory.resolve("plain"));
+        Path target = directory.resolve("fresh.json");
+
+        AtomicFiles.write(target, "{}".getBytes(StandardCharsets.UTF_8));
+
+        // Same umask as Files.createFile, not the owner-only 0600 of Files.createTempFile
+        assertThat(Files.getPosixFilePermissions(target)).isEqualTo(Files.getPosixFilePermissions(plain));
+    }
+
+    @Test
+    void aFailedWriteKeepsThePreviousFile() throws IOException {
+        Path target = directory.resolve("ledger.json");
+        Files.writeString(target, "previous");
+
+        assertThatThrownBy(() -> AtomicFiles.write(target, channel -> {
+            channel.write(ByteBuffer.wrap("half".getBytes(StandardCharsets.UTF_8)));
+            throw new IOException("disk full");
+        })).hasMessage("disk full");
+
+        assertThat(Files.readString(target)).isEqualTo("previous");
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(target);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.group69.finance.sync;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.group69.finance.config.JacksonConfig;
+import com.group69.finance.metrics.FinanceMetrics;
+import com.group69.finance.model.Category;
+import com.group69.finance.model.Source;
+import com.group69.finance.model.Transaction;
+import com.group69.finance.service.JsonPersistenceService;
+import com.group69.finance.storage.StorageCodecs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link LedgerSyncService} on two data files: after a first sync both sides are edited independently,
+ * and the next sync must merge them by the three-way rules and leave both ledgers and bases identical.
+ */
+class LedgerSyncServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private JsonPersistenceService persistence;
+    private LedgerSyncService sync;
+    private Path local;
+    private Path remote;
+
+    @BeforeEach
+    void syncTwoCopies() throws IOException {
+        ObjectMapper mapper = new JacksonConfig().objectMapper();
+        persistence = new JsonPersistenceService(mapper, FinanceMetrics.standalone(), StorageCodecs.of("none", 6));
+        sync = new LedgerSyncService(persistence, mapper);
+        local = directory.resolve("laptop.json");
+        remote = directory.resolve("desktop.json");
+
+        // Two rows in each of twelve months
+        List<Transaction> rows = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            for (int i = 0; i < 2; i++) {
+                rows.add(Transaction.restore("m" + month + "-" + i, LocalDate.of(2024, month, 10 + i),
+                        "Row " + month + "-" + i, -10 * month - i, Category.GROCERIES, Source.CASH, false));
+            }
+        }
+        persistence.saveTransactions(rows, local.toString());
+
+        SyncReport first = sync.sync(local, remote);
+
+        assertThat(first.remoteChanges()).isEqualTo(rows.size());
+        assertThat(first.conflicts()).isZero();
+        assertInSync();
+    }
+
+    @Test
+    void takesOverChangesMadeOnOneSideAndExchangesOnlyThoseMonths() throws IOException {
+        edit(local, "m3-0", row -> row.setAmount(-333));
+        edit(remote, "m7-1", row -> row.setCategory(Category.SHOPPING));
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.monthsExchanged()).isEqualTo(2);
+        assertThat(report.rowsSent()).isEqualTo(4);
+        assertThat(report.rowsReceived()).isEqualTo(4);
+        assertThat(report.localChanges()).isEqualTo(1);
+        assertThat(report.remoteChanges()).isEqualTo(1);
+        assertThat(report.conflicts()).isZero();
+        assertInSync();
+        assertThat(row(local, "m3-0").getAmount()).isEqualTo(-333);
+        assertThat(row(local, "m7-1").getCategory()).isEqualTo(Category.SHOPPING);
+    }
+
+    @Test
+    void mergesEditsOfDifferentFieldsOfTheSameRow() throws IOException {
+        edit(local, "m5-0", row -> row.setDescription("Described on the laptop"));
+        edit(remote, "m5-0", row -> row.setCategory(Category.DINING_OUT));
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.conflicts()).isZero();
+        assertInSync();
+        assertThat(row(remote, "m5-0").getDescription()).isEqualTo("Described on the laptop");
+        assertThat(row(remote, "m5-0").getCategory()).isEqualTo(Category.DINING_OUT);
+    }
+
+    @Test
+    void theLocalSideWinsWhenBothChangedTheSameField() throws IOException {
+        edit(local, "m5-0", row -> row.setAmount(-1));
+        edit(remote, "m5-0", row -> {
+            row.setAmount(-2);
+            row.setTags(Set.of("shared"));
+        });
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.conflicts()).isEqualTo(1);
+        assertInSync();
+        assertThat(row(remote, "m5-0").getAmount()).isEqualTo(-1);
+        assertThat(row(remote, "m5-0").getTags()).containsExactly("shared"); // The other field still merges
+    }
+
+    @Test
+    void theSameEditOnBothSidesIsNoConflict() throws IOException {
+        edit(local, "m5-0", row -> row.setAmount(-5));
+        edit(remote, "m5-0", row -> row.setAmount(-5));
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.conflicts()).isZero();
+        assertThat(report.localChanges()).isZero();
+        assertThat(report.remoteChanges()).isZero();
+        assertInSync();
+
+        // The bases took the edit too, so undoing it on one side is a change the other side takes over
+        edit(local, "m5-0", row -> row.setAmount(-50));
+        sync.sync(local, remote);
+        assertThat(row(remote, "m5-0").getAmount()).isEqualTo(-50);
+    }
+
+    @Test
+    void deletionsAndAdditionsOnEitherSideReachTheOther() throws IOException {
+        change(local, rows -> {
+            rows.removeIf(row -> row.getId().equals("m2-0"));
+            rows.add(Transaction.restore("laptop-new", LocalDate.of(2024, 2, 20), "Added on the laptop", -4,
+                    Category.SHOPPING, Source.CASH, false));
+        });
+        change(remote, rows -> {
+            rows.removeIf(row -> row.getId().equals("m9-1"));
+            rows.add(Transaction.restore("desktop-new", LocalDate.of(2025, 1, 5), "Added on the desktop", -6,
+                    Category.SHOPPING, Source.CASH, false));
+        });
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.conflicts()).isZero();
+        assertInSync();
+        Map<String, Transaction> rows = byId(local);
+        assertThat(rows).doesNotContainKeys("m2-0", "m9-1").containsKeys("laptop-new", "desktop-new");
+        assertThat(rows).hasSize(24);
+    }
+
+    @Test
+    void anEditWinsOverADeletionOnTheOtherSide() throws IOException {
+        edit(local, "m4-0", row -> row.setDescription("Kept"));
+        change(remote, rows -> rows.removeIf(row -> row.getId().equals("m4-0")));
+        change(local, rows -> rows.removeIf(row -> row.getId().equals("m6-1")));
+        edit(remote, "m6-1", row -> row.setDescription("Also kept"));
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.conflicts()).isEqualTo(2);
+        assertInSync();
+        assertThat(row(remote, "m4-0").getDescription()).isEqualTo("Kept");
+        assertThat(row(local, "m6-1").getDescription()).isEqualTo("Also kept");
+    }
+
+    @Test
+    void aRowMovedToAnotherMonthIsNotDuplicated() throws IOException {
+        edit(remote, "m1-0", row -> row.setDate(LocalDate.of(2024, 8, 1)));
+
+        SyncReport report = sync.sync(local, remote);
+
+        assertThat(report.conflicts()).isZero();
+        assertInSync();
+        assertThat(byId(local)).hasSize(24);
+        assertThat(row(local, "m1-0").getDate()).isEqualTo(LocalDate.of(2024, 8, 1));
+    }
+
+    @Test
+    void aSecondSyncFindsNothingToExchange() throws IOException {
+        edit(local, "m3-0", row -> row.setAmount(-333));
+        sync.sync(local, remote);
+
+        SyncReport again = sync.sync(local, remote);
+
+        assertThat(again.monthsExchanged()).isZero();
+        assertThat(again.localChanges() + again.remoteChanges() + again.conflicts()).isZero();
+    }
+
+    // --- Helpers ---
+
+    private void assertInSync() throws IOException {
+        Map<String, Transaction> localRows = byId(local);
+        assertSameRows(byId(remote), localRows, "remote ledger");
+        assertSameRows(byId(LedgerSyncService.baseFileFor(local)), localRows, "local base");
+        assertSameRows(byId(LedgerSyncService.baseFileFor(remote)), localRows, "remote base");
+    }
+
+    private static void assertSameRows(Map<String, Transaction> actual, Map<String, Transaction> expected, String what) {
+        assertThat(actual.keySet()).as(what).isEqualTo(expected.keySet());
+        expected.forEach((id, row) -> assertThat(actual.get(id).sameValues(row)).as("%s row %s", what, id).isTrue());
+    }
+
+    private Map<String, Transaction> byId(Path file) throws IOException {
+        Map<String, Transaction> rows = new TreeMap<>();
+        for (Transaction row : persistence.loadTransactions(file.toString())) {
+            assertThat(rows.put(row.getId(), row)).as("duplicate ID %s in %s", row.getId(), file).isNull();
+        }
+        return rows;
+    }
+
+    private Transaction row(Path file, String id) throws IOException {
+        return Optional.ofNullable(byId(file).get(id)).orElseThrow();
+    }
+
+    private void edit(Path file, String id, Consumer<Transaction> edit) throws IOException {
+        change(file, rows -> rows.stream().filter(row -> row.getId().equals(id)).findFirst().ifPresent(edit));
+    }
+
+    private void change(Path file, Consumer<List<Transaction>> change) throws IOException {
+        List<Transaction> rows = new ArrayList<>(persistence.loadTransactions(file.toString()));
+        change.accept(rows);
+        persistence.saveTransactions(rows, file.toString());
+    }
+}